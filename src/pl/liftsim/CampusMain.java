@@ -0,0 +1,151 @@
+package pl.liftsim;
+
+import pl.liftsim.model.BuildingConfig;
+import pl.liftsim.simulation.CampusResult;
+import pl.liftsim.simulation.CampusSimulation;
+import pl.liftsim.simulation.ReportWriter;
+import pl.liftsim.simulation.RunResult;
+import pl.liftsim.simulation.TrafficProfile;
+import pl.liftsim.simulation.Walkway;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Headless campus run: many buildings sharing one clock, joined by walkways.
+ * Every {@link BuildingConfig} and traffic option applies to all buildings;
+ * {@code --building.K.key=value} overrides it for building K (from 1), e.g.
+ * {@code --building.3.floors=40} or {@code --building.3.config=tower.properties}.
+ *
+ * <pre>
+ * --buildings=40                    number of buildings
+ * --walkways=ring|none              ring joins every lobby to the next building's
+ * --walkway.N=1,1,2,1[,walkSeconds] extra walkway: from building, floor, to building, floor
+ * --walkTime=180                    default walk in seconds
+ * --walkShare=0.3                   chance a passenger reaching a walkway floor walks on
+ * --barrier=30                      simulated seconds between shard barriers
+ * --duration=3600 --seed=1
+ * --threads=N                       shards run in parallel (default: all cores)
+ * --out=campus
+ * </pre>
+ *
+ * Writes campus.csv with one row per building and a final campus row.
+ */
+public class CampusMain {
+  private static final String BUILDING_PREFIX = "building.";
+  private static final String WALKWAY_PREFIX = "walkway.";
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    Properties options = BuildingConfig.parseArgs(args);
+    int buildings = Integer.parseInt(options.getProperty("buildings", "40"));
+    long duration = (long) (Double.parseDouble(options.getProperty("duration", "3600")) * 1000);
+    long seed = Long.parseLong(options.getProperty("seed", "1"));
+    long walkTime = (long) (Double.parseDouble(options.getProperty("walkTime", "180")) * 1000);
+    double walkShare = Double.parseDouble(options.getProperty("walkShare", "0.3"));
+    long barrier = (long) (Double.parseDouble(options.getProperty("barrier", "30")) * 1000);
+    int threads =
+        Integer.parseInt(
+            options.getProperty(
+                "threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+    Path outputDirectory = Path.of(options.getProperty("out", "campus"));
+    Files.createDirectories(outputDirectory);
+
+    List<BuildingConfig> configs = new ArrayList<>();
+    List<TrafficProfile> traffic = new ArrayList<>();
+    for (int building = 1; building <= buildings; building++) {
+      Properties buildingOptions = optionsFor(options, building);
+      BuildingConfig config = BuildingConfig.fromOptions(buildingOptions);
+      configs.add(config);
+      traffic.add(TrafficProfile.fromProperties(buildingOptions, config));
+    }
+
+    List<Walkway> walkways = new ArrayList<>();
+    String layout = options.getProperty("walkways", "ring");
+    if (layout.equals("ring") && buildings > 1) {
+      for (int building = 0; building < buildings; building++) {
+        walkways.add(new Walkway(building, 1, (building + 1) % buildings, 1, walkTime));
+      }
+    } else if (!layout.equals("ring") && !layout.equals("none")) {
+      throw new IllegalArgumentException("Unknown walkway layout: " + layout);
+    }
+    for (String key : options.stringPropertyNames()) {
+      if (key.startsWith(WALKWAY_PREFIX)) {
+        walkways.add(Walkway.parse(options.getProperty(key), walkTime));
+      }
+    }
+
+    System.out.println(
+        "Campus: "
+            + buildings
+            + " buildings, "
+            + walkways.size()
+            + " walkways, "
+            + duration / 1000
+            + "s, barrier every "
+            + barrier / 1000.0
+            + "s on "
+            + threads
+            + " thread(s)");
+    CampusSimulation campus =
+        new CampusSimulation(configs, traffic, walkways, walkShare, barrier, seed);
+    CampusResult result = campus.run(duration, threads);
+
+    Path file = outputDirectory.resolve("campus.csv");
+    try (PrintWriter out =
+        new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+      out.println("building," + ReportWriter.SUMMARY_HEADER + ",walked_out,walked_in");
+      for (int building = 0; building < buildings; building++) {
+        out.println(
+            (building + 1)
+                + ","
+                + ReportWriter.summaryRow(result.getBuildings().get(building))
+                + ","
+                + result.getWalkedOut(building)
+                + ","
+                + result.getWalkedIn(building));
+      }
+      out.println("campus," + ReportWriter.summaryRow(result.toRunResult()) + ",,");
+      if (out.checkError()) {
+        throw new IOException("Failed to write " + file);
+      }
+    }
+
+    RunResult total = result.toRunResult();
+    System.out.println(ReportWriter.SUMMARY_HEADER);
+    System.out.println(ReportWriter.summaryRow(total));
+    double seconds = result.getWallNanos() / 1e9;
+    System.out.println(
+        String.format(
+            Locale.ROOT,
+            "%d barriers, %d still walking, %.0f events/s, %.0fx real time",
+            result.getBarriers(),
+            result.getStillWalking(),
+            result.getEvents() / seconds,
+            duration / 1000.0 / seconds));
+    System.out.println("Report written to " + file.toAbsolutePath());
+  }
+
+  /** Campus-wide options with building {@code building}'s overrides applied */
+  private static Properties optionsFor(Properties options, int building) {
+    Properties result = new Properties();
+    String own = BUILDING_PREFIX + building + ".";
+    for (String key : options.stringPropertyNames()) {
+      if (!key.startsWith(BUILDING_PREFIX) && !key.startsWith(WALKWAY_PREFIX)) {
+        result.setProperty(key, options.getProperty(key));
+      }
+    }
+    for (String key : options.stringPropertyNames()) {
+      if (key.startsWith(own)) {
+        result.setProperty(key.substring(own.length()), options.getProperty(key));
+      }
+    }
+    return result;
+  }
+}
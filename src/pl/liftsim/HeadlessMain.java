@@ -0,0 +1,145 @@
+package pl.liftsim;
+
+import pl.liftsim.model.BuildingConfig;
+import pl.liftsim.simulation.HeadlessSimulation;
+import pl.liftsim.simulation.ReportWriter;
+import pl.liftsim.simulation.RunResult;
+import pl.liftsim.simulation.TrafficProfile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Command-line entry point that runs simulations without any AWT or Swing
+ * initialisation. Accepts every {@link BuildingConfig} key plus:
+ *
+ * <pre>
+ * --traffic=uniform|up-peak|down-peak|lunch  traffic pattern (default uniform)
+ * --rate=600                                 passengers per hour
+ * --duration=3600                            simulated seconds per run
+ * --seeds=1,2,3  or  --seed=1 --runs=3       seeds to run
+ * --threads=N                                parallel runs (default: all cores)
+ * --out=reports                              output directory
+ * --details=false                            skip per-passenger reports
+ * --checkpointEvery=600                      save a checkpoint every N simulated seconds
+ * --resume=a.bin,b.bin                       continue runs from checkpoints instead of seeds
+ * --sampleEvery=1                            sample queues and cars every N simulated seconds
+ * </pre>
+ *
+ * Writes summary.csv with one row per seed and passengers-&lt;seed&gt;.csv.
+ * Checkpoints go to the output directory as checkpoint-&lt;seed&gt;-&lt;ms&gt;.bin.
+ * Each one after the first stores only what changed since the one before, so
+ * keep a run's checkpoints together; a resumed run takes its building,
+ * traffic and seed from the checkpoint.
+ * Samples go to telemetry-&lt;seed&gt;/ (see {@link TelemetryMain}).
+ */
+public class HeadlessMain {
+  public static void main(String[] args) throws IOException, InterruptedException {
+    Properties options = BuildingConfig.parseArgs(args);
+    BuildingConfig config = BuildingConfig.fromArgs(args);
+    TrafficProfile traffic = TrafficProfile.fromProperties(options, config);
+    long duration = (long) (Double.parseDouble(options.getProperty("duration", "3600")) * 1000);
+    long[] seeds = parseSeeds(options);
+    boolean details = Boolean.parseBoolean(options.getProperty("details", "true"));
+    int threads =
+        Integer.parseInt(
+            options.getProperty(
+                "threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+    Path outputDirectory = Path.of(options.getProperty("out", "reports"));
+    Files.createDirectories(outputDirectory);
+    long checkpointInterval =
+        (long) (Double.parseDouble(options.getProperty("checkpointEvery", "0")) * 1000);
+    String resume = options.getProperty("resume");
+    long sampleInterval =
+        (long) (Double.parseDouble(options.getProperty("sampleEvery", "0")) * 1000);
+
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+    List<Future<RunResult>> futures = new ArrayList<>();
+    if (resume != null) {
+      System.out.println("Resuming from " + resume + " until " + duration / 1000 + "s");
+      for (String file : resume.split(",")) {
+        Path checkpoint = Path.of(file.trim());
+        futures.add(
+            executor.submit(
+                () ->
+                    HeadlessSimulation.resume(
+                        checkpoint,
+                        duration,
+                        checkpointInterval,
+                        outputDirectory,
+                        sampleInterval)));
+      }
+    } else {
+      System.out.println("Building: " + config);
+      System.out.println(
+          "Traffic: "
+              + traffic
+              + ", "
+              + duration / 1000
+              + "s per run, "
+              + seeds.length
+              + " seed(s)");
+      for (long seed : seeds) {
+        futures.add(
+            executor.submit(
+                () ->
+                    HeadlessSimulation.run(
+                        config,
+                        traffic,
+                        duration,
+                        seed,
+                        details,
+                        checkpointInterval,
+                        outputDirectory,
+                        sampleInterval)));
+      }
+    }
+
+    List<RunResult> results = new ArrayList<>();
+    try {
+      for (Future<RunResult> future : futures) {
+        RunResult result = future.get();
+        results.add(result);
+        if (details && !result.getMetrics().getPassengers().isEmpty()) {
+          ReportWriter.writeDetails(
+              outputDirectory.resolve("passengers-" + result.getSeed() + ".csv"), result);
+        }
+        System.out.println(ReportWriter.summaryRow(result));
+      }
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Simulation run failed", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    ReportWriter.writeSummary(outputDirectory.resolve("summary.csv"), results);
+    System.out.println("Reports written to " + outputDirectory.toAbsolutePath());
+  }
+
+  static long[] parseSeeds(Properties options) {
+    String list = options.getProperty("seeds");
+    if (list != null) {
+      String[] parts = list.split(",");
+      long[] seeds = new long[parts.length];
+      for (int i = 0; i < parts.length; i++) {
+        seeds[i] = Long.parseLong(parts[i].trim());
+      }
+      return seeds;
+    }
+    long first = Long.parseLong(options.getProperty("seed", "1"));
+    int runs = Integer.parseInt(options.getProperty("runs", "1"));
+    long[] seeds = new long[runs];
+    for (int i = 0; i < runs; i++) {
+      seeds[i] = first + i;
+    }
+    return seeds;
+  }
+}
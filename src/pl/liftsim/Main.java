@@ -1,21 +1,28 @@
 package pl.liftsim;
 
 import pl.liftsim.controller.ElevatorController;
+import pl.liftsim.model.BuildingConfig;
 import pl.liftsim.model.ElevatorModel;
 import pl.liftsim.view.ElevatorSimulatorView;
 
 import javax.swing.*;
+import java.io.IOException;
 
 public class Main {
-  public static void main(String[] args) {
-    ElevatorModel elevatorModel = new ElevatorModel();
-    SwingUtilities.invokeLater(
-        () -> {
-          ElevatorSimulatorView view = new ElevatorSimulatorView(elevatorModel);
-          // Initialize elevator at floor 1
-          view.getFloorViewPanel().updateElevatorPosition(1);
+  public static void main(String[] args) throws IOException {
+    // Fonts load in the background while the model is built
+    ElevatorSimulatorView.prepareResources();
+    // e.g. --floors=150 --cars=4 or --config=building.properties
+    BuildingConfig config = BuildingConfig.fromArgs(args);
+    ElevatorModel elevatorModel = new ElevatorModel(config);
+    SwingUtilities.invokeLater(() -> createAndShow(elevatorModel));
+  }
 
-          view.setVisible(true);
-        });
+  /** Builds the window and its controller and shows it; call on the EDT */
+  static ElevatorSimulatorView createAndShow(ElevatorModel elevatorModel) {
+    ElevatorSimulatorView view = new ElevatorSimulatorView(elevatorModel);
+    new ElevatorController(elevatorModel, view);
+    view.setVisible(true);
+    return view;
   }
 }
@@ -0,0 +1,91 @@
+package pl.liftsim;
+
+import pl.liftsim.model.BuildingConfig;
+import pl.liftsim.model.ElevatorModel;
+import pl.liftsim.simulation.ControlServer;
+import pl.liftsim.simulation.SimulationEngine;
+import pl.liftsim.simulation.SimulationMetrics;
+import pl.liftsim.simulation.TrafficProfile;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.util.Properties;
+
+/**
+ * Runs a headless simulation that external test harnesses drive through a
+ * {@link ControlServer}. Accepts every {@link BuildingConfig} key plus:
+ *
+ * <pre>
+ * --port=7070                 listen on localhost TCP (0 picks a free port)
+ * --socket=/tmp/liftsim.sock  listen on a Unix-domain socket instead
+ * --speed=1                   simulated seconds per wall second; 0 runs flat out
+ * --duration=0                stop after N simulated seconds (0 runs until killed)
+ * --rate=600 --traffic=...    also generate traffic (default: only what clients send)
+ * --buffer=1024               undelivered lines kept per client
+ * --seed=1
+ * </pre>
+ */
+public class ServerMain {
+  private static final long FRAME_MILLIS = 20;
+  private static final long FLAT_OUT_SLICE = 1_000; // Simulated ms between polls at speed 0
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    Properties options = BuildingConfig.parseArgs(args);
+    BuildingConfig config = BuildingConfig.fromOptions(options);
+    double speed = Double.parseDouble(options.getProperty("speed", "1"));
+    long duration = (long) (Double.parseDouble(options.getProperty("duration", "0")) * 1000);
+    int buffer = Integer.parseInt(options.getProperty("buffer", "1024"));
+    long seed = Long.parseLong(options.getProperty("seed", "1"));
+
+    SimulationEngine engine =
+        new SimulationEngine(new ElevatorModel(config), seed, new SimulationMetrics(false));
+    if (options.containsKey("rate")) {
+      engine.setTrafficProfile(TrafficProfile.fromProperties(options, config));
+    } else {
+      // Passengers spawned by clients press the call button themselves
+      engine.setAutoCall(true);
+    }
+
+    SocketAddress address =
+        options.containsKey("socket")
+            ? UnixDomainSocketAddress.of(options.getProperty("socket"))
+            : new InetSocketAddress(
+                InetAddress.getLoopbackAddress(),
+                Integer.parseInt(options.getProperty("port", "7070")));
+    try (ControlServer server = new ControlServer(engine, address, buffer)) {
+      server.start();
+      engine.start();
+      System.out.println("Building: " + config);
+      System.out.println("Listening on " + server.getAddress() + " at speed " + speed);
+
+      long startTime = engine.getTime();
+      long startNanos = System.nanoTime();
+      while (duration <= 0 || engine.getTime() < duration) {
+        server.applyCommands();
+        long target =
+            speed <= 0
+                ? engine.getTime() + FLAT_OUT_SLICE
+                : startTime + (long) ((System.nanoTime() - startNanos) / 1e6 * speed);
+        engine.runUntil(duration > 0 ? Math.min(target, duration) : target);
+        server.publish();
+        if (speed > 0) {
+          Thread.sleep(FRAME_MILLIS);
+        }
+      }
+      server.applyCommands();
+      server.publish();
+      engine.stop();
+      System.out.println(
+          "Finished at "
+              + engine.getTime() / 1000
+              + "s: "
+              + engine.getMetrics().getDelivered()
+              + " of "
+              + engine.getMetrics().getSpawned()
+              + " passengers delivered");
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package pl.liftsim;
+
+import pl.liftsim.model.BuildingConfig;
+import pl.liftsim.model.ElevatorModel;
+import pl.liftsim.view.ElevatorSimulatorView;
+
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import javax.swing.JRootPane;
+import javax.swing.SwingUtilities;
+
+/**
+ * Startup benchmark for the GUI. Every run is a fresh JVM that starts the
+ * simulator the way {@link Main} does and reports, in milliseconds since
+ * {@code main} was entered, when the window opened and when its first
+ * complete paint finished:
+ *
+ * <pre>
+ * --sizes=10,100,1000,5000   floor counts to measure
+ * --runs=5                   JVMs per size; the median is reported
+ * --cars=4                   and any other BuildingConfig key
+ * </pre>
+ *
+ * Needs a display; the target is a visible window within 300 ms at every
+ * size.
+ */
+public class StartupMain {
+  private static final String CHILD = "--startupChild";
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length > 0 && args[0].equals(CHILD)) {
+      measure(Arrays.copyOfRange(args, 1, args.length));
+      return;
+    }
+    Properties options = BuildingConfig.parseArgs(args);
+    String[] sizes = options.getProperty("sizes", "10,100,1000,5000").split(",");
+    int runs = Integer.parseInt(options.getProperty("runs", "5"));
+    List<String> passOn = new ArrayList<>();
+    for (String arg : args) {
+      if (!arg.startsWith("--sizes=") && !arg.startsWith("--runs=")) {
+        passOn.add(arg);
+      }
+    }
+
+    System.out.println("floors,visible_ms,painted_ms,jvm_to_visible_ms");
+    for (String size : sizes) {
+      long[][] samples = new long[3][runs];
+      for (int run = 0; run < runs; run++) {
+        long[] result = runChild(size.trim(), passOn);
+        for (int i = 0; i < 3; i++) {
+          samples[i][run] = result[i];
+        }
+      }
+      System.out.println(
+          size.trim()
+              + ","
+              + median(samples[0])
+              + ","
+              + median(samples[1])
+              + ","
+              + median(samples[2]));
+    }
+  }
+
+  private static long[] runChild(String floors, List<String> passOn)
+      throws IOException, InterruptedException {
+    List<String> command = new ArrayList<>();
+    command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(StartupMain.class.getName());
+    command.add(CHILD);
+    command.addAll(passOn);
+    command.add("--floors=" + floors);
+    Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+    String result = null;
+    StringBuilder output = new StringBuilder();
+    try (BufferedReader reader =
+        new BufferedReader(
+            new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        output.append(line).append('\n');
+        if (line.startsWith("startup ")) {
+          result = line;
+        }
+      }
+    }
+    process.waitFor();
+    if (result == null) {
+      throw new IllegalStateException("Startup run for " + floors + " floors failed:\n" + output);
+    }
+    String[] parts = result.split(" ");
+    return new long[] {
+      Long.parseLong(parts[1]), Long.parseLong(parts[2]), Long.parseLong(parts[3])
+    };
+  }
+
+  /** Child side: start like Main, print the timings and exit */
+  private static void measure(String[] args) throws IOException {
+    long entered = System.nanoTime();
+    long jvmStartToMain =
+        System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    ElevatorSimulatorView.prepareResources();
+    BuildingConfig config = BuildingConfig.fromArgs(args);
+    ElevatorModel elevatorModel = new ElevatorModel(config);
+    SwingUtilities.invokeLater(
+        () -> {
+          ElevatorSimulatorView view = Main.createAndShow(elevatorModel);
+          view.addWindowListener(
+              new WindowAdapter() {
+                @Override
+                public void windowOpened(WindowEvent e) {
+                  long visible = (System.nanoTime() - entered) / 1_000_000;
+                  // Paint the whole window synchronously once the pending layout has run
+                  SwingUtilities.invokeLater(
+                      () -> {
+                        JRootPane root = view.getRootPane();
+                        root.paintImmediately(0, 0, root.getWidth(), root.getHeight());
+                        long painted = (System.nanoTime() - entered) / 1_000_000;
+                        System.out.println(
+                            "startup " + visible + " " + painted + " " + (jvmStartToMain + visible));
+                        System.exit(0);
+                      });
+                }
+              });
+        });
+  }
+
+  private static long median(long[] values) {
+    long[] sorted = values.clone();
+    Arrays.sort(sorted);
+    return sorted[sorted.length / 2];
+  }
+}
@@ -0,0 +1,117 @@
+package pl.liftsim;
+
+import pl.liftsim.model.BuildingConfig;
+import pl.liftsim.simulation.InvariantChecker;
+import pl.liftsim.simulation.StressCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless stress and fuzz runner. Every seed draws a random building and a
+ * random stream of passengers, hall calls and car calls, plays it at full
+ * speed and checks the engine's invariants after every event (see {@link
+ * InvariantChecker}). A failing seed is shrunk to a small case that breaks
+ * the same invariant and written out for replaying:
+ *
+ * <pre>
+ * --seeds=1,2,3  or  --seed=1 --runs=1000   cases to play
+ * --actions=20000                           outside actions per case
+ * --starvation=3600                         longest acceptable journey, in seconds
+ * --threads=N                               parallel cases (default: all cores)
+ * --shrink=false --budget=2000              skip shrinking / replays per shrink
+ * --out=stress                              where failing cases are written
+ * --replay=stress/case-17.txt               replay one case with a running commentary
+ * </pre>
+ */
+public class StressMain {
+  public static void main(String[] args) throws IOException, InterruptedException {
+    Properties options = BuildingConfig.parseArgs(args);
+    long starvationBound =
+        (long) (Double.parseDouble(options.getProperty("starvation", "3600")) * 1000);
+
+    String replay = options.getProperty("replay");
+    if (replay != null) {
+      StressCase stressCase = StressCase.read(Path.of(replay));
+      StressCase.Result result = stressCase.run(starvationBound, true);
+      System.out.println(
+          result.getViolation() == null
+              ? "Case passed after " + result.getEvents() + " events"
+              : "Case failed: " + result.getViolation().getMessage());
+      return;
+    }
+
+    long[] seeds = HeadlessMain.parseSeeds(options);
+    int actions = Integer.parseInt(options.getProperty("actions", "20000"));
+    boolean shrink = Boolean.parseBoolean(options.getProperty("shrink", "true"));
+    int budget = Integer.parseInt(options.getProperty("budget", "2000"));
+    int threads =
+        Integer.parseInt(
+            options.getProperty(
+                "threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+    Path outputDirectory = Path.of(options.getProperty("out", "stress"));
+
+    System.out.println(
+        "Stress: "
+            + seeds.length
+            + " case(s) of "
+            + actions
+            + " actions, starvation bound "
+            + starvationBound / 1000
+            + "s");
+    long started = System.nanoTime();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+    List<Future<StressCase.Result>> futures = new ArrayList<>();
+    for (long seed : seeds) {
+      futures.add(
+          executor.submit(() -> StressCase.generate(seed, actions).run(starvationBound, false)));
+    }
+
+    long events = 0;
+    List<Integer> failed = new ArrayList<>();
+    List<InvariantChecker.Violation> violations = new ArrayList<>();
+    try {
+      for (int i = 0; i < seeds.length; i++) {
+        StressCase.Result result = futures.get(i).get();
+        events += result.getEvents();
+        if (result.getViolation() != null) {
+          failed.add(i);
+          violations.add(result.getViolation());
+        }
+      }
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Stress case failed to run", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    double seconds = (System.nanoTime() - started) / 1e9;
+    System.out.printf(
+        "%d case(s), %d failed, %d events checked in %.1fs (%.0f events/s)%n",
+        seeds.length, failed.size(), events, seconds, events / seconds);
+
+    for (int i = 0; i < failed.size(); i++) {
+      long seed = seeds[failed.get(i)];
+      InvariantChecker.Violation violation = violations.get(i);
+      System.out.println("Seed " + seed + " failed: " + violation.getMessage());
+      if (violation.getCause() != null) {
+        violation.getCause().printStackTrace(System.out);
+      }
+      // Without a budget shrinking only drops the actions after the failure
+      StressCase failing =
+          StressCase.generate(seed, actions)
+              .shrink(violation, starvationBound, shrink ? budget : 0);
+      Files.createDirectories(outputDirectory);
+      Path file = outputDirectory.resolve("case-" + seed + ".txt");
+      failing.write(file, violation.getKind() + ": " + violation.getMessage());
+      System.out.println("  " + failing.getActions().size() + " action(s), written to " + file);
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package pl.liftsim;
+
+import pl.liftsim.model.BuildingConfig;
+import pl.liftsim.simulation.FleetOptimizer;
+import pl.liftsim.simulation.SweepCandidate;
+import pl.liftsim.simulation.TrafficProfile;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Headless fleet-sizing sweep. Grid dimensions are comma-separated lists:
+ *
+ * <pre>
+ * --cars=1,2,3,4 --capacity=5,8,12 --floorToFloorTime=1500,3000 --dwell=1000,2000
+ * --sla=60                      required p95 wait in seconds
+ * --traffic=up-peak --rate=900  traffic profile, as for HeadlessMain
+ * --duration=3600               simulated seconds per replication
+ * --seeds=2 --maxSeeds=16       replications in the first round / in total
+ * --carCost=100000 --seatCost=2000 --speedCost=60000 --dwellCost=10000
+ * --threads=N --out=sweep
+ * </pre>
+ *
+ * The cost of a configuration is, per car, carCost + seatCost * capacity +
+ * speedCost * floors per second + dwellCost * transfers per second. Writes
+ * sweep.csv with every candidate and pareto.csv with the frontier of all
+ * evaluated candidates, eliminated ones included.
+ */
+public class SweepMain {
+  private static final String[] GRID_KEYS = {"cars", "capacity", "floorToFloorTime", "dwell"};
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    Properties options = BuildingConfig.parseArgs(args);
+    Properties grid = new Properties();
+    for (String key : GRID_KEYS) {
+      String value = (String) options.remove(key);
+      if (value != null) {
+        grid.setProperty(key, value);
+      }
+    }
+    BuildingConfig base = BuildingConfig.fromOptions(options);
+    TrafficProfile traffic = TrafficProfile.fromProperties(options, base);
+
+    int[] cars = parseList(grid, "cars", base.getCars());
+    int[] capacities = parseList(grid, "capacity", base.getCarCapacity());
+    int[] floorTimes = parseList(grid, "floorToFloorTime", base.getFloorToFloorTime());
+    int[] dwells = parseList(grid, "dwell", base.getPassengerEntryTime());
+
+    double carCost = Double.parseDouble(options.getProperty("carCost", "100000"));
+    double seatCost = Double.parseDouble(options.getProperty("seatCost", "2000"));
+    double speedCost = Double.parseDouble(options.getProperty("speedCost", "60000"));
+    double dwellCost = Double.parseDouble(options.getProperty("dwellCost", "10000"));
+
+    FleetOptimizer optimizer =
+        new FleetOptimizer(
+            traffic.getPattern(),
+            traffic.getPassengersPerHour(),
+            (long) (Double.parseDouble(options.getProperty("duration", "3600")) * 1000),
+            Double.parseDouble(options.getProperty("sla", "60")),
+            Integer.parseInt(
+                options.getProperty(
+                    "threads", String.valueOf(Runtime.getRuntime().availableProcessors()))));
+    optimizer.setSeedBudget(
+        Integer.parseInt(options.getProperty("seeds", "2")),
+        Integer.parseInt(options.getProperty("maxSeeds", "16")));
+    optimizer.setFirstSeed(Long.parseLong(options.getProperty("seed", "1")));
+
+    for (int carCount : cars) {
+      for (int capacity : capacities) {
+        for (int floorTime : floorTimes) {
+          for (int dwell : dwells) {
+            Properties point = new Properties();
+            point.setProperty("cars", String.valueOf(carCount));
+            point.setProperty("capacity", String.valueOf(capacity));
+            point.setProperty("floorToFloorTime", String.valueOf(floorTime));
+            point.setProperty("passengerEntryTime", String.valueOf(dwell));
+            point.setProperty("passengerExitTime", String.valueOf(dwell));
+            double perCar =
+                carCost
+                    + seatCost * capacity
+                    + speedCost * 1000.0 / floorTime
+                    + dwellCost * 1000.0 / Math.max(1, dwell);
+            optimizer.addCandidate(base.with(point), carCount * perCar);
+          }
+        }
+      }
+    }
+
+    System.out.println(
+        "Sweeping " + optimizer.getCandidates().size() + " configurations, traffic " + traffic);
+    List<SweepCandidate> frontier = optimizer.run();
+
+    Path outputDirectory = Path.of(options.getProperty("out", "sweep"));
+    Files.createDirectories(outputDirectory);
+    write(outputDirectory.resolve("sweep.csv"), optimizer.getCandidates());
+    write(outputDirectory.resolve("pareto.csv"), frontier);
+
+    System.out.println("Pareto frontier (eliminated candidates show their round and reason):");
+    for (SweepCandidate candidate : frontier) {
+      System.out.println("  " + row(candidate));
+    }
+    SweepCandidate best = optimizer.cheapestMeetingSla();
+    System.out.println(
+        best == null ? "No configuration meets the SLA" : "Cheapest meeting SLA: " + row(best));
+  }
+
+  private static int[] parseList(Properties grid, String key, int defaultValue) {
+    String value = grid.getProperty(key);
+    if (value == null) {
+      return new int[] {defaultValue};
+    }
+    String[] parts = value.split(",");
+    int[] values = new int[parts.length];
+    for (int i = 0; i < parts.length; i++) {
+      values[i] = Integer.parseInt(parts[i].trim());
+    }
+    return values;
+  }
+
+  private static void write(Path file, List<SweepCandidate> candidates) throws IOException {
+    try (PrintWriter out =
+        new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+      out.println(
+          "cars,capacity,floor_to_floor_ms,dwell_ms,cost,replications,mean_p95_wait_s,"
+              + "p95_stderr_s,mean_wait_s,eliminated_round,reason");
+      for (SweepCandidate candidate : candidates) {
+        out.println(row(candidate));
+      }
+      if (out.checkError()) {
+        throw new IOException("Failed to write " + file);
+      }
+    }
+  }
+
+  private static String row(SweepCandidate candidate) {
+    BuildingConfig config = candidate.getConfig();
+    return String.format(
+        Locale.ROOT,
+        "%d,%d,%d,%d,%.0f,%d,%.2f,%.2f,%.2f,%d,%s",
+        config.getCars(),
+        config.getCarCapacity(),
+        config.getFloorToFloorTime(),
+        config.getPassengerEntryTime(),
+        candidate.getCost(),
+        candidate.getReplications(),
+        candidate.getMeanP95Wait(),
+        candidate.getP95StandardError(),
+        candidate.getMeanWait(),
+        candidate.getEliminatedInRound(),
+        candidate.getEliminationReason());
+  }
+}
@@ -0,0 +1,110 @@
+package pl.liftsim;
+
+import pl.liftsim.model.BuildingConfig;
+import pl.liftsim.simulation.TelemetryStore;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Reads the telemetry a headless run wrote with {@code --sampleEvery}:
+ *
+ * <pre>
+ * --store=reports/telemetry-1   store directory (required)
+ * --floor=12                    print time,waiting for one floor as CSV
+ * --car=1                       print time,floor,load,direction for one car as CSV
+ * --from=0 --to=3600            simulated seconds to print (default: everything)
+ * </pre>
+ *
+ * Without --floor or --car, prints the store's size and the floors with the
+ * longest queues.
+ */
+public class TelemetryMain {
+  private static final int BUSIEST_FLOORS = 10;
+
+  public static void main(String[] args) throws IOException {
+    Properties options = BuildingConfig.parseArgs(args);
+    String store = options.getProperty("store");
+    if (store == null) {
+      System.err.println(
+          "Usage: TelemetryMain --store=DIR [--floor=N | --car=N] [--from=S --to=S]");
+      System.exit(2);
+    }
+    TelemetryStore telemetry = TelemetryStore.open(Path.of(store));
+    long from = (long) (Double.parseDouble(options.getProperty("from", "0")) * 1000);
+    long to =
+        options.containsKey("to")
+            ? (long) (Double.parseDouble(options.getProperty("to")) * 1000)
+            : Long.MAX_VALUE / 2;
+
+    if (options.containsKey("floor")) {
+      int floor = Integer.parseInt(options.getProperty("floor"));
+      TelemetryStore.Range waiting = telemetry.queueLengths(floor, from, to);
+      StringBuilder csv = new StringBuilder("time_s,waiting\n");
+      for (int i = 0; i < waiting.size(); i++) {
+        csv.append(waiting.getTime(i) / 1000.0).append(',').append(waiting.get(i)).append('\n');
+      }
+      System.out.print(csv);
+    } else if (options.containsKey("car")) {
+      int car = Integer.parseInt(options.getProperty("car")) - 1;
+      TelemetryStore.Range floors = telemetry.carFloors(car, from, to);
+      TelemetryStore.Range loads = telemetry.carLoads(car, from, to);
+      TelemetryStore.Range directions = telemetry.carDirections(car, from, to);
+      StringBuilder csv = new StringBuilder("time_s,floor,load,direction\n");
+      for (int i = 0; i < floors.size(); i++) {
+        csv.append(floors.getTime(i) / 1000.0)
+            .append(',')
+            .append(floors.get(i))
+            .append(',')
+            .append(loads.get(i))
+            .append(',')
+            .append(directions.get(i))
+            .append('\n');
+      }
+      System.out.print(csv);
+    } else {
+      printOverview(telemetry, from, to);
+    }
+  }
+
+  private static void printOverview(TelemetryStore telemetry, long from, long to) {
+    System.out.printf(
+        "%d floors, %d cars, %d samples every %.1fs from %.0fs, %.1f MB stored%n",
+        telemetry.getFloorCount(),
+        telemetry.getCarCount(),
+        telemetry.getSampleCount(),
+        telemetry.getInterval() / 1000.0,
+        telemetry.getStartTime() / 1000.0,
+        telemetry.getStoredBytes() / 1e6);
+
+    long started = System.nanoTime();
+    int[] peaks = new int[telemetry.getFloorCount() + 1];
+    long[] peakTimes = new long[peaks.length];
+    for (int floor = 1; floor < peaks.length; floor++) {
+      TelemetryStore.Range waiting = telemetry.queueLengths(floor, from, to);
+      for (int i = 0; i < waiting.size(); i++) {
+        if (waiting.get(i) > peaks[floor]) {
+          peaks[floor] = waiting.get(i);
+          peakTimes[floor] = waiting.getTime(i);
+        }
+      }
+    }
+    System.out.printf(
+        "Scanned every floor in %.1f ms; longest queues:%n", (System.nanoTime() - started) / 1e6);
+
+    boolean[] shown = new boolean[peaks.length];
+    for (int rank = 0; rank < Math.min(BUSIEST_FLOORS, peaks.length - 1); rank++) {
+      int busiest = 0;
+      for (int floor = 1; floor < peaks.length; floor++) {
+        if (!shown[floor] && (busiest == 0 || peaks[floor] > peaks[busiest])) {
+          busiest = floor;
+        }
+      }
+      shown[busiest] = true;
+      System.out.printf(
+          "  floor %d: %d waiting at %.0fs%n",
+          busiest, peaks[busiest], peakTimes[busiest] / 1000.0);
+    }
+  }
+}
@@ -0,0 +1,341 @@
+package pl.liftsim;
+
+import pl.liftsim.model.BuildingConfig;
+import pl.liftsim.model.ElevatorModel;
+import pl.liftsim.view.FloorViewPanel;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Font;
+import java.awt.Insets;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Properties;
+import java.util.Set;
+
+import javax.swing.BorderFactory;
+import javax.swing.JComponent;
+import javax.swing.JScrollPane;
+import javax.swing.RepaintManager;
+import javax.swing.Scrollable;
+import javax.swing.SwingUtilities;
+import javax.swing.border.BevelBorder;
+import javax.swing.border.Border;
+import javax.swing.border.CompoundBorder;
+import javax.swing.border.EmptyBorder;
+import javax.swing.border.LineBorder;
+import javax.swing.border.MatteBorder;
+import javax.swing.border.TitledBorder;
+import javax.swing.plaf.UIResource;
+
+/**
+ * Headless benchmark for building floor rows, which runs without a display:
+ *
+ * <pre>
+ * --sizes=100,500,1000   floors to build at once, every row shown
+ * --scroll=5000          floors to scroll through from top to bottom
+ * --moving=1,4,16        cars moved per frame, in a 20-floor, 16-car view
+ * --frames=500           frames per moving count
+ * --cars=4               and any other BuildingConfig key
+ * </pre>
+ *
+ * The build and scroll passes run twice. The "shared" variant is the view as
+ * it is. The "per-floor" variant gives every row its own Font and Border
+ * instances as it appears, the way rows were built before ViewResources;
+ * it sets each of them on top of the shared one, so its times are slightly
+ * pessimistic. For each size the build pass reports the time to create
+ * every row, the heap the view retains and how many distinct Font and Border
+ * instances they hold. The scroll pass creates and drops rows the way a
+ * user paging through a tall building does and reports the time and bytes
+ * allocated per row. The moving pass moves cars one floor per frame with
+ * every row shown and reports the time and the area marked for repainting
+ * per frame.
+ */
+public class ViewBenchMain {
+  private static final int VIEW_WIDTH = 800;
+  private static final int VIEW_HEIGHT = 600;
+  private static final int MOVING_FLOORS = 20;
+  private static final int MOVING_CARS = 16;
+  private static final String[] VARIANTS = {"per-floor", "shared"};
+  // The used heap counts as settled after this many full collections in a row move it less than
+  // the tolerance, but never before the minimum number of collections has run
+  private static final int SETTLE_MIN_GCS = 5;
+  private static final int SETTLE_MAX_GCS = 40;
+  private static final int SETTLE_STABLE = 3;
+  private static final long SETTLE_TOLERANCE = 64 * 1024;
+
+  public static void main(String[] args)
+      throws IOException, InterruptedException, InvocationTargetException {
+    Properties options = BuildingConfig.parseArgs(args);
+    String[] sizes = options.getProperty("sizes", "100,500,1000").split(",");
+    int scrollFloors = Integer.parseInt(options.getProperty("scroll", "5000"));
+    String[] moving = options.getProperty("moving", "1,4,16").split(",");
+    int frames = Integer.parseInt(options.getProperty("frames", "500"));
+
+    // Load the Swing classes and look and feel, and run both variants once, before timing
+    ElevatorModel warmup = model(args, 20);
+    for (String variant : VARIANTS) {
+      SwingUtilities.invokeAndWait(() -> layOut(createView(warmup, variant), VIEW_HEIGHT));
+    }
+
+    System.out.println("variant,floors,build_ms,retained_kb,kb_per_floor,fonts,borders");
+    for (String size : sizes) {
+      int floors = Integer.parseInt(size.trim());
+      ElevatorModel model = model(args, floors);
+      for (String variant : VARIANTS) {
+        FloorViewPanel[] view = new FloorViewPanel[1];
+        long[] nanos = new long[1];
+        SwingUtilities.invokeAndWait(
+            () -> {
+              long started = System.nanoTime();
+              view[0] = createView(model, variant);
+              layOut(view[0], floors * FloorViewPanel.ROW_HEIGHT);
+              nanos[0] = System.nanoTime() - started;
+            });
+        Set<Font> fonts = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Border> borders = Collections.newSetFromMap(new IdentityHashMap<>());
+        collect(view[0], fonts, borders);
+        int fontCount = fonts.size();
+        int borderCount = borders.size();
+        fonts = null; // The sets would keep the per-floor instances alive
+        borders = null;
+        // What the view retains is what the heap loses once the view is gone
+        long withView = settledHeap();
+        WeakReference<FloorViewPanel> dropped = new WeakReference<>(view[0]);
+        view[0] = null;
+        awaitCollected(dropped);
+        long retained = withView - settledHeap();
+        System.out.printf(
+            "%s,%d,%.1f,%d,%.1f,%d,%d%n",
+            variant,
+            floors,
+            nanos[0] / 1e6,
+            retained >> 10,
+            (retained >> 10) / (double) floors,
+            fontCount,
+            borderCount);
+      }
+    }
+
+    if (scrollFloors > 0) {
+      ElevatorModel model = model(args, scrollFloors);
+      for (String variant : VARIANTS) {
+        SwingUtilities.invokeAndWait(() -> scroll(model, scrollFloors, variant));
+      }
+    }
+
+    if (frames > 0) {
+      String[] withCars = Arrays.copyOf(args, args.length + 1);
+      withCars[args.length] = "--cars=" + MOVING_CARS;
+      ElevatorModel model = model(withCars, MOVING_FLOORS);
+      System.out.println("moving_cars,us_per_frame,dirty_px_per_frame");
+      for (String count : moving) {
+        int cars = Math.min(MOVING_CARS, Integer.parseInt(count.trim()));
+        SwingUtilities.invokeAndWait(() -> move(model, cars, frames));
+      }
+    }
+  }
+
+  private static ElevatorModel model(String[] args, int floors) throws IOException {
+    String[] withFloors = new String[args.length + 1];
+    System.arraycopy(args, 0, withFloors, 0, args.length);
+    withFloors[args.length] = "--floors=" + floors;
+    return new ElevatorModel(BuildingConfig.fromArgs(withFloors));
+  }
+
+  /** The view, giving each row its own fonts and borders in the per-floor variant */
+  private static FloorViewPanel createView(ElevatorModel model, String variant) {
+    FloorViewPanel view = new FloorViewPanel(model);
+    if (variant.equals("per-floor")) {
+      view.setFloorShownListener(floor -> unshare(rowOf(view.getPassengerArea(floor))));
+    }
+    return view;
+  }
+
+  /** The whole row a component belongs to: the child of the scrollable floors container */
+  private static Component rowOf(Component component) {
+    while (!(component.getParent() instanceof Scrollable)) {
+      component = component.getParent();
+    }
+    return component;
+  }
+
+  /** Replaces every font and border the view set, but not the look and feel's, with a copy */
+  private static void unshare(Component component) {
+    if (component instanceof JComponent) {
+      JComponent swing = (JComponent) component;
+      Font font = swing.getFont();
+      if (font != null && !(font instanceof UIResource)) {
+        swing.setFont(new Font(font.getName(), font.getStyle(), font.getSize()));
+      }
+      swing.setBorder(copy(swing.getBorder()));
+    }
+    if (component instanceof Container) {
+      for (Component child : ((Container) component).getComponents()) {
+        unshare(child);
+      }
+    }
+  }
+
+  private static Border copy(Border border) {
+    if (border == null || border instanceof UIResource) {
+      return border;
+    } else if (border instanceof CompoundBorder) {
+      CompoundBorder compound = (CompoundBorder) border;
+      return BorderFactory.createCompoundBorder(
+          copy(compound.getOutsideBorder()), copy(compound.getInsideBorder()));
+    } else if (border instanceof TitledBorder) {
+      return BorderFactory.createTitledBorder(((TitledBorder) border).getTitle());
+    } else if (border instanceof MatteBorder) {
+      MatteBorder matte = (MatteBorder) border;
+      Insets insets = matte.getBorderInsets();
+      return BorderFactory.createMatteBorder(
+          insets.top, insets.left, insets.bottom, insets.right, matte.getMatteColor());
+    } else if (border instanceof EmptyBorder) {
+      Insets insets = ((EmptyBorder) border).getBorderInsets();
+      return BorderFactory.createEmptyBorder(insets.top, insets.left, insets.bottom, insets.right);
+    } else if (border instanceof LineBorder) {
+      LineBorder line = (LineBorder) border;
+      return BorderFactory.createLineBorder(line.getLineColor(), line.getThickness());
+    } else if (border instanceof BevelBorder) {
+      return BorderFactory.createRaisedBevelBorder(); // BorderFactory shares this one itself
+    }
+    return border;
+  }
+
+  /** Lays the panel out at the given viewport height without a window */
+  private static void layOut(FloorViewPanel view, int height) {
+    view.setSize(VIEW_WIDTH, height);
+    view.doLayout();
+    JScrollPane scrollPane = (JScrollPane) view.getComponent(0);
+    scrollPane.doLayout();
+    scrollPane.getViewport().doLayout();
+  }
+
+  /** Without a window validate() does nothing, so lay out every container */
+  private static void layOutTree(Container container) {
+    container.doLayout();
+    for (Component child : container.getComponents()) {
+      if (child instanceof Container) {
+        layOutTree((Container) child);
+      }
+    }
+  }
+
+  private static void scroll(ElevatorModel model, int floors, String variant) {
+    FloorViewPanel view = createView(model, variant);
+    layOut(view, VIEW_HEIGHT);
+    view.scrollToFloor(floors);
+    int rowsPerPage = VIEW_HEIGHT / FloorViewPanel.ROW_HEIGHT;
+    long allocatedBefore = allocatedBytes();
+    long started = System.nanoTime();
+    for (int floor = floors; floor >= 1; floor -= rowsPerPage) {
+      view.scrollToFloor(floor);
+    }
+    long nanos = System.nanoTime() - started;
+    long allocated = allocatedBytes() - allocatedBefore;
+    System.out.printf(
+        "%s scroll %d floors: %.1f ms, %.1f us and %.1f KB allocated per floor%n",
+        variant,
+        floors,
+        nanos / 1e6,
+        nanos / 1e3 / floors,
+        allocated / 1024.0 / floors);
+  }
+
+  private static void move(ElevatorModel model, int moving, int frames) {
+    FloorViewPanel view = new FloorViewPanel(model);
+    layOut(view, MOVING_FLOORS * FloorViewPanel.ROW_HEIGHT);
+    layOutTree(view);
+    RepaintManager previous = RepaintManager.currentManager(view);
+    DirtyAreaCounter counter = new DirtyAreaCounter();
+    RepaintManager.setCurrentManager(counter);
+    try {
+      long nanos = 0;
+      for (int frame = 0; frame < frames; frame++) {
+        // Up and down the building, every moving car one floor per frame
+        int step = frame % (2 * MOVING_FLOORS - 2);
+        int floor = 1 + (step < MOVING_FLOORS ? step : 2 * MOVING_FLOORS - 2 - step);
+        long started = System.nanoTime();
+        for (int car = 0; car < moving; car++) {
+          view.updateElevatorPosition(car, floor);
+        }
+        nanos += System.nanoTime() - started;
+      }
+      System.out.printf("%d,%.1f,%d%n", moving, nanos / 1e3 / frames, counter.area / frames);
+    } finally {
+      RepaintManager.setCurrentManager(previous);
+    }
+  }
+
+  /** Adds up the area components ask to repaint instead of painting it */
+  private static final class DirtyAreaCounter extends RepaintManager {
+    long area;
+
+    @Override
+    public void addDirtyRegion(JComponent c, int x, int y, int w, int h) {
+      area += (long) Math.max(0, w) * Math.max(0, h);
+    }
+  }
+
+  private static void collect(Component component, Set<Font> fonts, Set<Border> borders) {
+    fonts.add(component.getFont());
+    if (component instanceof JComponent) {
+      collectBorder(((JComponent) component).getBorder(), borders);
+    }
+    if (component instanceof Container) {
+      for (Component child : ((Container) component).getComponents()) {
+        collect(child, fonts, borders);
+      }
+    }
+  }
+
+  private static void collectBorder(Border border, Set<Border> borders) {
+    if (border != null && borders.add(border) && border instanceof CompoundBorder) {
+      collectBorder(((CompoundBorder) border).getOutsideBorder(), borders);
+      collectBorder(((CompoundBorder) border).getInsideBorder(), borders);
+    }
+  }
+
+  /**
+   * Used heap once garbage collection has nothing left to free: collects
+   * until two readings in a row agree to within 64 KB, so a sample is not
+   * taken while the collector is still releasing an earlier run's objects.
+   */
+  private static long settledHeap() throws InterruptedException {
+    Runtime runtime = Runtime.getRuntime();
+    long previous = Long.MAX_VALUE;
+    int stable = 0;
+    for (int i = 0; i < SETTLE_MAX_GCS && (i < SETTLE_MIN_GCS || stable < SETTLE_STABLE); i++) {
+      System.gc();
+      Thread.sleep(20);
+      long used = runtime.totalMemory() - runtime.freeMemory();
+      stable = Math.abs(previous - used) < SETTLE_TOLERANCE ? stable + 1 : 0;
+      previous = used;
+    }
+    return previous;
+  }
+
+  /** Swing lets go of a dropped view only after it has run its pending work */
+  private static void awaitCollected(WeakReference<?> reference)
+      throws InterruptedException, InvocationTargetException {
+    while (reference.get() != null) {
+      SwingUtilities.invokeAndWait(() -> {});
+      System.gc();
+      Thread.sleep(20);
+    }
+  }
+
+  private static long allocatedBytes() {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    return threads instanceof com.sun.management.ThreadMXBean
+        ? ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes()
+        : 0;
+  }
+}
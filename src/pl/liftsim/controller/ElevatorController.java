@@ -1,45 +1,84 @@
 package pl.liftsim.controller;
 
 import pl.liftsim.model.Passenger;
+import pl.liftsim.simulation.CarState;
+import pl.liftsim.simulation.SimulationEngine;
+import pl.liftsim.simulation.SimulationListener;
+import pl.liftsim.simulation.SimulationMetrics;
+import pl.liftsim.simulation.SimulationRecorder;
+import pl.liftsim.simulation.TelemetryStore;
 import pl.liftsim.view.ElevatorSimulatorView;
+import pl.liftsim.view.FloorViewPanel;
+import pl.liftsim.view.HistoryChartPanel;
+import pl.liftsim.view.ViewResources;
 import pl.liftsim.model.ElevatorModel;
 import pl.liftsim.model.Floor;
+import pl.liftsim.model.ModelChanges;
 import javax.swing.*;
 import javax.swing.Timer;
 import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.util.*;
-import java.util.List;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+
+/**
+ * Connects the Swing view to a {@link SimulationEngine}. A Swing timer
+ * advances the engine's virtual clock in step with wall time, so engine
+ * callbacks (and therefore all view updates) happen on the EDT. Every input
+ * goes through a {@link SimulationRecorder}, which lets the timeline slider
+ * scrub back and forth through the run.
+ *
+ * <p>Rendering is decoupled from simulation speed: the model's change batches
+ * (and the engine's door callbacks) only mark floors and cars dirty, and the
+ * view is brought up to date once per frame.
+ * Each frame simulates for at most a fixed slice of wall time, so even at MAX
+ * speed the EDT keeps handling input and painting.
+ *
+ * <p>While it runs, the building is sampled every simulated second into a
+ * {@link TelemetryStore} in a temporary directory; right-clicking a floor in
+ * the overview charts its queue over the whole run.
+ *
+ * <p>The STATS button (or F3) shows a {@link PerformanceMonitor} overlay with
+ * EDT latency, paint time, simulation lag, event and allocation rates.
+ */
+public class ElevatorController implements SimulationListener {
+  private static final int FRAME_INTERVAL = 40; // Advance the simulation 25 times a second
+  private static final long KEYFRAME_INTERVAL = 10_000; // Seeking re-simulates at most 10 s
+  private static final long SIMULATION_BUDGET_NANOS = 25_000_000; // Per frame, leaves time to paint
+  private static final long SIMULATION_SLICE = 2_000; // Simulated ms between budget checks
+  private static final double MAX_VERBOSE_SPEED = 4; // Console commentary only up to 4x
+  private static final long TELEMETRY_INTERVAL = 1_000;
 
-public class ElevatorController {
   private final ElevatorModel model;
   private final ElevatorSimulatorView view;
+  private final SimulationEngine engine;
+  private final SimulationRecorder recorder;
+  private final PerformanceMonitor monitor;
   private Timer simulationTimer;
   private boolean simulationRunning = false;
-  // Elevator state
-  private ElevatorDirection currentDirection = ElevatorDirection.UP;
-  private Set<Integer> callRequests = new HashSet<>(); // Call button requests
-  private Set<Integer> destinationRequests = new HashSet<>(); // Floor panel destination requests
-  private boolean isMoving = false;
-  private boolean doorsOpen = false;
-
-  // Timing constants (in milliseconds)
-  private static final int SIMULATION_TICK_INTERVAL = 3000; // Check for new actions every 3 seconds
-  private static final int FLOOR_TO_FLOOR_TIME = 3000; // 3 seconds to travel ONE floor
-  private static final int DOOR_OPERATION_TIME = 1500; // 1.5 seconds for each door operation step
-  private static final int PASSENGER_EXIT_TIME = 2000; // 2 seconds for passengers to exit
-  private static final int PASSENGER_ENTRY_TIME = 2000; // 2 seconds for passengers to enter
-
-  private enum ElevatorDirection {
-    UP,
-    DOWN,
-    IDLE
-  }
+  private boolean playing = false;
+  private boolean updatingTimeline = false;
+  private double speed = 1.0;
+  private long lastFrameNanos;
+  private final BitSet dirtyFloors = new BitSet();
+  private final BitSet dirtyCars = new BitSet();
+  private TelemetryStore telemetry;
+  private HistoryChartPanel historyChart;
+  private int historyFloor;
+  private long historySamples = -1;
 
   public ElevatorController(ElevatorModel model, ElevatorSimulatorView view) {
     this.model = model;
     this.view = view;
+    this.engine = new SimulationEngine(model, System.nanoTime(), new SimulationMetrics(false));
+    this.recorder = new SimulationRecorder(engine, KEYFRAME_INTERVAL);
+    this.monitor = new PerformanceMonitor(view.getPerformanceOverlay()::setLines);
+    engine.setVerbose(true);
+    engine.setListener(this);
+    model.addChangeListener(this::modelChanged);
+
     setupEventHandlers();
     setupSimulationTimer();
   }
@@ -57,463 +96,326 @@ public class ElevatorController {
               }
             });
 
+    // Playback controls
+    view.getControlPanel().getPlayPauseButton().addActionListener(e -> setPlaying(!playing));
+    view.getControlPanel()
+        .getStepButton()
+        .addActionListener(
+            e -> {
+              recorder.step();
+              sampleTelemetry();
+              flushView();
+              updateTimeline();
+              updateHistory();
+            });
+    view.getControlPanel()
+        .getSpeedBox()
+        .addActionListener(
+            e -> {
+              speed = view.getControlPanel().getSelectedSpeed();
+              engine.setVerbose(speed <= MAX_VERBOSE_SPEED);
+            });
+    view.getControlPanel()
+        .getTimelineSlider()
+        .addChangeListener(
+            e -> {
+              if (!updatingTimeline && recorder.isRecording()) {
+                seekTo(view.getControlPanel().getTimelineSlider().getValue() * 1000L);
+              }
+            });
+
+    view.getBuildingOverviewPanel().setHistoryListener(this::showFloorHistory);
+    view.getControlPanel()
+        .getStatsButton()
+        .addActionListener(
+            e -> {
+              boolean shown = view.getControlPanel().getStatsButton().isSelected();
+              monitor.setEnabled(shown);
+              view.getPerformanceOverlay().setVisible(shown);
+            });
+
     // Reset button
     // view.getControlPanel().getResetButton().addActionListener(e ->
     // resetSimulation());
 
     // Floor control panel buttons - these add destination requests ONLY
-    for (int floor = 1; floor <= model.getFloors().size(); floor++) {
-      JButton floorButton = view.getFloorControlPanel().getFloorButton(floor);
-      if (floorButton != null) {
-        final int targetFloor = floor;
-        floorButton.addActionListener(
-            e -> {
-              addDestinationRequest(targetFloor);
+    view.getFloorControlPanel()
+        .addFloorListener(
+            targetFloor -> {
+              recorder.addDestinationRequest(0, targetFloor);
               System.out.println(
                   "🎯 Floor " + targetFloor + " button pressed - Added to destinations");
             });
-      }
-    }
 
     // Call buttons from floors - these add pickup requests ONLY
-    for (int floor = 1; floor <= model.getFloors().size(); floor++) {
-      JButton callButton = view.getFloorViewPanel().getCallButton(floor);
-      if (callButton != null) {
-        final int fromFloor = floor;
-        callButton.addActionListener(
-            e -> {
-              addCallRequest(fromFloor);
+    view.getFloorViewPanel()
+        .addCallListener(
+            fromFloor -> {
+              recorder.addCallRequest(fromFloor);
               System.out.println(
                   "📞 Call button pressed on floor " + fromFloor + " - Elevator called");
             });
-      }
-    }
+
+    // Floors scrolled into view are created empty
+    view.getFloorViewPanel().setFloorShownListener(this::updateFloorPassengerDisplay);
   }
 
   private void setupSimulationTimer() {
     simulationTimer = new Timer(
-        SIMULATION_TICK_INTERVAL,
+        FRAME_INTERVAL,
         e -> {
-          if (simulationRunning && !isMoving && !doorsOpen) {
-            processElevatorMovement();
+          long now = System.nanoTime();
+          long elapsedMillis = (now - lastFrameNanos) / 1_000_000;
+          if (playing && elapsedMillis > 0) {
+            lastFrameNanos += elapsedMillis * 1_000_000;
+            advanceSimulation(elapsedMillis, now + SIMULATION_BUDGET_NANOS);
+            flushView();
+            updateTimeline();
+            updateHistory();
           }
         });
   }
 
-  private void startSimulation() {
-    simulationRunning = true;
-    model.setSimulationRunning(true);
-    view.getControlPanel().setStartButton(false);
-    simulationTimer.start();
-
-    model.generateRandomPassengers();
-
-    for (int floor = 1; floor <= model.getFloors().size(); floor++) {
-      updateFloorPassengerDisplay(floor);
+  /**
+   * Simulates {@code elapsedMillis * speed} of simulated time, or as much as
+   * fits before {@code deadline} at MAX speed. If the simulation cannot keep
+   * up, the rest of the frame's work is dropped rather than piling up.
+   */
+  private void advanceSimulation(long elapsedMillis, long deadline) {
+    long startTime = engine.getTime();
+    long startEvents = engine.getProcessedEvents();
+    long target =
+        Double.isInfinite(speed)
+            ? Long.MAX_VALUE
+            : engine.getTime() + Math.round(elapsedMillis * speed);
+    while (engine.getTime() < target && System.nanoTime() < deadline) {
+      long sliceEnd = Math.min(target, engine.getTime() + SIMULATION_SLICE);
+      if (telemetry != null) {
+        sliceEnd = Math.min(sliceEnd, telemetry.getNextSampleTime());
+      }
+      recorder.runUntil(sliceEnd);
+      sampleTelemetry();
     }
-
-    System.out.println("🟢 Simulation started - Elevator is IDLE until called");
-    System.out.println("📋 Use call buttons (black buttons) to call elevator to floors");
-    System.out.println("📋 Use floor panel buttons (left side) to select destinations");
-  }
-
-  private void stopSimulation() {
-    simulationRunning = false;
-    model.setSimulationRunning(false);
-    view.getControlPanel().setStartButton(true);
-    simulationTimer.stop();
-    isMoving = false;
-    doorsOpen = false;
-
-    System.out.println("🔴 Simulation stopped");
+    monitor.frameSimulated(
+        elapsedMillis,
+        elapsedMillis * speed,
+        engine.getTime() - startTime,
+        engine.getProcessedEvents() - startEvents);
   }
 
-  private void resetSimulation() {
-    stopSimulation();
-    model.reset();
-    callRequests.clear();
-    destinationRequests.clear();
-    currentDirection = ElevatorDirection.UP;
-    isMoving = false;
-    doorsOpen = false;
-
-    // Clear all passenger areas
-    for (int floor = 1; floor <= model.getFloors().size(); floor++) {
-      clearPassengersFromFloor(floor);
+  /**
+   * Takes the samples that are due. Replaying the past adds nothing, as the
+   * store already has those samples; an input made in the past rewrites the
+   * future, so the samples after it are dropped first.
+   */
+  private void sampleTelemetry() {
+    if (telemetry == null) {
+      return;
+    }
+    long now = engine.getTime();
+    if (recorder.isAtLiveEdge() && telemetry.getNextSampleTime() > now + TELEMETRY_INTERVAL) {
+      telemetry.truncate(now);
+      historySamples = -1; // The chart shows samples that are gone
+    }
+    while (telemetry.getNextSampleTime() <= now) {
+      telemetry.sample(engine);
     }
-
-    // Reset elevator position to floor 1
-    model.getElevator().setCurrentFloor(1);
-    view.getFloorViewPanel().updateElevatorPosition(1);
-    view.getFloorViewPanel().getElevatorCar().setPassengers(model.getElevator().getPassengers());
-    view.getFloorViewPanel().getElevatorCar().setDoorOpen(false);
-
-    System.out.println("🔄 Simulation reset - Elevator at floor 1, all requests cleared");
-  }
-
-  private void addDestinationRequest(int floor) {
-    destinationRequests.add(floor);
-    System.out.println("📍 Destination request added: Floor " + floor);
-    printRequestStatus();
-  }
-
-  private void addCallRequest(int floor) {
-    callRequests.add(floor);
-    System.out.println("📞 Call request added: Floor " + floor);
-    printRequestStatus();
-  }
-
-  private void printRequestStatus() {
-    System.out.println(
-        "📋 Current requests - Calls: " + callRequests + ", Destinations: " + destinationRequests);
   }
 
-  private void processElevatorMovement() {
-    // Check if there are ANY requests at all
-    if (callRequests.isEmpty() && destinationRequests.isEmpty()) {
-      if (currentDirection != ElevatorDirection.IDLE) {
-        currentDirection = ElevatorDirection.IDLE;
-        System.out.println(
-            "💤 Elevator is IDLE - No call buttons pressed, no destinations selected");
-      }
+  private void showFloorHistory(int floor) {
+    if (telemetry == null) {
       return;
     }
+    historyFloor = floor;
+    historySamples = -1;
+    historyChart = view.showHistoryChart("Floor " + floor + " - waiting passengers");
+    updateHistory();
+  }
 
-    // Combine all requests for movement logic
-    Set<Integer> allRequests = new HashSet<>();
-    allRequests.addAll(callRequests);
-    allRequests.addAll(destinationRequests);
-
-    int currentFloor = model.getElevator().getCurrentFloor();
-
-    // If elevator was idle and now has requests, determine initial direction
-    if (currentDirection == ElevatorDirection.IDLE) {
-      determineInitialDirection(allRequests, currentFloor);
-    }
-
-    // Determine if we should stop at current floor
-    if (allRequests.contains(currentFloor)) {
-      stopAtCurrentFloor();
+  /**
+   * Brings the open history chart up to date. Samples taken since the last
+   * update are decoded and appended; the whole series is decoded again only
+   * when the chart is opened or samples it shows were dropped.
+   */
+  private void updateHistory() {
+    if (historyChart == null || !view.isHistoryChartVisible()) {
       return;
     }
+    long count = telemetry.getSampleCount();
+    if (historySamples < 0 || count < historySamples) {
+      TelemetryStore.Range waiting =
+          telemetry.queueLengths(historyFloor, telemetry.getStartTime(), Long.MAX_VALUE / 2);
+      historyChart.setHistory(waiting.getStartTime(), waiting.getInterval(), waiting.getValues());
+    } else if (count > historySamples) {
+      long from = telemetry.getStartTime() + historySamples * telemetry.getInterval();
+      historyChart.appendHistory(
+          telemetry.queueLengths(historyFloor, from, Long.MAX_VALUE / 2).getValues());
+    }
+    historySamples = count;
+    historyChart.setCursorTime(engine.getTime());
+  }
 
-    // Determine next floor to move to
-    int nextFloor = getNextFloor(allRequests);
-    if (nextFloor != -1) {
-      moveToFloorStepByStep(nextFloor);
-    } else {
-      // No more requests in current direction, switch direction
-      switchDirection();
-      nextFloor = getNextFloor(allRequests);
-      if (nextFloor != -1) {
-        moveToFloorStepByStep(nextFloor);
-      } else {
-        // No more requests anywhere
-        currentDirection = ElevatorDirection.IDLE;
-        System.out.println("💤 All requests completed - Elevator is IDLE");
-      }
+  /** Starts a fresh store; the run works without one if the disk refuses */
+  private void createTelemetry() {
+    try {
+      Path directory = Files.createTempDirectory("liftsim-telemetry");
+      // The segments stay mapped until the JVM exits, so delete them only then
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteDirectory(directory)));
+      long first = (engine.getTime() + TELEMETRY_INTERVAL - 1) / TELEMETRY_INTERVAL;
+      telemetry =
+          TelemetryStore.create(
+              directory,
+              model.getFloors().size(),
+              engine.getCars().size(),
+              first * TELEMETRY_INTERVAL,
+              TELEMETRY_INTERVAL);
+      historySamples = -1;
+    } catch (IOException e) {
+      telemetry = null;
+      System.out.println("⚠️ Telemetry disabled: " + e.getMessage());
     }
   }
 
-  private void determineInitialDirection(Set<Integer> allRequests, int currentFloor) {
-    // Find if there are requests above or below current floor
-    boolean hasRequestsAbove = allRequests.stream().anyMatch(floor -> floor > currentFloor);
-    boolean hasRequestsBelow = allRequests.stream().anyMatch(floor -> floor < currentFloor);
-
-    if (hasRequestsAbove && !hasRequestsBelow) {
-      currentDirection = ElevatorDirection.UP;
-      System.out.println("⬆️ Starting to move UP (requests above current floor)");
-    } else if (hasRequestsBelow && !hasRequestsAbove) {
-      currentDirection = ElevatorDirection.DOWN;
-      System.out.println("⬇️ Starting to move DOWN (requests below current floor)");
-    } else if (hasRequestsAbove && hasRequestsBelow) {
-      // Requests both above and below - choose closest
-      int closestAbove = allRequests.stream()
-          .filter(f -> f > currentFloor)
-          .min(Integer::compareTo)
-          .orElse(Integer.MAX_VALUE);
-      int closestBelow = allRequests.stream()
-          .filter(f -> f < currentFloor)
-          .max(Integer::compareTo)
-          .orElse(Integer.MIN_VALUE);
-
-      if (Math.abs(closestAbove - currentFloor) <= Math.abs(currentFloor - closestBelow)) {
-        currentDirection = ElevatorDirection.UP;
-        System.out.println("⬆️ Starting to move UP (closest request is above)");
-      } else {
-        currentDirection = ElevatorDirection.DOWN;
-        System.out.println("⬇️ Starting to move DOWN (closest request is below)");
+  private static void deleteDirectory(Path directory) {
+    File[] files = directory.toFile().listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
       }
     }
+    directory.toFile().delete();
   }
 
-  private int getNextFloor(Set<Integer> allRequests) {
-    int currentFloor = model.getElevator().getCurrentFloor();
-
-    if (currentDirection == ElevatorDirection.UP) {
-      // Find lowest floor above current floor
-      return allRequests.stream()
-          .filter(floor -> floor > currentFloor)
-          .min(Integer::compareTo)
-          .orElse(-1);
-    } else if (currentDirection == ElevatorDirection.DOWN) {
-      // Find highest floor below current floor
-      return allRequests.stream()
-          .filter(floor -> floor < currentFloor)
-          .max(Integer::compareTo)
-          .orElse(-1);
-    }
+  private void setPlaying(boolean playing) {
+    this.playing = playing;
+    lastFrameNanos = System.nanoTime();
+    view.getControlPanel().setPlaying(playing);
+  }
 
-    return -1;
+  private void seekTo(long time) {
+    setPlaying(false);
+    recorder.seek(time);
+    refreshView();
+    updateTimeline();
+    updateHistory();
   }
 
-  private void switchDirection() {
-    if (currentDirection == ElevatorDirection.UP) {
-      currentDirection = ElevatorDirection.DOWN;
-      System.out.println("🔄 Switched direction to DOWN");
-    } else if (currentDirection == ElevatorDirection.DOWN) {
-      currentDirection = ElevatorDirection.UP;
-      System.out.println("🔄 Switched direction to UP");
+  private void updateTimeline() {
+    updatingTimeline = true;
+    try {
+      view.getControlPanel()
+          .setTimeline(recorder.getStartTime(), engine.getTime(), recorder.getRecordedUntil());
+    } finally {
+      updatingTimeline = false;
     }
   }
 
-  /** Move elevator step-by-step through each floor to reach target */
-  private void moveToFloorStepByStep(int targetFloor) {
-    isMoving = true;
-    int currentFloor = model.getElevator().getCurrentFloor();
+  /** Redraws every floor and car from the model, e.g. after jumping in time */
+  private void refreshView() {
+    dirtyFloors.set(1, model.getFloors().size() + 1);
+    dirtyCars.set(0, engine.getCars().size());
+    flushView();
+  }
 
-    if (currentFloor == targetFloor) {
-      isMoving = false;
-      return;
+  /** Brings dirty floors and cars in the view up to date with the model */
+  private void flushView() {
+    // Each floor and car repaints only its own components
+    for (int floor = dirtyFloors.nextSetBit(0);
+        floor >= 0;
+        floor = dirtyFloors.nextSetBit(floor + 1)) {
+      updateFloorPassengerDisplay(floor);
     }
-
-    System.out.println(
-        "🚀 Moving from floor "
-            + currentFloor
-            + " to floor "
-            + targetFloor
-            + " ("
-            + Math.abs(targetFloor - currentFloor)
-            + " floors, "
-            + (Math.abs(targetFloor - currentFloor) * FLOOR_TO_FLOOR_TIME / 1000.0)
-            + "s total)");
-
-    // Determine direction of movement
-    int direction = (targetFloor > currentFloor) ? 1 : -1;
-
-    // Start the step-by-step movement
-    moveOneFloorStep(currentFloor, targetFloor, direction);
+    for (int car = dirtyCars.nextSetBit(0); car >= 0; car = dirtyCars.nextSetBit(car + 1)) {
+      showCar(engine.getCars().get(car));
+    }
+    dirtyFloors.clear();
+    dirtyCars.clear();
   }
 
-  /** Move one floor at a time with visual updates */
-  private void moveOneFloorStep(int currentFloor, int targetFloor, int direction) {
-    int nextFloor = currentFloor + direction;
-
-    System.out.println(
-        "  🏢 Moving from floor " + currentFloor + " to floor " + nextFloor + " (3 seconds)");
-
-    Timer stepTimer = new Timer(
-        FLOOR_TO_FLOOR_TIME,
-        e -> {
-          // Update elevator position
-          model.getElevator().setCurrentFloor(nextFloor);
-
-          SwingUtilities.invokeLater(
-              () -> {
-                view.getFloorViewPanel().updateElevatorPosition(nextFloor);
-              });
-
-          System.out.println("  ✅ Passed floor " + nextFloor);
-
-          // Check if we've reached the target floor
-          if (nextFloor == targetFloor) {
-            // Reached destination
-            isMoving = false;
-            System.out.println("🎯 Arrived at target floor " + targetFloor);
-            ((Timer) e.getSource()).stop();
-          } else {
-            // Continue to next floor
-            ((Timer) e.getSource()).stop();
-            moveOneFloorStep(nextFloor, targetFloor, direction);
-          }
-        });
-    stepTimer.setRepeats(false);
-    stepTimer.start();
+  private void showCar(CarState car) {
+    int index = car.getIndex();
+    FloorViewPanel floorView = view.getFloorViewPanel();
+    floorView.updateElevatorPosition(index, car.getCurrentFloor());
+    floorView.getElevatorCar(index).setDoorOpen(car.isDoorsOpen());
+    floorView.getElevatorCar(index).setPassengers(car.getElevator().getPassengers());
+    view.getBuildingOverviewPanel().setCarPosition(index, car.getCurrentFloor());
   }
 
-  private void stopAtCurrentFloor() {
-    int currentFloor = model.getElevator().getCurrentFloor();
-
-    // Remove this floor from both request types
-    boolean wasCallRequest = callRequests.remove(currentFloor);
-    boolean wasDestinationRequest = destinationRequests.remove(currentFloor);
+  private void startSimulation() {
+    simulationRunning = true;
+    view.getControlPanel().setStartButton(false);
 
-    doorsOpen = true;
+    long seed = System.nanoTime();
+    model.generateRandomPassengers(seed, Runtime.getRuntime().availableProcessors());
+    System.out.println("🎲 Initial passengers drawn from seed " + seed);
+    refreshView();
 
-    String requestType = "";
-    if (wasCallRequest && wasDestinationRequest) {
-      requestType = " (Call + Destination)";
-    } else if (wasCallRequest) {
-      requestType = " (Call Request)";
-    } else if (wasDestinationRequest) {
-      requestType = " (Destination Request)";
-    }
+    engine.start();
+    recorder.begin();
+    createTelemetry();
+    view.getControlPanel().setPlaybackEnabled(true);
+    setPlaying(true);
+    simulationTimer.start();
 
-    System.out.println("🛑 Stopping at floor " + currentFloor + requestType);
-
-    SwingUtilities.invokeLater(
-        () -> {
-          // Step 1: Open doors
-          view.getFloorViewPanel().getElevatorCar().setDoorOpen(true);
-          System.out.println("🚪 Opening doors...");
-
-          Timer doorSequenceTimer = new Timer(
-              DOOR_OPERATION_TIME,
-              new ActionListener() {
-                private int step = 0;
-
-                @Override
-                public void actionPerformed(ActionEvent e) {
-                  if (step == 0) {
-                    // Step 2: Passengers exit (after door opening delay)
-                    System.out.println(
-                        "👥 Passengers exiting... (takes "
-                            + (PASSENGER_EXIT_TIME / 1000.0)
-                            + "s)");
-                    processPassengerExit(currentFloor);
-                    ((Timer) e.getSource()).setDelay(PASSENGER_EXIT_TIME);
-                    step++;
-                  } else if (step == 1) {
-                    // Step 3: Passengers enter (after exit is complete)
-                    System.out.println(
-                        "👥 Passengers entering... (takes "
-                            + (PASSENGER_ENTRY_TIME / 1000.0)
-                            + "s)");
-                    processPassengerEntry(currentFloor);
-                    ((Timer) e.getSource()).setDelay(PASSENGER_ENTRY_TIME);
-                    step++;
-                  } else if (step == 2) {
-                    // Step 4: Close doors (after entry is complete)
-                    System.out.println("🚪 Closing doors...");
-                    ((Timer) e.getSource()).setDelay(DOOR_OPERATION_TIME);
-                    step++;
-                  } else {
-                    // Step 5: Doors closed, ready to move
-                    view.getFloorViewPanel().getElevatorCar().setDoorOpen(false);
-                    doorsOpen = false;
-                    ((Timer) e.getSource()).stop();
-                    System.out.println(
-                        "✅ Doors closed at floor " + currentFloor + " - Ready to move");
-                    printRequestStatus();
-                    System.out.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-                  }
-                }
-              });
-          doorSequenceTimer.start();
-        });
+    System.out.println("🟢 Simulation started - Elevator is IDLE until called");
+    System.out.println("📋 Use call buttons (black buttons) to call elevator to floors");
+    System.out.println("📋 Use floor panel buttons (left side) to select destinations");
   }
 
-  private void processPassengerExit(int currentFloor) {
-    List<Passenger> exitingPassengers = new ArrayList<>();
-
-    // Find passengers who want to exit at this floor
-    for (Passenger passenger : model.getElevator().getPassengers()) {
-      if (passenger.getDestinationFloor() == currentFloor) {
-        exitingPassengers.add(passenger);
-      }
-    }
-
-    // Remove exiting passengers from elevator
-    for (Passenger passenger : exitingPassengers) {
-      model.getElevator().getPassengers().remove(passenger);
-      System.out.println(
-          "  ↪️ Passenger "
-              + passenger.getId()
-              + " exited at floor "
-              + currentFloor
-              + " (JOURNEY COMPLETED ✨)");
-    }
-
-    // Update elevator display
-    view.getFloorViewPanel().getElevatorCar().setPassengers(model.getElevator().getPassengers());
+  private void stopSimulation() {
+    simulationRunning = false;
+    view.getControlPanel().setStartButton(true);
+    simulationTimer.stop();
+    setPlaying(false);
+    view.getControlPanel().setPlaybackEnabled(false);
+    engine.stop();
 
-    if (exitingPassengers.isEmpty()) {
-      System.out.println("  ↪️ No passengers to exit");
-    } else {
-      System.out.println(
-          "  ✅ " + exitingPassengers.size() + " passenger(s) exited at floor " + currentFloor);
-    }
+    System.out.println("🔴 Simulation stopped");
   }
 
-  private void processPassengerEntry(int currentFloor) {
-    Floor floor = model.getFloors().get(currentFloor - 1);
-    List<Passenger> enteringPassengers = new ArrayList<>();
+  private void resetSimulation() {
+    stopSimulation();
+    engine.reset();
 
-    // Find passengers who want to enter and are going in the current direction
-    for (Passenger passenger : floor.getWaitingPassengers()) {
-      if (model.getElevator().getPassengers().size()
-          + enteringPassengers.size() < ElevatorModel.MAX_ELEVATOR_CAPACITY) {
-        enteringPassengers.add(passenger);
-      } else {
-        System.out.println("  ⚠️ Elevator full - Passenger " + passenger.getId() + " must wait");
-        break; // Elevator is full
-      }
+    // Clear all passenger areas
+    for (int floor = 1; floor <= model.getFloors().size(); floor++) {
+      clearPassengersFromFloor(floor);
     }
 
-    // Move passengers from floor to elevator
-    for (Passenger passenger : enteringPassengers) {
-      floor.getWaitingPassengers().remove(passenger);
-      model.getElevator().addPassenger(passenger);
-      // Automatically add their destination when they enter
-      addDestinationRequest(passenger.getDestinationFloor());
-      System.out.println(
-          "  ↩️ Passenger "
-              + passenger.getId()
-              + " entered elevator, going to floor "
-              + passenger.getDestinationFloor());
-    }
+    // Reset elevator position to floor 1
+    refreshView();
 
-    // Update displays
-    view.getFloorViewPanel().getElevatorCar().setPassengers(model.getElevator().getPassengers());
-    updateFloorPassengerDisplay(currentFloor);
-
-    if (enteringPassengers.isEmpty() && !floor.getWaitingPassengers().isEmpty()) {
-      System.out.println("  ↩️ No passengers could enter (wrong direction or elevator full)");
-    } else if (enteringPassengers.isEmpty()) {
-      System.out.println("  ↩️ No passengers waiting to enter");
-    } else {
-      System.out.println(
-          "  ✅ " + enteringPassengers.size() + " passenger(s) entered at floor " + currentFloor);
-    }
+    System.out.println("🔄 Simulation reset - Elevator at floor 1, all requests cleared");
   }
 
-  private boolean canPassengerEnter(Passenger passenger, int currentFloor) {
-    int destination = passenger.getDestinationFloor();
-
-    if (currentDirection == ElevatorDirection.UP) {
-      return destination > currentFloor;
-    } else if (currentDirection == ElevatorDirection.DOWN) {
-      return destination < currentFloor;
+  private void modelChanged(ModelChanges changes) {
+    for (ModelChanges.CarChange change : changes.getCars()) {
+      dirtyCars.set(change.getCar());
     }
+    for (ModelChanges.FloorChange change : changes.getFloors()) {
+      dirtyFloors.set(change.getFloor());
+    }
+  }
 
-    return true; // If idle, allow any passenger
+  @Override
+  public void doorsChanged(int car, boolean open) {
+    dirtyCars.set(car);
   }
 
   private void updateFloorPassengerDisplay(int floorNumber) {
     clearPassengersFromFloor(floorNumber);
 
     Floor floor = model.getFloors().get(floorNumber - 1);
+    view.getBuildingOverviewPanel()
+        .setQueueLength(floorNumber, floor.getWaitingPassengers().size());
+    if (!view.getFloorViewPanel().isFloorShown(floorNumber)) {
+      return;
+    }
     for (Passenger passenger : floor.getWaitingPassengers()) {
       view.getFloorViewPanel()
           .addPassengerToFloor(
               floorNumber, "P" + passenger.getId() + "→" + passenger.getDestinationFloor());
     }
-
-    SwingUtilities.invokeLater(
-        () -> {
-          view.getFloorViewPanel().revalidate();
-          view.getFloorViewPanel().repaint();
-        });
   }
 
   private void clearPassengersFromFloor(int floorNumber) {
@@ -525,7 +427,7 @@ public class ElevatorController {
       Floor floor = model.getFloors().get(floorNumber - 1);
       if (floor.getWaitingPassengers().isEmpty()) {
         JLabel emptyLabel = new JLabel("No passengers", SwingConstants.CENTER);
-        emptyLabel.setFont(new Font("Arial", Font.ITALIC, 11));
+        emptyLabel.setFont(ViewResources.HINT_FONT);
         emptyLabel.setForeground(Color.GRAY);
         passengerArea.add(emptyLabel);
       }
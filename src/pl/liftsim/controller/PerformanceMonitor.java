@@ -0,0 +1,219 @@
+package pl.liftsim.controller;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.swing.RepaintManager;
+import javax.swing.SwingUtilities;
+
+/**
+ * Measures whether the GUI keeps up, for the performance overlay:
+ *
+ * <ul>
+ *   <li>EDT latency: a background thread posts a probe to the EDT ten times a
+ *       second and the probe notes how long it waited in the queue
+ *   <li>paint time: a repaint manager times every painting pass
+ *   <li>simulation lag: simulated time advanced per frame against what the
+ *       selected speed asked for, and engine events per second
+ *   <li>allocation rate: bytes allocated by the EDT, which runs both the
+ *       simulation and the painting
+ * </ul>
+ *
+ * Every figure is a fixed-size rolling window filled and read on the EDT,
+ * so measuring costs a few clock reads per frame. Nothing runs and no
+ * repaint manager is installed while the monitor is disabled.
+ */
+class PerformanceMonitor {
+  private static final long PROBE_INTERVAL_MS = 100;
+  private static final int PROBES_PER_REFRESH = 3; // Redraw the figures about 3 times a second
+  private static final int PROBE_WINDOW = 20; // 2 s of probes
+  private static final int FRAME_WINDOW = 50; // 2 s of frames at 25 fps
+  private static final long PAUSED_NANOS = 1_000_000_000; // No frame for 1 s means paused
+
+  private final Consumer<String[]> display;
+  private final RollingWindow edtLatency = new RollingWindow(PROBE_WINDOW);
+  private final RollingWindow allocation = new RollingWindow(PROBE_WINDOW);
+  private final RollingWindow probeWall = new RollingWindow(PROBE_WINDOW);
+  private final RollingWindow paintTime = new RollingWindow(FRAME_WINDOW);
+  private final RollingWindow frameWall = new RollingWindow(FRAME_WINDOW);
+  private final RollingWindow simulated = new RollingWindow(FRAME_WINDOW);
+  private final RollingWindow wanted = new RollingWindow(FRAME_WINDOW);
+  private final RollingWindow events = new RollingWindow(FRAME_WINDOW);
+  private final com.sun.management.ThreadMXBean allocationBean;
+  private ScheduledExecutorService prober;
+  private RepaintManager previousRepaintManager;
+  private boolean enabled;
+  private boolean maxSpeed;
+  private long lastFrameNanos;
+  private long lastProbeNanos;
+  private long lastAllocated;
+  private int probes;
+
+  /** @param display receives the overlay lines on the EDT */
+  PerformanceMonitor(Consumer<String[]> display) {
+    this.display = display;
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    this.allocationBean =
+        threads instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()
+            ? (com.sun.management.ThreadMXBean) threads
+            : null;
+  }
+
+  /** Starts or stops measuring; call on the EDT */
+  void setEnabled(boolean enabled) {
+    if (this.enabled == enabled) {
+      return;
+    }
+    this.enabled = enabled;
+    if (enabled) {
+      previousRepaintManager = RepaintManager.currentManager(null);
+      RepaintManager.setCurrentManager(new TimingRepaintManager());
+      lastProbeNanos = System.nanoTime();
+      lastAllocated = allocatedBytes();
+      prober =
+          Executors.newSingleThreadScheduledExecutor(
+              runnable -> {
+                Thread thread = new Thread(runnable, "edt-probe");
+                thread.setDaemon(true);
+                return thread;
+              });
+      prober.scheduleAtFixedRate(this::postProbe, 0, PROBE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    } else {
+      prober.shutdownNow();
+      RepaintManager.setCurrentManager(previousRepaintManager);
+    }
+  }
+
+  /**
+   * Records one simulation frame.
+   *
+   * @param wantedMillis simulated time the selected speed asked for, or infinity at MAX
+   */
+  void frameSimulated(
+      long wallMillis, double wantedMillis, long simulatedMillis, long frameEvents) {
+    if (!enabled) {
+      return;
+    }
+    lastFrameNanos = System.nanoTime();
+    maxSpeed = Double.isInfinite(wantedMillis);
+    frameWall.add(wallMillis);
+    simulated.add(simulatedMillis);
+    wanted.add(maxSpeed ? simulatedMillis : Math.round(wantedMillis));
+    events.add(frameEvents);
+  }
+
+  /** Runs on the probe thread */
+  private void postProbe() {
+    long posted = System.nanoTime();
+    SwingUtilities.invokeLater(() -> probeArrived(posted));
+  }
+
+  private void probeArrived(long posted) {
+    if (!enabled) {
+      return;
+    }
+    long now = System.nanoTime();
+    edtLatency.add(now - posted);
+    long allocated = allocatedBytes();
+    allocation.add(allocated - lastAllocated);
+    probeWall.add(now - lastProbeNanos);
+    lastAllocated = allocated;
+    lastProbeNanos = now;
+    if (++probes % PROBES_PER_REFRESH == 0) {
+      display.accept(describe(now));
+    }
+  }
+
+  private long allocatedBytes() {
+    return allocationBean == null ? 0 : allocationBean.getCurrentThreadAllocatedBytes();
+  }
+
+  private String[] describe(long now) {
+    String simulation;
+    String eventRate;
+    if (frameWall.isEmpty() || now - lastFrameNanos > PAUSED_NANOS) {
+      simulation = "paused";
+      eventRate = "-";
+    } else {
+      double wall = Math.max(1, frameWall.sum());
+      double speed = simulated.sum() / wall;
+      if (maxSpeed) {
+        simulation = String.format("%.1fx (MAX)", speed);
+      } else {
+        double behind = Math.max(0, wanted.sum() - simulated.sum()) / wall;
+        simulation =
+            String.format("%.1fx of %.1fx, %.2f s/s behind", speed, wanted.sum() / wall, behind);
+      }
+      eventRate = String.format("%,.0f", events.sum() * 1000 / wall);
+    }
+    String allocationRate =
+        allocationBean == null
+            ? "n/a"
+            : String.format("%.1f MB/s", allocation.sum() * 1e3 / Math.max(1, probeWall.sum()));
+    return new String[] {
+      "EDT latency " + formatMillis(edtLatency),
+      "Paint       " + formatMillis(paintTime),
+      "Simulation  " + simulation,
+      "Events/s    " + eventRate,
+      "Allocation  " + allocationRate
+    };
+  }
+
+  private static String formatMillis(RollingWindow nanos) {
+    return String.format("%5.1f ms avg %6.1f max", nanos.mean() / 1e6, nanos.max() / 1e6);
+  }
+
+  /** Times every painting pass; installed only while the monitor is enabled */
+  private final class TimingRepaintManager extends RepaintManager {
+    @Override
+    public void paintDirtyRegions() {
+      long started = System.nanoTime();
+      super.paintDirtyRegions();
+      paintTime.add(System.nanoTime() - started);
+    }
+  }
+
+  /** The last {@code size} values added, with their sum kept up to date */
+  private static final class RollingWindow {
+    private final long[] values;
+    private int next;
+    private int count;
+    private long sum;
+
+    RollingWindow(int size) {
+      this.values = new long[size];
+    }
+
+    void add(long value) {
+      sum += value - values[next];
+      values[next] = value;
+      next = (next + 1) % values.length;
+      count = Math.min(count + 1, values.length);
+    }
+
+    boolean isEmpty() {
+      return count == 0;
+    }
+
+    long sum() {
+      return sum;
+    }
+
+    double mean() {
+      return count == 0 ? 0 : (double) sum / count;
+    }
+
+    long max() {
+      long max = 0;
+      for (int i = 0; i < count; i++) {
+        max = Math.max(max, values[i]);
+      }
+      return max;
+    }
+  }
+}
@@ -0,0 +1,466 @@
+package pl.liftsim.model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Immutable building geometry and timing. Everything that used to be a
+ * compile-time constant in {@link ElevatorModel} or the controller is read
+ * from here, so the same binary can run a 5-floor or a 150-floor model.
+ *
+ * <p>A configuration is built from {@link Properties}, either loaded from a
+ * file or assembled from {@code --key=value} command-line arguments:
+ *
+ * <pre>
+ * floors=10
+ * cars=1
+ * capacity=5
+ * floorToFloorTime=3000
+ * doorOperationTime=1500
+ * passengerExitTime=2000   # ms per passenger leaving a car
+ * passengerEntryTime=2000  # ms per passenger boarding
+ * tickInterval=3000
+ * accelerationTime=0    # ms to reach full speed; 0 = constant speed
+ * expressZone=2-30      # floors run through at expressFloorToFloorTime
+ * expressFloorToFloorTime=1000
+ * destinationDispatch=false  # destinations entered at the hall
+ * batchWindow=500       # ms of hall calls allotted together
+ * agingTime=120000      # ms a hall call waits before its car passes younger ones; 0 = off
+ * parking=false         # park idle cars where calls are forecast
+ * forecastSlot=900      # seconds per time-of-day slot of the forecast
+ * dispatcher=nearest    # or lookahead: re-optimise open calls every tick
+ * lookAheadBudget=2000  # wall-clock (not CPU) microseconds of search per tick
+ * lookAheadMoves=5000   # search moves per worker per tick
+ * lookAheadThreads=1    # search workers
+ * population=5          # default for every floor
+ * population.1=20       # override for floor 1
+ * </pre>
+ *
+ * <p>A high-rise is split into zones, each served by its own group of cars.
+ * A zone lists the floors its cars stop at, so an express zone skips the
+ * floors in between and a shuttle serves only two sky lobbies. When zones
+ * are given, {@code cars} is the sum of the zones' cars:
+ *
+ * <pre>
+ * zones=3
+ * zone.1.floors=1-20
+ * zone.1.cars=3
+ * zone.2.floors=1,40    # shuttle from the lobby to the sky lobby
+ * zone.2.cars=2
+ * zone.3.floors=40-60
+ * zone.3.cars=3
+ * </pre>
+ */
+public class BuildingConfig {
+  public static final String CONFIG_ARG = "config";
+
+  private static final int DEFAULT_FLOORS = 10;
+  private static final int DEFAULT_CARS = 1;
+  private static final int DEFAULT_CAPACITY = 5;
+  private static final int DEFAULT_FLOOR_TO_FLOOR_TIME = 3000;
+  private static final int DEFAULT_DOOR_OPERATION_TIME = 1500;
+  private static final int DEFAULT_PASSENGER_EXIT_TIME = 2000;
+  private static final int DEFAULT_PASSENGER_ENTRY_TIME = 2000;
+  private static final int DEFAULT_TICK_INTERVAL = 3000;
+  private static final int DEFAULT_BATCH_WINDOW = 500;
+  private static final int DEFAULT_AGING_TIME = 120000;
+  private static final int DEFAULT_LOOK_AHEAD_BUDGET = 2000;
+  private static final int DEFAULT_LOOK_AHEAD_MOVES = 5000;
+  private static final int DEFAULT_LOOK_AHEAD_THREADS = 1;
+
+  private final int floors;
+  private final int cars;
+  private final int carCapacity;
+  private final int floorToFloorTime;
+  private final int doorOperationTime;
+  private final int passengerExitTime;
+  private final int passengerEntryTime;
+  private final int tickInterval;
+  private final int accelerationTime;
+  private final int expressFrom;
+  private final int expressTo;
+  private final int expressFloorToFloorTime;
+  private final boolean destinationDispatch;
+  private final int batchWindow;
+  private final int agingTime;
+  private final boolean parking;
+  private final int forecastSlot;
+  private final String dispatcher;
+  private final int lookAheadBudget;
+  private final int lookAheadMoves;
+  private final int lookAheadThreads;
+  private final int[][] zoneFloors;
+  private final int[] zoneCars;
+  private final int[] floorPopulations;
+  private final Properties source;
+
+  private BuildingConfig(Properties properties) {
+    this.source = new Properties();
+    this.source.putAll(properties);
+
+    this.floors = readInt(properties, "floors", DEFAULT_FLOORS, 2);
+    int zones = readInt(properties, "zones", 0, 0);
+    if (zones == 0) {
+      this.zoneCars = new int[] {readInt(properties, "cars", DEFAULT_CARS, 1)};
+      this.zoneFloors = new int[][] {readFloorList("1-" + floors, "floors", floors)};
+    } else {
+      this.zoneCars = new int[zones];
+      this.zoneFloors = new int[zones][];
+      for (int zone = 0; zone < zones; zone++) {
+        String prefix = "zone." + (zone + 1) + ".";
+        zoneCars[zone] = readInt(properties, prefix + "cars", DEFAULT_CARS, 1);
+        String list = properties.getProperty(prefix + "floors");
+        if (list == null) {
+          throw new IllegalArgumentException("Missing " + prefix + "floors");
+        }
+        zoneFloors[zone] = readFloorList(list, prefix + "floors", floors);
+      }
+    }
+    this.cars = Arrays.stream(zoneCars).sum();
+    this.carCapacity = readInt(properties, "capacity", DEFAULT_CAPACITY, 1);
+    this.floorToFloorTime =
+        readInt(properties, "floorToFloorTime", DEFAULT_FLOOR_TO_FLOOR_TIME, 1);
+    this.doorOperationTime =
+        readInt(properties, "doorOperationTime", DEFAULT_DOOR_OPERATION_TIME, 0);
+    this.passengerExitTime =
+        readInt(properties, "passengerExitTime", DEFAULT_PASSENGER_EXIT_TIME, 0);
+    this.passengerEntryTime =
+        readInt(properties, "passengerEntryTime", DEFAULT_PASSENGER_ENTRY_TIME, 0);
+    this.tickInterval = readInt(properties, "tickInterval", DEFAULT_TICK_INTERVAL, 1);
+    this.accelerationTime = readInt(properties, "accelerationTime", 0, 0);
+    int[] expressZone = readRange(properties, "expressZone", floors);
+    this.expressFrom = expressZone[0];
+    this.expressTo = expressZone[1];
+    this.expressFloorToFloorTime =
+        readInt(properties, "expressFloorToFloorTime", floorToFloorTime, 1);
+    this.destinationDispatch = Boolean.parseBoolean(
+        properties.getProperty("destinationDispatch", "false").trim());
+    this.batchWindow = readInt(properties, "batchWindow", DEFAULT_BATCH_WINDOW, 0);
+    this.agingTime = readInt(properties, "agingTime", DEFAULT_AGING_TIME, 0);
+    this.parking = Boolean.parseBoolean(properties.getProperty("parking", "false").trim());
+    this.forecastSlot = readInt(properties, "forecastSlot", 900, 1);
+    this.dispatcher = properties.getProperty("dispatcher", "nearest").trim().toLowerCase();
+    if (!dispatcher.equals("nearest") && !dispatcher.equals("lookahead")) {
+      throw new IllegalArgumentException("Unknown dispatcher: " + dispatcher);
+    }
+    this.lookAheadBudget =
+        readInt(properties, "lookAheadBudget", DEFAULT_LOOK_AHEAD_BUDGET, 1);
+    this.lookAheadMoves = readInt(properties, "lookAheadMoves", DEFAULT_LOOK_AHEAD_MOVES, 1);
+    this.lookAheadThreads =
+        readInt(properties, "lookAheadThreads", DEFAULT_LOOK_AHEAD_THREADS, 1);
+
+    int defaultPopulation = readInt(properties, "population", carCapacity, 0);
+    this.floorPopulations = new int[floors];
+    for (int floor = 1; floor <= floors; floor++) {
+      floorPopulations[floor - 1] =
+          readInt(properties, "population." + floor, defaultPopulation, 0);
+    }
+  }
+
+  public static BuildingConfig defaults() {
+    return new BuildingConfig(new Properties());
+  }
+
+  public static BuildingConfig fromProperties(Properties properties) {
+    return new BuildingConfig(properties);
+  }
+
+  public static BuildingConfig load(Path file) throws IOException {
+    Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      properties.load(reader);
+    }
+    return new BuildingConfig(properties);
+  }
+
+  /**
+   * Builds a configuration from {@code --key=value} arguments. A
+   * {@code --config=file} argument is loaded first and the remaining
+   * arguments override it. Unknown keys are kept but ignored.
+   */
+  public static BuildingConfig fromArgs(String[] args) throws IOException {
+    return fromOptions(parseArgs(args));
+  }
+
+  /** Like {@link #fromArgs}, for options that were already parsed. */
+  public static BuildingConfig fromOptions(Properties overrides) throws IOException {
+    Properties properties = new Properties();
+
+    String file = overrides.getProperty(CONFIG_ARG);
+    if (file != null) {
+      try (Reader reader = Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8)) {
+        properties.load(reader);
+      }
+    }
+    properties.putAll(overrides);
+    return new BuildingConfig(properties);
+  }
+
+  /** Parses {@code --key=value} arguments; a bare {@code --flag} maps to "true". */
+  public static Properties parseArgs(String[] args) {
+    Properties properties = new Properties();
+    for (String arg : args) {
+      if (!arg.startsWith("--")) {
+        throw new IllegalArgumentException("Unexpected argument: " + arg);
+      }
+      String option = arg.substring(2);
+      int separator = option.indexOf('=');
+      if (separator == -1) {
+        properties.setProperty(option, "true");
+      } else {
+        properties.setProperty(option.substring(0, separator), option.substring(separator + 1));
+      }
+    }
+    return properties;
+  }
+
+  /** Returns a copy of this configuration with the given keys replaced. */
+  public BuildingConfig with(Properties overrides) {
+    Properties properties = new Properties();
+    properties.putAll(source);
+    properties.putAll(overrides);
+    return new BuildingConfig(properties);
+  }
+
+  public BuildingConfig with(String key, Object value) {
+    Properties overrides = new Properties();
+    overrides.setProperty(key, String.valueOf(value));
+    return with(overrides);
+  }
+
+  /** All keys this configuration was built from, including unrecognised ones. */
+  public Properties toProperties() {
+    Properties copy = new Properties();
+    copy.putAll(source);
+    return copy;
+  }
+
+  private static int readInt(Properties properties, String key, int defaultValue, int min) {
+    String value = properties.getProperty(key);
+    if (value == null) {
+      return defaultValue;
+    }
+    int parsed;
+    try {
+      parsed = Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid value for " + key + ": " + value, e);
+    }
+    if (parsed < min) {
+      throw new IllegalArgumentException(key + " must be at least " + min + ", got " + parsed);
+    }
+    return parsed;
+  }
+
+  /** Parses a sorted, distinct floor list such as "1,21-40" */
+  private static int[] readFloorList(String value, String key, int floors) {
+    TreeSet<Integer> result = new TreeSet<>();
+    try {
+      for (String part : value.split(",")) {
+        String[] range = part.trim().split("-");
+        int from = Integer.parseInt(range[0].trim());
+        int to = range.length > 1 ? Integer.parseInt(range[1].trim()) : from;
+        if (range.length > 2 || from < 1 || to > floors || from > to) {
+          throw new IllegalArgumentException(
+              key + " must list floors within 1-" + floors + ", got " + value);
+        }
+        for (int floor = from; floor <= to; floor++) {
+          result.add(floor);
+        }
+      }
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid value for " + key + ": " + value, e);
+    }
+    if (result.size() < 2) {
+      throw new IllegalArgumentException(key + " must list at least two floors, got " + value);
+    }
+    return result.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  /** Reads an inclusive "from-to" floor range; {0, 0} when the key is absent */
+  private static int[] readRange(Properties properties, String key, int floors) {
+    String value = properties.getProperty(key);
+    if (value == null || value.isBlank()) {
+      return new int[] {0, 0};
+    }
+    String[] parts = value.trim().split("-");
+    int from;
+    int to;
+    try {
+      from = Integer.parseInt(parts[0].trim());
+      to = parts.length == 2 ? Integer.parseInt(parts[1].trim()) : -1;
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid value for " + key + ": " + value, e);
+    }
+    if (parts.length != 2 || from < 1 || to > floors || from >= to) {
+      throw new IllegalArgumentException(
+          key + " must be two floors \"from-to\" within 1-" + floors + ", got " + value);
+    }
+    return new int[] {from, to};
+  }
+
+  public int getFloors() {
+    return floors;
+  }
+
+  public int getCars() {
+    return cars;
+  }
+
+  /** Number of zones; a building without zones has one zone serving every floor */
+  public int getZoneCount() {
+    return zoneCars.length;
+  }
+
+  /** Sorted floors served by a zone (zones are 0-indexed) */
+  public int[] getZoneFloors(int zone) {
+    return zoneFloors[zone].clone();
+  }
+
+  public int getZoneCars(int zone) {
+    return zoneCars[zone];
+  }
+
+  public int getCarCapacity() {
+    return carCapacity;
+  }
+
+  public int getFloorToFloorTime() {
+    return floorToFloorTime;
+  }
+
+  public int getDoorOperationTime() {
+    return doorOperationTime;
+  }
+
+  public int getPassengerExitTime() {
+    return passengerExitTime;
+  }
+
+  public int getPassengerEntryTime() {
+    return passengerEntryTime;
+  }
+
+  public int getTickInterval() {
+    return tickInterval;
+  }
+
+  /** Time a car needs to reach full speed (and to stop from it), in milliseconds */
+  public int getAccelerationTime() {
+    return accelerationTime;
+  }
+
+  /** Lowest floor of the express zone, or 0 if there is none */
+  public int getExpressFrom() {
+    return expressFrom;
+  }
+
+  /** Highest floor of the express zone, or 0 if there is none */
+  public int getExpressTo() {
+    return expressTo;
+  }
+
+  /** Time per floor while running between floors inside the express zone */
+  public int getExpressFloorToFloorTime() {
+    return expressFloorToFloorTime;
+  }
+
+  /** Whether passengers enter their destination at the hall and are allotted a car */
+  public boolean isDestinationDispatch() {
+    return destinationDispatch;
+  }
+
+  /** How long destination calls are collected before being allotted together */
+  public int getBatchWindow() {
+    return batchWindow;
+  }
+
+  /**
+   * How long a hall call may wait before it takes priority: its car then
+   * runs past younger hall calls until it gets there. 0 turns aging off.
+   */
+  public int getAgingTime() {
+    return agingTime;
+  }
+
+  /** Whether idle cars move to where the forecaster expects the next calls */
+  public boolean isParking() {
+    return parking;
+  }
+
+  /** Length of one time-of-day slot of the traffic forecast, in seconds */
+  public int getForecastSlot() {
+    return forecastSlot;
+  }
+
+  /** Hall-call dispatcher: "nearest" or "lookahead" */
+  public String getDispatcher() {
+    return dispatcher;
+  }
+
+  /**
+   * Search budget of the look-ahead dispatcher per tick, in microseconds of
+   * wall-clock time, not CPU time: a busy machine gets less search done. A
+   * search the budget cuts short depends on machine load, so a resumed run
+   * matches the original only where the move limit ended every search.
+   */
+  public int getLookAheadBudget() {
+    return lookAheadBudget;
+  }
+
+  public int getLookAheadMoves() {
+    return lookAheadMoves;
+  }
+
+  public int getLookAheadThreads() {
+    return lookAheadThreads;
+  }
+
+  /** Upper bound of passengers generated on a floor (floors are 1-indexed) */
+  public int getFloorPopulation(int floorNumber) {
+    return floorPopulations[floorNumber - 1];
+  }
+
+  @Override
+  public String toString() {
+    return "BuildingConfig{floors="
+        + floors
+        + ", cars="
+        + cars
+        + ", capacity="
+        + carCapacity
+        + ", floorToFloorTime="
+        + floorToFloorTime
+        + ", doorOperationTime="
+        + doorOperationTime
+        + ", passengerExitTime="
+        + passengerExitTime
+        + ", passengerEntryTime="
+        + passengerEntryTime
+        + ", tickInterval="
+        + tickInterval
+        + ", accelerationTime="
+        + accelerationTime
+        + (expressTo > 0 ? ", expressZone=" + expressFrom + "-" + expressTo : "")
+        + ", destinationDispatch="
+        + destinationDispatch
+        + ", batchWindow="
+        + batchWindow
+        + ", agingTime="
+        + agingTime
+        + ", parking="
+        + parking
+        + ", dispatcher="
+        + dispatcher
+        + (zoneCars.length > 1 ? ", zones=" + zoneCars.length : "")
+        + ", populations="
+        + Arrays.toString(floorPopulations)
+        + "}";
+  }
+}
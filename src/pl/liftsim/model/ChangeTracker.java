@@ -0,0 +1,80 @@
+package pl.liftsim.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Remembers which cars and floors of a model changed, and their state before
+ * the first change, until the next batch is published. Does nothing while
+ * nobody listens, so an unobserved model pays one branch per mutation.
+ */
+final class ChangeTracker {
+  private final BitSet dirtyCars = new BitSet();
+  private final BitSet dirtyFloors = new BitSet();
+  private final int[] carFloorBefore;
+  private final int[] carLoadBefore;
+  private final int[] waitingBefore;
+  boolean enabled;
+
+  ChangeTracker(int cars, int floors) {
+    this.carFloorBefore = new int[cars];
+    this.carLoadBefore = new int[cars];
+    this.waitingBefore = new int[floors + 1];
+  }
+
+  /** Call before mutating {@code elevator} */
+  void carChanging(Elevator elevator) {
+    int car = elevator.getId();
+    if (enabled && !dirtyCars.get(car)) {
+      dirtyCars.set(car);
+      carFloorBefore[car] = elevator.getCurrentFloor();
+      carLoadBefore[car] = elevator.getPassengers().size();
+    }
+  }
+
+  /** Call before mutating {@code floor} */
+  void floorChanging(Floor floor) {
+    int number = floor.getFloorNumber();
+    if (enabled && !dirtyFloors.get(number)) {
+      dirtyFloors.set(number);
+      waitingBefore[number] = floor.getWaitingPassengers().size();
+    }
+  }
+
+  boolean isEmpty() {
+    return dirtyCars.isEmpty() && dirtyFloors.isEmpty();
+  }
+
+  /** Builds the batch from the current state and starts a new one */
+  ModelChanges drain(long time, List<Elevator> elevators, List<Floor> floors) {
+    List<ModelChanges.CarChange> cars = new ArrayList<>(dirtyCars.cardinality());
+    for (int car = dirtyCars.nextSetBit(0); car >= 0; car = dirtyCars.nextSetBit(car + 1)) {
+      Elevator elevator = elevators.get(car);
+      cars.add(
+          new ModelChanges.CarChange(
+              car,
+              carFloorBefore[car],
+              elevator.getCurrentFloor(),
+              carLoadBefore[car],
+              elevator.getPassengers().size()));
+    }
+    List<ModelChanges.FloorChange> changedFloors = new ArrayList<>(dirtyFloors.cardinality());
+    for (int number = dirtyFloors.nextSetBit(0); number >= 0;
+        number = dirtyFloors.nextSetBit(number + 1)) {
+      changedFloors.add(
+          new ModelChanges.FloorChange(
+              number,
+              waitingBefore[number],
+              floors.get(number - 1).getWaitingPassengers().size()));
+    }
+    dirtyCars.clear();
+    dirtyFloors.clear();
+    return new ModelChanges(time, cars, changedFloors);
+  }
+
+  void clear() {
+    dirtyCars.clear();
+    dirtyFloors.clear();
+  }
+}
@@ -1,15 +1,44 @@
 package pl.liftsim.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Elevator {
+  private final int id;
+  private final int capacity;
   private int currentFloor;
+  private int zone;
+  private int homeFloor = 1;
   private final List<Passenger> passengers;
+  private final List<Passenger> passengersView;
+  private ChangeTracker tracker;
 
-  public Elevator() {
+  public Elevator(int id, int capacity) {
+    this.id = id;
+    this.capacity = capacity;
     this.currentFloor = 1; // Start at floor 1, not 0
-    this.passengers = new ArrayList<>();
+    this.passengers = new ArrayList<>(capacity);
+    this.passengersView = Collections.unmodifiableList(passengers);
+  }
+
+  /** Reports mutations to the owning model from now on */
+  void track(ChangeTracker tracker) {
+    this.tracker = tracker;
+  }
+
+  private void changing() {
+    if (tracker != null) {
+      tracker.carChanging(this);
+    }
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public int getCapacity() {
+    return capacity;
   }
 
   public int getCurrentFloor() {
@@ -17,22 +46,47 @@ public class Elevator {
   }
 
   public void setCurrentFloor(int floor) {
+    changing();
     this.currentFloor = floor;
   }
 
+  /** Read-only view of the riders; it follows later changes */
   public List<Passenger> getPassengers() {
-    return passengers; // Return the actual list, not a copy
+    return passengersView;
+  }
+
+  /** Zone the car belongs to; it only stops at that zone's floors */
+  public int getZone() {
+    return zone;
+  }
+
+  /** Assigns the car to a zone and parks it at {@code homeFloor} */
+  public void setZone(int zone, int homeFloor) {
+    this.zone = zone;
+    this.homeFloor = homeFloor;
+    this.currentFloor = homeFloor;
+  }
+
+  public boolean isFull() {
+    return passengers.size() >= capacity;
   }
 
   public boolean addPassenger(Passenger passenger) {
-    if (passengers.size() < ElevatorModel.MAX_ELEVATOR_CAPACITY) {
+    if (passengers.size() < capacity) {
+      changing();
       return passengers.add(passenger);
     }
     return false;
   }
 
+  public boolean removePassenger(Passenger passenger) {
+    changing();
+    return passengers.remove(passenger);
+  }
+
   public void reset() {
-    this.currentFloor = 1; // Reset to floor 1
+    changing();
+    this.currentFloor = homeFloor; // Reset to floor 1, or the zone's lowest floor
     this.passengers.clear();
   }
 }
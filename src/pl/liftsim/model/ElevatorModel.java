@@ -1,70 +1,268 @@
 package pl.liftsim.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
 
 public class ElevatorModel {
-  public static final int MAX_FLOORS = 10;
-  public static final int MAX_ELEVATOR_CAPACITY = 5;
-
-  private final Elevator elevator;
+  private final BuildingConfig config;
+  private final List<Elevator> elevators;
   private final List<Floor> floors;
+  private final List<Zone> zones;
+  private final RoutePlanner routePlanner;
+  private final ChangeTracker changes;
+  private final List<ModelChangeListener> changeListeners = new CopyOnWriteArrayList<>();
   private boolean simulationRunning;
 
   public ElevatorModel() {
-    this.elevator = new Elevator();
-    this.floors = new ArrayList<>();
+    this(BuildingConfig.defaults());
+  }
+
+  public ElevatorModel(BuildingConfig config) {
+    this.config = config;
+    this.elevators = new ArrayList<>(config.getCars());
+    this.floors = new ArrayList<>(config.getFloors());
     this.simulationRunning = false;
 
-    for (int i = 0; i < MAX_FLOORS; i++) {
+    for (int i = 1; i <= config.getFloors(); i++) {
       floors.add(new Floor(i));
     }
+
+    List<Zone> zoneList = new ArrayList<>(config.getZoneCount());
+    for (int zone = 0; zone < config.getZoneCount(); zone++) {
+      Zone created = new Zone(zone, config.getZoneFloors(zone));
+      zoneList.add(created);
+      for (int car = 0; car < config.getZoneCars(zone); car++) {
+        Elevator elevator = new Elevator(elevators.size(), config.getCarCapacity());
+        elevator.setZone(zone, created.getLowestFloor());
+        elevators.add(elevator);
+      }
+    }
+    this.zones = Collections.unmodifiableList(zoneList);
+    this.routePlanner = new RoutePlanner(zones, config.getFloors());
+
+    // Floors served by more than one zone are where passengers change cars
+    for (Floor floor : floors) {
+      int serving = 0;
+      for (Zone zone : zones) {
+        if (zone.serves(floor.getFloorNumber())) {
+          serving++;
+        }
+      }
+      floor.setTransferFloor(serving > 1);
+    }
+
+    this.changes = new ChangeTracker(elevators.size(), floors.size());
+    for (Elevator elevator : elevators) {
+      elevator.track(changes);
+    }
+    for (Floor floor : floors) {
+      floor.track(changes);
+    }
+  }
+
+  /**
+   * Subscribes to batched changes of cars and floors. Changes are collected
+   * from the first subscription on and delivered by {@link #publishChanges}.
+   */
+  public void addChangeListener(ModelChangeListener listener) {
+    changeListeners.add(listener);
+    changes.enabled = true;
+  }
+
+  public void removeChangeListener(ModelChangeListener listener) {
+    changeListeners.remove(listener);
+    if (changeListeners.isEmpty()) {
+      changes.enabled = false;
+      changes.clear();
+    }
+  }
+
+  /**
+   * Hands everything that changed since the last call to every listener as
+   * one batch, with one record per changed car or floor. Whoever advances
+   * the simulation calls this once per step; nothing happens if nothing
+   * changed.
+   */
+  public void publishChanges(long time) {
+    if (changes.isEmpty()) {
+      return;
+    }
+    ModelChanges batch = changes.drain(time, elevators, floors);
+    for (ModelChangeListener listener : changeListeners) {
+      listener.modelChanged(batch);
+    }
   }
 
   public void setSimulationRunning(boolean running) {
     this.simulationRunning = running;
   }
 
-  public void generateRandomPassengers() {
-    Random random = new Random();
-
-    for (Floor floor : floors) {
-      floor.clearWaitingPassengers();
+  /**
+   * Fills every floor with up to its population of waiting passengers, each
+   * going to a random other floor. The result depends only on the seed:
+   * floors are drawn independently on up to {@code threads} threads and the
+   * passengers are numbered in floor order afterwards.
+   */
+  public void generateRandomPassengers(long seed, int threads) {
+    if (threads <= 1 || floors.size() < 2) {
+      generateRandomPassengers(seed, null, 1);
+      return;
     }
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      generateRandomPassengers(seed, executor, threads);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Like {@link #generateRandomPassengers(long, int)}, but on the caller's
+   * executor, so many replicas can share one pool instead of starting
+   * threads for each. A null executor draws on the calling thread.
+   */
+  public void generateRandomPassengers(long seed, ExecutorService executor) {
+    generateRandomPassengers(seed, executor, Runtime.getRuntime().availableProcessors());
+  }
+
+  private void generateRandomPassengers(long seed, ExecutorService executor, int threads) {
+    PassengerGenerator generator = new PassengerGenerator(config, seed);
+    // A few blocks per thread even out floors with very different populations
+    int blocks = executor == null ? 1 : Math.min(floors.size(), threads * 4);
+    int[][] destinations = new int[floors.size()][];
+    forEachFloor(
+        executor, blocks, floor -> destinations[floor - 1] = generator.destinations(floor, 0));
 
+    int[] firstIds = new int[floors.size()];
     int passengerId = 1;
+    for (int i = 0; i < firstIds.length; i++) {
+      firstIds[i] = passengerId;
+      passengerId += destinations[i].length;
+    }
+
+    Passenger[][] passengers = new Passenger[floors.size()][];
+    forEachFloor(
+        executor,
+        blocks,
+        floor -> {
+          int[] floorDestinations = destinations[floor - 1];
+          Passenger[] created = new Passenger[floorDestinations.length];
+          for (int i = 0; i < created.length; i++) {
+            created[i] = new Passenger(firstIds[floor - 1] + i, floor, floorDestinations[i]);
+            planRoute(created[i]);
+          }
+          passengers[floor - 1] = created;
+        });
+
+    // Floors report their changes, so they are filled on the calling thread
     for (Floor floor : floors) {
-      int numPassengers = random.nextInt(MAX_ELEVATOR_CAPACITY + 1);
-      for (int i = 0; i < numPassengers; i++) {
-        int destinationFloor;
-        do {
-          destinationFloor = random.nextInt(MAX_FLOORS) + 1; // Ensure destination is different
-        } while (destinationFloor == floor.getFloorNumber());
-
-        Passenger passenger =
-            new Passenger(passengerId++, floor.getFloorNumber(), destinationFloor);
+      floor.clearWaitingPassengers();
+      for (Passenger passenger : passengers[floor.getFloorNumber() - 1]) {
         floor.addWaitingPassenger(passenger);
       }
     }
   }
 
+  /** Runs the action for every floor number, split into contiguous blocks */
+  private void forEachFloor(ExecutorService executor, int blocks, IntConsumer action) {
+    int count = floors.size();
+    if (executor == null || blocks < 2) {
+      for (int floor = 1; floor <= count; floor++) {
+        action.accept(floor);
+      }
+      return;
+    }
+    List<Future<?>> futures = new ArrayList<>(blocks);
+    try {
+      for (int block = 0; block < blocks; block++) {
+        int first = 1 + (int) ((long) count * block / blocks);
+        int last = (int) ((long) count * (block + 1) / blocks);
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int floor = first; floor <= last; floor++) {
+                    action.accept(floor);
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Passenger generation failed", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Passenger generation interrupted", e);
+    } finally {
+      // A shared pool outlives this call, so stop whatever is left of it here
+      for (Future<?> future : futures) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  /** Gives a passenger its trip plan; single-zone trips need no plan */
+  public void planRoute(Passenger passenger) {
+    if (zones.size() > 1) {
+      int[][] plan = routePlanner.plan(passenger.getFromFloor(), passenger.getDestinationFloor());
+      passenger.setRoute(plan[0], plan[1]);
+    }
+  }
+
   public void reset() {
-    elevator.reset();
+    for (Elevator elevator : elevators) {
+      elevator.reset();
+    }
     for (Floor floor : floors) {
       floor.clearWaitingPassengers();
     }
     simulationRunning = false;
   }
 
+  public BuildingConfig getConfig() {
+    return config;
+  }
+
+  public int getMaxFloors() {
+    return config.getFloors();
+  }
+
+  public int getMaxElevatorCapacity() {
+    return config.getCarCapacity();
+  }
+
+  /** The first car; kept for code that still drives a single elevator */
   public Elevator getElevator() {
-    return elevator;
+    return elevators.get(0);
+  }
+
+  public List<Elevator> getElevators() {
+    return Collections.unmodifiableList(elevators);
   }
 
   public List<Floor> getFloors() {
     return floors;
   }
 
+  public List<Zone> getZones() {
+    return zones;
+  }
+
+  public Zone getZone(int zone) {
+    return zones.get(zone);
+  }
+
+  public RoutePlanner getRoutePlanner() {
+    return routePlanner;
+  }
+
   public boolean isSimulationRunning() {
     return simulationRunning;
   }
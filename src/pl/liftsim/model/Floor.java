@@ -1,30 +1,103 @@
 package pl.liftsim.model;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Floor {
   private final int floorNumber;
   private final List<Passenger> waitingPassengers;
+  private final List<Passenger> waitingView;
+  // Per zone of the waiting passengers, so dispatch need not scan the queue
+  private final List<ZoneQueue> zoneQueues = new ArrayList<>();
+  private ChangeTracker tracker;
+  private boolean transferFloor;
 
   public Floor(int floorNumber) {
     this.floorNumber = floorNumber;
     this.waitingPassengers = new ArrayList<>();
+    this.waitingView = Collections.unmodifiableList(waitingPassengers);
+  }
+
+  /** Reports mutations to the owning model from now on */
+  void track(ChangeTracker tracker) {
+    this.tracker = tracker;
+  }
+
+  private void changing() {
+    if (tracker != null) {
+      tracker.floorChanging(this);
+    }
   }
 
   public int getFloorNumber() {
     return floorNumber;
   }
 
+  /** Read-only view of the queue in arrival order; it follows later changes */
   public List<Passenger> getWaitingPassengers() {
-    return waitingPassengers;
+    return waitingView;
+  }
+
+  /** How many of the waiting passengers are for the zone's cars */
+  public int getWaitingCount(int zone) {
+    return zone < zoneQueues.size() ? zoneQueues.get(zone).waiting : 0;
+  }
+
+  /**
+   * The zone's first waiting passenger still waiting for their first car,
+   * rather than for the next leg after a transfer, or null if there is none.
+   */
+  public Passenger getFirstUnboarded(int zone) {
+    return zone < zoneQueues.size() ? zoneQueues.get(zone).unboarded.peekFirst() : null;
+  }
+
+  /** Whether passengers can change between zones here (a lobby or sky lobby) */
+  public boolean isTransferFloor() {
+    return transferFloor;
+  }
+
+  public void setTransferFloor(boolean transferFloor) {
+    this.transferFloor = transferFloor;
   }
 
   public void addWaitingPassenger(Passenger passenger) {
+    changing();
     waitingPassengers.add(passenger);
+    int zone = passenger.getZone();
+    while (zoneQueues.size() <= zone) {
+      zoneQueues.add(new ZoneQueue());
+    }
+    ZoneQueue queue = zoneQueues.get(zone);
+    queue.waiting++;
+    if (passenger.getBoardingTime() < 0) {
+      queue.unboarded.addLast(passenger);
+    }
+  }
+
+  public boolean removeWaitingPassenger(Passenger passenger) {
+    changing();
+    if (!waitingPassengers.remove(passenger)) {
+      return false;
+    }
+    ZoneQueue queue = zoneQueues.get(passenger.getZone());
+    queue.waiting--;
+    if (passenger.getBoardingTime() < 0) {
+      // Cars mostly take the queue from the front, so this is usually the head
+      queue.unboarded.removeFirstOccurrence(passenger);
+    }
+    return true;
   }
 
   public void clearWaitingPassengers() {
+    changing();
     waitingPassengers.clear();
+    zoneQueues.clear();
+  }
+
+  private static final class ZoneQueue {
+    int waiting;
+    final ArrayDeque<Passenger> unboarded = new ArrayDeque<>();
   }
 }
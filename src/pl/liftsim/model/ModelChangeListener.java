@@ -0,0 +1,8 @@
+package pl.liftsim.model;
+
+/** Receives the batched changes of an {@link ElevatorModel}. */
+@FunctionalInterface
+public interface ModelChangeListener {
+  /** Called once per batch, on the thread that publishes the model's changes */
+  void modelChanged(ModelChanges changes);
+}
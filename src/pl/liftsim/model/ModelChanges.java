@@ -0,0 +1,121 @@
+package pl.liftsim.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Everything that changed in an {@link ElevatorModel} since the previous
+ * batch, with one record per car or floor however often it was touched.
+ * Each record holds the state at the start of the batch and at its end.
+ */
+public final class ModelChanges {
+  private final long time;
+  private final List<CarChange> cars;
+  private final List<FloorChange> floors;
+
+  ModelChanges(long time, List<CarChange> cars, List<FloorChange> floors) {
+    this.time = time;
+    this.cars = Collections.unmodifiableList(cars);
+    this.floors = Collections.unmodifiableList(floors);
+  }
+
+  /** Simulation time the batch was published at */
+  public long getTime() {
+    return time;
+  }
+
+  /** Changed cars in index order */
+  public List<CarChange> getCars() {
+    return cars;
+  }
+
+  /** Changed floors in floor order */
+  public List<FloorChange> getFloors() {
+    return floors;
+  }
+
+  /** A car that moved or gained or lost passengers */
+  public static final class CarChange {
+    private final int car;
+    private final int floorBefore;
+    private final int floorAfter;
+    private final int loadBefore;
+    private final int loadAfter;
+
+    CarChange(int car, int floorBefore, int floorAfter, int loadBefore, int loadAfter) {
+      this.car = car;
+      this.floorBefore = floorBefore;
+      this.floorAfter = floorAfter;
+      this.loadBefore = loadBefore;
+      this.loadAfter = loadAfter;
+    }
+
+    public int getCar() {
+      return car;
+    }
+
+    public int getFloorBefore() {
+      return floorBefore;
+    }
+
+    public int getFloorAfter() {
+      return floorAfter;
+    }
+
+    public int getLoadBefore() {
+      return loadBefore;
+    }
+
+    public int getLoadAfter() {
+      return loadAfter;
+    }
+
+    public boolean hasMoved() {
+      return floorBefore != floorAfter;
+    }
+
+    @Override
+    public String toString() {
+      return "car "
+          + car
+          + ": floor "
+          + floorBefore
+          + "->"
+          + floorAfter
+          + ", load "
+          + loadBefore
+          + "->"
+          + loadAfter;
+    }
+  }
+
+  /** A floor whose queue of waiting passengers changed */
+  public static final class FloorChange {
+    private final int floor;
+    private final int waitingBefore;
+    private final int waitingAfter;
+
+    FloorChange(int floor, int waitingBefore, int waitingAfter) {
+      this.floor = floor;
+      this.waitingBefore = waitingBefore;
+      this.waitingAfter = waitingAfter;
+    }
+
+    public int getFloor() {
+      return floor;
+    }
+
+    public int getWaitingBefore() {
+      return waitingBefore;
+    }
+
+    public int getWaitingAfter() {
+      return waitingAfter;
+    }
+
+    @Override
+    public String toString() {
+      return "floor " + floor + ": waiting " + waitingBefore + "->" + waitingAfter;
+    }
+  }
+}
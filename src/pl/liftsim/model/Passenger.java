@@ -4,6 +4,16 @@ public class Passenger {
   private final int id;
   private final int fromFloor;
   private int destinationFloor;
+  // Simulation timestamps in milliseconds, -1 until the event happens
+  private long arrivalTime = -1;
+  private long boardingTime = -1;
+  private long exitTime = -1;
+  // Car allotted at the hall keypad in destination dispatch, -1 if none
+  private int assignedCar = -1;
+  // Multi-leg trip through a zoned building: floors passed through and zone per leg
+  private int[] route;
+  private int[] routeZones;
+  private int leg;
 
   public Passenger(int id, int fromFloor) {
     this.id = id;
@@ -33,6 +43,96 @@ public class Passenger {
     this.destinationFloor = destinationFloor;
   }
 
+  public long getArrivalTime() {
+    return arrivalTime;
+  }
+
+  public void setArrivalTime(long arrivalTime) {
+    this.arrivalTime = arrivalTime;
+  }
+
+  public long getBoardingTime() {
+    return boardingTime;
+  }
+
+  public void setBoardingTime(long boardingTime) {
+    this.boardingTime = boardingTime;
+  }
+
+  public long getExitTime() {
+    return exitTime;
+  }
+
+  public void setExitTime(long exitTime) {
+    this.exitTime = exitTime;
+  }
+
+  /**
+   * Sets the trip plan: {@code floors} holds the origin, any transfer floors
+   * and the destination; {@code zones} the zone of the car for each leg. The
+   * destination floor becomes the end of the first leg.
+   */
+  public void setRoute(int[] floors, int[] zones) {
+    this.route = floors;
+    this.routeZones = zones;
+    this.leg = 0;
+    this.destinationFloor = floors[1];
+  }
+
+  public boolean hasRoute() {
+    return route != null;
+  }
+
+  /** Zone whose cars can take the passenger on the current leg */
+  public int getZone() {
+    return routeZones == null ? 0 : routeZones[leg];
+  }
+
+  /** Floor the current leg starts from: the origin or a transfer floor */
+  public int getLegOrigin() {
+    return route == null ? fromFloor : route[leg];
+  }
+
+  public int getFinalDestination() {
+    return route == null ? destinationFloor : route[route.length - 1];
+  }
+
+  public boolean hasNextLeg() {
+    return route != null && leg < routeZones.length - 1;
+  }
+
+  /** Moves on to the next leg after changing cars at a transfer floor */
+  public void nextLeg() {
+    leg++;
+    destinationFloor = route[leg + 1];
+  }
+
+  public int getLeg() {
+    return leg;
+  }
+
+  /** Restores the position along the route, e.g. from a checkpoint */
+  public void setLeg(int leg) {
+    this.leg = leg;
+    this.destinationFloor = route[leg + 1];
+  }
+
+  public int[] getRoute() {
+    return route;
+  }
+
+  public int[] getRouteZones() {
+    return routeZones;
+  }
+
+  public int getAssignedCar() {
+    return assignedCar;
+  }
+
+  public void setAssignedCar(int assignedCar) {
+    this.assignedCar = assignedCar;
+  }
+
   @Override
   public String toString() {
     return "P" + id + (destinationFloor != -1 ? "→" + destinationFloor : "");
@@ -0,0 +1,44 @@
+package pl.liftsim.model;
+
+import java.util.SplittableRandom;
+
+/**
+ * Draws the passengers that appear on a floor in a time slot. Every (floor,
+ * slot) pair gets its own random stream derived from the seed, so what one
+ * floor draws does not depend on which other floors were drawn, in what
+ * order, or on how many threads.
+ */
+public class PassengerGenerator {
+  private final BuildingConfig config;
+  private final long seed;
+
+  public PassengerGenerator(BuildingConfig config, long seed) {
+    this.config = config;
+    this.seed = seed;
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Destinations of the passengers appearing on a floor in a slot, in
+   * arrival order: up to the floor's population of them, each going to a
+   * uniformly chosen other floor.
+   */
+  public int[] destinations(int floor, long slot) {
+    int floors = config.getFloors();
+    SplittableRandom random = stream(floor, slot);
+    int[] destinations = new int[random.nextInt(config.getFloorPopulation(floor) + 1)];
+    for (int i = 0; i < destinations.length; i++) {
+      // Draw among the other floors and step over the origin, so no redraws
+      int destination = random.nextInt(floors - 1) + 1;
+      destinations[i] = destination >= floor ? destination + 1 : destination;
+    }
+    return destinations;
+  }
+
+  private SplittableRandom stream(int floor, long slot) {
+    return new SplittableRandom(SplitMix.split(SplitMix.split(seed, floor), slot));
+  }
+}
@@ -0,0 +1,136 @@
+package pl.liftsim.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Plans multi-leg trips through a zoned building. Zones that share a floor
+ * are connected there; shortest zone paths between every pair of zones are
+ * found once, so planning a trip costs O(zones²) at worst and never looks at
+ * the floors in between. Where two zones share several floors the transfer
+ * is made at the one closest to the straight line between origin and
+ * destination.
+ */
+public class RoutePlanner {
+  private final List<Zone> zones;
+  private final int[][] shared; // Floors shared by each pair of zones
+  private final int[][] hops; // Zone-path length, or -1 if unreachable
+  private final int[][] nextZone; // First zone after the origin on a shortest path
+
+  public RoutePlanner(List<Zone> zones, int floors) {
+    this.zones = zones;
+    int count = zones.size();
+    shared = new int[count * count][];
+    for (Zone a : zones) {
+      for (Zone b : zones) {
+        List<Integer> common = new ArrayList<>();
+        for (int floor : a.getFloors()) {
+          if (b.serves(floor)) {
+            common.add(floor);
+          }
+        }
+        shared[a.getId() * count + b.getId()] =
+            common.stream().mapToInt(Integer::intValue).toArray();
+      }
+    }
+
+    hops = new int[count][count];
+    nextZone = new int[count][count];
+    for (int target = 0; target < count; target++) {
+      // Breadth-first search backwards from the target zone
+      int[] distance = hops[target];
+      Arrays.fill(distance, -1);
+      ArrayDeque<Integer> queue = new ArrayDeque<>();
+      distance[target] = 0;
+      nextZone[target][target] = target;
+      queue.add(target);
+      while (!queue.isEmpty()) {
+        int zone = queue.poll();
+        for (int other = 0; other < count; other++) {
+          if (distance[other] < 0 && shared[zone * count + other].length > 0) {
+            distance[other] = distance[zone] + 1;
+            nextZone[other][target] = zone;
+            queue.add(other);
+          }
+        }
+      }
+    }
+
+    for (int floor = 1; floor <= floors; floor++) {
+      if (zonesServing(floor).isEmpty()) {
+        throw new IllegalArgumentException("No zone serves floor " + floor);
+      }
+    }
+    for (int a = 0; a < count; a++) {
+      for (int b = 0; b < count; b++) {
+        if (hops[b][a] < 0) {
+          throw new IllegalArgumentException(
+              "Zones " + (a + 1) + " and " + (b + 1) + " are not connected");
+        }
+      }
+    }
+  }
+
+  private List<Zone> zonesServing(int floor) {
+    List<Zone> serving = new ArrayList<>();
+    for (Zone zone : zones) {
+      if (zone.serves(floor)) {
+        serving.add(zone);
+      }
+    }
+    return serving;
+  }
+
+  /**
+   * Plans a trip with the fewest changes of car.
+   *
+   * @return two arrays: the floors the passenger passes through (origin,
+   *     transfer floors, destination) and the zone of each leg
+   */
+  public int[][] plan(int from, int to) {
+    Zone bestStart = null;
+    Zone bestEnd = null;
+    int bestHops = Integer.MAX_VALUE;
+    for (Zone start : zonesServing(from)) {
+      for (Zone end : zonesServing(to)) {
+        int length = hops[end.getId()][start.getId()];
+        if (length < bestHops) {
+          bestHops = length;
+          bestStart = start;
+          bestEnd = end;
+        }
+      }
+    }
+
+    int[] floors = new int[bestHops + 2];
+    int[] legZones = new int[bestHops + 1];
+    floors[0] = from;
+    int zone = bestStart.getId();
+    int position = from;
+    for (int leg = 0; leg < bestHops; leg++) {
+      int next = nextZone[zone][bestEnd.getId()];
+      position = closestTransfer(shared[zone * zones.size() + next], position, to);
+      legZones[leg] = zone;
+      floors[leg + 1] = position;
+      zone = next;
+    }
+    legZones[bestHops] = zone;
+    floors[bestHops + 1] = to;
+    return new int[][] {floors, legZones};
+  }
+
+  private static int closestTransfer(int[] candidates, int position, int destination) {
+    int best = candidates[0];
+    int bestDetour = Integer.MAX_VALUE;
+    for (int floor : candidates) {
+      int detour = Math.abs(floor - position) + Math.abs(destination - floor);
+      if (detour < bestDetour) {
+        bestDetour = detour;
+        best = floor;
+      }
+    }
+    return best;
+  }
+}
@@ -0,0 +1,28 @@
+package pl.liftsim.model;
+
+/**
+ * The SplitMix64 mixing function, shared by every random stream in the
+ * simulator so that streams derived from one seed stay independent.
+ */
+public final class SplitMix {
+  /** Step between successive states */
+  public static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+  private SplitMix() {}
+
+  /**
+   * Seed for the {@code index}-th of many independent streams derived from
+   * one seed: the {@code index}-th output of a SplitMix64 generator seeded
+   * with {@code seed}, without stepping through the ones before it.
+   */
+  public static long split(long seed, long index) {
+    return mix64(seed + index * GOLDEN_GAMMA);
+  }
+
+  /** Scrambles the bits of {@code z}; the output step of SplitMix64 */
+  public static long mix64(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
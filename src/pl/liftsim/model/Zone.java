@@ -0,0 +1,60 @@
+package pl.liftsim.model;
+
+import java.util.Arrays;
+
+/**
+ * A group of cars serving the same set of floors. Cars of a zone only stop
+ * at its floors and run straight past the rest, so an express zone costs one
+ * run from the lobby to its first floor however many floors it skips.
+ */
+public class Zone {
+  private final int id;
+  private final int[] floors; // Sorted
+
+  public Zone(int id, int[] floors) {
+    this.id = id;
+    this.floors = floors.clone();
+    Arrays.sort(this.floors);
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public boolean serves(int floor) {
+    return Arrays.binarySearch(floors, floor) >= 0;
+  }
+
+  /**
+   * Next served floor strictly above ({@code direction > 0}) or below
+   * {@code floor}, or -1 if there is none.
+   */
+  public int next(int floor, int direction) {
+    int position = Arrays.binarySearch(floors, floor);
+    int index;
+    if (position >= 0) {
+      index = position + (direction > 0 ? 1 : -1);
+    } else {
+      int insertion = -position - 1;
+      index = direction > 0 ? insertion : insertion - 1;
+    }
+    return index >= 0 && index < floors.length ? floors[index] : -1;
+  }
+
+  public int getLowestFloor() {
+    return floors[0];
+  }
+
+  public int getHighestFloor() {
+    return floors[floors.length - 1];
+  }
+
+  public int[] getFloors() {
+    return floors.clone();
+  }
+
+  @Override
+  public String toString() {
+    return "Zone " + (id + 1) + " " + Arrays.toString(floors);
+  }
+}
@@ -0,0 +1,101 @@
+package pl.liftsim.simulation;
+
+import java.util.Collections;
+import java.util.List;
+
+/** Outcome of a {@link CampusSimulation} run. Buildings are indexed from 0. */
+public class CampusResult {
+  private final long seed;
+  private final List<RunResult> buildings;
+  private final SimulationMetrics campusMetrics;
+  private final long[] walkedOut;
+  private final long[] walkedIn;
+  private final int stillWalking;
+  private final long barriers;
+  private final long wallNanos;
+
+  public CampusResult(
+      long seed,
+      List<RunResult> buildings,
+      SimulationMetrics campusMetrics,
+      long[] walkedOut,
+      long[] walkedIn,
+      int stillWalking,
+      long barriers,
+      long wallNanos) {
+    this.seed = seed;
+    this.buildings = buildings;
+    this.campusMetrics = campusMetrics;
+    this.walkedOut = walkedOut;
+    this.walkedIn = walkedIn;
+    this.stillWalking = stillWalking;
+    this.barriers = barriers;
+    this.wallNanos = wallNanos;
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  /** One result per building; wall time is the time its shard spent simulating */
+  public List<RunResult> getBuildings() {
+    return Collections.unmodifiableList(buildings);
+  }
+
+  /** Every building's samples and counters added together */
+  public SimulationMetrics getCampusMetrics() {
+    return campusMetrics;
+  }
+
+  /** Walkers who left {@code building} for another one */
+  public long getWalkedOut(int building) {
+    return walkedOut[building];
+  }
+
+  /** Walkers who reached {@code building} and called a lift there */
+  public long getWalkedIn(int building) {
+    return walkedIn[building];
+  }
+
+  /** Walkers still on a walkway when the run ended */
+  public int getStillWalking() {
+    return stillWalking;
+  }
+
+  public long getBarriers() {
+    return barriers;
+  }
+
+  public long getEvents() {
+    long events = 0;
+    for (RunResult building : buildings) {
+      events += building.getEvents();
+    }
+    return events;
+  }
+
+  public long getWallNanos() {
+    return wallNanos;
+  }
+
+  /**
+   * Campus totals in the shape of a single run, for {@link ReportWriter#summaryRow}.
+   * The configuration is the first building's.
+   */
+  public RunResult toRunResult() {
+    int waiting = 0;
+    int riding = 0;
+    for (RunResult building : buildings) {
+      waiting += building.getStillWaiting();
+      riding += building.getStillRiding();
+    }
+    return new RunResult(
+        seed,
+        buildings.get(0).getConfig(),
+        campusMetrics,
+        waiting,
+        riding,
+        getEvents(),
+        wallNanos);
+  }
+}
@@ -0,0 +1,258 @@
+package pl.liftsim.simulation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import pl.liftsim.model.BuildingConfig;
+import pl.liftsim.model.ElevatorModel;
+import pl.liftsim.model.Passenger;
+
+/**
+ * Simulates a campus of buildings under one shared clock. Every building is
+ * a shard with its own {@link SimulationEngine}, traffic and random streams,
+ * and shards only interact through {@link Walkway}s: a passenger whose
+ * journey ends at a walkway floor may walk over and call a lift in the other
+ * building.
+ *
+ * <p>Time advances in barrier epochs. Within an epoch the shards run in
+ * parallel on a fork-join pool; at the barrier the walkers that left each
+ * shard are handed to their destination shards in building order. Every
+ * walkway takes at least one epoch to cross, so a walker always arrives in a
+ * later epoch than the one they left in and no shard ever sees an event from
+ * its past. Hand-over order does not depend on thread timing, so results are
+ * identical for any number of threads.
+ *
+ * <p>A walker is delivered in the building they leave and spawned as a new
+ * passenger in the one they reach, so campus totals count each leg.
+ */
+public class CampusSimulation {
+  private final List<Shard> shards = new ArrayList<>();
+  private final long barrierInterval;
+  private final long seed;
+  private long nextWalkerSequence;
+  private long barriers;
+
+  /**
+   * @param walkShare probability that a passenger arriving at a walkway floor
+   *     walks on to another building
+   * @param barrierInterval simulated milliseconds between barriers; no longer
+   *     than the shortest walkway
+   */
+  public CampusSimulation(
+      List<BuildingConfig> configs,
+      List<TrafficProfile> traffic,
+      List<Walkway> walkways,
+      double walkShare,
+      long barrierInterval,
+      long seed) {
+    if (configs.isEmpty() || configs.size() != traffic.size()) {
+      throw new IllegalArgumentException("need one traffic profile per building");
+    }
+    if (barrierInterval <= 0) {
+      throw new IllegalArgumentException("barrier interval must be positive");
+    }
+    this.barrierInterval = barrierInterval;
+    this.seed = seed;
+
+    for (int building = 0; building < configs.size(); building++) {
+      long shardSeed = SimRandom.split(seed, building);
+      shards.add(new Shard(building, configs.get(building), traffic.get(building), shardSeed));
+    }
+    for (Walkway walkway : walkways) {
+      checkFloor(configs, walkway.getFromBuilding(), walkway.getFromFloor(), walkway);
+      checkFloor(configs, walkway.getToBuilding(), walkway.getToFloor(), walkway);
+      if (walkway.getWalkTime() < barrierInterval) {
+        throw new IllegalArgumentException(
+            "walkway " + walkway + " is shorter than the barrier interval");
+      }
+      shards.get(walkway.getFromBuilding()).addExit(walkway);
+    }
+    int[] buildingFloors = new int[configs.size()];
+    for (int building = 0; building < configs.size(); building++) {
+      buildingFloors[building] = configs.get(building).getFloors();
+    }
+    for (Shard shard : shards) {
+      shard.walkShare = walkShare;
+      shard.buildingFloors = buildingFloors;
+    }
+  }
+
+  private static void checkFloor(
+      List<BuildingConfig> configs, int building, int floor, Walkway walkway) {
+    if (building < 0 || building >= configs.size()) {
+      throw new IllegalArgumentException("walkway " + walkway + " names an unknown building");
+    }
+    if (floor < 1 || floor > configs.get(building).getFloors()) {
+      throw new IllegalArgumentException("walkway " + walkway + " names an unknown floor");
+    }
+  }
+
+  /** Runs every building for {@code duration} simulated milliseconds. */
+  public CampusResult run(long duration, int threads) throws InterruptedException {
+    long started = System.nanoTime();
+    for (Shard shard : shards) {
+      shard.engine.start();
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+    try {
+      long end = 0;
+      while (end < duration) {
+        end = Math.min(end + barrierInterval, duration);
+        for (Shard shard : shards) {
+          shard.epochEnd = end;
+        }
+        for (Future<Void> epoch : pool.invokeAll(shards)) {
+          epoch.get();
+        }
+        exchangeWalkers();
+        barriers++;
+      }
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Building simulation failed", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+
+    List<RunResult> buildings = new ArrayList<>();
+    SimulationMetrics campus = new SimulationMetrics(false);
+    long[] walkedOut = new long[shards.size()];
+    long[] walkedIn = new long[shards.size()];
+    int walking = 0;
+    for (Shard shard : shards) {
+      shard.engine.stop();
+      buildings.add(HeadlessSimulation.summarise(shard.engine, shard.busyNanos));
+      campus.addAll(shard.engine.getMetrics());
+      walkedOut[shard.index] = shard.walkedOut;
+      walkedIn[shard.index] = shard.walkedIn;
+      walking += shard.inbound.size();
+    }
+    return new CampusResult(
+        seed,
+        buildings,
+        campus,
+        walkedOut,
+        walkedIn,
+        walking,
+        barriers,
+        System.nanoTime() - started);
+  }
+
+  /** Moves walkers to the buildings they are heading for, in a thread-independent order */
+  private void exchangeWalkers() {
+    for (Shard shard : shards) {
+      for (Walker walker : shard.outbound) {
+        walker.sequence = nextWalkerSequence++;
+        shards.get(walker.building).inbound.add(walker);
+      }
+      shard.outbound.clear();
+    }
+  }
+
+  public int getBuildingCount() {
+    return shards.size();
+  }
+
+  /** Engine of one building, e.g. to attach a listener before running */
+  public SimulationEngine getEngine(int building) {
+    return shards.get(building).engine;
+  }
+
+  /** One building. Only the pool thread running its epoch touches it until the barrier. */
+  private static final class Shard implements Callable<Void>, SimulationListener {
+    final int index;
+    final SimulationEngine engine;
+    final SimRandom walkRandom;
+    final Walkway[][] exits;
+    final PriorityQueue<Walker> inbound =
+        new PriorityQueue<>(
+            Comparator.comparingLong((Walker walker) -> walker.time)
+                .thenComparingLong(walker -> walker.sequence));
+    final List<Walker> outbound = new ArrayList<>();
+    int[] buildingFloors;
+    double walkShare;
+    long epochEnd;
+    long walkedOut;
+    long walkedIn;
+    long busyNanos;
+
+    Shard(int index, BuildingConfig config, TrafficProfile traffic, long seed) {
+      this.index = index;
+      this.engine =
+          new SimulationEngine(new ElevatorModel(config), seed, new SimulationMetrics(false));
+      this.walkRandom = new SimRandom(~seed);
+      this.exits = new Walkway[config.getFloors() + 1][];
+      engine.setTrafficProfile(traffic);
+      engine.setListener(this);
+    }
+
+    void addExit(Walkway walkway) {
+      Walkway[] current = exits[walkway.getFromFloor()];
+      Walkway[] grown = new Walkway[current == null ? 1 : current.length + 1];
+      if (current != null) {
+        System.arraycopy(current, 0, grown, 0, current.length);
+      }
+      grown[grown.length - 1] = walkway;
+      exits[walkway.getFromFloor()] = grown;
+    }
+
+    @Override
+    public Void call() {
+      long started = System.nanoTime();
+      Walker walker = inbound.peek();
+      while (walker != null && walker.time <= epochEnd) {
+        inbound.poll();
+        engine.runUntil(walker.time);
+        engine.spawnPassenger(walker.floor, walker.destination);
+        walkedIn++;
+        walker = inbound.peek();
+      }
+      engine.runUntil(epochEnd);
+      busyNanos += System.nanoTime() - started;
+      return null;
+    }
+
+    @Override
+    public void passengerDelivered(int car, Passenger passenger) {
+      Walkway[] links = exits[passenger.getDestinationFloor()];
+      if (links == null || walkRandom.nextDouble() >= walkShare) {
+        return;
+      }
+      Walkway walkway = links.length == 1 ? links[0] : links[walkRandom.nextInt(links.length)];
+      int floors = buildingFloors[walkway.getToBuilding()];
+      // Any floor of the other building except the one the walkway enters at
+      int destination = 1 + walkRandom.nextInt(floors - 1);
+      if (destination >= walkway.getToFloor()) {
+        destination++;
+      }
+      outbound.add(
+          new Walker(
+              engine.getTime() + walkway.getWalkTime(),
+              walkway.getToBuilding(),
+              walkway.getToFloor(),
+              destination));
+      walkedOut++;
+    }
+  }
+
+  private static final class Walker {
+    final long time;
+    final int building;
+    final int floor;
+    final int destination;
+    long sequence;
+
+    Walker(long time, int building, int floor, int destination) {
+      this.time = time;
+      this.building = building;
+      this.floor = floor;
+      this.destination = destination;
+    }
+  }
+}
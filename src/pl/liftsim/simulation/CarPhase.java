@@ -0,0 +1,99 @@
+package pl.liftsim.simulation;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * What a car is doing. The engine moves a car between phases only through
+ * {@link #on(Trigger)}, which looks the next phase up in a fixed transition
+ * table and rejects any trigger the current phase does not expect.
+ *
+ * <pre>
+ * phase          trigger     next phase
+ * IDLE           START       ACCELERATING
+ * IDLE           OPEN        DOORS_OPENING
+ * ACCELERATING   PASS        CRUISING
+ * ACCELERATING   APPROACH    DECELERATING
+ * ACCELERATING   ARRIVE      IDLE
+ * CRUISING       PASS        CRUISING
+ * CRUISING       APPROACH    DECELERATING
+ * DECELERATING   ARRIVE      IDLE
+ * DOORS_OPENING  DOOR_STEP   UNLOADING
+ * UNLOADING      DOOR_STEP   LOADING
+ * LOADING        DOOR_STEP   DOORS_CLOSING
+ * DOORS_CLOSING  DOOR_STEP   IDLE
+ * DOORS_CLOSING  REOPEN      DOORS_OPENING
+ * </pre>
+ *
+ * A car that arrives becomes IDLE and immediately decides whether to open
+ * its doors, carry on or rest, so arriving and stopping share one path.
+ */
+public enum CarPhase {
+  IDLE,
+  ACCELERATING,
+  CRUISING,
+  DECELERATING,
+  DOORS_OPENING,
+  UNLOADING,
+  LOADING,
+  DOORS_CLOSING;
+
+  /** Something that happened to a car */
+  public enum Trigger {
+    /** Leaves the current floor for a target */
+    START,
+    /** Passes a floor with more than one floor still to go */
+    PASS,
+    /** Passes the last floor before the target */
+    APPROACH,
+    /** Reaches the target floor */
+    ARRIVE,
+    /** Starts a stop at the current floor */
+    OPEN,
+    /** The running door or passenger step has finished */
+    DOOR_STEP,
+    /** Someone arrives while the doors are closing */
+    REOPEN
+  }
+
+  private static final Map<CarPhase, Map<Trigger, CarPhase>> TRANSITIONS =
+      new EnumMap<>(CarPhase.class);
+
+  static {
+    allow(IDLE, Trigger.START, ACCELERATING);
+    allow(IDLE, Trigger.OPEN, DOORS_OPENING);
+    allow(ACCELERATING, Trigger.PASS, CRUISING);
+    allow(ACCELERATING, Trigger.APPROACH, DECELERATING);
+    allow(ACCELERATING, Trigger.ARRIVE, IDLE);
+    allow(CRUISING, Trigger.PASS, CRUISING);
+    allow(CRUISING, Trigger.APPROACH, DECELERATING);
+    allow(DECELERATING, Trigger.ARRIVE, IDLE);
+    allow(DOORS_OPENING, Trigger.DOOR_STEP, UNLOADING);
+    allow(UNLOADING, Trigger.DOOR_STEP, LOADING);
+    allow(LOADING, Trigger.DOOR_STEP, DOORS_CLOSING);
+    allow(DOORS_CLOSING, Trigger.DOOR_STEP, IDLE);
+    allow(DOORS_CLOSING, Trigger.REOPEN, DOORS_OPENING);
+  }
+
+  private static void allow(CarPhase from, Trigger trigger, CarPhase to) {
+    TRANSITIONS.computeIfAbsent(from, phase -> new EnumMap<>(Trigger.class)).put(trigger, to);
+  }
+
+  /** The phase {@code trigger} leads to from this one */
+  public CarPhase on(Trigger trigger) {
+    CarPhase next = TRANSITIONS.get(this).get(trigger);
+    if (next == null) {
+      throw new IllegalStateException("Car cannot " + trigger + " while " + this);
+    }
+    return next;
+  }
+
+  public boolean isMoving() {
+    return this == ACCELERATING || this == CRUISING || this == DECELERATING;
+  }
+
+  /** Doors open, opening or closing: the car is stopped at a floor */
+  public boolean isDoorsOpen() {
+    return ordinal() >= DOORS_OPENING.ordinal();
+  }
+}
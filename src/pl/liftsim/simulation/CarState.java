@@ -0,0 +1,266 @@
+package pl.liftsim.simulation;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import pl.liftsim.model.Elevator;
+import pl.liftsim.model.Zone;
+
+/**
+ * Controller-side state of one car: travel direction, the requests assigned
+ * to it and what it is currently doing. Read-only outside the engine.
+ *
+ * <p>Besides the request sets the car keeps a bitset of planned stops, one
+ * bit per floor, updated in O(1) whenever a request is added or removed.
+ * ETA queries count stops with {@link Long#bitCount}, so they cost a few
+ * word operations even for a 150-floor building and look run times up in
+ * the {@link TravelTimeTable}.
+ */
+public class CarState {
+  private final int index;
+  private final Elevator elevator;
+  private final Zone zone;
+  private final TravelTimeTable travelTimes;
+  private final long[] stops; // Bit per floor with a call or car call
+  private int stopCount;
+
+  ElevatorDirection direction = ElevatorDirection.UP;
+  final Set<Integer> callRequests = new HashSet<>(); // Hall calls assigned to this car
+  final Set<Integer> destinationRequests = new HashSet<>(); // Car calls
+  CarPhase phase = CarPhase.IDLE;
+  int targetFloor = -1;
+  long doorStepDue; // When the running door or transfer step ends
+  int doorStepToken; // Only the DOOR_STEP event carrying this token is current
+  int tripStart = -1; // Floor and time the current run started from
+  long tripStartTime = 0;
+  int allotted = 0; // Destination-dispatch passengers still waiting for this car
+
+  CarState(int index, Elevator elevator, Zone zone, TravelTimeTable travelTimes) {
+    this.index = index;
+    this.elevator = elevator;
+    this.zone = zone;
+    this.travelTimes = travelTimes;
+    this.stops = new long[(travelTimes.getFloors() >> 6) + 1];
+  }
+
+  void reset() {
+    direction = ElevatorDirection.UP;
+    callRequests.clear();
+    destinationRequests.clear();
+    phase = CarPhase.IDLE;
+    targetFloor = -1;
+    doorStepDue = 0;
+    doorStepToken = 0;
+    tripStart = -1;
+    tripStartTime = 0;
+    allotted = 0;
+    syncStops();
+  }
+
+  boolean addCall(int floor) {
+    boolean added = callRequests.add(floor);
+    syncStop(floor);
+    return added;
+  }
+
+  boolean removeCall(int floor) {
+    boolean removed = callRequests.remove(floor);
+    syncStop(floor);
+    return removed;
+  }
+
+  boolean addDestination(int floor) {
+    boolean added = destinationRequests.add(floor);
+    syncStop(floor);
+    return added;
+  }
+
+  boolean removeDestination(int floor) {
+    boolean removed = destinationRequests.remove(floor);
+    syncStop(floor);
+    return removed;
+  }
+
+  private void syncStop(int floor) {
+    long bit = 1L << floor;
+    boolean wanted = callRequests.contains(floor) || destinationRequests.contains(floor);
+    boolean present = (stops[floor >> 6] & bit) != 0;
+    if (wanted && !present) {
+      stops[floor >> 6] |= bit;
+      stopCount++;
+    } else if (!wanted && present) {
+      stops[floor >> 6] &= ~bit;
+      stopCount--;
+    }
+  }
+
+  /** Rebuilds the stop bitset after the request sets were filled directly */
+  void syncStops() {
+    Arrays.fill(stops, 0);
+    stopCount = 0;
+    for (int floor : callRequests) {
+      syncStop(floor);
+    }
+    for (int floor : destinationRequests) {
+      syncStop(floor);
+    }
+  }
+
+  boolean hasRequests() {
+    return !callRequests.isEmpty() || !destinationRequests.isEmpty();
+  }
+
+  boolean hasRequest(int floor) {
+    return callRequests.contains(floor) || destinationRequests.contains(floor);
+  }
+
+  public boolean hasStop(int floor) {
+    return (stops[floor >> 6] & 1L << floor) != 0;
+  }
+
+  /** Distinct floors the car has to stop at */
+  public int getStopCount() {
+    return stopCount;
+  }
+
+  /** Planned stops strictly between two floors */
+  public int stopsBetween(int a, int b) {
+    int low = Math.min(a, b);
+    int high = Math.max(a, b);
+    return high - low < 2 ? 0 : stopsBelow(high) - stopsBelow(low + 1);
+  }
+
+  private int stopsBelow(int floor) {
+    int word = floor >> 6;
+    int count = Long.bitCount(stops[word] & ((1L << floor) - 1));
+    for (int i = 0; i < word; i++) {
+      count += Long.bitCount(stops[i]);
+    }
+    return count;
+  }
+
+  /** Furthest planned stop in the travel direction, or the current floor */
+  public int getSweepEnd() {
+    int position = getCurrentFloor();
+    if (direction == ElevatorDirection.DOWN) {
+      for (int word = 0; word < stops.length; word++) {
+        if (stops[word] != 0) {
+          return Math.min(position, (word << 6) + Long.numberOfTrailingZeros(stops[word]));
+        }
+      }
+    } else {
+      for (int word = stops.length - 1; word >= 0; word--) {
+        if (stops[word] != 0) {
+          return Math.max(position, (word << 6) + 63 - Long.numberOfLeadingZeros(stops[word]));
+        }
+      }
+    }
+    return position;
+  }
+
+  /** Whether the car passes {@code floor} before it turns round */
+  public boolean isOnTheWay(int floor) {
+    int position = getCurrentFloor();
+    return (direction == ElevatorDirection.UP && floor >= position)
+        || (direction == ElevatorDirection.DOWN && floor <= position);
+  }
+
+  /**
+   * Run time to {@code floor} ignoring stops: straight there when the car has
+   * nothing to do or the floor is on the way, otherwise via the end of the
+   * current sweep.
+   */
+  public long getTravelTime(int floor) {
+    int position = getCurrentFloor();
+    if (stopCount == 0 || isOnTheWay(floor)) {
+      return travelTimes.time(position, floor);
+    }
+    int end = getSweepEnd();
+    return travelTimes.time(position, end) + travelTimes.time(end, floor);
+  }
+
+  /** Predicted time until the car reaches {@code floor}, including planned stops on the way */
+  public long getEta(int floor) {
+    int position = getCurrentFloor();
+    int stopsFirst;
+    if (stopCount == 0 || isOnTheWay(floor)) {
+      stopsFirst = stopsBetween(position, floor);
+    } else {
+      int end = getSweepEnd();
+      stopsFirst =
+          stopsBetween(position, end)
+              + (end != position && hasStop(end) ? 1 : 0)
+              + stopsBetween(end, floor);
+    }
+    return getTravelTime(floor) + (long) stopsFirst * travelTimes.getStopTime();
+  }
+
+  /** Zone the car belongs to; it only stops at the zone's floors */
+  public Zone getZone() {
+    return zone;
+  }
+
+  public TravelTimeTable getTravelTimes() {
+    return travelTimes;
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public Elevator getElevator() {
+    return elevator;
+  }
+
+  public int getCurrentFloor() {
+    return elevator.getCurrentFloor();
+  }
+
+  public ElevatorDirection getDirection() {
+    return direction;
+  }
+
+  public CarPhase getPhase() {
+    return phase;
+  }
+
+  public boolean isMoving() {
+    return phase.isMoving();
+  }
+
+  public boolean isDoorsOpen() {
+    return phase.isDoorsOpen();
+  }
+
+  /** Floor the car is travelling to, or -1 when it is not moving */
+  public int getTargetFloor() {
+    return phase.isMoving() ? targetFloor : -1;
+  }
+
+  public boolean isIdle() {
+    return phase == CarPhase.IDLE && !hasRequests();
+  }
+
+  public int getLoad() {
+    return elevator.getPassengers().size();
+  }
+
+  /** Passengers allotted to this car at the hall who have not boarded yet */
+  public int getAllotted() {
+    return allotted;
+  }
+
+  public int getRequestCount() {
+    return callRequests.size() + destinationRequests.size();
+  }
+
+  public Set<Integer> getCallRequests() {
+    return Collections.unmodifiableSet(callRequests);
+  }
+
+  public Set<Integer> getDestinationRequests() {
+    return Collections.unmodifiableSet(destinationRequests);
+  }
+}
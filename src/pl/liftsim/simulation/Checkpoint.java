@@ -0,0 +1,695 @@
+package pl.liftsim.simulation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import pl.liftsim.model.BuildingConfig;
+import pl.liftsim.model.Elevator;
+import pl.liftsim.model.ElevatorModel;
+import pl.liftsim.model.Floor;
+import pl.liftsim.model.Passenger;
+
+/**
+ * Compact binary snapshot of a whole simulation: building configuration,
+ * traffic profile, clock and random state, every floor queue, every car with
+ * its riders, requests and phase, the pending event queue and the
+ * metrics collected so far. Integers are varint encoded.
+ *
+ * <p>Taking a checkpoint is split in two. Capturing serialises the state into
+ * a byte array on the simulation thread, and {@link #writeAsync} stores the
+ * bytes on another thread, so disk I/O never stalls the simulation.
+ * Restoring reads the bytes back into an engine, which is far cheaper than
+ * re-simulating up to the same point.
+ *
+ * <p>{@link #capture} takes a self-contained snapshot. Besides the live state
+ * it holds every wait and journey sample and, when passengers are kept,
+ * every passenger seen, so its cost grows with the length of the run. A
+ * {@link Chain} takes the periodic checkpoints of a long run instead: each
+ * link stores only the samples and delivered passengers added since the
+ * previous link, names that link's file, and is restored together with it
+ * by {@link #restore(Path)}.
+ */
+public final class Checkpoint {
+  private static final int MAGIC = 0x4C53434B; // "LSCK"
+  private static final int VERSION = 8;
+
+  private Checkpoint() {}
+
+  /** Captures a self-contained snapshot */
+  public static byte[] capture(SimulationEngine engine) {
+    return capture(engine, new Chain());
+  }
+
+  private static byte[] capture(SimulationEngine engine, Chain chain) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+    try (Output out = new Output(new DataOutputStream(bytes))) {
+      write(engine, out, chain);
+    } catch (IOException e) {
+      throw new IllegalStateException("In-memory checkpoint failed", e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Successive checkpoints of one run, each stored relative to the one
+   * before. Delivered passengers and wait and journey samples never change
+   * again, so a link stores those added since the previous link and only
+   * the state that can still change in full; capturing costs in proportion
+   * to that, not to the length of the run. The files of a chain must stay
+   * together in one directory.
+   */
+  public static final class Chain {
+    private String previous = "";
+    private int sealedPassengers;
+    private int waitSamples;
+    private int journeySamples;
+
+    /** Captures the next link, which is to be written as {@code file} */
+    public byte[] capture(SimulationEngine engine, Path file) {
+      byte[] snapshot = Checkpoint.capture(engine, this);
+      previous = file.getFileName().toString();
+      return snapshot;
+    }
+  }
+
+  /** Writes a snapshot atomically: readers never see a half-written file. */
+  public static void write(Path file, byte[] snapshot) throws IOException {
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    Files.write(temporary, snapshot);
+    Files.move(
+        temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  public static CompletableFuture<Void> writeAsync(
+      Path file, byte[] snapshot, Executor executor) {
+    return CompletableFuture.runAsync(
+        () -> {
+          try {
+            write(file, snapshot);
+          } catch (IOException e) {
+            throw new IllegalStateException("Could not write checkpoint " + file, e);
+          }
+        },
+        executor);
+  }
+
+  /**
+   * Builds a new model and engine from a snapshot file, reading the earlier
+   * links first if the file is part of a {@link Chain}.
+   */
+  public static SimulationEngine restore(Path file) throws IOException {
+    byte[] snapshot = Files.readAllBytes(file);
+    Deque<byte[]> earlier = new ArrayDeque<>();
+    for (String previous = previousLink(snapshot);
+        !previous.isEmpty();
+        previous = previousLink(earlier.peek())) {
+      Path link = file.resolveSibling(previous);
+      if (!Files.exists(link)) {
+        throw new IOException(file + " continues " + link + ", which is missing");
+      }
+      earlier.push(Files.readAllBytes(link));
+    }
+    History history = new History();
+    for (byte[] link : earlier) {
+      try (Input in = new Input(new DataInputStream(new ByteArrayInputStream(link)))) {
+        readHeader(in);
+        readProperties(in);
+        in.readBoolean();
+        readHistory(in, history);
+      }
+    }
+    return restore(snapshot, history);
+  }
+
+  /** Builds a new model and engine from a self-contained snapshot. */
+  public static SimulationEngine restore(byte[] snapshot) throws IOException {
+    return restore(snapshot, new History());
+  }
+
+  private static SimulationEngine restore(byte[] snapshot, History history)
+      throws IOException {
+    try (Input in = new Input(new DataInputStream(new ByteArrayInputStream(snapshot)))) {
+      readHeader(in);
+      BuildingConfig config = BuildingConfig.fromProperties(readProperties(in));
+      boolean keepPassengers = in.readBoolean();
+      SimulationEngine engine =
+          new SimulationEngine(
+              new ElevatorModel(config), 0, new SimulationMetrics(keepPassengers));
+      readState(engine, in, history);
+      return engine;
+    }
+  }
+
+  /** The file name of the link a snapshot continues, or "" if it is self-contained */
+  private static String previousLink(byte[] snapshot) throws IOException {
+    try (Input in = new Input(new DataInputStream(new ByteArrayInputStream(snapshot)))) {
+      readHeader(in);
+      readProperties(in);
+      in.readBoolean();
+      return in.readString();
+    }
+  }
+
+  /**
+   * Overwrites the state of an existing engine, keeping its model objects,
+   * listener and dispatcher. The engine must have the same number of floors
+   * and cars as the one the snapshot was taken from.
+   */
+  public static void restoreInto(SimulationEngine engine, byte[] snapshot) throws IOException {
+    try (Input in = new Input(new DataInputStream(new ByteArrayInputStream(snapshot)))) {
+      readHeader(in);
+      BuildingConfig config = BuildingConfig.fromProperties(readProperties(in));
+      ElevatorModel model = engine.getModel();
+      if (config.getFloors() != model.getFloors().size()
+          || config.getCars() != model.getElevators().size()) {
+        throw new IOException(
+            "Checkpoint is for "
+                + config.getFloors()
+                + " floors and "
+                + config.getCars()
+                + " cars, engine has "
+                + model.getFloors().size()
+                + " and "
+                + model.getElevators().size());
+      }
+      in.readBoolean(); // keepPassengers - the engine's own metrics decide
+      readState(engine, in, new History());
+    }
+  }
+
+  private static void write(SimulationEngine engine, Output out, Chain chain)
+      throws IOException {
+    ElevatorModel model = engine.getModel();
+    SimulationMetrics metrics = engine.getMetrics();
+
+    out.writeInt(MAGIC);
+    out.writeVarLong(VERSION);
+    writeProperties(out, model.getConfig().toProperties());
+    out.writeBoolean(metrics.isKeepingPassengers());
+
+    // What became final since the previous link: passengers at the front of
+    // the kept list that have left the building, and the new samples
+    List<Passenger> kept = metrics.getPassengers();
+    int sealed = chain.sealedPassengers;
+    while (sealed < kept.size() && kept.get(sealed).getExitTime() >= 0) {
+      sealed++;
+    }
+    out.writeString(chain.previous);
+    out.writeVarLong(chain.sealedPassengers);
+    out.writeVarLong(sealed - chain.sealedPassengers);
+    for (int i = chain.sealedPassengers; i < sealed; i++) {
+      writePassenger(out, kept.get(i));
+    }
+    metrics.writeSamples(out, chain.waitSamples, chain.journeySamples);
+
+    TrafficProfile traffic = engine.getTrafficProfile();
+    out.writeBoolean(traffic != null);
+    if (traffic != null) {
+      out.writeVarLong(traffic.getPattern().ordinal());
+      out.writeDouble(traffic.getPassengersPerHour());
+    }
+
+    out.writeVarLong(engine.getTime());
+    out.writeVarLong(engine.getProcessedEvents());
+    out.writeVarLong(engine.getNextPassengerId());
+    out.writeBoolean(engine.isRunning());
+    out.writeBoolean(engine.isAutoCall());
+    out.writeLong(engine.getRandom().getState());
+
+    // Passenger table: the kept passengers that may still change, followed
+    // by any passengers still in the building that are not kept
+    List<Passenger> table = new ArrayList<>(kept.subList(sealed, kept.size()));
+    Map<Passenger, Integer> index = new IdentityHashMap<>();
+    for (Passenger passenger : table) {
+      index.put(passenger, index.size());
+    }
+    int metricsPassengers = table.size();
+    List<Passenger> live = new ArrayList<>();
+    for (Floor floor : model.getFloors()) {
+      live.addAll(floor.getWaitingPassengers());
+    }
+    for (Elevator elevator : model.getElevators()) {
+      live.addAll(elevator.getPassengers());
+    }
+    for (Passenger passenger : live) {
+      if (!index.containsKey(passenger)) {
+        index.put(passenger, index.size());
+        table.add(passenger);
+      }
+    }
+
+    out.writeLong(engine.getSeed());
+    out.writeVarLong(metricsPassengers);
+    out.writeVarLong(table.size());
+    for (Passenger passenger : table) {
+      writePassenger(out, passenger);
+    }
+
+    for (Floor floor : model.getFloors()) {
+      writePassengerRefs(out, floor.getWaitingPassengers(), index);
+    }
+
+    for (CarState car : engine.getCars()) {
+      out.writeVarLong(car.getCurrentFloor());
+      out.writeVarLong(car.direction.ordinal());
+      out.writeVarLong(car.phase.ordinal());
+      out.writeZigZag(car.targetFloor);
+      out.writeZigZag(car.doorStepDue - engine.getTime());
+      out.writeZigZag(car.doorStepToken);
+      out.writeZigZag(car.tripStart);
+      out.writeZigZag(car.tripStartTime - engine.getTime());
+      writeFloorSet(out, car.callRequests);
+      writeFloorSet(out, car.destinationRequests);
+      writePassengerRefs(out, car.getElevator().getPassengers(), index);
+    }
+    writePassengerRefs(out, engine.getPendingCalls(), index);
+
+    EventQueue events = engine.getEventQueue();
+    out.writeVarLong(events.getNextSequence());
+    List<SimEvent> pending = events.snapshot();
+    out.writeVarLong(pending.size());
+    for (SimEvent event : pending) {
+      out.writeVarLong(event.getTime() - engine.getTime());
+      out.writeVarLong(event.getSequence());
+      out.writeVarLong(event.getType().ordinal());
+      out.writeZigZag(event.getCar());
+      out.writeZigZag(event.getArg());
+    }
+
+    metrics.writeTo(out);
+
+    TrafficForecaster forecaster = engine.getForecaster();
+    out.writeBoolean(forecaster != null);
+    if (forecaster != null) {
+      forecaster.writeTo(out);
+    }
+
+    chain.sealedPassengers = sealed;
+    chain.waitSamples = (int) metrics.getBoarded();
+    chain.journeySamples = (int) metrics.getDelivered();
+  }
+
+  private static void writePassenger(Output out, Passenger passenger) throws IOException {
+    out.writeVarLong(passenger.getId());
+    out.writeVarLong(passenger.getFromFloor());
+    out.writeZigZag(passenger.getDestinationFloor());
+    out.writeVarLong(passenger.getArrivalTime() + 1);
+    out.writeVarLong(passenger.getBoardingTime() + 1);
+    out.writeVarLong(passenger.getExitTime() + 1);
+    out.writeZigZag(passenger.getAssignedCar());
+    int[] route = passenger.getRoute();
+    out.writeVarLong(route == null ? 0 : route.length);
+    if (route != null) {
+      for (int i = 0; i < route.length; i++) {
+        out.writeVarLong(route[i]);
+        out.writeVarLong(i < route.length - 1 ? passenger.getRouteZones()[i] : 0);
+      }
+      out.writeVarLong(passenger.getLeg());
+    }
+  }
+
+  private static Passenger readPassenger(Input in) throws IOException {
+    Passenger passenger =
+        new Passenger((int) in.readVarLong(), (int) in.readVarLong(), in.readZigZag());
+    passenger.setArrivalTime(in.readVarLong() - 1);
+    passenger.setBoardingTime(in.readVarLong() - 1);
+    passenger.setExitTime(in.readVarLong() - 1);
+    passenger.setAssignedCar(in.readZigZag());
+    int routeLength = (int) in.readVarLong();
+    if (routeLength > 0) {
+      int[] route = new int[routeLength];
+      int[] zones = new int[routeLength - 1];
+      for (int stop = 0; stop < routeLength; stop++) {
+        route[stop] = (int) in.readVarLong();
+        int zone = (int) in.readVarLong();
+        if (stop < routeLength - 1) {
+          zones[stop] = zone;
+        }
+      }
+      passenger.setRoute(route, zones);
+      passenger.setLeg((int) in.readVarLong());
+    }
+    return passenger;
+  }
+
+  /** Adds a link's final passengers and new samples to what earlier links stored */
+  private static void readHistory(Input in, History history) throws IOException {
+    String previous = in.readString();
+    if (in.readVarLong() != history.passengers.size()) {
+      throw new IOException("Checkpoint continues " + previous + ", which was not read");
+    }
+    int sealed = (int) in.readVarLong();
+    for (int i = 0; i < sealed; i++) {
+      history.passengers.add(readPassenger(in));
+    }
+    if (in.readVarLong() != history.waitCount) {
+      throw new IOException("Checkpoint continues " + previous + ", which was not read");
+    }
+    long[] waits = in.readDeltas();
+    history.waits = append(history.waits, history.waitCount, waits);
+    history.waitCount += waits.length;
+    if (in.readVarLong() != history.journeyCount) {
+      throw new IOException("Checkpoint continues " + previous + ", which was not read");
+    }
+    long[] journeys = in.readDeltas();
+    history.journeys = append(history.journeys, history.journeyCount, journeys);
+    history.journeyCount += journeys.length;
+  }
+
+  private static long[] append(long[] values, int count, long[] extra) {
+    long[] result = values;
+    if (count + extra.length > values.length) {
+      result = Arrays.copyOf(values, Math.max(values.length * 2, count + extra.length));
+    }
+    System.arraycopy(extra, 0, result, count, extra.length);
+    return result;
+  }
+
+  /** What the links of a chain read so far stored for good */
+  private static final class History {
+    final List<Passenger> passengers = new ArrayList<>();
+    long[] waits = new long[64];
+    int waitCount;
+    long[] journeys = new long[64];
+    int journeyCount;
+  }
+
+  private static void readState(SimulationEngine engine, Input in, History history)
+      throws IOException {
+    ElevatorModel model = engine.getModel();
+    readHistory(in, history);
+
+    if (in.readBoolean()) {
+      TrafficProfile.Pattern pattern =
+          TrafficProfile.Pattern.values()[(int) in.readVarLong()];
+      engine.setTrafficProfile(new TrafficProfile(pattern, in.readDouble(), model.getConfig()));
+    } else {
+      engine.setTrafficProfile(null);
+    }
+
+    long time = in.readVarLong();
+    long processed = in.readVarLong();
+    int nextPassengerId = (int) in.readVarLong();
+    boolean running = in.readBoolean();
+    boolean autoCall = in.readBoolean();
+    engine.restoreClock(time, processed, nextPassengerId, running, autoCall);
+    engine.getRandom().setState(in.readLong());
+
+    engine.setSeed(in.readLong());
+    int metricsPassengers = (int) in.readVarLong();
+    int tableSize = (int) in.readVarLong();
+    Passenger[] table = new Passenger[tableSize];
+    for (int i = 0; i < tableSize; i++) {
+      table[i] = readPassenger(in);
+    }
+
+    for (Floor floor : model.getFloors()) {
+      floor.clearWaitingPassengers();
+      for (Passenger passenger : readPassengerRefs(in, table)) {
+        floor.addWaitingPassenger(passenger);
+      }
+    }
+
+    for (CarState car : engine.getCars()) {
+      car.reset();
+      car.getElevator().reset();
+      car.getElevator().setCurrentFloor((int) in.readVarLong());
+      car.direction = ElevatorDirection.values()[(int) in.readVarLong()];
+      car.phase = CarPhase.values()[(int) in.readVarLong()];
+      car.targetFloor = in.readZigZag();
+      car.doorStepDue = time + in.readZigZagLong();
+      car.doorStepToken = in.readZigZag();
+      car.tripStart = in.readZigZag();
+      car.tripStartTime = time + in.readZigZagLong();
+      readFloorSet(in, car.callRequests);
+      readFloorSet(in, car.destinationRequests);
+      car.syncStops();
+      for (Passenger passenger : readPassengerRefs(in, table)) {
+        car.getElevator().addPassenger(passenger);
+      }
+    }
+    engine.getPendingCalls().clear();
+    engine.getPendingCalls().addAll(readPassengerRefs(in, table));
+
+    // Allotment counts follow from the passengers still waiting
+    for (Floor floor : model.getFloors()) {
+      for (Passenger passenger : floor.getWaitingPassengers()) {
+        if (passenger.getAssignedCar() >= 0) {
+          engine.getCars().get(passenger.getAssignedCar()).allotted++;
+        }
+      }
+    }
+
+    EventQueue events = engine.getEventQueue();
+    events.clear();
+    events.setNextSequence(in.readVarLong());
+    int pending = (int) in.readVarLong();
+    SimEvent.Type[] types = SimEvent.Type.values();
+    for (int i = 0; i < pending; i++) {
+      long eventTime = time + in.readVarLong();
+      long sequence = in.readVarLong();
+      SimEvent.Type type = types[(int) in.readVarLong()];
+      events.restore(new SimEvent(eventTime, sequence, type, in.readZigZag(), in.readZigZag()));
+    }
+
+    SimulationMetrics metrics = engine.getMetrics();
+    metrics.readFrom(in);
+    metrics.restoreSamples(
+        history.waits, history.waitCount, history.journeys, history.journeyCount);
+    for (Passenger passenger : history.passengers) {
+      metrics.restorePassenger(passenger);
+    }
+    for (int i = 0; i < metricsPassengers; i++) {
+      metrics.restorePassenger(table[i]);
+    }
+
+    if (in.readBoolean()) {
+      if (engine.getForecaster() == null) {
+        throw new IOException("Checkpoint has a traffic forecast but parking is off");
+      }
+      engine.getForecaster().readFrom(in);
+    }
+  }
+
+  private static void readHeader(Input in) throws IOException {
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Not a simulation checkpoint");
+    }
+    long version = in.readVarLong();
+    if (version != VERSION) {
+      throw new IOException("Unsupported checkpoint version " + version);
+    }
+  }
+
+  private static void writeProperties(Output out, Properties properties) throws IOException {
+    Map<String, String> sorted = new TreeMap<>();
+    for (String key : properties.stringPropertyNames()) {
+      sorted.put(key, properties.getProperty(key));
+    }
+    out.writeVarLong(sorted.size());
+    for (Map.Entry<String, String> entry : sorted.entrySet()) {
+      out.writeString(entry.getKey());
+      out.writeString(entry.getValue());
+    }
+  }
+
+  private static Properties readProperties(Input in) throws IOException {
+    Properties properties = new Properties();
+    int count = (int) in.readVarLong();
+    for (int i = 0; i < count; i++) {
+      properties.setProperty(in.readString(), in.readString());
+    }
+    return properties;
+  }
+
+  private static void writeFloorSet(Output out, Iterable<Integer> floors) throws IOException {
+    List<Integer> values = new ArrayList<>();
+    for (int floor : floors) {
+      values.add(floor);
+    }
+    values.sort(null);
+    out.writeVarLong(values.size());
+    int previous = 0;
+    for (int floor : values) {
+      out.writeVarLong(floor - previous);
+      previous = floor;
+    }
+  }
+
+  private static void readFloorSet(Input in, Set<Integer> target) throws IOException {
+    int count = (int) in.readVarLong();
+    int floor = 0;
+    for (int i = 0; i < count; i++) {
+      floor += (int) in.readVarLong();
+      target.add(floor);
+    }
+  }
+
+  private static void writePassengerRefs(
+      Output out, List<Passenger> passengers, Map<Passenger, Integer> index) throws IOException {
+    out.writeVarLong(passengers.size());
+    for (Passenger passenger : passengers) {
+      out.writeVarLong(index.get(passenger));
+    }
+  }
+
+  private static List<Passenger> readPassengerRefs(Input in, Passenger[] table)
+      throws IOException {
+    int count = (int) in.readVarLong();
+    List<Passenger> passengers = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      passengers.add(table[(int) in.readVarLong()]);
+    }
+    return passengers;
+  }
+
+  /** Varint/zig-zag writer shared by the checkpoint and its parts */
+  static final class Output implements AutoCloseable {
+    private final DataOutputStream out;
+
+    Output(DataOutputStream out) {
+      this.out = out;
+    }
+
+    void writeVarLong(long value) throws IOException {
+      while ((value & ~0x7FL) != 0) {
+        out.writeByte((int) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      out.writeByte((int) value);
+    }
+
+    void writeZigZag(long value) throws IOException {
+      writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /** Values from index {@code from} up to {@code to} as zig-zag deltas */
+    void writeDeltas(long[] values, int from, int to) throws IOException {
+      writeVarLong(to - from);
+      long previous = 0;
+      for (int i = from; i < to; i++) {
+        writeZigZag(values[i] - previous);
+        previous = values[i];
+      }
+    }
+
+    void writeString(String value) throws IOException {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarLong(bytes.length);
+      out.write(bytes);
+    }
+
+    void writeInt(int value) throws IOException {
+      out.writeInt(value);
+    }
+
+    void writeLong(long value) throws IOException {
+      out.writeLong(value);
+    }
+
+    void writeDouble(double value) throws IOException {
+      out.writeDouble(value);
+    }
+
+    void writeBoolean(boolean value) throws IOException {
+      out.writeBoolean(value);
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.close();
+    }
+  }
+
+  /** Reader for {@link Output} */
+  static final class Input implements AutoCloseable {
+    private final DataInputStream in;
+
+    Input(DataInputStream in) {
+      this.in = in;
+    }
+
+    long readVarLong() throws IOException {
+      long value = 0;
+      int shift = 0;
+      while (true) {
+        int b = in.readUnsignedByte();
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+        shift += 7;
+        if (shift > 63) {
+          throw new IOException("Malformed varint");
+        }
+      }
+    }
+
+    int readZigZag() throws IOException {
+      long raw = readVarLong();
+      return (int) ((raw >>> 1) ^ -(raw & 1));
+    }
+
+    long readZigZagLong() throws IOException {
+      long raw = readVarLong();
+      return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    long[] readDeltas() throws IOException {
+      int count = (int) readVarLong();
+      long[] values = new long[count];
+      long previous = 0;
+      for (int i = 0; i < count; i++) {
+        previous += readZigZagLong();
+        values[i] = previous;
+      }
+      return values;
+    }
+
+    String readString() throws IOException {
+      byte[] bytes = new byte[(int) readVarLong()];
+      in.readFully(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    int readInt() throws IOException {
+      return in.readInt();
+    }
+
+    long readLong() throws IOException {
+      return in.readLong();
+    }
+
+    double readDouble() throws IOException {
+      return in.readDouble();
+    }
+
+    boolean readBoolean() throws IOException {
+      return in.readBoolean();
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+}
@@ -0,0 +1,570 @@
+package pl.liftsim.simulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import pl.liftsim.model.Passenger;
+
+/**
+ * Lets external programs drive a {@link SimulationEngine} over a local TCP or
+ * Unix-domain socket. The protocol is newline-delimited JSON objects with
+ * flat number or word values. Clients send commands:
+ *
+ * <pre>
+ * {"cmd":"call","floor":3}           hall call, as addCallRequest
+ * {"cmd":"car","car":0,"floor":7}    car call, as addDestinationRequest
+ * {"cmd":"spawn","from":1,"to":9}    passenger arrives on a floor
+ * {"cmd":"policy","value":"drop"}    drop (default) or conflate
+ * {"cmd":"snapshot"}                 resend every car and floor
+ * </pre>
+ *
+ * and receive {@code hello}, {@code car}, {@code floor}, {@code delivered},
+ * {@code time}, {@code dropped} and {@code error} lines. A new client gets a
+ * full snapshot, then only what changed.
+ *
+ * <p>One selector thread does all network I/O. The thread that owns the
+ * engine calls {@link #applyCommands()} and {@link #publish()} between
+ * steps; neither ever waits for a client. Each client has a bounded
+ * {@link DeltaBuffer}, so a slow reader loses or conflates its own updates
+ * and cannot stall the simulation or other clients. Commands are bounded the
+ * same way: a client with {@value #MAX_PENDING_COMMANDS} commands not yet
+ * applied is disconnected, and when every client together has filled the
+ * queue further commands are rejected with an error.
+ */
+public class ControlServer implements SimulationListener, Closeable {
+  private static final int READ_BUFFER = 4096;
+  private static final int WRITE_BUFFER = 16 * 1024;
+  private static final int MAX_LINE = 1024;
+  private static final int MAX_PENDING_COMMANDS = 1024; // Per client
+  private static final int MAX_QUEUED_COMMANDS = 16 * 1024; // All clients together
+
+  private static final int CALL = 0;
+  private static final int CAR_CALL = 1;
+  private static final int SPAWN = 2;
+
+  private final SimulationEngine engine;
+  private final int floors;
+  private final int bufferLines;
+  private final ServerSocketChannel server;
+  private final Selector selector;
+  private final SocketAddress address;
+  private final List<Client> clients = new CopyOnWriteArrayList<>();
+  private final Queue<Command> commands = new ArrayBlockingQueue<>(MAX_QUEUED_COMMANDS);
+  private final BitSet dirtyCars = new BitSet();
+  private final BitSet dirtyFloors = new BitSet();
+  private final Thread ioThread;
+  private volatile boolean open = true;
+
+  /**
+   * Binds to {@code address} (an InetSocketAddress or UnixDomainSocketAddress)
+   * and becomes the engine's listener. Call {@link #start()} to accept clients.
+   *
+   * @param bufferLines undelivered lines kept per client before dropping
+   */
+  public ControlServer(SimulationEngine engine, SocketAddress address, int bufferLines)
+      throws IOException {
+    this.engine = engine;
+    this.floors = engine.getModel().getFloors().size();
+    this.bufferLines = bufferLines;
+    this.server =
+        address instanceof UnixDomainSocketAddress
+            ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+            : ServerSocketChannel.open();
+    server.bind(address);
+    server.configureBlocking(false);
+    this.address = server.getLocalAddress();
+    this.selector = Selector.open();
+    server.register(selector, SelectionKey.OP_ACCEPT);
+    this.ioThread = new Thread(this::serve, "control-server");
+    ioThread.setDaemon(true);
+    engine.setListener(this);
+  }
+
+  public void start() {
+    ioThread.start();
+  }
+
+  /** Actual bound address, e.g. to learn the port after binding to port 0 */
+  public SocketAddress getAddress() {
+    return address;
+  }
+
+  public int getClientCount() {
+    return clients.size();
+  }
+
+  /** Applies every command received so far. Call from the thread that owns the engine. */
+  public int applyCommands() {
+    int applied = 0;
+    for (Command command = commands.poll(); command != null; command = commands.poll()) {
+      command.client.pendingCommands.decrementAndGet();
+      String problem = apply(command);
+      if (problem != null) {
+        command.client.deltas.offer(null, error(problem));
+      }
+      applied++;
+    }
+    return applied;
+  }
+
+  private String apply(Command command) {
+    switch (command.type) {
+      case CALL:
+        if (!isFloor(command.a)) {
+          return "no floor " + command.a;
+        }
+        engine.addCallRequest(command.a);
+        return null;
+      case CAR_CALL:
+        if (command.a < 0 || command.a >= engine.getCars().size()) {
+          return "no car " + command.a;
+        }
+        if (!isFloor(command.b)) {
+          return "no floor " + command.b;
+        }
+        engine.addDestinationRequest(command.a, command.b);
+        return null;
+      case SPAWN:
+        if (!isFloor(command.a) || !isFloor(command.b) || command.a == command.b) {
+          return "invalid trip " + command.a + " -> " + command.b;
+        }
+        engine.spawnPassenger(command.a, command.b);
+        return null;
+      default:
+        throw new IllegalStateException("Unknown command type " + command.type);
+    }
+  }
+
+  private boolean isFloor(int floor) {
+    return floor >= 1 && floor <= floors;
+  }
+
+  /**
+   * Queues what changed since the last call for every client and wakes the
+   * network thread. Call from the thread that owns the engine.
+   */
+  public void publish() {
+    for (Client client : clients) {
+      if (client.needsSnapshot) {
+        client.needsSnapshot = false;
+        for (CarState car : engine.getCars()) {
+          client.deltas.offer("car" + car.getIndex(), carLine(car));
+        }
+        for (int floor = 1; floor <= floors; floor++) {
+          client.deltas.offer("floor" + floor, floorLine(floor));
+        }
+      }
+    }
+    for (int car = dirtyCars.nextSetBit(0); car >= 0; car = dirtyCars.nextSetBit(car + 1)) {
+      broadcast("car" + car, carLine(engine.getCars().get(car)));
+    }
+    for (int floor = dirtyFloors.nextSetBit(0); floor >= 0;
+        floor = dirtyFloors.nextSetBit(floor + 1)) {
+      broadcast("floor" + floor, floorLine(floor));
+    }
+    dirtyCars.clear();
+    dirtyFloors.clear();
+    broadcast("time", "{\"type\":\"time\",\"t\":" + engine.getTime() + "}");
+    if (!clients.isEmpty()) {
+      selector.wakeup();
+    }
+  }
+
+  private void broadcast(String key, String line) {
+    for (Client client : clients) {
+      client.deltas.offer(key, line);
+    }
+  }
+
+  private String carLine(CarState car) {
+    return "{\"type\":\"car\",\"t\":"
+        + engine.getTime()
+        + ",\"car\":"
+        + car.getIndex()
+        + ",\"floor\":"
+        + car.getCurrentFloor()
+        + ",\"phase\":\""
+        + car.getPhase()
+        + "\",\"direction\":\""
+        + car.getDirection()
+        + "\",\"moving\":"
+        + car.isMoving()
+        + ",\"doors\":"
+        + car.isDoorsOpen()
+        + ",\"load\":"
+        + car.getLoad()
+        + "}";
+  }
+
+  private String floorLine(int floor) {
+    return "{\"type\":\"floor\",\"t\":"
+        + engine.getTime()
+        + ",\"floor\":"
+        + floor
+        + ",\"waiting\":"
+        + engine.getModel().getFloors().get(floor - 1).getWaitingPassengers().size()
+        + "}";
+  }
+
+  @Override
+  public void carMoved(int car, int floor) {
+    dirtyCars.set(car);
+  }
+
+  @Override
+  public void doorsChanged(int car, boolean open) {
+    dirtyCars.set(car);
+  }
+
+  @Override
+  public void carPassengersChanged(int car) {
+    dirtyCars.set(car);
+  }
+
+  @Override
+  public void floorQueueChanged(int floor) {
+    dirtyFloors.set(floor);
+  }
+
+  @Override
+  public void passengerDelivered(int car, Passenger passenger) {
+    broadcast(
+        null,
+        "{\"type\":\"delivered\",\"t\":"
+            + engine.getTime()
+            + ",\"passenger\":"
+            + passenger.getId()
+            + ",\"car\":"
+            + car
+            + ",\"floor\":"
+            + passenger.getDestinationFloor()
+            + ",\"wait\":"
+            + (passenger.getBoardingTime() - passenger.getArrivalTime())
+            + ",\"journey\":"
+            + (passenger.getExitTime() - passenger.getArrivalTime())
+            + "}");
+  }
+
+  /** Stops the network thread and disconnects every client. */
+  @Override
+  public void close() throws IOException {
+    open = false;
+    selector.wakeup();
+    try {
+      ioThread.join(1000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    for (Client client : clients) {
+      disconnect(client);
+    }
+    selector.close();
+    server.close();
+    if (address instanceof UnixDomainSocketAddress) {
+      Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+    }
+  }
+
+  private void serve() {
+    try {
+      while (open) {
+        selector.select();
+        for (SelectionKey key : selector.selectedKeys()) {
+          if (!key.isValid()) {
+            continue;
+          }
+          if (key.isAcceptable()) {
+            accept();
+          } else {
+            Client client = (Client) key.attachment();
+            try {
+              if (key.isReadable()) {
+                read(client);
+              }
+              if (key.isValid() && key.isWritable()) {
+                flush(client);
+              }
+            } catch (IOException e) {
+              disconnect(client);
+            }
+          }
+        }
+        selector.selectedKeys().clear();
+        for (Client client : clients) {
+          try {
+            flush(client);
+          } catch (IOException e) {
+            disconnect(client);
+          }
+        }
+      }
+    } catch (IOException e) {
+      if (open) {
+        System.err.println("Control server stopped: " + e.getMessage());
+      }
+    }
+  }
+
+  private void accept() throws IOException {
+    SocketChannel channel = server.accept();
+    if (channel == null) {
+      return;
+    }
+    channel.configureBlocking(false);
+    Client client = new Client(channel, new DeltaBuffer(bufferLines, false));
+    client.key = channel.register(selector, SelectionKey.OP_READ, client);
+    client.deltas.offer(
+        null,
+        "{\"type\":\"hello\",\"floors\":" + floors + ",\"cars\":" + engine.getCars().size() + "}");
+    clients.add(client);
+  }
+
+  private void read(Client client) throws IOException {
+    ByteBuffer in = client.in;
+    if (client.channel.read(in) < 0) {
+      disconnect(client);
+      return;
+    }
+    in.flip();
+    while (in.hasRemaining()) {
+      byte b = in.get();
+      if (b == '\n') {
+        String line =
+            new String(client.line.array(), 0, client.line.position(), StandardCharsets.UTF_8);
+        client.line.clear();
+        if (!line.isBlank() && !handle(client, line)) {
+          return;
+        }
+      } else if (client.line.hasRemaining()) {
+        client.line.put(b);
+      } else {
+        client.deltas.offer(null, error("line longer than " + MAX_LINE + " bytes"));
+        client.line.clear();
+        in.clear();
+        flush(client);
+        disconnect(client);
+        return;
+      }
+    }
+    in.clear();
+  }
+
+  /** Handles one line; returns false if the client was disconnected */
+  private boolean handle(Client client, String line) throws IOException {
+    try {
+      Map<String, String> fields = parseObject(line);
+      String command = fields.getOrDefault("cmd", "");
+      switch (command) {
+        case "call":
+          return enqueue(new Command(client, CALL, intField(fields, "floor"), 0));
+        case "car":
+          return enqueue(
+              new Command(client, CAR_CALL, intField(fields, "car"), intField(fields, "floor")));
+        case "spawn":
+          return enqueue(
+              new Command(client, SPAWN, intField(fields, "from"), intField(fields, "to")));
+        case "policy":
+          String policy = fields.getOrDefault("value", "");
+          if (!policy.equals("drop") && !policy.equals("conflate")) {
+            throw new IllegalArgumentException("policy must be drop or conflate");
+          }
+          client.deltas.setConflate(policy.equals("conflate"));
+          break;
+        case "snapshot":
+          client.needsSnapshot = true;
+          break;
+        default:
+          throw new IllegalArgumentException("unknown command '" + command + "'");
+      }
+    } catch (IllegalArgumentException e) {
+      client.deltas.offer(null, error(e.getMessage()));
+    }
+    return true;
+  }
+
+  /**
+   * Queues a command for the engine thread. A client that runs too far ahead
+   * of the simulation is disconnected; a full queue rejects the command.
+   */
+  private boolean enqueue(Command command) throws IOException {
+    Client client = command.client;
+    if (client.pendingCommands.get() >= MAX_PENDING_COMMANDS) {
+      client.deltas.offer(
+          null, error("more than " + MAX_PENDING_COMMANDS + " commands not yet applied"));
+      flush(client);
+      disconnect(client);
+      return false;
+    }
+    client.pendingCommands.incrementAndGet();
+    if (!commands.offer(command)) {
+      client.pendingCommands.decrementAndGet();
+      client.deltas.offer(null, error("server busy, command rejected"));
+    }
+    return true;
+  }
+
+  private void flush(Client client) throws IOException {
+    if (!client.channel.isOpen()) {
+      return;
+    }
+    ByteBuffer out = client.out;
+    while (true) {
+      if (!out.hasRemaining()) {
+        out.clear();
+        client.deltas.drainTo(out);
+        out.flip();
+        if (!out.hasRemaining()) {
+          client.key.interestOps(SelectionKey.OP_READ);
+          return;
+        }
+      }
+      client.channel.write(out);
+      if (out.hasRemaining()) {
+        // The socket is full; carry on when it drains
+        client.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        return;
+      }
+    }
+  }
+
+  private void disconnect(Client client) {
+    clients.remove(client);
+    if (client.key != null) {
+      client.key.cancel();
+    }
+    try {
+      client.channel.close();
+    } catch (IOException e) {
+      // Already gone
+    }
+  }
+
+  private static int intField(Map<String, String> fields, String name) {
+    String value = fields.get(name);
+    if (value == null) {
+      throw new IllegalArgumentException("missing '" + name + "'");
+    }
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("'" + name + "' is not a whole number");
+    }
+  }
+
+  private static String error(String message) {
+    return "{\"type\":\"error\",\"message\":\""
+        + message.replace("\\", "\\\\").replace("\"", "\\\"")
+        + "\"}";
+  }
+
+  /**
+   * Parses a flat JSON object whose values are numbers, booleans or strings
+   * without escapes - everything the protocol uses.
+   */
+  static Map<String, String> parseObject(String line) {
+    String body = line.trim();
+    if (body.length() < 2 || body.charAt(0) != '{' || body.charAt(body.length() - 1) != '}') {
+      throw new IllegalArgumentException("expected a JSON object");
+    }
+    Map<String, String> fields = new HashMap<>();
+    int end = body.length() - 1;
+    int i = skipSpaces(body, 1);
+    while (i < end) {
+      if (body.charAt(i) != '"') {
+        throw new IllegalArgumentException("expected a quoted name at " + i);
+      }
+      int close = body.indexOf('"', i + 1);
+      if (close < 0) {
+        throw new IllegalArgumentException("unterminated name");
+      }
+      String name = body.substring(i + 1, close);
+      i = skipSpaces(body, close + 1);
+      if (i >= end || body.charAt(i) != ':') {
+        throw new IllegalArgumentException("expected ':' after '" + name + "'");
+      }
+      i = skipSpaces(body, i + 1);
+      String value;
+      if (i < end && body.charAt(i) == '"') {
+        close = body.indexOf('"', i + 1);
+        if (close < 0 || close > end) {
+          throw new IllegalArgumentException("unterminated value of '" + name + "'");
+        }
+        value = body.substring(i + 1, close);
+        i = close + 1;
+      } else {
+        int stop = i;
+        while (stop < end
+            && body.charAt(stop) != ','
+            && !Character.isWhitespace(body.charAt(stop))) {
+          stop++;
+        }
+        value = body.substring(i, stop);
+        i = stop;
+      }
+      fields.put(name, value);
+      i = skipSpaces(body, i);
+      if (i < end) {
+        if (body.charAt(i) != ',') {
+          throw new IllegalArgumentException("expected ',' at " + i);
+        }
+        i = skipSpaces(body, i + 1);
+      }
+    }
+    return fields;
+  }
+
+  private static int skipSpaces(String text, int index) {
+    while (index < text.length() && Character.isWhitespace(text.charAt(index))) {
+      index++;
+    }
+    return index;
+  }
+
+  private static final class Client {
+    final SocketChannel channel;
+    final DeltaBuffer deltas;
+    final ByteBuffer in = ByteBuffer.allocate(READ_BUFFER);
+    final ByteBuffer line = ByteBuffer.allocate(MAX_LINE);
+    final ByteBuffer out = ByteBuffer.allocate(WRITE_BUFFER).flip();
+    final AtomicInteger pendingCommands = new AtomicInteger();
+    SelectionKey key;
+    volatile boolean needsSnapshot = true;
+
+    Client(SocketChannel channel, DeltaBuffer deltas) {
+      this.channel = channel;
+      this.deltas = deltas;
+    }
+  }
+
+  private static final class Command {
+    final Client client;
+    final int type;
+    final int a;
+    final int b;
+
+    Command(Client client, int type, int a, int b) {
+      this.client = client;
+      this.type = type;
+      this.a = a;
+      this.b = b;
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package pl.liftsim.simulation;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded outbox of protocol lines for one {@link ControlServer} client. The
+ * simulation thread offers lines and never waits; the network thread drains
+ * them. When the client reads too slowly, lines are either dropped (and the
+ * client told how many) or, with conflation, replaced: a line with a key -
+ * e.g. the state of one car - overwrites the undelivered line with the same
+ * key, so the client skips intermediate states but always sees the latest.
+ * Lines leave in the order they were offered; a replaced line moves to where
+ * its replacement was offered.
+ */
+final class DeltaBuffer {
+  private final int capacity;
+  // One queue for both kinds, so keyed lines keep their place among one-off ones: a keyed line
+  // is queued under its String key, a one-off line under its Long sequence number
+  private final Map<Object, byte[]> pending = new LinkedHashMap<>();
+  private long sequence;
+  private int oneOff;
+  private boolean conflate;
+  private long dropped;
+
+  /** @param capacity most undelivered lines kept, not counting conflated ones */
+  DeltaBuffer(int capacity, boolean conflate) {
+    this.capacity = capacity;
+    this.conflate = conflate;
+  }
+
+  synchronized void setConflate(boolean conflate) {
+    this.conflate = conflate;
+  }
+
+  synchronized boolean isConflating() {
+    return conflate;
+  }
+
+  /** @param key identifies what the line describes, or null for one-off events */
+  synchronized void offer(String key, String line) {
+    byte[] bytes = (line + "\n").getBytes(StandardCharsets.UTF_8);
+    if (conflate && key != null) {
+      // Conflated lines are bounded by the number of keys: one per car and floor
+      pending.remove(key);
+      pending.put(key, bytes);
+    } else if (oneOff < capacity) {
+      pending.put(sequence++, bytes);
+      oneOff++;
+    } else {
+      dropped++;
+    }
+  }
+
+  synchronized boolean isEmpty() {
+    return pending.isEmpty() && dropped == 0;
+  }
+
+  /** Moves as many whole lines as fit into {@code out}; a drop notice goes first. */
+  synchronized void drainTo(ByteBuffer out) {
+    if (dropped > 0) {
+      byte[] notice =
+          ("{\"type\":\"dropped\",\"count\":" + dropped + "}\n").getBytes(StandardCharsets.UTF_8);
+      if (notice.length > out.remaining()) {
+        return;
+      }
+      out.put(notice);
+      dropped = 0;
+    }
+    Iterator<Map.Entry<Object, byte[]>> queued = pending.entrySet().iterator();
+    while (queued.hasNext()) {
+      Map.Entry<Object, byte[]> next = queued.next();
+      if (next.getValue().length > out.remaining()) {
+        return;
+      }
+      out.put(next.getValue());
+      queued.remove();
+      if (next.getKey() instanceof Long) {
+        oneOff--;
+      }
+    }
+  }
+}
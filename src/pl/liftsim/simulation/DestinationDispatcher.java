@@ -0,0 +1,15 @@
+package pl.liftsim.simulation;
+
+import java.util.List;
+
+import pl.liftsim.model.Passenger;
+
+/** Allots cars to destination calls collected over one batching window. */
+public interface DestinationDispatcher {
+  /**
+   * @param calls waiting passengers whose destination is known, in the order they called
+   * @param cars the cars that can take these calls, e.g. one zone's
+   * @return for every call, the index of the car it is allotted to
+   */
+  int[] assign(List<Passenger> calls, List<CarState> cars);
+}
@@ -0,0 +1,25 @@
+package pl.liftsim.simulation;
+
+import java.util.List;
+
+/** Chooses which car serves a new hall call. */
+public interface Dispatcher {
+  /**
+   * @param floor floor the call was made from
+   * @param cars the cars that can take the call, e.g. one zone's
+   * @return {@link CarState#getIndex()} of the car that should take the call
+   */
+  int selectCar(int floor, List<CarState> cars);
+
+  /**
+   * Called on every tick with the hall calls that may still change car. The
+   * dispatcher may overwrite {@code owners[i]}, the position in {@code cars}
+   * of the car holding the call from {@code floors[i]}. The default keeps
+   * every call where it is.
+   *
+   * @param time current simulation time
+   * @param waiting passengers waiting on each call's floor
+   */
+  default void reassign(
+      long time, int[] floors, int[] waiting, int[] owners, List<CarState> cars) {}
+}
@@ -0,0 +1,7 @@
+package pl.liftsim.simulation;
+
+public enum ElevatorDirection {
+  UP,
+  DOWN,
+  IDLE
+}
@@ -0,0 +1,58 @@
+package pl.liftsim.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/** Time-ordered queue of pending events; ties are broken by insertion order. */
+public class EventQueue {
+  private final PriorityQueue<SimEvent> queue = new PriorityQueue<>();
+  private long nextSequence = 0;
+
+  public SimEvent schedule(long time, SimEvent.Type type, int car, int arg) {
+    SimEvent event = new SimEvent(time, nextSequence++, type, car, arg);
+    queue.add(event);
+    return event;
+  }
+
+  /** Re-inserts an event with its original sequence number (used when restoring). */
+  void restore(SimEvent event) {
+    queue.add(event);
+    nextSequence = Math.max(nextSequence, event.getSequence() + 1);
+  }
+
+  long getNextSequence() {
+    return nextSequence;
+  }
+
+  void setNextSequence(long nextSequence) {
+    this.nextSequence = nextSequence;
+  }
+
+  public SimEvent peek() {
+    return queue.peek();
+  }
+
+  public SimEvent poll() {
+    return queue.poll();
+  }
+
+  public boolean isEmpty() {
+    return queue.isEmpty();
+  }
+
+  public int size() {
+    return queue.size();
+  }
+
+  public void clear() {
+    queue.clear();
+  }
+
+  /** Pending events in firing order */
+  public List<SimEvent> snapshot() {
+    List<SimEvent> events = new ArrayList<>(queue);
+    events.sort(null);
+    return events;
+  }
+}
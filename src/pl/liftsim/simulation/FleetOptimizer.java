@@ -0,0 +1,212 @@
+package pl.liftsim.simulation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import pl.liftsim.model.BuildingConfig;
+
+/**
+ * Searches a grid of fleet configurations for the cheapest ones that meet a
+ * p95 wait SLA, using successive rounds of replications.
+ *
+ * <p>Every round runs more seeds for each surviving candidate, in parallel
+ * across a thread pool. All candidates use the same seeds so their results
+ * are directly comparable. After a round a candidate is dropped when its
+ * confidence interval shows that it clearly misses the SLA, or that a candidate
+ * costing no more is clearly faster. The cost / p95-wait Pareto frontier is
+ * built from every evaluated candidate, eliminated or not, so it shows the
+ * whole trade-off rather than only what meets the SLA; eliminated points
+ * keep the round and reason they were dropped for.
+ */
+public class FleetOptimizer {
+  private final List<SweepCandidate> candidates = new ArrayList<>();
+  private final TrafficProfile.Pattern pattern;
+  private final double passengersPerHour;
+  private final long duration;
+  private final double slaSeconds;
+  private final int threads;
+  private double confidenceZ = 2.0;
+  private int initialSeeds = 2;
+  private int maxSeeds = 16;
+  private long firstSeed = 1;
+
+  /**
+   * @param duration simulated milliseconds per replication
+   * @param slaSeconds required p95 wait in seconds
+   */
+  public FleetOptimizer(
+      TrafficProfile.Pattern pattern,
+      double passengersPerHour,
+      long duration,
+      double slaSeconds,
+      int threads) {
+    this.pattern = pattern;
+    this.passengersPerHour = passengersPerHour;
+    this.duration = duration;
+    this.slaSeconds = slaSeconds;
+    this.threads = Math.max(1, threads);
+  }
+
+  public void addCandidate(BuildingConfig config, double cost) {
+    candidates.add(new SweepCandidate(config, cost));
+  }
+
+  public void setConfidenceZ(double confidenceZ) {
+    this.confidenceZ = confidenceZ;
+  }
+
+  /** Seeds in the first round; doubled every round up to {@code maxSeeds} in total */
+  public void setSeedBudget(int initialSeeds, int maxSeeds) {
+    this.initialSeeds = Math.max(1, initialSeeds);
+    this.maxSeeds = Math.max(this.initialSeeds, maxSeeds);
+  }
+
+  public void setFirstSeed(long firstSeed) {
+    this.firstSeed = firstSeed;
+  }
+
+  public List<SweepCandidate> getCandidates() {
+    return candidates;
+  }
+
+  public List<SweepCandidate> run() throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      int seedsDone = 0;
+      int round = 0;
+      int seedsThisRound = initialSeeds;
+      while (seedsDone < maxSeeds && countAlive() > 0) {
+        int seeds = Math.min(seedsThisRound, maxSeeds - seedsDone);
+        runRound(executor, seedsDone, seeds);
+        seedsDone += seeds;
+        eliminate(round);
+        System.out.println(
+            "Round "
+                + round
+                + ": "
+                + seedsDone
+                + " seed(s) per candidate, "
+                + countAlive()
+                + "/"
+                + candidates.size()
+                + " candidates left");
+        round++;
+        seedsThisRound *= 2;
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    return paretoFrontier();
+  }
+
+  private void runRound(ExecutorService executor, int firstSeedIndex, int seeds)
+      throws InterruptedException {
+    List<Future<?>> futures = new ArrayList<>();
+    for (SweepCandidate candidate : candidates) {
+      if (!candidate.isAlive()) {
+        continue;
+      }
+      TrafficProfile traffic =
+          new TrafficProfile(pattern, passengersPerHour, candidate.getConfig());
+      for (int i = 0; i < seeds; i++) {
+        long seed = firstSeed + firstSeedIndex + i;
+        futures.add(
+            executor.submit(
+                () ->
+                    candidate.addReplication(
+                        HeadlessSimulation.run(
+                            candidate.getConfig(), traffic, duration, seed, false))));
+      }
+    }
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Sweep replication failed", e.getCause());
+    }
+  }
+
+  private void eliminate(int round) {
+    List<SweepCandidate> alive = new ArrayList<>();
+    for (SweepCandidate candidate : candidates) {
+      if (candidate.isAlive()) {
+        alive.add(candidate);
+      }
+    }
+
+    for (SweepCandidate candidate : alive) {
+      double lower = candidate.lowerBound(confidenceZ);
+      if (lower > slaSeconds) {
+        candidate.eliminate(round, "misses SLA");
+        continue;
+      }
+      for (SweepCandidate other : alive) {
+        if (other != candidate
+            && other.getCost() <= candidate.getCost()
+            && other.upperBound(confidenceZ) < lower) {
+          candidate.eliminate(round, "dominated by cost " + other.getCost());
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Evaluated candidates not beaten on both cost and mean p95 wait, cheapest
+   * first. Eliminated candidates are included, with their means over the
+   * replications they had.
+   */
+  public List<SweepCandidate> paretoFrontier() {
+    List<SweepCandidate> evaluated = new ArrayList<>();
+    for (SweepCandidate candidate : candidates) {
+      if (candidate.getReplications() > 0) {
+        evaluated.add(candidate);
+      }
+    }
+    evaluated.sort(
+        Comparator.comparingDouble(SweepCandidate::getCost)
+            .thenComparingDouble(SweepCandidate::getMeanP95Wait));
+
+    List<SweepCandidate> frontier = new ArrayList<>();
+    double bestWait = Double.POSITIVE_INFINITY;
+    for (SweepCandidate candidate : evaluated) {
+      if (candidate.getMeanP95Wait() < bestWait) {
+        frontier.add(candidate);
+        bestWait = candidate.getMeanP95Wait();
+      }
+    }
+    return frontier;
+  }
+
+  /** Cheapest surviving candidate whose mean p95 wait meets the SLA, or null */
+  public SweepCandidate cheapestMeetingSla() {
+    SweepCandidate best = null;
+    for (SweepCandidate candidate : candidates) {
+      if (candidate.isAlive()
+          && candidate.getMeanP95Wait() <= slaSeconds
+          && (best == null
+              || candidate.getCost() < best.getCost()
+              || candidate.getCost() == best.getCost()
+                  && candidate.getMeanP95Wait() < best.getMeanP95Wait())) {
+        best = candidate;
+      }
+    }
+    return best;
+  }
+
+  private int countAlive() {
+    int alive = 0;
+    for (SweepCandidate candidate : candidates) {
+      if (candidate.isAlive()) {
+        alive++;
+      }
+    }
+    return alive;
+  }
+}
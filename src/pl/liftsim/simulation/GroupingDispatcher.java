@@ -0,0 +1,149 @@
+package pl.liftsim.simulation;
+
+import java.util.Arrays;
+import java.util.List;
+
+import pl.liftsim.model.Passenger;
+
+/**
+ * Destination dispatcher that groups passengers travelling between the same
+ * floors into the same car. Calls are taken grouped by origin and destination
+ * and each goes to the car with the lowest estimated cost: the time to reach
+ * the caller, plus the time of every extra stop the trip adds to the car's
+ * plan. Stops already planned cost nothing, so a second passenger for a floor
+ * the car already serves joins it. Cars whose committed load would exceed
+ * their capacity are charged a full round trip. Run times are looked up in
+ * the building's {@link TravelTimeTable}.
+ *
+ * <p>A batch costs O(calls × cars) plus a sort, so tens of calls are allotted
+ * in microseconds.
+ */
+public class GroupingDispatcher implements DestinationDispatcher {
+  private final TravelTimeTable travelTimes;
+  private final int floors;
+  private final long stopTime;
+  private final long roundTrip;
+
+  public GroupingDispatcher(TravelTimeTable travelTimes) {
+    this.travelTimes = travelTimes;
+    this.floors = travelTimes.getFloors();
+    this.stopTime = travelTimes.getStopTime();
+    this.roundTrip = 2L * travelTimes.time(1, floors);
+  }
+
+  @Override
+  public int[] assign(List<Passenger> calls, List<CarState> cars) {
+    // Planned stops and committed load of every car, updated as calls are allotted
+    boolean[][] stops = new boolean[cars.size()][floors + 1];
+    int[] stopCounts = new int[cars.size()];
+    int[] committed = new int[cars.size()];
+    for (int index = 0; index < cars.size(); index++) {
+      CarState car = cars.get(index);
+      for (int floor : car.callRequests) {
+        addStop(stops, stopCounts, index, floor);
+      }
+      for (int floor : car.destinationRequests) {
+        addStop(stops, stopCounts, index, floor);
+      }
+      committed[index] = car.getLoad() + car.allotted;
+    }
+
+    // Same origin and destination next to each other, so a group fills one car
+    Integer[] order = new Integer[calls.size()];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(
+        order,
+        (a, b) -> {
+          Passenger first = calls.get(a);
+          Passenger second = calls.get(b);
+          int byFloor = Integer.compare(first.getLegOrigin(), second.getLegOrigin());
+          return byFloor != 0
+              ? byFloor
+              : Integer.compare(first.getDestinationFloor(), second.getDestinationFloor());
+        });
+
+    int[] assignment = new int[calls.size()];
+    for (int call : order) {
+      Passenger passenger = calls.get(call);
+      int bestCar = 0;
+      long bestCost = Long.MAX_VALUE;
+      for (int index = 0; index < cars.size(); index++) {
+        CarState car = cars.get(index);
+        long cost = cost(passenger, car, stops[index], stopCounts[index], committed[index]);
+        if (cost < bestCost) {
+          bestCost = cost;
+          bestCar = index;
+        }
+      }
+      assignment[call] = cars.get(bestCar).getIndex();
+      committed[bestCar]++;
+      addStop(stops, stopCounts, bestCar, passenger.getLegOrigin());
+      addStop(stops, stopCounts, bestCar, passenger.getDestinationFloor());
+    }
+    return assignment;
+  }
+
+  private long cost(
+      Passenger passenger, CarState car, boolean[] stops, int stopCount, int committed) {
+    int from = passenger.getLegOrigin();
+    int position = car.getCurrentFloor();
+
+    long cost;
+    if (stopCount == 0) {
+      cost = travelTimes.time(position, from);
+    } else if (car.isOnTheWay(from)) {
+      cost = travelTimes.time(position, from) + stopsBetween(stops, position, from) * stopTime;
+    } else {
+      int end = sweepEnd(car, stops, position);
+      cost = travelTimes.time(position, end) + travelTimes.time(end, from) + stopCount * stopTime;
+    }
+
+    // Extra stops delay everyone else on board
+    if (!stops[from]) {
+      cost += stopTime;
+    }
+    if (!stops[passenger.getDestinationFloor()]) {
+      cost += stopTime;
+    }
+    if (committed >= car.getElevator().getCapacity()) {
+      cost += roundTrip;
+    }
+    return cost;
+  }
+
+  private int stopsBetween(boolean[] stops, int a, int b) {
+    int count = 0;
+    for (int floor = Math.min(a, b) + 1; floor < Math.max(a, b); floor++) {
+      if (stops[floor]) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private int sweepEnd(CarState car, boolean[] stops, int position) {
+    if (car.getDirection() == ElevatorDirection.DOWN) {
+      for (int floor = 1; floor < position; floor++) {
+        if (stops[floor]) {
+          return floor;
+        }
+      }
+    } else {
+      for (int floor = floors; floor > position; floor--) {
+        if (stops[floor]) {
+          return floor;
+        }
+      }
+    }
+    return position;
+  }
+
+  private static void addStop(boolean[][] stops, int[] stopCounts, int car, int floor) {
+    if (!stops[car][floor]) {
+      stops[car][floor] = true;
+      stopCounts[car]++;
+    }
+  }
+}
@@ -0,0 +1,207 @@
+package pl.liftsim.simulation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import pl.liftsim.model.BuildingConfig;
+import pl.liftsim.model.Elevator;
+import pl.liftsim.model.ElevatorModel;
+import pl.liftsim.model.Floor;
+
+/** Runs a simulation as fast as possible with no view attached. */
+public final class HeadlessSimulation {
+  private HeadlessSimulation() {}
+
+  /**
+   * @param duration simulated time in milliseconds
+   * @param keepPassengers keep every passenger for a detailed report
+   */
+  public static RunResult run(
+      BuildingConfig config,
+      TrafficProfile traffic,
+      long duration,
+      long seed,
+      boolean keepPassengers) {
+    try {
+      return run(config, traffic, duration, seed, keepPassengers, 0, null);
+    } catch (IOException e) {
+      throw new IllegalStateException("Unreachable without checkpoints", e);
+    }
+  }
+
+  /**
+   * Like {@link #run(BuildingConfig, TrafficProfile, long, long, boolean)},
+   * additionally saving a checkpoint to {@code checkpointDirectory} every
+   * {@code checkpointInterval} simulated milliseconds (0 disables checkpoints).
+   */
+  public static RunResult run(
+      BuildingConfig config,
+      TrafficProfile traffic,
+      long duration,
+      long seed,
+      boolean keepPassengers,
+      long checkpointInterval,
+      Path checkpointDirectory)
+      throws IOException {
+    return run(
+        config,
+        traffic,
+        duration,
+        seed,
+        keepPassengers,
+        checkpointInterval,
+        checkpointDirectory,
+        0);
+  }
+
+  /**
+   * Like {@link #run(BuildingConfig, TrafficProfile, long, long, boolean, long,
+   * Path)}, additionally sampling the building every {@code sampleInterval}
+   * simulated milliseconds into a {@link TelemetryStore} in {@code
+   * outputDirectory}/telemetry-&lt;seed&gt; (0 disables sampling).
+   */
+  public static RunResult run(
+      BuildingConfig config,
+      TrafficProfile traffic,
+      long duration,
+      long seed,
+      boolean keepPassengers,
+      long checkpointInterval,
+      Path outputDirectory,
+      long sampleInterval)
+      throws IOException {
+    long started = System.nanoTime();
+
+    ElevatorModel model = new ElevatorModel(config);
+    SimulationEngine engine =
+        new SimulationEngine(model, seed, new SimulationMetrics(keepPassengers));
+    engine.setTrafficProfile(traffic);
+    engine.start();
+    return finish(engine, duration, checkpointInterval, outputDirectory, sampleInterval, started);
+  }
+
+  /** Continues a run from a checkpoint file until {@code duration} simulated milliseconds. */
+  public static RunResult resume(
+      Path checkpoint, long duration, long checkpointInterval, Path checkpointDirectory)
+      throws IOException {
+    return resume(checkpoint, duration, checkpointInterval, checkpointDirectory, 0);
+  }
+
+  /** Like {@link #resume(Path, long, long, Path)}, sampling telemetry from the checkpoint on. */
+  public static RunResult resume(
+      Path checkpoint,
+      long duration,
+      long checkpointInterval,
+      Path outputDirectory,
+      long sampleInterval)
+      throws IOException {
+    long started = System.nanoTime();
+    SimulationEngine engine = Checkpoint.restore(checkpoint);
+    return finish(engine, duration, checkpointInterval, outputDirectory, sampleInterval, started);
+  }
+
+  private static RunResult finish(
+      SimulationEngine engine,
+      long duration,
+      long checkpointInterval,
+      Path outputDirectory,
+      long sampleInterval,
+      long started)
+      throws IOException {
+    TelemetryStore telemetry = null;
+    if (sampleInterval > 0 && outputDirectory != null) {
+      // Samples fall on whole multiples of the interval, also when resuming
+      long first = Math.floorDiv(engine.getTime() + sampleInterval - 1, sampleInterval);
+      telemetry =
+          TelemetryStore.create(
+              outputDirectory.resolve("telemetry-" + engine.getSeed()),
+              engine.getModel().getFloors().size(),
+              engine.getCars().size(),
+              first * sampleInterval,
+              sampleInterval);
+    }
+    try {
+      if (checkpointInterval > 0 && outputDirectory != null) {
+        runWithCheckpoints(engine, duration, checkpointInterval, outputDirectory, telemetry);
+      } else {
+        advance(engine, duration, telemetry);
+      }
+    } finally {
+      if (telemetry != null) {
+        telemetry.close();
+      }
+    }
+    engine.stop();
+    return summarise(engine, System.nanoTime() - started);
+  }
+
+  private static void advance(SimulationEngine engine, long time, TelemetryStore telemetry) {
+    if (telemetry != null) {
+      telemetry.runUntil(engine, time);
+    } else {
+      engine.runUntil(time);
+    }
+  }
+
+  /** Collects the outcome of a finished run, counting who is still waiting or riding. */
+  static RunResult summarise(SimulationEngine engine, long wallNanos) {
+    ElevatorModel model = engine.getModel();
+    int waiting = 0;
+    for (Floor floor : model.getFloors()) {
+      waiting += floor.getWaitingPassengers().size();
+    }
+    int riding = 0;
+    for (Elevator elevator : model.getElevators()) {
+      riding += elevator.getPassengers().size();
+    }
+
+    return new RunResult(
+        engine.getSeed(),
+        model.getConfig(),
+        engine.getMetrics(),
+        waiting,
+        riding,
+        engine.getProcessedEvents(),
+        wallNanos);
+  }
+
+  private static void runWithCheckpoints(
+      SimulationEngine engine,
+      long duration,
+      long interval,
+      Path directory,
+      TelemetryStore telemetry)
+      throws IOException {
+    ExecutorService writer = Executors.newSingleThreadExecutor();
+    List<CompletableFuture<Void>> writes = new ArrayList<>();
+    try {
+      // Each checkpoint stores only what became final since the one before
+      Checkpoint.Chain chain = new Checkpoint.Chain();
+      long next = (engine.getTime() / interval + 1) * interval;
+      while (next < duration) {
+        advance(engine, next, telemetry);
+        // Serialise on this thread, write to disk on the writer thread
+        Path file = directory.resolve("checkpoint-" + engine.getSeed() + "-" + next + ".bin");
+        byte[] snapshot = chain.capture(engine, file);
+        writes.add(Checkpoint.writeAsync(file, snapshot, writer));
+        next += interval;
+      }
+      advance(engine, duration, telemetry);
+      CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0])).join();
+    } catch (CompletionException e) {
+      // writeAsync wraps the IOException in an IllegalStateException
+      if (e.getCause() != null && e.getCause().getCause() instanceof IOException) {
+        throw (IOException) e.getCause().getCause();
+      }
+      throw e;
+    } finally {
+      writer.shutdown();
+    }
+  }
+}
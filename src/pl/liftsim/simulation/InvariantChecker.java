@@ -0,0 +1,297 @@
+package pl.liftsim.simulation;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+import pl.liftsim.model.Elevator;
+import pl.liftsim.model.Floor;
+import pl.liftsim.model.Passenger;
+
+/**
+ * Checks that a running {@link SimulationEngine} is consistent. Meant to be
+ * called between any two events, e.g. after every {@link
+ * SimulationEngine#step(long)}:
+ *
+ * <ul>
+ *   <li>conservation: every passenger spawned is waiting on exactly one floor,
+ *       riding exactly one car or delivered, and delivered only once
+ *   <li>capacity: no car carries more passengers than it holds
+ *   <li>service: every waiting passenger has a hall call, a pending
+ *       destination call or a car opening its doors for them, and every rider
+ *       has a car call for their floor
+ *   <li>starvation: nobody travels, and no request stays open, for longer than
+ *       the bound
+ * </ul>
+ *
+ * The checker registers itself as the engine's listener to see deliveries
+ * and passes every callback on to the listener it replaces.
+ */
+public class InvariantChecker implements SimulationListener {
+  private final SimulationEngine engine;
+  private final SimulationListener next;
+  private final long starvationBound;
+  private final List<Floor> floors;
+  private final List<CarState> cars;
+  private final BitSet delivered = new BitSet();
+  private long[] lastSeen = new long[1024]; // Check in which each passenger was last found
+  private final long[][] requestSince;
+  private final long[][] requestSeen;
+  private long deliveredCount;
+  private long checks;
+
+  /** @param starvationBound longest acceptable journey or open request, in ms */
+  public InvariantChecker(SimulationEngine engine, long starvationBound) {
+    this.engine = engine;
+    this.next = engine.getListener();
+    this.starvationBound = starvationBound;
+    this.floors = engine.getModel().getFloors();
+    this.cars = engine.getCars();
+    this.requestSince = new long[cars.size()][floors.size() + 1];
+    this.requestSeen = new long[cars.size()][floors.size() + 1];
+    for (long[] seen : requestSeen) {
+      Arrays.fill(seen, -1);
+    }
+    engine.setListener(this);
+  }
+
+  /**
+   * Throws a {@link Violation} describing the first broken invariant, if any.
+   * Runs after every event, so it walks the lists by index and allocates
+   * nothing unless something is wrong.
+   */
+  public void check() {
+    long time = engine.getTime();
+    checks++;
+    int count = 0;
+
+    for (int f = 0; f < floors.size(); f++) {
+      Floor floor = floors.get(f);
+      List<Passenger> waiting = floor.getWaitingPassengers();
+      for (int i = 0; i < waiting.size(); i++) {
+        Passenger passenger = waiting.get(i);
+        count++;
+        account(passenger, time);
+        if (!isServed(passenger, floor.getFloorNumber())) {
+          throw new Violation(
+              "unserved",
+              time,
+              "passenger "
+                  + passenger.getId()
+                  + " waits at floor "
+                  + floor.getFloorNumber()
+                  + " with no call and no car coming");
+        }
+      }
+    }
+
+    for (int c = 0; c < cars.size(); c++) {
+      CarState car = cars.get(c);
+      Elevator elevator = car.getElevator();
+      List<Passenger> riders = elevator.getPassengers();
+      if (riders.size() > elevator.getCapacity()) {
+        throw new Violation(
+            "capacity",
+            time,
+            "car "
+                + (car.getIndex() + 1)
+                + " carries "
+                + riders.size()
+                + " passengers, capacity "
+                + elevator.getCapacity());
+      }
+      for (int i = 0; i < riders.size(); i++) {
+        Passenger passenger = riders.get(i);
+        count++;
+        account(passenger, time);
+        int destination = passenger.getDestinationFloor();
+        boolean arriving =
+            car.phase == CarPhase.DOORS_OPENING && car.getCurrentFloor() == destination;
+        if (!arriving && !car.destinationRequests.contains(destination)) {
+          throw new Violation(
+              "unserved",
+              time,
+              "passenger "
+                  + passenger.getId()
+                  + " rides car "
+                  + (car.getIndex() + 1)
+                  + " with no car call for floor "
+                  + destination);
+        }
+      }
+      checkRequestAge(car, time);
+    }
+
+    long spawned = engine.getNextPassengerId() - 1;
+    if (count + deliveredCount != spawned) {
+      throw new Violation(
+          "conservation",
+          time,
+          spawned
+              + " passengers spawned but "
+              + count
+              + " waiting or riding and "
+              + deliveredCount
+              + " delivered");
+    }
+  }
+
+  /** Whether nobody is waiting or riding and no car has a request left */
+  public boolean isDrained() {
+    for (Floor floor : floors) {
+      if (!floor.getWaitingPassengers().isEmpty()) {
+        return false;
+      }
+    }
+    for (CarState car : cars) {
+      if (car.hasRequests() || car.getLoad() > 0 || car.isDoorsOpen()) {
+        return false;
+      }
+    }
+    return engine.getPendingCalls().isEmpty();
+  }
+
+  public long getDelivered() {
+    return deliveredCount;
+  }
+
+  public long getChecks() {
+    return checks;
+  }
+
+  private void account(Passenger passenger, long time) {
+    int id = passenger.getId();
+    if (id >= lastSeen.length) {
+      lastSeen = Arrays.copyOf(lastSeen, Math.max(id + 1, lastSeen.length * 2));
+    }
+    if (lastSeen[id] == checks) {
+      throw new Violation("conservation", time, "passenger " + id + " is in two places");
+    }
+    if (delivered.get(id)) {
+      throw new Violation("conservation", time, "passenger " + id + " is back after delivery");
+    }
+    lastSeen[id] = checks;
+    if (time - passenger.getArrivalTime() > starvationBound) {
+      throw new Violation(
+          "starvation",
+          time,
+          "passenger "
+              + id
+              + " has travelled for "
+              + (time - passenger.getArrivalTime()) / 1000
+              + "s");
+    }
+  }
+
+  private boolean isServed(Passenger passenger, int floor) {
+    if (engine.getModel().getConfig().isDestinationDispatch()) {
+      int assigned = passenger.getAssignedCar();
+      if (assigned < 0) {
+        return engine.getPendingCalls().contains(passenger);
+      }
+      return isComing(cars.get(assigned), floor);
+    }
+    for (int c = 0; c < cars.size(); c++) {
+      CarState car = cars.get(c);
+      if (car.getZone().getId() == passenger.getZone() && isComing(car, floor)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** The car has a call for the floor, or stands there and has not loaded yet */
+  private static boolean isComing(CarState car, int floor) {
+    if (car.callRequests.contains(floor)) {
+      return true;
+    }
+    return car.getCurrentFloor() == floor
+        && (car.phase == CarPhase.DOORS_OPENING || car.phase == CarPhase.UNLOADING);
+  }
+
+  private void checkRequestAge(CarState car, long time) {
+    long[] since = requestSince[car.getIndex()];
+    long[] seen = requestSeen[car.getIndex()];
+    noteRequests(car, car.callRequests, since, seen, time);
+    noteRequests(car, car.destinationRequests, since, seen, time);
+  }
+
+  private void noteRequests(
+      CarState car, Set<Integer> requests, long[] since, long[] seen, long time) {
+    if (requests.isEmpty()) {
+      return;
+    }
+    for (int floor : requests) {
+      if (seen[floor] != checks - 1 && seen[floor] != checks) {
+        since[floor] = time; // New, or open again after being served
+      }
+      seen[floor] = checks;
+      if (time - since[floor] > starvationBound) {
+        throw new Violation(
+            "starvation",
+            time,
+            "request for floor "
+                + floor
+                + " at car "
+                + (car.getIndex() + 1)
+                + " open for "
+                + (time - since[floor]) / 1000
+                + "s");
+      }
+    }
+  }
+
+  @Override
+  public void carMoved(int car, int floor) {
+    next.carMoved(car, floor);
+  }
+
+  @Override
+  public void doorsChanged(int car, boolean open) {
+    next.doorsChanged(car, open);
+  }
+
+  @Override
+  public void carPassengersChanged(int car) {
+    next.carPassengersChanged(car);
+  }
+
+  @Override
+  public void floorQueueChanged(int floor) {
+    next.floorQueueChanged(floor);
+  }
+
+  @Override
+  public void passengerDelivered(int car, Passenger passenger) {
+    if (delivered.get(passenger.getId())) {
+      throw new Violation(
+          "conservation",
+          engine.getTime(),
+          "passenger " + passenger.getId() + " delivered twice");
+    }
+    delivered.set(passenger.getId());
+    deliveredCount++;
+    next.passengerDelivered(car, passenger);
+  }
+
+  /** A broken invariant; the kind groups violations with the same cause */
+  public static class Violation extends IllegalStateException {
+    private final String kind;
+    private final long time;
+
+    Violation(String kind, long time, String message) {
+      super(String.format("%.3fs: %s", time / 1000.0, message));
+      this.kind = kind;
+      this.time = time;
+    }
+
+    public String getKind() {
+      return kind;
+    }
+
+    public long getTime() {
+      return time;
+    }
+  }
+}
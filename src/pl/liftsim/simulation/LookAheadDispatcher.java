@@ -0,0 +1,357 @@
+package pl.liftsim.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import pl.liftsim.model.BuildingConfig;
+
+/**
+ * Dispatcher that re-optimises every open hall call on each tick. New calls
+ * are placed greedily by a {@link NearestCarDispatcher}; {@link #reassign}
+ * then runs a local search over the assignment of all movable calls to cars,
+ * minimising the passenger-weighted predicted wait (run times from the
+ * {@link TravelTimeTable}) plus the delay extra stops cause the riders
+ * already on board, with a penalty for promising a car more passengers than
+ * it can hold.
+ *
+ * <p>The search is anytime. Every worker starts from the current assignment
+ * and keeps the best one it has seen, stopping after
+ * {@link BuildingConfig#getLookAheadMoves()} moves or when the wall-clock
+ * {@link BuildingConfig#getLookAheadBudget()} runs out, whichever comes
+ * first; a worker still running then is abandoned, so a tick never waits
+ * much past the budget. With several threads each worker searches from a
+ * different random seed and the best result wins, so more cores buy a
+ * better assignment in the same time.
+ *
+ * <p>Seeds derive from the simulation time, so a search that ends on moves
+ * is reproducible. One cut short by the budget depends on machine load;
+ * {@link SimulationRecorder} therefore logs every reassignment and plays it
+ * back when re-simulating rather than searching again.
+ */
+public class LookAheadDispatcher implements Dispatcher {
+  private static final int STALE_LIMIT = 200; // Non-improving moves before a restart
+  private static final int DEADLINE_CHECK_MASK = 31; // Read the clock every 32 moves
+  private static final long GRACE_NANOS = 1_000_000;
+
+  // Shared by all dispatchers; daemon threads so they never keep the JVM alive
+  private static final ExecutorService WORKERS =
+      Executors.newCachedThreadPool(
+          task -> {
+            Thread thread = new Thread(task, "look-ahead-worker");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private final Dispatcher initial = new NearestCarDispatcher();
+  private final TravelTimeTable travelTimes;
+  private final int floors;
+  private final long stopTime;
+  private final long roundTrip;
+  private final long budgetNanos;
+  private final int movesPerWorker;
+  private final int threads;
+  private long optimisations;
+  private long improvements;
+
+  public LookAheadDispatcher(BuildingConfig config, TravelTimeTable travelTimes) {
+    this.travelTimes = travelTimes;
+    this.floors = config.getFloors();
+    this.stopTime = travelTimes.getStopTime();
+    this.roundTrip = 2L * travelTimes.time(1, floors);
+    this.budgetNanos = config.getLookAheadBudget() * 1000L;
+    this.movesPerWorker = config.getLookAheadMoves();
+    this.threads = config.getLookAheadThreads();
+  }
+
+  @Override
+  public int selectCar(int floor, List<CarState> cars) {
+    return initial.selectCar(floor, cars);
+  }
+
+  @Override
+  public void reassign(
+      long time, int[] callFloors, int[] waiting, int[] owners, List<CarState> cars) {
+    if (callFloors.length == 0 || cars.size() < 2) {
+      return;
+    }
+    long deadline = System.nanoTime() + budgetNanos;
+    Problem problem = new Problem(callFloors, waiting, owners, cars);
+
+    List<Future<Solution>> helpers = new ArrayList<>();
+    for (int worker = 1; worker < threads; worker++) {
+      long seed = SimRandom.mix64(time * 31 + worker);
+      helpers.add(WORKERS.submit(() -> search(problem, owners, seed, deadline)));
+    }
+    Solution best = search(problem, owners, SimRandom.mix64(time * 31), deadline);
+    for (Future<Solution> helper : helpers) {
+      Solution solution = await(helper, deadline);
+      if (solution != null && solution.cost < best.cost) {
+        best = solution;
+      }
+    }
+
+    optimisations++;
+    if (best.cost < problem.totalCost(owners)) {
+      improvements++;
+      System.arraycopy(best.owners, 0, owners, 0, owners.length);
+    }
+  }
+
+  private static Solution await(Future<Solution> helper, long deadline) {
+    try {
+      long remaining = Math.max(0, deadline - System.nanoTime()) + GRACE_NANOS;
+      return helper.get(remaining, TimeUnit.NANOSECONDS);
+    } catch (TimeoutException | CancellationException e) {
+      helper.cancel(true);
+      return null;
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Look-ahead worker failed", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      helper.cancel(true);
+      return null;
+    }
+  }
+
+  /** Hill climbing over single-call moves and swaps, restarting from the best when stuck */
+  private Solution search(Problem problem, int[] start, long seed, long deadline) {
+    SimRandom random = new SimRandom(seed);
+    Evaluator evaluator = new Evaluator(problem);
+    int calls = start.length;
+    int cars = problem.positions.length;
+
+    int[] current = start.clone();
+    long[] carCosts = new long[cars];
+    long total = 0;
+    for (int car = 0; car < cars; car++) {
+      carCosts[car] = evaluator.carCost(car, current);
+      total += carCosts[car];
+    }
+    int[] best = current.clone();
+    long bestCost = total;
+    int stale = 0;
+
+    for (int move = 0; move < movesPerWorker; move++) {
+      if ((move & DEADLINE_CHECK_MASK) == 0 && System.nanoTime() > deadline) {
+        break;
+      }
+      int call = random.nextInt(calls);
+      int from = current[call];
+      int other = -1;
+      int to;
+      if (calls > 1 && random.nextInt(2) == 0) {
+        other = random.nextInt(calls);
+        to = current[other];
+        if (to == from) {
+          continue;
+        }
+        current[other] = from;
+      } else {
+        to = random.nextInt(cars - 1);
+        if (to >= from) {
+          to++;
+        }
+      }
+      current[call] = to;
+
+      long fromCost = evaluator.carCost(from, current);
+      long toCost = evaluator.carCost(to, current);
+      long delta = fromCost + toCost - carCosts[from] - carCosts[to];
+      if (delta < 0) {
+        carCosts[from] = fromCost;
+        carCosts[to] = toCost;
+        total += delta;
+        stale = 0;
+        if (total < bestCost) {
+          bestCost = total;
+          System.arraycopy(current, 0, best, 0, calls);
+        }
+      } else {
+        current[call] = from;
+        if (other >= 0) {
+          current[other] = to;
+        }
+        if (++stale > STALE_LIMIT) {
+          // Kick two calls from the best solution found and climb again
+          System.arraycopy(best, 0, current, 0, calls);
+          for (int kick = 0; kick < 2; kick++) {
+            current[random.nextInt(calls)] = random.nextInt(cars);
+          }
+          total = 0;
+          for (int car = 0; car < cars; car++) {
+            carCosts[car] = evaluator.carCost(car, current);
+            total += carCosts[car];
+          }
+          stale = 0;
+        }
+      }
+    }
+    return new Solution(best, bestCost);
+  }
+
+  /** Re-optimisation rounds run so far */
+  public long getOptimisations() {
+    return optimisations;
+  }
+
+  /** Rounds that moved at least one call */
+  public long getImprovements() {
+    return improvements;
+  }
+
+  /** Immutable snapshot of the cars and calls, shared by all workers */
+  private final class Problem {
+    final int[] callFloors;
+    final int[] weights;
+    final int[] positions;
+    final int[] directions;
+    final boolean[][] fixedStops;
+    final int[] loads;
+    final int[] capacities;
+
+    Problem(int[] callFloors, int[] waiting, int[] owners, List<CarState> cars) {
+      this.callFloors = callFloors.clone();
+      this.weights = new int[waiting.length];
+      for (int i = 0; i < waiting.length; i++) {
+        weights[i] = Math.max(1, waiting[i]);
+      }
+      int count = cars.size();
+      positions = new int[count];
+      directions = new int[count];
+      fixedStops = new boolean[count][floors + 1];
+      loads = new int[count];
+      capacities = new int[count];
+      for (int index = 0; index < count; index++) {
+        CarState car = cars.get(index);
+        positions[index] = car.getCurrentFloor();
+        directions[index] =
+            car.getDirection() == ElevatorDirection.UP
+                ? 1
+                : car.getDirection() == ElevatorDirection.DOWN ? -1 : 0;
+        for (int floor : car.destinationRequests) {
+          fixedStops[index][floor] = true;
+        }
+        for (int floor : car.callRequests) {
+          fixedStops[index][floor] = true;
+        }
+        loads[index] = car.getLoad();
+        capacities[index] = car.getElevator().getCapacity();
+      }
+      // Movable calls are priced by the search, not fixed
+      for (int i = 0; i < callFloors.length; i++) {
+        fixedStops[owners[i]][callFloors[i]] = false;
+      }
+    }
+
+    long totalCost(int[] owners) {
+      Evaluator evaluator = new Evaluator(this);
+      long total = 0;
+      for (int car = 0; car < positions.length; car++) {
+        total += evaluator.carCost(car, owners);
+      }
+      return total;
+    }
+  }
+
+  /** Per-worker scratch space for pricing one car's share of an assignment */
+  private final class Evaluator {
+    final Problem problem;
+    final boolean[] stops = new boolean[floors + 1];
+    final int[] stopsUpTo = new int[floors + 1];
+
+    Evaluator(Problem problem) {
+      this.problem = problem;
+    }
+
+    long carCost(int car, int[] owners) {
+      System.arraycopy(problem.fixedStops[car], 0, stops, 0, stops.length);
+      int demand = problem.loads[car];
+      int extraStops = 0;
+      boolean any = false;
+      for (int i = 0; i < owners.length; i++) {
+        if (owners[i] == car) {
+          any = true;
+          demand += problem.weights[i];
+          if (!stops[problem.callFloors[i]]) {
+            stops[problem.callFloors[i]] = true;
+            extraStops++;
+          }
+        }
+      }
+      if (!any) {
+        return 0;
+      }
+
+      int count = 0;
+      int lowest = -1;
+      int highest = -1;
+      for (int floor = 1; floor <= floors; floor++) {
+        if (stops[floor]) {
+          count++;
+          lowest = lowest < 0 ? floor : lowest;
+          highest = floor;
+        }
+        stopsUpTo[floor] = count;
+      }
+
+      int position = problem.positions[car];
+      int direction = problem.directions[car];
+      if (direction == 0) {
+        direction = highest - position >= position - lowest ? 1 : -1;
+      }
+      int sweepEnd =
+          direction > 0 ? Math.max(position, highest) : Math.min(position, lowest);
+      int sweepStops = stopsBetween(position, sweepEnd) + (sweepEnd != position ? 1 : 0);
+
+      long cost = 0;
+      for (int i = 0; i < owners.length; i++) {
+        if (owners[i] != car) {
+          continue;
+        }
+        int floor = problem.callFloors[i];
+        long eta;
+        if ((direction > 0 && floor >= position) || (direction < 0 && floor <= position)) {
+          eta = travelTimes.time(position, floor) + stopsBetween(position, floor) * stopTime;
+        } else {
+          eta =
+              travelTimes.time(position, sweepEnd)
+                  + travelTimes.time(sweepEnd, floor)
+                  + (sweepStops + stopsBetween(sweepEnd, floor)) * stopTime;
+        }
+        cost += problem.weights[i] * eta;
+      }
+
+      // Riders already on board wait through every extra stop
+      cost += (long) problem.loads[car] * extraStops * stopTime;
+      int overflow = demand - problem.capacities[car];
+      if (overflow > 0) {
+        cost += overflow * roundTrip;
+      }
+      return cost;
+    }
+
+    /** Stops strictly between two floors */
+    private int stopsBetween(int a, int b) {
+      int low = Math.min(a, b);
+      int high = Math.max(a, b);
+      return high - low < 2 ? 0 : stopsUpTo[high - 1] - stopsUpTo[low];
+    }
+  }
+
+  private static final class Solution {
+    final int[] owners;
+    final long cost;
+
+    Solution(int[] owners, long cost) {
+      this.owners = owners;
+      this.cost = cost;
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package pl.liftsim.simulation;
+
+import java.util.List;
+
+/**
+ * Greedy dispatcher: the call goes to the car with the shortest run to the
+ * floor, counting a car heading away from the floor as having to finish its
+ * sweep first. Run times come from the car's {@link TravelTimeTable}.
+ */
+public class NearestCarDispatcher implements Dispatcher {
+  @Override
+  public int selectCar(int floor, List<CarState> cars) {
+    int bestCar = 0;
+    long bestCost = Long.MAX_VALUE;
+    for (CarState car : cars) {
+      long cost = cost(floor, car);
+      if (cost < bestCost) {
+        bestCost = cost;
+        bestCar = car.getIndex();
+      }
+    }
+    return bestCar;
+  }
+
+  private long cost(int floor, CarState car) {
+    if (!car.hasRequests()) {
+      return car.getTravelTime(floor);
+    }
+    // Every queued stop delays the car a little
+    return car.getTravelTime(floor)
+        + (long) car.getRequestCount() * car.getTravelTimes().getFloorTime();
+  }
+}
@@ -0,0 +1,99 @@
+package pl.liftsim.simulation;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+import pl.liftsim.model.Passenger;
+
+/** Writes headless run results as CSV files. */
+public final class ReportWriter {
+  public static final String SUMMARY_HEADER =
+      "seed,spawned,delivered,still_waiting,still_riding,mean_wait_s,p50_wait_s,p95_wait_s,"
+          + "p99_wait_s,max_wait_s,mean_journey_s,p95_journey_s,car_stops,floors_travelled,"
+          + "events,wall_ms";
+
+  private ReportWriter() {}
+
+  /** One row per run, ordered as given. */
+  public static void writeSummary(Path file, List<RunResult> results) throws IOException {
+    try (PrintWriter out = open(file)) {
+      out.println(SUMMARY_HEADER);
+      for (RunResult result : results) {
+        out.println(summaryRow(result));
+      }
+      checkError(out, file);
+    }
+  }
+
+  public static String summaryRow(RunResult result) {
+    SimulationMetrics metrics = result.getMetrics();
+    return String.format(
+        Locale.ROOT,
+        "%d,%d,%d,%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%d,%d,%d,%d",
+        result.getSeed(),
+        metrics.getSpawned(),
+        metrics.getDelivered(),
+        result.getStillWaiting(),
+        result.getStillRiding(),
+        metrics.getMeanWait() / 1000.0,
+        metrics.getWaitPercentile(50) / 1000.0,
+        metrics.getWaitPercentile(95) / 1000.0,
+        metrics.getWaitPercentile(99) / 1000.0,
+        metrics.getWaitPercentile(100) / 1000.0,
+        metrics.getMeanJourney() / 1000.0,
+        metrics.getJourneyPercentile(95) / 1000.0,
+        metrics.getCarStops(),
+        metrics.getFloorsTravelled(),
+        result.getEvents(),
+        result.getWallNanos() / 1_000_000);
+  }
+
+  /** One row per passenger; times are simulation milliseconds, -1 if it did not happen. */
+  public static void writeDetails(Path file, RunResult result) throws IOException {
+    try (PrintWriter out = open(file)) {
+      out.println("id,from,to,arrival_ms,boarding_ms,exit_ms,wait_ms,journey_ms");
+      for (Passenger passenger : result.getMetrics().getPassengers()) {
+        long wait =
+            passenger.getBoardingTime() < 0
+                ? -1
+                : passenger.getBoardingTime() - passenger.getArrivalTime();
+        long journey =
+            passenger.getExitTime() < 0 ? -1 : passenger.getExitTime() - passenger.getArrivalTime();
+        out.println(
+            passenger.getId()
+                + ","
+                + passenger.getFromFloor()
+                + ","
+                + passenger.getDestinationFloor()
+                + ","
+                + passenger.getArrivalTime()
+                + ","
+                + passenger.getBoardingTime()
+                + ","
+                + passenger.getExitTime()
+                + ","
+                + wait
+                + ","
+                + journey);
+      }
+      checkError(out, file);
+    }
+  }
+
+  private static void checkError(PrintWriter out, Path file) throws IOException {
+    if (out.checkError()) {
+      throw new IOException("Failed to write " + file);
+    }
+  }
+
+  private static PrintWriter open(Path file) throws IOException {
+    Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+    return new PrintWriter(writer);
+  }
+}
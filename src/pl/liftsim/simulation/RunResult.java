@@ -0,0 +1,61 @@
+package pl.liftsim.simulation;
+
+import pl.liftsim.model.BuildingConfig;
+
+/** Outcome of one headless run. */
+public class RunResult {
+  private final long seed;
+  private final BuildingConfig config;
+  private final SimulationMetrics metrics;
+  private final int stillWaiting;
+  private final int stillRiding;
+  private final long events;
+  private final long wallNanos;
+
+  public RunResult(
+      long seed,
+      BuildingConfig config,
+      SimulationMetrics metrics,
+      int stillWaiting,
+      int stillRiding,
+      long events,
+      long wallNanos) {
+    this.seed = seed;
+    this.config = config;
+    this.metrics = metrics;
+    this.stillWaiting = stillWaiting;
+    this.stillRiding = stillRiding;
+    this.events = events;
+    this.wallNanos = wallNanos;
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  public BuildingConfig getConfig() {
+    return config;
+  }
+
+  public SimulationMetrics getMetrics() {
+    return metrics;
+  }
+
+  /** Passengers still on a floor when the run ended */
+  public int getStillWaiting() {
+    return stillWaiting;
+  }
+
+  /** Passengers still inside a car when the run ended */
+  public int getStillRiding() {
+    return stillRiding;
+  }
+
+  public long getEvents() {
+    return events;
+  }
+
+  public long getWallNanos() {
+    return wallNanos;
+  }
+}
@@ -0,0 +1,67 @@
+package pl.liftsim.simulation;
+
+/**
+ * A scheduled simulation event. Events are plain data rather than callbacks,
+ * so the pending queue can be inspected, copied and replayed.
+ */
+public final class SimEvent implements Comparable<SimEvent> {
+  public enum Type {
+    /** Periodic check for idle cars that have work to do */
+    TICK,
+    /** A moving car reaches the next floor */
+    CAR_STEP,
+    /** Next step of the door sequence at a stop */
+    DOOR_STEP,
+    /** A passenger generated by the traffic profile appears on a floor */
+    PASSENGER_ARRIVAL,
+    /** End of a destination-dispatch batching window */
+    DISPATCH
+  }
+
+  private final long time;
+  private final long sequence;
+  private final Type type;
+  private final int car;
+  private final int arg;
+
+  SimEvent(long time, long sequence, Type type, int car, int arg) {
+    this.time = time;
+    this.sequence = sequence;
+    this.type = type;
+    this.car = car;
+    this.arg = arg;
+  }
+
+  public long getTime() {
+    return time;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  /** Car index the event belongs to, or -1 */
+  public int getCar() {
+    return car;
+  }
+
+  /** Type-specific argument (door step, floor, ...) */
+  public int getArg() {
+    return arg;
+  }
+
+  @Override
+  public int compareTo(SimEvent other) {
+    int byTime = Long.compare(time, other.time);
+    return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+  }
+
+  @Override
+  public String toString() {
+    return type + "@" + time + "(car=" + car + ", arg=" + arg + ")";
+  }
+}
@@ -0,0 +1,55 @@
+package pl.liftsim.simulation;
+
+import pl.liftsim.model.SplitMix;
+
+/**
+ * Small SplitMix64 generator. Unlike {@link java.util.Random} its whole state
+ * is a single long that can be read back, so a run can be reproduced exactly
+ * from a seed or from a saved state.
+ */
+public class SimRandom {
+  private long state;
+
+  public SimRandom(long seed) {
+    this.state = seed;
+  }
+
+  public long getState() {
+    return state;
+  }
+
+  public void setState(long state) {
+    this.state = state;
+  }
+
+  public long nextLong() {
+    return mix64(state += SplitMix.GOLDEN_GAMMA);
+  }
+
+  /** Uniform int in [0, bound) */
+  public int nextInt(int bound) {
+    if (bound <= 0) {
+      throw new IllegalArgumentException("bound must be positive");
+    }
+    return (int) ((nextLong() >>> 33) * bound >>> 31);
+  }
+
+  /** Uniform double in [0, 1) */
+  public double nextDouble() {
+    return (nextLong() >>> 11) * 0x1.0p-53;
+  }
+
+  /** Exponentially distributed value with the given mean */
+  public double nextExponential(double mean) {
+    return -mean * Math.log(1.0 - nextDouble());
+  }
+
+  /** See {@link SplitMix#split(long, long)} */
+  public static long split(long seed, long index) {
+    return SplitMix.split(seed, index);
+  }
+
+  static long mix64(long z) {
+    return SplitMix.mix64(z);
+  }
+}
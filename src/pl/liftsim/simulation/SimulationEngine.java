@@ -0,0 +1,1170 @@
+package pl.liftsim.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import pl.liftsim.model.BuildingConfig;
+import pl.liftsim.model.Elevator;
+import pl.liftsim.model.ElevatorModel;
+import pl.liftsim.model.Floor;
+import pl.liftsim.model.Passenger;
+import pl.liftsim.model.Zone;
+
+/**
+ * Discrete-event elevator simulation. Time is virtual and only advances when
+ * {@link #runUntil(long)} is called, so the same engine is driven in real time
+ * by the Swing controller and as fast as possible by the headless runner. The
+ * engine has no AWT or Swing dependencies.
+ *
+ * <p>With {@link BuildingConfig#isDestinationDispatch()} passengers enter
+ * their destination at the hall instead of pressing a call button. Calls are
+ * collected for {@link BuildingConfig#getBatchWindow()} and then allotted
+ * together by a {@link DestinationDispatcher}; only passengers allotted to a
+ * car board it.
+ *
+ * <p>With {@link BuildingConfig#isParking()} a {@link TrafficForecaster}
+ * learns from every hall call, and a car left without work is sent to wait
+ * where the next calls are expected.
+ *
+ * <p>In a zoned building every zone is dispatched on its own: a hall call is
+ * for one zone and only that zone's cars are considered. Cars run straight
+ * past floors their zone does not serve, one event per run, and passengers
+ * follow their route plan, changing cars at sky lobbies.
+ *
+ * <p>Each car runs through the {@link CarPhase} state machine and reacts to
+ * events as they happen: a new request starts an idle car at once, a moving
+ * car takes a new stop that lies ahead of it, and a car that arrives or
+ * closes its doors decides its next move immediately. The periodic tick only
+ * re-optimises calls and re-parks idle cars.
+ */
+public class SimulationEngine {
+  private final ElevatorModel model;
+  private final BuildingConfig config;
+  private final TravelTimeTable travelTimes;
+  private final EventQueue events = new EventQueue();
+  private final List<CarState> cars;
+  private final List<List<CarState>> zoneCars;
+  private final SimulationMetrics metrics;
+  private final SimRandom random;
+  private long seed;
+  private Dispatcher dispatcher;
+  private DestinationDispatcher destinationDispatcher;
+  private final List<Passenger> pendingCalls = new ArrayList<>();
+  private final TrafficForecaster forecaster;
+  private SimulationListener listener = new SimulationListener() {};
+  private TrafficProfile trafficProfile;
+  private boolean autoCall;
+  private boolean verbose;
+  private boolean running;
+  private long time;
+  private long processedEvents;
+  private int nextPassengerId = 1;
+
+  public SimulationEngine(ElevatorModel model, long seed) {
+    this(model, seed, new SimulationMetrics());
+  }
+
+  public SimulationEngine(ElevatorModel model, long seed, SimulationMetrics metrics) {
+    this.model = model;
+    this.config = model.getConfig();
+    this.metrics = metrics;
+    this.random = new SimRandom(seed);
+    this.seed = seed;
+    this.travelTimes = new TravelTimeTable(config);
+    this.dispatcher =
+        config.getDispatcher().equals("lookahead")
+            ? new LookAheadDispatcher(config, travelTimes)
+            : new NearestCarDispatcher();
+    this.destinationDispatcher = new GroupingDispatcher(travelTimes);
+    this.forecaster =
+        config.isParking()
+            ? new TrafficForecaster(config.getFloors(), config.getForecastSlot() * 1000L)
+            : null;
+
+    List<CarState> carStates = new ArrayList<>(model.getElevators().size());
+    List<List<CarState>> byZone = new ArrayList<>();
+    for (Zone zone : model.getZones()) {
+      byZone.add(new ArrayList<>());
+    }
+    for (Elevator elevator : model.getElevators()) {
+      Zone zone = model.getZone(elevator.getZone());
+      CarState car = new CarState(elevator.getId(), elevator, zone, travelTimes);
+      carStates.add(car);
+      byZone.get(zone.getId()).add(car);
+    }
+    this.cars = Collections.unmodifiableList(carStates);
+    this.zoneCars = byZone;
+  }
+
+  public void setListener(SimulationListener listener) {
+    this.listener = listener;
+  }
+
+  public SimulationListener getListener() {
+    return listener;
+  }
+
+  public Dispatcher getDispatcher() {
+    return dispatcher;
+  }
+
+  public void setDispatcher(Dispatcher dispatcher) {
+    this.dispatcher = dispatcher;
+  }
+
+  public void setDestinationDispatcher(DestinationDispatcher destinationDispatcher) {
+    this.destinationDispatcher = destinationDispatcher;
+  }
+
+  /**
+   * Generates passengers with the given profile while running. Generated
+   * passengers press the call button themselves.
+   */
+  public void setTrafficProfile(TrafficProfile trafficProfile) {
+    this.trafficProfile = trafficProfile;
+    this.autoCall = trafficProfile != null;
+  }
+
+  /** Whether passengers placed on a floor press the call button themselves */
+  public void setAutoCall(boolean autoCall) {
+    this.autoCall = autoCall;
+  }
+
+  /** Print a running commentary to standard output */
+  public void setVerbose(boolean verbose) {
+    this.verbose = verbose;
+  }
+
+  public boolean isVerbose() {
+    return verbose;
+  }
+
+  public void start() {
+    running = true;
+    model.setSimulationRunning(true);
+
+    // Passengers already placed on floors (e.g. by generateRandomPassengers) start waiting now
+    for (Floor floor : model.getFloors()) {
+      for (Passenger passenger : floor.getWaitingPassengers()) {
+        if (passenger.getArrivalTime() < 0) {
+          passenger.setArrivalTime(time);
+          metrics.passengerArrived(passenger);
+          nextPassengerId = Math.max(nextPassengerId, passenger.getId() + 1);
+        }
+      }
+      if (autoCall && !floor.getWaitingPassengers().isEmpty()) {
+        addCallRequest(floor.getFloorNumber());
+      }
+    }
+
+    events.schedule(time + config.getTickInterval(), SimEvent.Type.TICK, -1, 0);
+    if (trafficProfile != null) {
+      scheduleNextArrival();
+    }
+  }
+
+  public void stop() {
+    running = false;
+    model.setSimulationRunning(false);
+    events.clear();
+    pendingCalls.clear();
+    for (CarState car : cars) {
+      car.phase = CarPhase.IDLE;
+    }
+  }
+
+  public void reset() {
+    stop();
+    model.reset();
+    for (CarState car : cars) {
+      car.reset();
+    }
+  }
+
+  /**
+   * Processes every event due at or before {@code targetTime} and moves the
+   * clock there, then publishes the model's changes as one batch.
+   */
+  public void runUntil(long targetTime) {
+    while (step(targetTime)) {
+      // Every event due by the target, in order
+    }
+    time = Math.max(time, targetTime);
+    model.publishChanges(time);
+  }
+
+  /**
+   * Processes the next event if it is due at or before {@code targetTime} and
+   * returns whether there was one. The clock stops at the event and model
+   * changes are not published, so a caller can inspect the state between any
+   * two events.
+   */
+  public boolean step(long targetTime) {
+    SimEvent next = events.peek();
+    if (next == null || next.getTime() > targetTime) {
+      return false;
+    }
+    events.poll();
+    time = next.getTime();
+    processedEvents++;
+    handle(next);
+    return true;
+  }
+
+  public void runFor(long duration) {
+    runUntil(time + duration);
+  }
+
+  private void handle(SimEvent event) {
+    switch (event.getType()) {
+      case TICK:
+        if (forecaster != null) {
+          forecaster.advanceTo(time);
+        }
+        if (running && !config.isDestinationDispatch()) {
+          reassignCalls();
+        }
+        for (CarState car : cars) {
+          if (running && car.phase == CarPhase.IDLE) {
+            processElevatorMovement(car);
+          }
+        }
+        if (running) {
+          events.schedule(time + config.getTickInterval(), SimEvent.Type.TICK, -1, 0);
+        }
+        break;
+      case CAR_STEP:
+        moveOneFloorStep(cars.get(event.getCar()));
+        break;
+      case DOOR_STEP:
+        CarState stepping = cars.get(event.getCar());
+        if (event.getArg() == stepping.doorStepToken) {
+          doorSequenceStep(stepping);
+        }
+        break;
+      case PASSENGER_ARRIVAL:
+        int[] trip = trafficProfile.nextTrip(random);
+        spawnPassenger(trip[0], trip[1]);
+        scheduleNextArrival();
+        break;
+      case DISPATCH:
+        dispatchPendingCalls();
+        break;
+      default:
+        throw new IllegalStateException("Unhandled event " + event);
+    }
+  }
+
+  private void scheduleNextArrival() {
+    long delay = trafficProfile.nextInterArrivalTime(random);
+    events.schedule(time + delay, SimEvent.Type.PASSENGER_ARRIVAL, -1, 0);
+  }
+
+  /** Places a new passenger on a floor, as if they had just walked up to the elevator. */
+  public Passenger spawnPassenger(int fromFloor, int destinationFloor) {
+    Passenger passenger = new Passenger(nextPassengerId++, fromFloor, destinationFloor);
+    model.planRoute(passenger);
+    passenger.setArrivalTime(time);
+    model.getFloors().get(fromFloor - 1).addWaitingPassenger(passenger);
+    metrics.passengerArrived(passenger);
+    listener.floorQueueChanged(fromFloor);
+    if (!catchCar(passenger, fromFloor) && autoCall) {
+      callFor(passenger);
+    }
+    return passenger;
+  }
+
+  /**
+   * A passenger who walks up while a car of their zone stands at the floor
+   * gets in without calling: a loading car takes them at once and stays one
+   * boarding longer, closing doors reopen, and a car still opening or
+   * unloading boards them with the rest. With destination dispatch
+   * passengers wait for their allotment.
+   */
+  private boolean catchCar(Passenger passenger, int floor) {
+    if (config.isDestinationDispatch()) {
+      return false;
+    }
+    for (CarState car : zoneCars.get(passenger.getZone())) {
+      if (car.getCurrentFloor() != floor || car.getElevator().isFull()) {
+        continue;
+      }
+      if (car.phase == CarPhase.LOADING) {
+        board(car, model.getFloors().get(floor - 1), passenger);
+        listener.carPassengersChanged(car.getIndex());
+        listener.floorQueueChanged(floor);
+        scheduleDoorStep(car, car.doorStepDue + config.getPassengerEntryTime());
+        return true;
+      }
+      if ((car.phase == CarPhase.DOORS_OPENING || car.phase == CarPhase.UNLOADING)
+          && hasRoomFor(car, floor)) {
+        return true; // Boards with everyone else once unloading is over
+      }
+      if (car.phase == CarPhase.DOORS_CLOSING && hasRoomFor(car, floor)) {
+        // Reopening takes as long as the doors have been closing
+        long closing = time - (car.doorStepDue - config.getDoorOperationTime());
+        car.phase = car.phase.on(CarPhase.Trigger.REOPEN);
+        scheduleDoorStep(car, time + closing);
+        log("🔁 Doors reopening" + carLabel(car) + " for passenger " + passenger.getId());
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Whether everyone waiting here for the car's zone fits in it */
+  private boolean hasRoomFor(CarState car, int floor) {
+    int waiting = 0;
+    for (Passenger passenger : model.getFloors().get(floor - 1).getWaitingPassengers()) {
+      if (passenger.getZone() == car.getZone().getId()) {
+        waiting++;
+      }
+    }
+    return car.getLoad() + waiting <= car.getElevator().getCapacity();
+  }
+
+  /** Schedules the end of the car's door or transfer step, superseding any earlier one */
+  private void scheduleDoorStep(CarState car, long due) {
+    car.doorStepDue = due;
+    events.schedule(due, SimEvent.Type.DOOR_STEP, car.getIndex(), ++car.doorStepToken);
+  }
+
+  /** The passenger presses the call button (or keypad) for their current leg */
+  private void callFor(Passenger passenger) {
+    if (config.isDestinationDispatch()) {
+      addDestinationCall(passenger);
+    } else {
+      addCallRequest(passenger.getLegOrigin(), passenger.getZone());
+    }
+  }
+
+  /** Car call for the first car, as made from the in-car floor panel */
+  public void addDestinationRequest(int floor) {
+    addDestinationRequest(0, floor);
+  }
+
+  public void addDestinationRequest(int car, int floor) {
+    if (!isValidFloor(floor)) {
+      return;
+    }
+    CarState carState = cars.get(car);
+    if (!carState.getZone().serves(floor)) {
+      log("🚫 Floor " + floor + " is not served by" + carLabel(carState) + " - ignored");
+      return;
+    }
+    carState.addDestination(floor);
+    log("📍 Destination request added: Floor " + floor + carLabel(carState));
+    printRequestStatus(carState);
+    requestAdded(carState, floor);
+  }
+
+  /**
+   * Hall call; the dispatcher decides which car answers it. In destination
+   * dispatch every passenger waiting on the floor enters their destination.
+   * In a zoned building each zone someone on the floor is waiting for is
+   * called; a press with nobody waiting calls the first zone serving the floor.
+   */
+  public void addCallRequest(int floor) {
+    if (!isValidFloor(floor)) {
+      return;
+    }
+    if (config.isDestinationDispatch()) {
+      for (Passenger passenger : model.getFloors().get(floor - 1).getWaitingPassengers()) {
+        if (passenger.getAssignedCar() < 0 && !pendingCalls.contains(passenger)) {
+          addDestinationCall(passenger);
+        }
+      }
+      return;
+    }
+    if (zoneCars.size() == 1) {
+      addCallRequest(floor, 0);
+      return;
+    }
+    boolean called = false;
+    for (Zone zone : model.getZones()) {
+      if (!zone.serves(floor)) {
+        continue;
+      }
+      for (Passenger passenger : model.getFloors().get(floor - 1).getWaitingPassengers()) {
+        if (passenger.getZone() == zone.getId()) {
+          addCallRequest(floor, zone.getId());
+          called = true;
+          break;
+        }
+      }
+    }
+    for (Zone zone : model.getZones()) {
+      if (!called && zone.serves(floor)) {
+        addCallRequest(floor, zone.getId());
+        called = true;
+      }
+    }
+  }
+
+  /** Hall call for one zone's cars */
+  private void addCallRequest(int floor, int zone) {
+    if (forecaster != null) {
+      forecaster.observeCall(time, floor);
+    }
+    List<CarState> candidates = zoneCars.get(zone);
+    for (CarState car : candidates) {
+      if (car.callRequests.contains(floor)) {
+        return; // Already being served
+      }
+    }
+    CarState carState = cars.get(dispatcher.selectCar(floor, candidates));
+    carState.addCall(floor);
+    log("📞 Call request added: Floor " + floor + carLabel(carState));
+    printRequestStatus(carState);
+    requestAdded(carState, floor);
+  }
+
+  /**
+   * Reacts to a new request at once: an idle car sets off or opens its
+   * doors, and a moving car makes the floor its new target when it lies on
+   * the way, beyond the floor the car is about to pass.
+   */
+  private void requestAdded(CarState car, int floor) {
+    if (!running) {
+      return;
+    }
+    if (car.phase == CarPhase.IDLE) {
+      processElevatorMovement(car);
+    } else if (car.phase.isMoving() && wantsToStop(car, floor) && canStopAt(car, floor)) {
+      log(
+          "➕ Stop at floor "
+              + floor
+              + " added"
+              + carLabel(car)
+              + " on the way to floor "
+              + car.targetFloor);
+      car.targetFloor = floor;
+    }
+  }
+
+  /**
+   * Whether a request makes the car stop at the floor. A full car passes hall
+   * calls, and so does a car whose free places are all needed by the
+   * passengers of an aged call further on, unless this call has aged too.
+   */
+  private boolean wantsToStop(CarState car, int floor) {
+    if (car.destinationRequests.contains(floor)) {
+      return true;
+    }
+    if (!car.callRequests.contains(floor) || car.getElevator().isFull()) {
+      return false;
+    }
+    int zone = car.getZone().getId();
+    int free = car.getElevator().getCapacity() - car.getLoad();
+    return agedDemand(car) < free || agedWaiting(floor, zone) > 0;
+  }
+
+  /** How many passengers wait at the car's hall calls that have passed the aging time */
+  private int agedDemand(CarState car) {
+    if (config.getAgingTime() == 0 || config.isDestinationDispatch()) {
+      return 0;
+    }
+    int demand = 0;
+    for (int floor : car.callRequests) {
+      demand += agedWaiting(floor, car.getZone().getId());
+    }
+    return demand;
+  }
+
+  /**
+   * How many of the zone's passengers wait at the floor if the first of them
+   * still waiting for their first car has waited past the aging time,
+   * otherwise 0. Like the wait metric, aging ignores time spent riding
+   * before a transfer. The floor keeps both per zone, so this is O(1).
+   */
+  private int agedWaiting(int floor, int zone) {
+    if (config.getAgingTime() == 0) {
+      return 0;
+    }
+    Floor queue = model.getFloors().get(floor - 1);
+    Passenger first = queue.getFirstUnboarded(zone);
+    if (first == null || time - first.getArrivalTime() <= config.getAgingTime()) {
+      return 0;
+    }
+    return queue.getWaitingCount(zone);
+  }
+
+  /** Whether a moving car can still brake for {@code floor} before its target */
+  private boolean canStopAt(CarState car, int floor) {
+    int direction = car.targetFloor > car.getCurrentFloor() ? 1 : -1;
+    int approaching = car.getZone().next(car.getCurrentFloor(), direction);
+    return direction > 0
+        ? floor > approaching && floor < car.targetFloor
+        : floor < approaching && floor > car.targetFloor;
+  }
+
+  /** Queues a destination call for the next batch, opening a batching window if needed */
+  private void addDestinationCall(Passenger passenger) {
+    if (pendingCalls.isEmpty()) {
+      events.schedule(time + config.getBatchWindow(), SimEvent.Type.DISPATCH, -1, 0);
+    }
+    pendingCalls.add(passenger);
+    if (forecaster != null) {
+      forecaster.observeCall(time, passenger.getLegOrigin());
+    }
+    log(
+        "⌨️ Passenger "
+            + passenger.getId()
+            + " entered destination "
+            + passenger.getDestinationFloor()
+            + " at floor "
+            + passenger.getLegOrigin());
+  }
+
+  private void dispatchPendingCalls() {
+    if (pendingCalls.isEmpty()) {
+      return;
+    }
+    for (int zone = 0; zone < zoneCars.size(); zone++) {
+      List<Passenger> calls = pendingCalls;
+      if (zoneCars.size() > 1) {
+        calls = new ArrayList<>();
+        for (Passenger passenger : pendingCalls) {
+          if (passenger.getZone() == zone) {
+            calls.add(passenger);
+          }
+        }
+        if (calls.isEmpty()) {
+          continue;
+        }
+      }
+      allot(calls, destinationDispatcher.assign(calls, zoneCars.get(zone)));
+    }
+    pendingCalls.clear();
+  }
+
+  private void allot(List<Passenger> calls, int[] assignment) {
+    for (int i = 0; i < calls.size(); i++) {
+      Passenger passenger = calls.get(i);
+      CarState car = cars.get(assignment[i]);
+      passenger.setAssignedCar(car.getIndex());
+      car.allotted++;
+      car.addCall(passenger.getLegOrigin());
+      requestAdded(car, passenger.getLegOrigin());
+      log(
+          "🎫 Passenger "
+              + passenger.getId()
+              + " allotted to car "
+              + (car.getIndex() + 1)
+              + " (floor "
+              + passenger.getLegOrigin()
+              + " → "
+              + passenger.getDestinationFloor()
+              + ")");
+    }
+  }
+
+  /** Lets the dispatcher move hall calls that no car is committed to yet, zone by zone */
+  private void reassignCalls() {
+    for (int zone = 0; zone < zoneCars.size(); zone++) {
+      reassignCalls(zone, zoneCars.get(zone));
+    }
+  }
+
+  private void reassignCalls(int zone, List<CarState> candidates) {
+    int count = 0;
+    for (CarState car : candidates) {
+      count += car.callRequests.size();
+    }
+    if (candidates.size() < 2 || count == 0) {
+      return;
+    }
+    int[] floors = new int[count];
+    int[] owners = new int[count];
+    int movable = 0;
+    for (int position = 0; position < candidates.size(); position++) {
+      CarState car = candidates.get(position);
+      for (int floor : car.callRequests) {
+        boolean committed =
+            (car.isMoving() && car.targetFloor == floor)
+                || (car.isDoorsOpen() && car.getCurrentFloor() == floor);
+        if (!committed) {
+          floors[movable] = floor;
+          owners[movable++] = position;
+        }
+      }
+    }
+    floors = Arrays.copyOf(floors, movable);
+    owners = Arrays.copyOf(owners, movable);
+    int[] waiting = new int[movable];
+    for (int i = 0; i < movable; i++) {
+      for (Passenger passenger : model.getFloors().get(floors[i] - 1).getWaitingPassengers()) {
+        if (passenger.getZone() == zone) {
+          waiting[i]++;
+        }
+      }
+    }
+    int[] original = owners.clone();
+
+    dispatcher.reassign(time, floors, waiting, owners, candidates);
+
+    for (int i = 0; i < movable; i++) {
+      if (owners[i] != original[i]) {
+        CarState from = candidates.get(original[i]);
+        CarState to = candidates.get(owners[i]);
+        from.removeCall(floors[i]);
+        to.addCall(floors[i]);
+        requestAdded(to, floors[i]);
+        log(
+            "🔀 Call at floor "
+                + floors[i]
+                + " moved from car "
+                + (from.getIndex() + 1)
+                + " to car "
+                + (to.getIndex() + 1));
+      }
+    }
+  }
+
+  private boolean isValidFloor(int floor) {
+    return floor >= 1 && floor <= model.getFloors().size();
+  }
+
+  private void printRequestStatus(CarState car) {
+    if (!verbose) {
+      return; // Printing the request sets is too costly to do for nothing
+    }
+    log(
+        "📋 Current requests"
+            + carLabel(car)
+            + " - Calls: "
+            + car.callRequests
+            + ", Destinations: "
+            + car.destinationRequests);
+  }
+
+  private void processElevatorMovement(CarState car) {
+    // Check if there are ANY requests at all
+    if (!car.hasRequests()) {
+      if (car.direction != ElevatorDirection.IDLE) {
+        car.direction = ElevatorDirection.IDLE;
+        log(
+            "💤 Elevator"
+                + carLabel(car)
+                + " is IDLE - No call buttons pressed, no destinations selected");
+      }
+      if (forecaster != null) {
+        park(car);
+      }
+      return;
+    }
+
+    // Combine all requests for movement logic
+    Set<Integer> allRequests = new HashSet<>();
+    allRequests.addAll(car.callRequests);
+    allRequests.addAll(car.destinationRequests);
+
+    int currentFloor = car.getCurrentFloor();
+
+    // If elevator was idle and now has requests, determine initial direction
+    if (car.direction == ElevatorDirection.IDLE) {
+      determineInitialDirection(car, allRequests, currentFloor);
+    }
+
+    // Determine if we should stop at current floor; a full car passes hall calls
+    if (wantsToStop(car, currentFloor)) {
+      stopAtCurrentFloor(car);
+      return;
+    }
+
+    // Determine next floor to move to
+    int nextFloor = getNextFloor(car, allRequests);
+    if (nextFloor != -1) {
+      moveToFloorStepByStep(car, nextFloor);
+    } else {
+      // No more requests in current direction, switch direction
+      switchDirection(car);
+      nextFloor = getNextFloor(car, allRequests);
+      if (nextFloor != -1) {
+        moveToFloorStepByStep(car, nextFloor);
+      } else {
+        // No more requests anywhere
+        car.direction = ElevatorDirection.IDLE;
+        log("💤 All requests completed - Elevator" + carLabel(car) + " is IDLE");
+      }
+    }
+  }
+
+  /** Sends an idle car to wait where the forecaster expects the next calls */
+  private void park(CarState car) {
+    int floor = forecaster.parkingFloor(car, zoneCars.get(car.getZone().getId()));
+    if (floor != car.getCurrentFloor()) {
+      log("🅿️ Parking" + carLabel(car) + " at floor " + floor + " ahead of expected calls");
+      moveToFloorStepByStep(car, floor);
+    }
+  }
+
+  private void determineInitialDirection(CarState car, Set<Integer> allRequests, int currentFloor) {
+    // Find if there are requests above or below current floor
+    boolean hasRequestsAbove = allRequests.stream().anyMatch(floor -> floor > currentFloor);
+    boolean hasRequestsBelow = allRequests.stream().anyMatch(floor -> floor < currentFloor);
+
+    if (hasRequestsAbove && !hasRequestsBelow) {
+      car.direction = ElevatorDirection.UP;
+      log("⬆️ Starting to move UP (requests above current floor)");
+    } else if (hasRequestsBelow && !hasRequestsAbove) {
+      car.direction = ElevatorDirection.DOWN;
+      log("⬇️ Starting to move DOWN (requests below current floor)");
+    } else if (hasRequestsAbove && hasRequestsBelow) {
+      // Requests both above and below - choose closest
+      int closestAbove = allRequests.stream()
+          .filter(f -> f > currentFloor)
+          .min(Integer::compareTo)
+          .orElse(Integer.MAX_VALUE);
+      int closestBelow = allRequests.stream()
+          .filter(f -> f < currentFloor)
+          .max(Integer::compareTo)
+          .orElse(Integer.MIN_VALUE);
+
+      if (Math.abs(closestAbove - currentFloor) <= Math.abs(currentFloor - closestBelow)) {
+        car.direction = ElevatorDirection.UP;
+        log("⬆️ Starting to move UP (closest request is above)");
+      } else {
+        car.direction = ElevatorDirection.DOWN;
+        log("⬇️ Starting to move DOWN (closest request is below)");
+      }
+    }
+  }
+
+  private int getNextFloor(CarState car, Set<Integer> allRequests) {
+    int currentFloor = car.getCurrentFloor();
+
+    if (car.direction == ElevatorDirection.UP) {
+      // Find lowest floor above current floor
+      return allRequests.stream()
+          .filter(floor -> floor > currentFloor)
+          .min(Integer::compareTo)
+          .orElse(-1);
+    } else if (car.direction == ElevatorDirection.DOWN) {
+      // Find highest floor below current floor
+      return allRequests.stream()
+          .filter(floor -> floor < currentFloor)
+          .max(Integer::compareTo)
+          .orElse(-1);
+    }
+
+    return -1;
+  }
+
+  private void switchDirection(CarState car) {
+    if (car.direction == ElevatorDirection.UP) {
+      car.direction = ElevatorDirection.DOWN;
+      log("🔄 Switched direction to DOWN");
+    } else if (car.direction == ElevatorDirection.DOWN) {
+      car.direction = ElevatorDirection.UP;
+      log("🔄 Switched direction to UP");
+    }
+  }
+
+  /** Move elevator step-by-step through each floor to reach target */
+  private void moveToFloorStepByStep(CarState car, int targetFloor) {
+    int currentFloor = car.getCurrentFloor();
+    if (currentFloor == targetFloor) {
+      return;
+    }
+
+    int floors = Math.abs(targetFloor - currentFloor);
+    log(
+        "🚀 Moving"
+            + carLabel(car)
+            + " from floor "
+            + currentFloor
+            + " to floor "
+            + targetFloor
+            + " ("
+            + floors
+            + " floors, "
+            + (travelTimes.time(currentFloor, targetFloor) / 1000.0)
+            + "s total)");
+
+    car.phase = car.phase.on(CarPhase.Trigger.START);
+    car.targetFloor = targetFloor;
+    car.tripStart = currentFloor;
+    car.tripStartTime = time;
+    scheduleCarStep(car, car.getZone().next(currentFloor, targetFloor > currentFloor ? 1 : -1));
+  }
+
+  /** Schedules the moment the car passes {@code floor} on its current run */
+  private void scheduleCarStep(CarState car, int floor) {
+    long passing = travelTimes.passingTime(car.tripStart, car.targetFloor, floor);
+    events.schedule(car.tripStartTime + passing, SimEvent.Type.CAR_STEP, car.getIndex(), 0);
+  }
+
+  /**
+   * Move one served floor at a time, notifying the listener at every floor.
+   * Floors the car's zone skips are passed in a single step.
+   */
+  private void moveOneFloorStep(CarState car) {
+    int direction = car.targetFloor > car.getCurrentFloor() ? 1 : -1;
+    int nextFloor = car.getZone().next(car.getCurrentFloor(), direction);
+
+    metrics.carTravelled(Math.abs(nextFloor - car.getCurrentFloor()));
+    car.getElevator().setCurrentFloor(nextFloor);
+    listener.carMoved(car.getIndex(), nextFloor);
+    log("  ✅ Passed floor " + nextFloor);
+
+    if (nextFloor == car.targetFloor) {
+      car.phase = car.phase.on(CarPhase.Trigger.ARRIVE);
+      log("🎯 Arrived at target floor " + car.targetFloor);
+      if (running) {
+        processElevatorMovement(car);
+      }
+    } else {
+      int following = car.getZone().next(nextFloor, direction);
+      car.phase =
+          car.phase.on(
+              following == car.targetFloor ? CarPhase.Trigger.APPROACH : CarPhase.Trigger.PASS);
+      scheduleCarStep(car, following);
+    }
+  }
+
+  private void stopAtCurrentFloor(CarState car) {
+    int currentFloor = car.getCurrentFloor();
+
+    // Remove this floor from both request types
+    boolean wasCallRequest = car.removeCall(currentFloor);
+    boolean wasDestinationRequest = car.removeDestination(currentFloor);
+
+    car.phase = car.phase.on(CarPhase.Trigger.OPEN);
+    metrics.carStopped();
+
+    String requestType = "";
+    if (wasCallRequest && wasDestinationRequest) {
+      requestType = " (Call + Destination)";
+    } else if (wasCallRequest) {
+      requestType = " (Call Request)";
+    } else if (wasDestinationRequest) {
+      requestType = " (Destination Request)";
+    }
+
+    log("🛑 Stopping" + carLabel(car) + " at floor " + currentFloor + requestType);
+
+    // Step 1: Open doors
+    listener.doorsChanged(car.getIndex(), true);
+    log("🚪 Opening doors...");
+    scheduleDoorStep(car, time + config.getDoorOperationTime());
+  }
+
+  /**
+   * Ends the car's running door or transfer step and starts the next one.
+   * Transfers take one exit or entry time per passenger, so a step nobody
+   * uses takes no time at all and a stop without transfers is just the
+   * doors opening and closing.
+   */
+  private void doorSequenceStep(CarState car) {
+    int currentFloor = car.getCurrentFloor();
+    long delay = 0;
+    while (delay == 0) {
+      car.phase = car.phase.on(CarPhase.Trigger.DOOR_STEP);
+      switch (car.phase) {
+        case UNLOADING:
+          delay = processPassengerExit(car, currentFloor) * (long) config.getPassengerExitTime();
+          break;
+        case LOADING:
+          delay =
+              processPassengerEntry(car, currentFloor) * (long) config.getPassengerEntryTime();
+          break;
+        case DOORS_CLOSING:
+          log("🚪 Closing doors...");
+          delay = config.getDoorOperationTime();
+          break;
+        default:
+          // Doors closed: decide straight away where to go next
+          listener.doorsChanged(car.getIndex(), false);
+          log("✅ Doors closed at floor " + currentFloor + " - Ready to move");
+          printRequestStatus(car);
+          log("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+          if (running) {
+            processElevatorMovement(car);
+          }
+          return;
+      }
+    }
+    scheduleDoorStep(car, time + delay);
+  }
+
+  /** Lets out everyone travelling to this floor; returns how many left the car */
+  private int processPassengerExit(CarState car, int currentFloor) {
+    List<Passenger> exitingPassengers = new ArrayList<>();
+    List<Passenger> riders = car.getElevator().getPassengers();
+
+    // Find passengers who want to exit at this floor
+    for (Passenger passenger : riders) {
+      if (passenger.getDestinationFloor() == currentFloor) {
+        exitingPassengers.add(passenger);
+      }
+    }
+
+    // Remove exiting passengers from elevator
+    for (Passenger passenger : exitingPassengers) {
+      car.getElevator().removePassenger(passenger);
+      if (passenger.hasNextLeg()) {
+        transfer(passenger, currentFloor);
+        continue;
+      }
+      passenger.setExitTime(time);
+      metrics.passengerExited(passenger);
+      listener.passengerDelivered(car.getIndex(), passenger);
+      log(
+          "  ↪️ Passenger "
+              + passenger.getId()
+              + " exited at floor "
+              + currentFloor
+              + " (JOURNEY COMPLETED ✨)");
+    }
+
+    listener.carPassengersChanged(car.getIndex());
+
+    if (exitingPassengers.isEmpty()) {
+      log("  ↪️ No passengers to exit");
+    } else {
+      log("  ✅ " + exitingPassengers.size() + " passenger(s) exited at floor " + currentFloor);
+    }
+    return exitingPassengers.size();
+  }
+
+  /** A passenger at a sky lobby joins the queue for the next leg of their route */
+  private void transfer(Passenger passenger, int currentFloor) {
+    passenger.nextLeg();
+    passenger.setAssignedCar(-1);
+    model.getFloors().get(currentFloor - 1).addWaitingPassenger(passenger);
+    listener.floorQueueChanged(currentFloor);
+    log(
+        "  🔁 Passenger "
+            + passenger.getId()
+            + " changes to zone "
+            + (passenger.getZone() + 1)
+            + " at floor "
+            + currentFloor
+            + ", going to floor "
+            + passenger.getDestinationFloor());
+    if (!catchCar(passenger, currentFloor)) {
+      callFor(passenger);
+    }
+  }
+
+  /** Boards whoever waits here for this car, up to its capacity; returns how many got in */
+  private int processPassengerEntry(CarState car, int currentFloor) {
+    Floor floor = model.getFloors().get(currentFloor - 1);
+    Elevator elevator = car.getElevator();
+    List<Passenger> enteringPassengers = new ArrayList<>();
+
+    boolean destinationDispatch = config.isDestinationDispatch();
+    List<Passenger> leftBehind = new ArrayList<>();
+
+    // Board waiting passengers in arrival order until the car is full
+    int zone = car.getZone().getId();
+    for (Passenger passenger : floor.getWaitingPassengers()) {
+      if (passenger.getZone() != zone) {
+        continue; // Waiting for another zone's cars
+      }
+      if (destinationDispatch && passenger.getAssignedCar() != car.getIndex()) {
+        continue; // Allotted to another car, or not allotted yet
+      }
+      if (elevator.getPassengers().size() + enteringPassengers.size() < elevator.getCapacity()) {
+        enteringPassengers.add(passenger);
+      } else if (destinationDispatch) {
+        leftBehind.add(passenger);
+      } else {
+        log("  ⚠️ Elevator full - Passenger " + passenger.getId() + " must wait");
+        break; // Elevator is full
+      }
+    }
+
+    // Move passengers from floor to elevator
+    for (Passenger passenger : enteringPassengers) {
+      board(car, floor, passenger);
+    }
+
+    // Allotted passengers that did not fit are allotted again
+    for (Passenger passenger : leftBehind) {
+      log("  ⚠️ Elevator full - Passenger " + passenger.getId() + " is allotted again");
+      passenger.setAssignedCar(-1);
+      car.allotted--;
+      addDestinationCall(passenger);
+    }
+
+    if (!destinationDispatch) {
+      if (!isWaitingFor(floor, zone)) {
+        // Everybody got on, so other cars need not come here any more
+        for (CarState other : zoneCars.get(zone)) {
+          other.removeCall(currentFloor);
+        }
+      } else {
+        recall(car, currentFloor);
+      }
+    }
+
+    listener.carPassengersChanged(car.getIndex());
+    listener.floorQueueChanged(currentFloor);
+
+    if (enteringPassengers.isEmpty() && !floor.getWaitingPassengers().isEmpty()) {
+      log("  ↩️ No passengers could enter (wrong direction or elevator full)");
+    } else if (enteringPassengers.isEmpty()) {
+      log("  ↩️ No passengers waiting to enter");
+    } else {
+      log("  ✅ " + enteringPassengers.size() + " passenger(s) entered at floor " + currentFloor);
+    }
+    return enteringPassengers.size();
+  }
+
+  private void board(CarState car, Floor floor, Passenger passenger) {
+    floor.removeWaitingPassenger(passenger);
+    car.getElevator().addPassenger(passenger);
+    if (passenger.getBoardingTime() < 0) {
+      // Wait is measured to the first car; transfers count towards the journey
+      passenger.setBoardingTime(time);
+      metrics.passengerBoarded(passenger);
+    }
+    if (config.isDestinationDispatch()) {
+      car.allotted--;
+    }
+    // Automatically add their destination when they enter
+    addDestinationRequest(car.getIndex(), passenger.getDestinationFloor());
+    log(
+        "  ↩️ Passenger "
+            + passenger.getId()
+            + " entered elevator, going to floor "
+            + passenger.getDestinationFloor());
+  }
+
+  /**
+   * Keeps a hall call for the passengers a full car left behind. Their call
+   * was cleared when the car stopped, so unless another car is already
+   * coming it goes to another car of the zone, or back to the full car when
+   * it is the zone's only car.
+   */
+  private void recall(CarState full, int floor) {
+    List<CarState> candidates = zoneCars.get(full.getZone().getId());
+    for (CarState car : candidates) {
+      if (car.callRequests.contains(floor)) {
+        return;
+      }
+    }
+    if (candidates.size() > 1) {
+      candidates = new ArrayList<>(candidates);
+      candidates.remove(full);
+    }
+    CarState chosen = cars.get(dispatcher.selectCar(floor, candidates));
+    chosen.addCall(floor);
+    log("📞 Call at floor " + floor + " kept for passengers left behind" + carLabel(chosen));
+    requestAdded(chosen, floor);
+  }
+
+  private boolean isWaitingFor(Floor floor, int zone) {
+    for (Passenger passenger : floor.getWaitingPassengers()) {
+      if (passenger.getZone() == zone) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private String carLabel(CarState car) {
+    return cars.size() > 1 ? " [car " + (car.getIndex() + 1) + "]" : "";
+  }
+
+  private void log(String message) {
+    if (verbose) {
+      System.out.println(message);
+    }
+  }
+
+  /** Seed the engine was created with; identifies the run in reports */
+  public long getSeed() {
+    return seed;
+  }
+
+  void setSeed(long seed) {
+    this.seed = seed;
+  }
+
+  EventQueue getEventQueue() {
+    return events;
+  }
+
+  SimRandom getRandom() {
+    return random;
+  }
+
+  TrafficProfile getTrafficProfile() {
+    return trafficProfile;
+  }
+
+  boolean isAutoCall() {
+    return autoCall;
+  }
+
+  /** Destination calls waiting for the current batching window to close */
+  List<Passenger> getPendingCalls() {
+    return pendingCalls;
+  }
+
+  int getNextPassengerId() {
+    return nextPassengerId;
+  }
+
+  /** Overwrites the clock and counters; used when restoring a checkpoint. */
+  void restoreClock(
+      long time, long processedEvents, int nextPassengerId, boolean running, boolean autoCall) {
+    this.time = time;
+    this.processedEvents = processedEvents;
+    this.nextPassengerId = nextPassengerId;
+    this.running = running;
+    this.autoCall = autoCall;
+    model.setSimulationRunning(running);
+  }
+
+  public ElevatorModel getModel() {
+    return model;
+  }
+
+  /** Learned demand forecast, or null when parking is off */
+  public TrafficForecaster getForecaster() {
+    return forecaster;
+  }
+
+  public TravelTimeTable getTravelTimes() {
+    return travelTimes;
+  }
+
+  public List<CarState> getCars() {
+    return cars;
+  }
+
+  public SimulationMetrics getMetrics() {
+    return metrics;
+  }
+
+  /** Current simulation time in milliseconds */
+  public long getTime() {
+    return time;
+  }
+
+  public boolean isRunning() {
+    return running;
+  }
+
+  public long getProcessedEvents() {
+    return processedEvents;
+  }
+
+  /** Time of the next pending event, or -1 if there is none */
+  public long getNextEventTime() {
+    SimEvent next = events.peek();
+    return next == null ? -1 : next.getTime();
+  }
+
+  public int getPendingEvents() {
+    return events.size();
+  }
+}
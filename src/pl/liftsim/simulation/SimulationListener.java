@@ -0,0 +1,20 @@
+package pl.liftsim.simulation;
+
+import pl.liftsim.model.Passenger;
+
+/**
+ * Receives state changes from a {@link SimulationEngine}. Callbacks run on the
+ * thread that advances the engine. All methods default to no-ops.
+ */
+public interface SimulationListener {
+  default void carMoved(int car, int floor) {}
+
+  default void doorsChanged(int car, boolean open) {}
+
+  default void carPassengersChanged(int car) {}
+
+  default void floorQueueChanged(int floor) {}
+
+  /** A passenger left {@code car} at the end of their journey (not at a transfer) */
+  default void passengerDelivered(int car, Passenger passenger) {}
+}
@@ -0,0 +1,215 @@
+package pl.liftsim.simulation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import pl.liftsim.model.Passenger;
+
+/** Wait and journey statistics collected while a simulation runs. Times are in milliseconds. */
+public class SimulationMetrics {
+  private final boolean keepPassengers;
+  private final List<Passenger> passengers = new ArrayList<>();
+  private long[] waitTimes = new long[64];
+  private int waitCount;
+  private long[] journeyTimes = new long[64];
+  private int journeyCount;
+  private long spawned;
+  private long carStops;
+  private long floorsTravelled;
+  private long[] sortedWaits;
+  private long[] sortedJourneys;
+
+  public SimulationMetrics() {
+    this(true);
+  }
+
+  /** @param keepPassengers whether to keep every passenger for detailed reports */
+  public SimulationMetrics(boolean keepPassengers) {
+    this.keepPassengers = keepPassengers;
+  }
+
+  void passengerArrived(Passenger passenger) {
+    spawned++;
+    if (keepPassengers) {
+      passengers.add(passenger);
+    }
+  }
+
+  void passengerBoarded(Passenger passenger) {
+    if (waitCount == waitTimes.length) {
+      waitTimes = Arrays.copyOf(waitTimes, waitCount * 2);
+    }
+    waitTimes[waitCount++] = passenger.getBoardingTime() - passenger.getArrivalTime();
+    sortedWaits = null;
+  }
+
+  void passengerExited(Passenger passenger) {
+    if (journeyCount == journeyTimes.length) {
+      journeyTimes = Arrays.copyOf(journeyTimes, journeyCount * 2);
+    }
+    journeyTimes[journeyCount++] = passenger.getExitTime() - passenger.getArrivalTime();
+    sortedJourneys = null;
+  }
+
+  /** Adds every counter and sample of {@code other}, e.g. to total several buildings. */
+  void addAll(SimulationMetrics other) {
+    spawned += other.spawned;
+    carStops += other.carStops;
+    floorsTravelled += other.floorsTravelled;
+    if (keepPassengers) {
+      passengers.addAll(other.passengers);
+    }
+    waitTimes = append(waitTimes, waitCount, other.waitTimes, other.waitCount);
+    waitCount += other.waitCount;
+    journeyTimes = append(journeyTimes, journeyCount, other.journeyTimes, other.journeyCount);
+    journeyCount += other.journeyCount;
+    sortedWaits = null;
+    sortedJourneys = null;
+  }
+
+  private static long[] append(long[] values, int count, long[] extra, int extraCount) {
+    long[] result = values;
+    if (count + extraCount > values.length) {
+      result = Arrays.copyOf(values, Math.max(values.length * 2, count + extraCount));
+    }
+    System.arraycopy(extra, 0, result, count, extraCount);
+    return result;
+  }
+
+  /** Copies the raw counters into {@code out} (used by checkpoints). */
+  void writeTo(Checkpoint.Output out) throws IOException {
+    out.writeVarLong(spawned);
+    out.writeVarLong(carStops);
+    out.writeVarLong(floorsTravelled);
+  }
+
+  /** Reads the counters back and drops every kept passenger and sample. */
+  void readFrom(Checkpoint.Input in) throws IOException {
+    passengers.clear();
+    spawned = in.readVarLong();
+    carStops = in.readVarLong();
+    floorsTravelled = in.readVarLong();
+    waitTimes = new long[64];
+    waitCount = 0;
+    journeyTimes = new long[64];
+    journeyCount = 0;
+    sortedWaits = null;
+    sortedJourneys = null;
+  }
+
+  /**
+   * Copies the wait and journey samples from the given positions on into
+   * {@code out}. Samples are only ever appended, so a checkpoint can store
+   * just the ones added since the previous checkpoint.
+   */
+  void writeSamples(Checkpoint.Output out, int waitsFrom, int journeysFrom) throws IOException {
+    out.writeVarLong(waitsFrom);
+    out.writeDeltas(waitTimes, waitsFrom, waitCount);
+    out.writeVarLong(journeysFrom);
+    out.writeDeltas(journeyTimes, journeysFrom, journeyCount);
+  }
+
+  /** Replaces the samples, e.g. with the ones a chain of checkpoints stored */
+  void restoreSamples(long[] waits, int waitsCount, long[] journeys, int journeysCount) {
+    waitTimes = Arrays.copyOf(waits, Math.max(64, waitsCount));
+    waitCount = waitsCount;
+    journeyTimes = Arrays.copyOf(journeys, Math.max(64, journeysCount));
+    journeyCount = journeysCount;
+    sortedWaits = null;
+    sortedJourneys = null;
+  }
+
+  boolean isKeepingPassengers() {
+    return keepPassengers;
+  }
+
+  void restorePassenger(Passenger passenger) {
+    if (keepPassengers) {
+      passengers.add(passenger);
+    }
+  }
+
+  void carStopped() {
+    carStops++;
+  }
+
+  void carTravelled(int floors) {
+    floorsTravelled += floors;
+  }
+
+  public long getSpawned() {
+    return spawned;
+  }
+
+  public long getBoarded() {
+    return waitCount;
+  }
+
+  public long getDelivered() {
+    return journeyCount;
+  }
+
+  public long getCarStops() {
+    return carStops;
+  }
+
+  public long getFloorsTravelled() {
+    return floorsTravelled;
+  }
+
+  /** Every passenger seen, in arrival order (empty if passengers are not kept) */
+  public List<Passenger> getPassengers() {
+    return Collections.unmodifiableList(passengers);
+  }
+
+  public double getMeanWait() {
+    return mean(waitTimes, waitCount);
+  }
+
+  public long getWaitPercentile(double percentile) {
+    if (sortedWaits == null) {
+      sortedWaits = sorted(waitTimes, waitCount);
+    }
+    return percentile(sortedWaits, percentile);
+  }
+
+  public double getMeanJourney() {
+    return mean(journeyTimes, journeyCount);
+  }
+
+  public long getJourneyPercentile(double percentile) {
+    if (sortedJourneys == null) {
+      sortedJourneys = sorted(journeyTimes, journeyCount);
+    }
+    return percentile(sortedJourneys, percentile);
+  }
+
+  private static long[] sorted(long[] values, int count) {
+    long[] copy = Arrays.copyOf(values, count);
+    Arrays.sort(copy);
+    return copy;
+  }
+
+  private static double mean(long[] values, int count) {
+    if (count == 0) {
+      return 0;
+    }
+    double sum = 0;
+    for (int i = 0; i < count; i++) {
+      sum += values[i];
+    }
+    return sum / count;
+  }
+
+  /** Nearest-rank percentile, 0 when there are no samples */
+  private static long percentile(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+    return sorted[Math.min(sorted.length - 1, Math.max(0, rank - 1))];
+  }
+}
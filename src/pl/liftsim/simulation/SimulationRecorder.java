@@ -0,0 +1,324 @@
+package pl.liftsim.simulation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Records a run so it can be scrubbed back and forth. The engine is
+ * deterministic, so a run is fully described by periodic keyframes
+ * ({@link Checkpoint} snapshots) plus the external inputs - calls, car calls
+ * and spawned passengers - in the order they were made. Seeking restores the
+ * nearest earlier keyframe and re-simulates from there, applying the recorded
+ * inputs on the way, so a seek costs at most one keyframe interval of
+ * simulation regardless of how long the run is. The dispatcher's call
+ * reassignments are logged alongside the inputs and played back while
+ * re-simulating, as a search cut short by its time budget would not repeat.
+ *
+ * <p>All inputs must go through the recorder rather than straight to the
+ * engine. Making an input while positioned in the past discards the recorded
+ * future and continues from there.
+ */
+public class SimulationRecorder {
+  private static final int CALL = 0;
+  private static final int CAR_CALL = 1;
+  private static final int SPAWN = 2;
+
+  private final SimulationEngine engine;
+  private final long keyframeInterval;
+  private final List<Keyframe> keyframes = new ArrayList<>();
+  private final List<Input> inputs = new ArrayList<>();
+  private final List<Reassignment> reassignments = new ArrayList<>();
+  private int inputCursor;
+  private int reassignmentCursor;
+  private long nextKeyframeTime;
+  private long recordedUntil;
+
+  /** @param keyframeInterval simulated milliseconds between keyframes */
+  public SimulationRecorder(SimulationEngine engine, long keyframeInterval) {
+    this.engine = engine;
+    this.keyframeInterval = keyframeInterval;
+  }
+
+  /** Forgets any previous recording and takes the first keyframe at the current time. */
+  public void begin() {
+    if (!(engine.getDispatcher() instanceof RecordingDispatcher)) {
+      engine.setDispatcher(new RecordingDispatcher(engine.getDispatcher()));
+    }
+    keyframes.clear();
+    inputs.clear();
+    reassignments.clear();
+    inputCursor = 0;
+    reassignmentCursor = 0;
+    recordedUntil = engine.getTime();
+    captureKeyframe();
+    nextKeyframeTime = engine.getTime() + keyframeInterval;
+  }
+
+  public boolean isRecording() {
+    return !keyframes.isEmpty();
+  }
+
+  /** Advances the engine, replaying recorded inputs and taking keyframes on the way. */
+  public void runUntil(long targetTime) {
+    while (true) {
+      long inputTime =
+          inputCursor < inputs.size() ? inputs.get(inputCursor).time : Long.MAX_VALUE;
+      long stop = Math.min(targetTime, Math.min(inputTime, nextKeyframeTime));
+      engine.runUntil(stop);
+
+      if (inputTime == stop) {
+        apply(inputs.get(inputCursor++));
+      } else if (nextKeyframeTime == stop) {
+        if (keyframes.isEmpty() || nextKeyframeTime > lastKeyframe().time) {
+          captureKeyframe();
+        }
+        nextKeyframeTime += keyframeInterval;
+      } else {
+        break;
+      }
+    }
+    recordedUntil = Math.max(recordedUntil, engine.getTime());
+  }
+
+  /** Advances to the next pending engine event, or by one keyframe interval if there is none */
+  public void step() {
+    long next = engine.getNextEventTime();
+    runUntil(next < 0 ? engine.getTime() + keyframeInterval : next);
+  }
+
+  /**
+   * Moves the engine to {@code targetTime}, clamped to the recorded range.
+   * Listener callbacks and logging are suppressed while re-simulating;
+   * callers should refresh their view afterwards.
+   */
+  public void seek(long targetTime) {
+    if (keyframes.isEmpty()) {
+      return;
+    }
+    long target = Math.max(keyframes.get(0).time, Math.min(targetTime, recordedUntil));
+    Keyframe keyframe = keyframeAtOrBefore(target);
+
+    SimulationListener listener = engine.getListener();
+    boolean verbose = engine.isVerbose();
+    engine.setListener(new SimulationListener() {});
+    engine.setVerbose(false);
+    try {
+      Checkpoint.restoreInto(engine, keyframe.snapshot);
+      inputCursor = keyframe.inputIndex;
+      reassignmentCursor = keyframe.reassignmentIndex;
+      nextKeyframeTime = keyframe.time + keyframeInterval;
+      runUntil(target);
+    } catch (IOException e) {
+      throw new IllegalStateException("Corrupt keyframe at " + keyframe.time, e);
+    } finally {
+      engine.setListener(listener);
+      engine.setVerbose(verbose);
+    }
+  }
+
+  public void addCallRequest(int floor) {
+    record(new Input(engine.getTime(), CALL, floor, 0));
+  }
+
+  public void addDestinationRequest(int car, int floor) {
+    record(new Input(engine.getTime(), CAR_CALL, car, floor));
+  }
+
+  public void spawnPassenger(int fromFloor, int destinationFloor) {
+    record(new Input(engine.getTime(), SPAWN, fromFloor, destinationFloor));
+  }
+
+  private void record(Input input) {
+    if (isRecording() && inputCursor < inputs.size()) {
+      branch();
+    }
+    if (isRecording()) {
+      inputs.add(input);
+      inputCursor = inputs.size();
+    }
+    apply(input);
+  }
+
+  /** Drops everything recorded after the current time; the run continues from here. */
+  private void branch() {
+    long now = engine.getTime();
+    inputs.subList(inputCursor, inputs.size()).clear();
+    reassignments.subList(reassignmentCursor, reassignments.size()).clear();
+    while (keyframes.size() > 1 && lastKeyframe().time > now) {
+      keyframes.remove(keyframes.size() - 1);
+    }
+    recordedUntil = now;
+  }
+
+  private void apply(Input input) {
+    switch (input.type) {
+      case CALL:
+        engine.addCallRequest(input.a);
+        break;
+      case CAR_CALL:
+        engine.addDestinationRequest(input.a, input.b);
+        break;
+      case SPAWN:
+        engine.spawnPassenger(input.a, input.b);
+        break;
+      default:
+        throw new IllegalStateException("Unknown input type " + input.type);
+    }
+  }
+
+  private void captureKeyframe() {
+    keyframes.add(
+        new Keyframe(
+            engine.getTime(), inputCursor, reassignmentCursor, Checkpoint.capture(engine)));
+  }
+
+  private Keyframe lastKeyframe() {
+    return keyframes.get(keyframes.size() - 1);
+  }
+
+  private Keyframe keyframeAtOrBefore(long time) {
+    int low = 0;
+    int high = keyframes.size() - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (keyframes.get(mid).time <= time) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return keyframes.get(low);
+  }
+
+  /** Earliest time that can be sought to */
+  public long getStartTime() {
+    return keyframes.isEmpty() ? engine.getTime() : keyframes.get(0).time;
+  }
+
+  /** Latest simulated time reached so far */
+  public long getRecordedUntil() {
+    return recordedUntil;
+  }
+
+  /** Whether the engine is at the end of the recording rather than in the past */
+  public boolean isAtLiveEdge() {
+    return engine.getTime() >= recordedUntil;
+  }
+
+  public int getKeyframeCount() {
+    return keyframes.size();
+  }
+
+  public long getKeyframeBytes() {
+    long total = 0;
+    for (Keyframe keyframe : keyframes) {
+      total += keyframe.snapshot.length;
+    }
+    return total;
+  }
+
+  /**
+   * Passes calls through to the engine's dispatcher, logging what each
+   * reassignment decided, and repeats the logged decisions when the run
+   * covers recorded time again.
+   */
+  private final class RecordingDispatcher implements Dispatcher {
+    private final Dispatcher live;
+
+    RecordingDispatcher(Dispatcher live) {
+      this.live = live;
+    }
+
+    @Override
+    public int selectCar(int floor, List<CarState> cars) {
+      return live.selectCar(floor, cars);
+    }
+
+    @Override
+    public void reassign(
+        long time, int[] floors, int[] waiting, int[] owners, List<CarState> cars) {
+      if (reassignmentCursor < reassignments.size()) {
+        replay(reassignments.get(reassignmentCursor++), time, floors, owners);
+        return;
+      }
+      int[] before = owners.clone();
+      live.reassign(time, floors, waiting, owners, cars);
+      if (isRecording()) {
+        // Most ticks move nothing; those need no copy of the calls
+        reassignments.add(
+            Arrays.equals(before, owners)
+                ? new Reassignment(time, floors.length, null, null)
+                : new Reassignment(time, floors.length, floors.clone(), owners.clone()));
+        reassignmentCursor = reassignments.size();
+      }
+    }
+
+    /**
+     * Gives each call the car it got when recorded. Calls are matched by
+     * floor, as a restored keyframe may list a car's calls in another order.
+     */
+    private void replay(Reassignment recorded, long time, int[] floors, int[] owners) {
+      if (recorded.time != time || recorded.calls != floors.length) {
+        throw new IllegalStateException("Replay diverged from the recording at " + time);
+      }
+      if (recorded.floors == null) {
+        return;
+      }
+      for (int i = 0; i < floors.length; i++) {
+        int j = 0;
+        while (j < recorded.floors.length && recorded.floors[j] != floors[i]) {
+          j++;
+        }
+        if (j == recorded.floors.length) {
+          throw new IllegalStateException("Replay diverged from the recording at " + time);
+        }
+        owners[i] = recorded.owners[j];
+      }
+    }
+  }
+
+  private static final class Keyframe {
+    final long time;
+    final int inputIndex;
+    final int reassignmentIndex;
+    final byte[] snapshot;
+
+    Keyframe(long time, int inputIndex, int reassignmentIndex, byte[] snapshot) {
+      this.time = time;
+      this.inputIndex = inputIndex;
+      this.reassignmentIndex = reassignmentIndex;
+      this.snapshot = snapshot;
+    }
+  }
+
+  private static final class Reassignment {
+    final long time;
+    final int calls;
+    // Both null when the dispatcher kept every call where it was
+    final int[] floors;
+    final int[] owners;
+
+    Reassignment(long time, int calls, int[] floors, int[] owners) {
+      this.time = time;
+      this.calls = calls;
+      this.floors = floors;
+      this.owners = owners;
+    }
+  }
+
+  private static final class Input {
+    final long time;
+    final int type;
+    final int a;
+    final int b;
+
+    Input(long time, int type, int a, int b) {
+      this.time = time;
+      this.type = type;
+      this.a = a;
+      this.b = b;
+    }
+  }
+}
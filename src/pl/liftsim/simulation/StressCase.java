@@ -0,0 +1,482 @@
+package pl.liftsim.simulation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+
+import pl.liftsim.model.BuildingConfig;
+import pl.liftsim.model.ElevatorModel;
+
+/**
+ * A reproducible stress scenario: a building and a timed list of outside
+ * actions - passengers walking up, hall calls and car calls - fed to a
+ * {@link SimulationEngine} while an {@link InvariantChecker} checks it after
+ * every event. Cases are generated from a seed, can be shrunk to a smaller
+ * case that breaks the same invariant, and are saved as text for replaying:
+ *
+ * <pre>
+ * seed=17
+ * floors=9
+ * cars=2
+ * actions:
+ * 1200 spawn 3 7   # ms, passenger from floor 3 to floor 7
+ * 1850 call 4      # hall call at floor 4
+ * 2100 car 2 5     # car call for floor 5 in car 2
+ * </pre>
+ */
+public final class StressCase {
+  private static final String ACTIONS = "actions:";
+
+  private final long seed;
+  private final Properties building;
+  private final List<Action> actions;
+
+  public StressCase(long seed, Properties building, List<Action> actions) {
+    this.seed = seed;
+    this.building = building;
+    this.actions = Collections.unmodifiableList(new ArrayList<>(actions));
+  }
+
+  /**
+   * Draws a random building and {@code count} actions from the seed. Loads
+   * stay below what the building can carry, so a passenger left behind is
+   * a bug rather than a busy day.
+   */
+  public static StressCase generate(long seed, int count) {
+    SimRandom random = new SimRandom(seed);
+    Properties building = new Properties();
+    int floors = 2 + random.nextInt(24);
+    int capacity = 1 + random.nextInt(12);
+    int cars;
+    building.setProperty("floors", String.valueOf(floors));
+    building.setProperty("capacity", String.valueOf(capacity));
+    if (floors >= 6 && random.nextInt(5) == 0) {
+      // Two zones meeting at a sky lobby, so some passengers change cars
+      int lobby = 3 + random.nextInt(floors - 4);
+      int lower = 1 + random.nextInt(3);
+      int upper = 1 + random.nextInt(3);
+      building.setProperty("zones", "2");
+      building.setProperty("zone.1.floors", "1-" + lobby);
+      building.setProperty("zone.1.cars", String.valueOf(lower));
+      building.setProperty("zone.2.floors", lobby + "-" + floors);
+      building.setProperty("zone.2.cars", String.valueOf(upper));
+      cars = lower + upper;
+    } else {
+      cars = 1 + random.nextInt(5);
+      building.setProperty("cars", String.valueOf(cars));
+    }
+    if (random.nextInt(4) == 0) {
+      building.setProperty("destinationDispatch", "true");
+    }
+    if (random.nextInt(4) == 0) {
+      building.setProperty("dispatcher", "lookahead");
+      building.setProperty("lookAheadMoves", "200");
+      // A move budget instead of a time budget keeps the search reproducible
+      building.setProperty("lookAheadBudget", "1000000");
+    }
+    if (random.nextInt(4) == 0) {
+      building.setProperty("parking", "true");
+    }
+    if (random.nextInt(3) == 0) {
+      building.setProperty("accelerationTime", "1500");
+    }
+    building.setProperty("doorOperationTime", String.valueOf(500 * random.nextInt(5)));
+    building.setProperty("passengerExitTime", String.valueOf(1000 * random.nextInt(3)));
+    building.setProperty("passengerEntryTime", String.valueOf(1000 * random.nextInt(3)));
+
+    // A round trip takes roughly two runs of the building plus a stop per floor
+    double roundTrip = floors * 2 * 3000.0 + floors * 4000.0;
+    double meanGap = roundTrip / (cars * Math.min(capacity, 4)) * (1.5 + random.nextDouble());
+
+    List<Action> actions = new ArrayList<>(count);
+    long time = 0;
+    for (int i = 0; i < count; i++) {
+      time += 1 + (long) random.nextExponential(meanGap);
+      int kind = random.nextInt(10);
+      if (kind < 8) {
+        int from = 1 + random.nextInt(floors);
+        int to = 1 + random.nextInt(floors - 1);
+        actions.add(new Action(time, Action.SPAWN, from, to >= from ? to + 1 : to));
+      } else if (kind == 8) {
+        actions.add(new Action(time, Action.CALL, 1 + random.nextInt(floors), 0));
+      } else {
+        int car = random.nextInt(cars);
+        actions.add(new Action(time, Action.CAR_CALL, car, 1 + random.nextInt(floors)));
+      }
+    }
+    return new StressCase(seed, building, actions);
+  }
+
+  /**
+   * Plays the case, checking every invariant after every event, then lets the
+   * building drain: with no more actions everybody must be delivered and every
+   * request served within {@code starvationBound} milliseconds.
+   */
+  public Result run(long starvationBound, boolean verbose) {
+    BuildingConfig config = BuildingConfig.fromProperties(building);
+    SimulationEngine engine =
+        new SimulationEngine(new ElevatorModel(config), seed, new SimulationMetrics(false));
+    engine.setAutoCall(true);
+    engine.setVerbose(verbose);
+    InvariantChecker checker = new InvariantChecker(engine, starvationBound);
+    engine.start();
+    InvariantChecker.Violation violation = null;
+    try {
+      for (Action action : actions) {
+        while (engine.step(action.time)) {
+          checker.check();
+        }
+        engine.runUntil(action.time);
+        action.applyTo(engine, config);
+        checker.check();
+      }
+      long deadline = engine.getTime() + starvationBound;
+      while (!checker.isDrained()) {
+        if (!engine.step(deadline)) {
+          throw new InvariantChecker.Violation(
+              "unserved", engine.getTime(), "building still busy after the drain period");
+        }
+        checker.check();
+      }
+    } catch (InvariantChecker.Violation e) {
+      violation = e;
+    } catch (RuntimeException e) {
+      violation = new InvariantChecker.Violation("exception", engine.getTime(), e.toString());
+      violation.initCause(e);
+    }
+    return new Result(violation, engine.getProcessedEvents(), checker.getChecks());
+  }
+
+  /**
+   * Looks for a smaller case that breaks the same kind of invariant: first a
+   * simpler building, then fewer actions, removing ever smaller runs of them.
+   * Stops after {@code budget} replays.
+   */
+  public StressCase shrink(InvariantChecker.Violation failure, long starvationBound, int budget) {
+    Shrinker shrinker = new Shrinker(failure.getKind(), starvationBound, budget);
+    StressCase smallest = truncate(failure.getTime());
+    StressCase previous;
+    do {
+      previous = smallest;
+      smallest = shrinker.simplifyBuilding(smallest);
+      smallest = shrinker.dropActions(smallest);
+      smallest = shrinker.moveEarlier(smallest);
+    } while (smallest != previous && shrinker.hasBudget());
+    return smallest;
+  }
+
+  /** Without the actions after {@code time}; they cannot have caused a failure by then */
+  private StressCase truncate(long time) {
+    int end = 0;
+    while (end < actions.size() && actions.get(end).time <= time) {
+      end++;
+    }
+    return end == actions.size() ? this : new StressCase(seed, building, actions.subList(0, end));
+  }
+
+  private StressCase without(int from, int to) {
+    List<Action> kept = new ArrayList<>(actions.subList(0, from));
+    kept.addAll(actions.subList(to, actions.size()));
+    return new StressCase(seed, building, kept);
+  }
+
+  /** The same actions {@code offset} ms earlier */
+  private StressCase shiftedBy(long offset) {
+    List<Action> shifted = new ArrayList<>(actions.size());
+    for (Action action : actions) {
+      shifted.add(new Action(action.time - offset, action.kind, action.first, action.second));
+    }
+    return new StressCase(seed, building, shifted);
+  }
+
+  private StressCase with(String key, String value) {
+    Properties changed = new Properties();
+    changed.putAll(building);
+    if (value == null) {
+      changed.remove(key);
+    } else {
+      changed.setProperty(key, value);
+    }
+    return new StressCase(seed, changed, actions);
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  public Properties getBuilding() {
+    return building;
+  }
+
+  public List<Action> getActions() {
+    return actions;
+  }
+
+  public void write(Path file, String comment) throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      if (comment != null) {
+        writer.write("# " + comment);
+        writer.newLine();
+      }
+      writer.write("seed=" + seed);
+      writer.newLine();
+      for (String key : new TreeSet<>(building.stringPropertyNames())) {
+        writer.write(key + "=" + building.getProperty(key));
+        writer.newLine();
+      }
+      writer.write(ACTIONS);
+      writer.newLine();
+      for (Action action : actions) {
+        writer.write(action.toString());
+        writer.newLine();
+      }
+    }
+  }
+
+  public static StressCase read(Path file) throws IOException {
+    long seed = 0;
+    Properties building = new Properties();
+    List<Action> actions = new ArrayList<>();
+    boolean inActions = false;
+    for (String raw : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+      int comment = raw.indexOf('#');
+      String line = (comment < 0 ? raw : raw.substring(0, comment)).trim();
+      if (line.isEmpty()) {
+        continue;
+      }
+      if (inActions) {
+        actions.add(Action.parse(line));
+      } else if (line.equals(ACTIONS)) {
+        inActions = true;
+      } else {
+        int separator = line.indexOf('=');
+        if (separator < 0) {
+          throw new IOException("Invalid stress case line: " + raw);
+        }
+        String key = line.substring(0, separator).trim();
+        String value = line.substring(separator + 1).trim();
+        if (key.equals("seed")) {
+          seed = Long.parseLong(value);
+        } else {
+          building.setProperty(key, value);
+        }
+      }
+    }
+    return new StressCase(seed, building, actions);
+  }
+
+  /** Something done to the building from outside at a given time */
+  public static final class Action {
+    static final int SPAWN = 0;
+    static final int CALL = 1;
+    static final int CAR_CALL = 2;
+    private static final String[] NAMES = {"spawn", "call", "car"};
+
+    final long time;
+    final int kind;
+    final int first;
+    final int second;
+
+    Action(long time, int kind, int first, int second) {
+      this.time = time;
+      this.kind = kind;
+      this.first = first;
+      this.second = second;
+    }
+
+    /** Applies the action; floors or cars the building no longer has are ignored */
+    void applyTo(SimulationEngine engine, BuildingConfig config) {
+      int floors = config.getFloors();
+      switch (kind) {
+        case SPAWN:
+          if (first <= floors && second <= floors) {
+            engine.spawnPassenger(first, second);
+          }
+          break;
+        case CALL:
+          if (first <= floors) {
+            engine.addCallRequest(first);
+          }
+          break;
+        default:
+          if (first < config.getCars() && second <= floors) {
+            engine.addDestinationRequest(first, second);
+          }
+          break;
+      }
+    }
+
+    static Action parse(String line) throws IOException {
+      String[] parts = line.split("\\s+");
+      try {
+        long time = Long.parseLong(parts[0]);
+        switch (parts[1]) {
+          case "spawn":
+            return new Action(
+                time, SPAWN, Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
+          case "call":
+            return new Action(time, CALL, Integer.parseInt(parts[2]), 0);
+          case "car":
+            return new Action(
+                time, CAR_CALL, Integer.parseInt(parts[2]) - 1, Integer.parseInt(parts[3]));
+          default:
+            throw new IOException("Unknown stress action: " + line);
+        }
+      } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+        throw new IOException("Invalid stress action: " + line, e);
+      }
+    }
+
+    @Override
+    public String toString() {
+      switch (kind) {
+        case SPAWN:
+          return time + " " + NAMES[kind] + " " + first + " " + second;
+        case CALL:
+          return time + " " + NAMES[kind] + " " + first;
+        default:
+          return time + " " + NAMES[kind] + " " + (first + 1) + " " + second;
+      }
+    }
+  }
+
+  /** Outcome of one playthrough */
+  public static final class Result {
+    private final InvariantChecker.Violation violation;
+    private final long events;
+    private final long checks;
+
+    Result(InvariantChecker.Violation violation, long events, long checks) {
+      this.violation = violation;
+      this.events = events;
+      this.checks = checks;
+    }
+
+    /** The first broken invariant, or null if the case passed */
+    public InvariantChecker.Violation getViolation() {
+      return violation;
+    }
+
+    public long getEvents() {
+      return events;
+    }
+
+    public long getChecks() {
+      return checks;
+    }
+  }
+
+  /** Replays candidate cases, keeping those that still fail the same way */
+  private static final class Shrinker {
+    private final String kind;
+    private final long starvationBound;
+    private int budget;
+
+    Shrinker(String kind, long starvationBound, int budget) {
+      this.kind = kind;
+      this.starvationBound = starvationBound;
+      this.budget = budget;
+    }
+
+    boolean hasBudget() {
+      return budget > 0;
+    }
+
+    /** The candidate, cut at its own failure, if it still fails the same way; otherwise null */
+    StressCase attempt(StressCase candidate) {
+      if (budget <= 0) {
+        return null;
+      }
+      budget--;
+      InvariantChecker.Violation violation = candidate.run(starvationBound, false).getViolation();
+      if (violation == null || !violation.getKind().equals(kind)) {
+        return null;
+      }
+      return candidate.truncate(violation.getTime());
+    }
+
+    StressCase simplifyBuilding(StressCase current) {
+      // Features off first, then fewer cars, floors and places
+      if (current.building.containsKey("dispatcher")) {
+        StressCase smaller =
+            attempt(
+                current
+                    .with("dispatcher", null)
+                    .with("lookAheadBudget", null)
+                    .with("lookAheadMoves", null));
+        current = smaller == null ? current : smaller;
+      }
+      String[] features = {
+        "parking", "destinationDispatch", "accelerationTime", "doorOperationTime"
+      };
+      for (String key : features) {
+        if (current.building.containsKey(key)) {
+          StressCase smaller = attempt(current.with(key, null));
+          current = smaller == null ? current : smaller;
+        }
+      }
+      boolean zoned = current.building.containsKey("zones");
+      current = decrease(current, zoned ? "zone.1.cars" : "cars", 1);
+      current = zoned ? decrease(current, "zone.2.cars", 1) : current;
+      current = zoned ? current : decrease(current, "floors", 2);
+      return decrease(current, "capacity", 1);
+    }
+
+    /** Lowers a numeric key one step at a time while the case keeps failing */
+    private StressCase decrease(StressCase current, String key, int min) {
+      String value = current.building.getProperty(key);
+      int number = value == null ? 0 : Integer.parseInt(value);
+      while (number > min) {
+        StressCase smaller = attempt(current.with(key, String.valueOf(number - 1)));
+        if (smaller == null) {
+          break;
+        }
+        current = smaller;
+        number--;
+      }
+      return current;
+    }
+
+    /** Starts the actions as early as possible, keeping them in step with the tick */
+    StressCase moveEarlier(StressCase current) {
+      if (current.actions.isEmpty()) {
+        return current;
+      }
+      int tick = BuildingConfig.fromProperties(current.building).getTickInterval();
+      long offset = (current.actions.get(0).time - 1) / tick * tick;
+      StressCase earlier = offset > 0 ? attempt(current.shiftedBy(offset)) : null;
+      return earlier == null ? current : earlier;
+    }
+
+    /** Removes runs of actions, halving the run length whenever nothing can go */
+    StressCase dropActions(StressCase current) {
+      int run = Math.max(1, current.actions.size() / 2);
+      while (hasBudget() && !current.actions.isEmpty()) {
+        boolean removed = false;
+        int start = 0;
+        while (start < current.actions.size() && hasBudget()) {
+          int end = Math.min(start + run, current.actions.size());
+          StressCase smaller = attempt(current.without(start, end));
+          if (smaller != null) {
+            current = smaller;
+            removed = true;
+          } else {
+            start = end;
+          }
+        }
+        if (run == 1 && !removed) {
+          break;
+        }
+        run = removed ? run : Math.max(1, run / 2);
+      }
+      return current;
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package pl.liftsim.simulation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import pl.liftsim.model.BuildingConfig;
+
+/** One point of a fleet-sizing sweep and the replications run for it so far. */
+public class SweepCandidate {
+  private final BuildingConfig config;
+  private final double cost;
+  private final List<Double> p95Waits = new ArrayList<>(); // seconds, one per seed
+  private final List<Double> meanWaits = new ArrayList<>();
+  private int eliminatedInRound = -1;
+  private String eliminationReason = "";
+
+  SweepCandidate(BuildingConfig config, double cost) {
+    this.config = config;
+    this.cost = cost;
+  }
+
+  synchronized void addReplication(RunResult result) {
+    p95Waits.add(result.getMetrics().getWaitPercentile(95) / 1000.0);
+    meanWaits.add(result.getMetrics().getMeanWait() / 1000.0);
+  }
+
+  void eliminate(int round, String reason) {
+    this.eliminatedInRound = round;
+    this.eliminationReason = reason;
+  }
+
+  public BuildingConfig getConfig() {
+    return config;
+  }
+
+  public double getCost() {
+    return cost;
+  }
+
+  public boolean isAlive() {
+    return eliminatedInRound < 0;
+  }
+
+  /** Round in which the candidate was dropped, or -1 if it survived */
+  public int getEliminatedInRound() {
+    return eliminatedInRound;
+  }
+
+  public String getEliminationReason() {
+    return eliminationReason;
+  }
+
+  public synchronized int getReplications() {
+    return p95Waits.size();
+  }
+
+  public synchronized List<Double> getP95Waits() {
+    return Collections.unmodifiableList(new ArrayList<>(p95Waits));
+  }
+
+  public synchronized double getMeanP95Wait() {
+    return mean(p95Waits);
+  }
+
+  public synchronized double getMeanWait() {
+    return mean(meanWaits);
+  }
+
+  /** Standard error of the mean p95 wait; infinite with fewer than two replications */
+  public synchronized double getP95StandardError() {
+    int n = p95Waits.size();
+    if (n < 2) {
+      return Double.POSITIVE_INFINITY;
+    }
+    double mean = mean(p95Waits);
+    double sumSquares = 0;
+    for (double value : p95Waits) {
+      sumSquares += (value - mean) * (value - mean);
+    }
+    return Math.sqrt(sumSquares / (n - 1) / n);
+  }
+
+  public double lowerBound(double z) {
+    return getMeanP95Wait() - z * getP95StandardError();
+  }
+
+  public double upperBound(double z) {
+    return getMeanP95Wait() + z * getP95StandardError();
+  }
+
+  private static double mean(List<Double> values) {
+    if (values.isEmpty()) {
+      return Double.NaN;
+    }
+    double sum = 0;
+    for (double value : values) {
+      sum += value;
+    }
+    return sum / values.size();
+  }
+}
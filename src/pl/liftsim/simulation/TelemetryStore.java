@@ -0,0 +1,470 @@
+package pl.liftsim.simulation;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import pl.liftsim.model.Floor;
+
+/**
+ * Building history sampled at a fixed simulated interval: the queue length
+ * of every floor and the floor, load and direction of every car. Samples
+ * live outside the Java heap, in memory-mapped segment files, so a long run
+ * of a tall building costs the heap little more than a small index.
+ *
+ * <p>Every floor and car attribute is its own series, cut into chunks of
+ * {@value #CHUNK_SAMPLES} samples. A chunk holds its first value followed by
+ * the differences between neighbours, each as a zig-zag varint; queues and
+ * cars change little between samples, so most take one byte. The chunk being
+ * filled sits in a direct staging buffer and is appended to the current
+ * segment once full. Samples are evenly spaced, so a range query finds its
+ * chunks by arithmetic and decodes only those.
+ *
+ * <p>Closing the store flushes the partly filled chunks and writes {@code
+ * index.bin} next to the segments; {@link #open(Path)} maps them read-only
+ * for analysis after the run. Segment files are created at full size and
+ * are sparse on most file systems.
+ */
+public final class TelemetryStore implements Closeable {
+  public static final int CHUNK_SAMPLES = 256;
+  private static final int SEGMENT_BYTES = 16 << 20;
+  private static final int MAX_CHUNK_BYTES = CHUNK_SAMPLES * 5; // Zig-zag ints take <= 5 bytes
+  private static final int MAGIC = 0x4c54454c; // "LTEL"
+  private static final int VERSION = 1;
+  private static final int CAR_SERIES = 3; // Floor, load, direction
+
+  private final Path directory;
+  private final int floors;
+  private final int cars;
+  private final int series;
+  private final long startTime;
+  private final long interval;
+  private final boolean writable;
+  private final List<MappedByteBuffer> segments = new ArrayList<>();
+  private long used; // Bytes appended to the segments, as a global offset
+  private long[][] chunkOffsets; // [series][chunk], global offsets of full chunks
+  private long samples;
+  private final ByteBuffer staging; // One MAX_CHUNK_BYTES slot per series
+  private final int[] stagingLength;
+  private final int[] last; // Last value appended per series
+  private boolean closed;
+
+  private TelemetryStore(
+      Path directory,
+      int floors,
+      int cars,
+      long startTime,
+      long interval,
+      boolean writable) {
+    if (interval <= 0) {
+      throw new IllegalArgumentException("Sample interval must be positive: " + interval);
+    }
+    this.directory = directory;
+    this.floors = floors;
+    this.cars = cars;
+    this.series = floors + cars * CAR_SERIES;
+    this.startTime = startTime;
+    this.interval = interval;
+    this.writable = writable;
+    this.chunkOffsets = new long[series][16];
+    this.staging = writable ? ByteBuffer.allocateDirect(series * MAX_CHUNK_BYTES) : null;
+    this.stagingLength = new int[series];
+    this.last = new int[series];
+  }
+
+  /**
+   * Creates an empty store in {@code directory}, replacing any store there.
+   *
+   * @param startTime simulated time of the first sample
+   * @param interval simulated milliseconds between samples
+   */
+  public static TelemetryStore create(
+      Path directory, int floors, int cars, long startTime, long interval) throws IOException {
+    Files.createDirectories(directory);
+    for (int i = 0; Files.deleteIfExists(segmentFile(directory, i)); i++) {
+      // Drop the segments of an earlier store
+    }
+    Files.deleteIfExists(directory.resolve("index.bin"));
+    return new TelemetryStore(directory, floors, cars, startTime, interval, true);
+  }
+
+  /** Opens a store written and closed by an earlier run, read-only. */
+  public static TelemetryStore open(Path directory) throws IOException {
+    try (DataInputStream in =
+        new DataInputStream(Files.newInputStream(directory.resolve("index.bin")))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not a telemetry index: " + directory);
+      }
+      int version = in.readInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported telemetry version " + version);
+      }
+      TelemetryStore store =
+          new TelemetryStore(
+              directory, in.readInt(), in.readInt(), in.readLong(), in.readLong(), false);
+      store.samples = in.readLong();
+      store.used = in.readLong();
+      int segmentCount = in.readInt();
+      for (int i = 0; i < segmentCount; i++) {
+        try (FileChannel channel = FileChannel.open(segmentFile(directory, i))) {
+          store.segments.add(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+      }
+      int chunks = store.getChunkCount();
+      store.chunkOffsets = new long[store.series][Math.max(1, chunks)];
+      for (long[] offsets : store.chunkOffsets) {
+        for (int chunk = 0; chunk < chunks; chunk++) {
+          offsets[chunk] = in.readLong();
+        }
+      }
+      return store;
+    }
+  }
+
+  /** Appends one sample of every floor and car, taken at {@link #getNextSampleTime()}. */
+  public void sample(SimulationEngine engine) {
+    if (!writable || closed) {
+      throw new IllegalStateException("Telemetry store is read-only");
+    }
+    List<Floor> floorList = engine.getModel().getFloors();
+    for (int f = 0; f < floors; f++) {
+      append(f, floorList.get(f).getWaitingPassengers().size());
+    }
+    List<CarState> carList = engine.getCars();
+    for (int c = 0; c < cars; c++) {
+      CarState car = carList.get(c);
+      int base = floors + c * CAR_SERIES;
+      append(base, car.getCurrentFloor());
+      append(base + 1, car.getLoad());
+      append(base + 2, directionOf(car.getDirection()));
+    }
+    samples++;
+    if (samples % CHUNK_SAMPLES == 0) {
+      flushChunks();
+    }
+  }
+
+  /**
+   * Runs {@code engine} until {@code targetTime}, stopping at every sample
+   * time on the way to take a sample.
+   */
+  public void runUntil(SimulationEngine engine, long targetTime) {
+    for (long next = getNextSampleTime(); next <= targetTime; next = getNextSampleTime()) {
+      engine.runUntil(next);
+      sample(engine);
+    }
+    engine.runUntil(targetTime);
+  }
+
+  /**
+   * Forgets every sample taken after {@code time}, e.g. when a recorded run
+   * continues differently from an earlier point.
+   */
+  public void truncate(long time) {
+    if (!writable || closed) {
+      throw new IllegalStateException("Telemetry store is read-only");
+    }
+    long keep = time < startTime ? 0 : Math.min(samples, (time - startTime) / interval + 1);
+    if (keep == samples) {
+      return;
+    }
+    int chunk = (int) (keep / CHUNK_SAMPLES);
+    int inChunk = (int) (keep % CHUNK_SAMPLES);
+    int[] values = new int[CHUNK_SAMPLES];
+    for (int s = 0; s < series; s++) {
+      int count = decodeChunk(s, chunk, values);
+      stagingLength[s] = 0;
+      for (int i = 0; i < Math.min(inChunk, count); i++) {
+        append(s, values[i]);
+      }
+    }
+    // Chunks are flushed in series order, so everything from this one on is the tail
+    if (chunk < getFullChunkCount()) {
+      used = chunkOffsets[0][chunk];
+    }
+    samples = keep;
+  }
+
+  private void append(int s, int value) {
+    int previous = stagingLength[s] == 0 ? 0 : last[s];
+    int position = s * MAX_CHUNK_BYTES + stagingLength[s];
+    long zigZag = ((long) value - previous << 1) ^ ((long) value - previous >> 63);
+    while ((zigZag & ~0x7FL) != 0) {
+      staging.put(position++, (byte) ((zigZag & 0x7F) | 0x80));
+      zigZag >>>= 7;
+    }
+    staging.put(position++, (byte) zigZag);
+    stagingLength[s] = position - s * MAX_CHUNK_BYTES;
+    last[s] = value;
+  }
+
+  /** Moves every staged chunk to the segments; they all end at the same sample. */
+  private void flushChunks() {
+    int chunk = (int) ((samples - 1) / CHUNK_SAMPLES);
+    for (int s = 0; s < series; s++) {
+      if (chunk >= chunkOffsets[s].length) {
+        chunkOffsets[s] = Arrays.copyOf(chunkOffsets[s], chunkOffsets[s].length * 2);
+      }
+      chunkOffsets[s][chunk] = write(s * MAX_CHUNK_BYTES, stagingLength[s]);
+      stagingLength[s] = 0;
+    }
+  }
+
+  private long write(int from, int length) {
+    int segment = (int) (used / SEGMENT_BYTES);
+    int offset = (int) (used % SEGMENT_BYTES);
+    if (offset + length > SEGMENT_BYTES) {
+      segment++;
+      offset = 0; // Chunks never straddle two segments
+    }
+    MappedByteBuffer buffer = segment(segment);
+    for (int i = 0; i < length; i++) {
+      buffer.put(offset + i, staging.get(from + i));
+    }
+    long start = (long) segment * SEGMENT_BYTES + offset;
+    used = start + length;
+    return start;
+  }
+
+  private MappedByteBuffer segment(int index) {
+    while (segments.size() <= index) {
+      try (FileChannel channel =
+          FileChannel.open(
+              segmentFile(directory, segments.size()),
+              StandardOpenOption.CREATE,
+              StandardOpenOption.READ,
+              StandardOpenOption.WRITE)) {
+        segments.add(channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_BYTES));
+      } catch (IOException e) {
+        throw new IllegalStateException("Cannot map telemetry segment in " + directory, e);
+      }
+    }
+    return segments.get(index);
+  }
+
+  /** Decodes one chunk of a series into {@code values}; returns how many samples it holds. */
+  private int decodeChunk(int s, int chunk, int[] values) {
+    long first = (long) chunk * CHUNK_SAMPLES;
+    int count = (int) Math.min(CHUNK_SAMPLES, samples - first);
+    if (count <= 0) {
+      return 0;
+    }
+    ByteBuffer buffer;
+    int position;
+    if (chunk < getFullChunkCount() || !writable || closed) {
+      long offset = chunkOffsets[s][chunk];
+      buffer = segments.get((int) (offset / SEGMENT_BYTES));
+      position = (int) (offset % SEGMENT_BYTES);
+    } else {
+      buffer = staging;
+      position = s * MAX_CHUNK_BYTES;
+    }
+    int value = 0;
+    for (int i = 0; i < count; i++) {
+      long zigZag = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = buffer.get(position++);
+        zigZag |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while (b < 0);
+      value += (int) ((zigZag >>> 1) ^ -(zigZag & 1));
+      values[i] = value;
+    }
+    return count;
+  }
+
+  private int getFullChunkCount() {
+    return (int) (samples / CHUNK_SAMPLES);
+  }
+
+  private int getChunkCount() {
+    return (int) ((samples + CHUNK_SAMPLES - 1) / CHUNK_SAMPLES);
+  }
+
+  /** Waiting passengers at {@code floor} (1-based) for the samples between two times */
+  public Range queueLengths(int floor, long from, long to) {
+    if (floor < 1 || floor > floors) {
+      throw new IllegalArgumentException("No floor " + floor);
+    }
+    return query(floor - 1, from, to);
+  }
+
+  /** Floor of {@code car} (0-based) for the samples between two times */
+  public Range carFloors(int car, long from, long to) {
+    return query(carSeries(car), from, to);
+  }
+
+  /** Passengers riding {@code car} for the samples between two times */
+  public Range carLoads(int car, long from, long to) {
+    return query(carSeries(car) + 1, from, to);
+  }
+
+  /** Direction of {@code car}: 1 up, -1 down, 0 idle */
+  public Range carDirections(int car, long from, long to) {
+    return query(carSeries(car) + 2, from, to);
+  }
+
+  private int carSeries(int car) {
+    if (car < 0 || car >= cars) {
+      throw new IllegalArgumentException("No car " + car);
+    }
+    return floors + car * CAR_SERIES;
+  }
+
+  private Range query(int s, long from, long to) {
+    long first = Math.max(0, ceilDiv(from - startTime, interval));
+    long end = Math.min(samples, Math.floorDiv(to - startTime, interval) + 1);
+    if (end <= first) {
+      return new Range(startTime + first * interval, interval, new int[0]);
+    }
+    int[] values = new int[Math.toIntExact(end - first)];
+    int[] chunkValues = new int[CHUNK_SAMPLES];
+    for (long index = first; index < end; ) {
+      int chunk = (int) (index / CHUNK_SAMPLES);
+      decodeChunk(s, chunk, chunkValues);
+      int from0 = (int) (index % CHUNK_SAMPLES);
+      int count = (int) Math.min(CHUNK_SAMPLES - from0, end - index);
+      System.arraycopy(chunkValues, from0, values, (int) (index - first), count);
+      index += count;
+    }
+    return new Range(startTime + first * interval, interval, values);
+  }
+
+  private static long ceilDiv(long a, long b) {
+    return -Math.floorDiv(-a, b);
+  }
+
+  private static int directionOf(ElevatorDirection direction) {
+    switch (direction) {
+      case UP:
+        return 1;
+      case DOWN:
+        return -1;
+      default:
+        return 0;
+    }
+  }
+
+  private static Path segmentFile(Path directory, int index) {
+    return directory.resolve(String.format("segment-%03d.bin", index));
+  }
+
+  /** Flushes the partly filled chunks and writes the index; the store stays readable. */
+  @Override
+  public void close() throws IOException {
+    if (!writable || closed) {
+      return;
+    }
+    if (samples % CHUNK_SAMPLES != 0) {
+      flushChunks();
+    }
+    for (MappedByteBuffer segment : segments) {
+      segment.force();
+    }
+    closed = true;
+    int chunks = getChunkCount();
+    try (OutputStream file = Files.newOutputStream(directory.resolve("index.bin"));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(floors);
+      out.writeInt(cars);
+      out.writeLong(startTime);
+      out.writeLong(interval);
+      out.writeLong(samples);
+      out.writeLong(used);
+      out.writeInt(segments.size());
+      for (long[] offsets : chunkOffsets) {
+        for (int chunk = 0; chunk < chunks; chunk++) {
+          out.writeLong(offsets[chunk]);
+        }
+      }
+    }
+  }
+
+  public Path getDirectory() {
+    return directory;
+  }
+
+  public int getFloorCount() {
+    return floors;
+  }
+
+  public int getCarCount() {
+    return cars;
+  }
+
+  public long getStartTime() {
+    return startTime;
+  }
+
+  public long getInterval() {
+    return interval;
+  }
+
+  public long getSampleCount() {
+    return samples;
+  }
+
+  /** Simulated time the next {@link #sample(SimulationEngine)} stands for */
+  public long getNextSampleTime() {
+    return startTime + samples * interval;
+  }
+
+  /** Bytes of encoded samples in the segment files */
+  public long getStoredBytes() {
+    return used;
+  }
+
+  /** Evenly spaced samples of one series */
+  public static final class Range {
+    private final long startTime;
+    private final long interval;
+    private final int[] values;
+
+    Range(long startTime, long interval, int[] values) {
+      this.startTime = startTime;
+      this.interval = interval;
+      this.values = values;
+    }
+
+    /** Simulated time of the first sample */
+    public long getStartTime() {
+      return startTime;
+    }
+
+    public long getInterval() {
+      return interval;
+    }
+
+    public int size() {
+      return values.length;
+    }
+
+    public int get(int index) {
+      return values[index];
+    }
+
+    public long getTime(int index) {
+      return startTime + index * interval;
+    }
+
+    public int[] getValues() {
+      return values;
+    }
+  }
+}
@@ -0,0 +1,195 @@
+package pl.liftsim.simulation;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Learns where calls come from at each time of day and suggests where idle
+ * cars should wait. The day is split into fixed slots, counted again from
+ * midnight each day, so the last slot is shorter when the slot length does
+ * not divide the day. For each slot and floor the forecaster keeps an
+ * exponentially weighted average of the calls seen in that slot on previous
+ * days, in fixed-point ints. Memory is fixed at slots × floors, however long
+ * the simulation runs.
+ *
+ * <p>The demand forecast per floor combines the learned history of the
+ * current slot with the calls seen in this and the previous slot. It is
+ * cached: an observed call adds to one floor in O(1) and the whole forecast
+ * is rebuilt only when the slot changes. The floor ranking used for parking
+ * is re-sorted lazily, only when asked for after a change.
+ */
+public class TrafficForecaster {
+  private static final long DAY = 24L * 60 * 60 * 1000;
+  private static final int SCALE = 256; // Fixed-point scale of the history
+  private static final int HISTORY_SHIFT = 2; // New day counts for 1/4 of the average
+  private static final double PARKING_HYSTERESIS = 3.0;
+
+  private final int floors;
+  private final long slotLength;
+  private final int slots;
+  private final int[] history; // [slot * floors + floor - 1], calls per slot × SCALE
+  private final boolean[] seen;
+  private final int[] current;
+  private final int[] previous;
+  private final double[] forecast;
+  private final Integer[] ranking;
+  private boolean rankingDirty = true;
+  private long slotIndex = -1; // Day-aligned slots since time zero: day * slots + slot of the day
+
+  /** @param slotLength milliseconds per time-of-day slot */
+  public TrafficForecaster(int floors, long slotLength) {
+    this.floors = floors;
+    this.slotLength = slotLength;
+    this.slots = (int) ((DAY + slotLength - 1) / slotLength);
+    this.history = new int[slots * floors];
+    this.seen = new boolean[slots];
+    this.current = new int[floors + 1];
+    this.previous = new int[floors + 1];
+    this.forecast = new double[floors + 1];
+    this.ranking = new Integer[floors];
+    for (int i = 0; i < floors; i++) {
+      ranking[i] = i + 1;
+    }
+  }
+
+  /** Records a hall call made at {@code time} from {@code floor}. */
+  public void observeCall(long time, int floor) {
+    advanceTo(time);
+    current[floor]++;
+    forecast[floor] += recentWeight();
+    rankingDirty = true;
+  }
+
+  /** Moves to the slot containing {@code time}, folding finished slots into the history. */
+  public void advanceTo(long time) {
+    long index = time / DAY * slots + time % DAY / slotLength;
+    if (index == slotIndex) {
+      return;
+    }
+    if (slotIndex >= 0) {
+      learn(daySlot(slotIndex), current);
+      boolean consecutive = index == slotIndex + 1;
+      System.arraycopy(consecutive ? current : new int[floors + 1], 0, previous, 0, floors + 1);
+      Arrays.fill(current, 0);
+    }
+    slotIndex = index;
+    rebuildForecast();
+  }
+
+  private void learn(int slot, int[] counts) {
+    int base = slot * floors;
+    for (int floor = 1; floor <= floors; floor++) {
+      int observed = counts[floor] * SCALE;
+      if (seen[slot]) {
+        history[base + floor - 1] += (observed - history[base + floor - 1]) >> HISTORY_SHIFT;
+      } else {
+        history[base + floor - 1] = observed;
+      }
+    }
+    seen[slot] = true;
+  }
+
+  private void rebuildForecast() {
+    int slot = daySlot(slotIndex);
+    double weight = recentWeight();
+    for (int floor = 1; floor <= floors; floor++) {
+      double learned = seen[slot] ? history[slot * floors + floor - 1] / (double) SCALE : 0;
+      forecast[floor] =
+          (seen[slot] ? 0.5 * learned : 0) + weight * (current[floor] + previous[floor]);
+    }
+    rankingDirty = true;
+  }
+
+  /** Share of the forecast that comes from recent calls rather than history */
+  private double recentWeight() {
+    return seen[daySlot(slotIndex)] ? 0.5 : 1.0;
+  }
+
+  private int daySlot(long index) {
+    return (int) (index % slots);
+  }
+
+  /** Expected calls from {@code floor} around now, in arbitrary but comparable units */
+  public double getForecast(int floor) {
+    return forecast[floor];
+  }
+
+  /** Floors ordered from the busiest to the quietest */
+  public Integer[] getRanking() {
+    if (rankingDirty) {
+      Arrays.sort(ranking, (a, b) -> Double.compare(forecast[b], forecast[a]));
+      rankingDirty = false;
+    }
+    return ranking;
+  }
+
+  /**
+   * Floor where {@code car} should wait, or its current floor if moving is not
+   * worth it. Only floors the car's zone serves are considered, and
+   * {@code cars} should be the cars of that zone. Floors are shared out among the idle cars in proportion to
+   * demand: each car already waiting at, or parking on, a floor halves what
+   * is left there for another car.
+   */
+  public int parkingFloor(CarState car, List<CarState> cars) {
+    int[] covering = new int[floors + 1];
+    for (CarState other : cars) {
+      if (other != car && other.getStopCount() == 0 && !other.isDoorsOpen()) {
+        covering[other.isMoving() ? other.getTargetFloor() : other.getCurrentFloor()]++;
+      }
+    }
+
+    int best = car.getCurrentFloor();
+    double bestValue = forecast[best] / (1 + covering[best]);
+    double stayValue = bestValue;
+    for (int floor : getRanking()) {
+      if (forecast[floor] <= bestValue) {
+        break; // Sorted, nothing further down can win
+      }
+      if (!car.getZone().serves(floor)) {
+        continue;
+      }
+      double value = forecast[floor] / (1 + covering[floor]);
+      if (value > bestValue) {
+        bestValue = value;
+        best = floor;
+      }
+    }
+    return bestValue > stayValue * PARKING_HYSTERESIS ? best : car.getCurrentFloor();
+  }
+
+  public long getSlotLength() {
+    return slotLength;
+  }
+
+  void writeTo(Checkpoint.Output out) throws IOException {
+    out.writeZigZag(slotIndex);
+    for (int slot = 0; slot < slots; slot++) {
+      out.writeBoolean(seen[slot]);
+    }
+    for (int value : history) {
+      out.writeZigZag(value);
+    }
+    for (int floor = 1; floor <= floors; floor++) {
+      out.writeVarLong(current[floor]);
+      out.writeVarLong(previous[floor]);
+    }
+  }
+
+  void readFrom(Checkpoint.Input in) throws IOException {
+    slotIndex = in.readZigZagLong();
+    for (int slot = 0; slot < slots; slot++) {
+      seen[slot] = in.readBoolean();
+    }
+    for (int i = 0; i < history.length; i++) {
+      history[i] = in.readZigZag();
+    }
+    for (int floor = 1; floor <= floors; floor++) {
+      current[floor] = (int) in.readVarLong();
+      previous[floor] = (int) in.readVarLong();
+    }
+    if (slotIndex >= 0) {
+      rebuildForecast();
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package pl.liftsim.simulation;
+
+import java.util.Locale;
+import java.util.Properties;
+
+import pl.liftsim.model.BuildingConfig;
+
+/**
+ * Generated passenger traffic: a Poisson arrival process with a building-wide
+ * rate, and origin/destination floors weighted by the per-floor populations of
+ * the {@link BuildingConfig}. Floor 1 is treated as the lobby.
+ */
+public class TrafficProfile {
+  public enum Pattern {
+    /** Interfloor traffic between all floors */
+    UNIFORM,
+    /** Morning peak: most passengers enter at the lobby and go up */
+    UP_PEAK,
+    /** Evening peak: most passengers travel down to the lobby */
+    DOWN_PEAK,
+    /** Lunch time: a mix of both peaks and interfloor trips */
+    LUNCH
+  }
+
+  private static final int LOBBY = 1;
+  private static final double PEAK_SHARE = 0.85;
+  private static final double LUNCH_SHARE = 0.4;
+  private static final int MAX_REJECTIONS = 64;
+  private static final int DEFAULT_RATE = 600;
+
+  private final Pattern pattern;
+  private final double passengersPerHour;
+  private final int floors;
+  private final double[] cumulativeWeights;
+
+  public TrafficProfile(Pattern pattern, double passengersPerHour, BuildingConfig config) {
+    if (passengersPerHour <= 0) {
+      throw new IllegalArgumentException("rate must be positive, got " + passengersPerHour);
+    }
+    this.pattern = pattern;
+    this.passengersPerHour = passengersPerHour;
+    this.floors = config.getFloors();
+    this.cumulativeWeights = new double[floors];
+
+    double total = 0;
+    for (int floor = 1; floor <= floors; floor++) {
+      total += config.getFloorPopulation(floor);
+      cumulativeWeights[floor - 1] = total;
+    }
+    if (total == 0) {
+      // Nobody lives anywhere - fall back to equal weights
+      for (int i = 0; i < floors; i++) {
+        cumulativeWeights[i] = i + 1;
+      }
+    }
+  }
+
+  /**
+   * Reads {@code traffic} (uniform, up-peak, down-peak, lunch) and {@code rate}
+   * (passengers per hour).
+   */
+  public static TrafficProfile fromProperties(Properties properties, BuildingConfig config) {
+    String name = properties.getProperty("traffic", "uniform");
+    Pattern pattern;
+    try {
+      pattern = Pattern.valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unknown traffic pattern: " + name, e);
+    }
+    double rate;
+    try {
+      rate = Double.parseDouble(properties.getProperty("rate", String.valueOf(DEFAULT_RATE)));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid rate: " + properties.getProperty("rate"), e);
+    }
+    return new TrafficProfile(pattern, rate, config);
+  }
+
+  public Pattern getPattern() {
+    return pattern;
+  }
+
+  public double getPassengersPerHour() {
+    return passengersPerHour;
+  }
+
+  /** Milliseconds until the next arrival anywhere in the building */
+  public long nextInterArrivalTime(SimRandom random) {
+    double meanMs = 3_600_000.0 / passengersPerHour;
+    return Math.max(1, Math.round(random.nextExponential(meanMs)));
+  }
+
+  /** Picks an origin and destination; returns {@code {from, to}} */
+  public int[] nextTrip(SimRandom random) {
+    Pattern tripPattern = pattern;
+    if (pattern == Pattern.LUNCH) {
+      double roll = random.nextDouble();
+      tripPattern =
+          roll < LUNCH_SHARE
+              ? Pattern.UP_PEAK
+              : roll < 2 * LUNCH_SHARE ? Pattern.DOWN_PEAK : Pattern.UNIFORM;
+    }
+
+    int from;
+    int to;
+    if (tripPattern == Pattern.UP_PEAK && random.nextDouble() < PEAK_SHARE) {
+      from = LOBBY;
+      to = pickFloorOtherThan(LOBBY, random);
+    } else if (tripPattern == Pattern.DOWN_PEAK && random.nextDouble() < PEAK_SHARE) {
+      from = pickFloorOtherThan(LOBBY, random);
+      to = LOBBY;
+    } else {
+      from = pickFloor(random);
+      to = pickFloorOtherThan(from, random);
+    }
+    return new int[] {from, to};
+  }
+
+  private int pickFloor(SimRandom random) {
+    double target = random.nextDouble() * cumulativeWeights[floors - 1];
+    int low = 0;
+    int high = floors - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (cumulativeWeights[mid] > target) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+    return low + 1;
+  }
+
+  private int pickFloorOtherThan(int excluded, SimRandom random) {
+    for (int attempt = 0; attempt < MAX_REJECTIONS; attempt++) {
+      int floor = pickFloor(random);
+      if (floor != excluded) {
+        return floor;
+      }
+    }
+    // All the weight sits on the excluded floor - pick any other floor
+    int floor = random.nextInt(floors - 1) + 1;
+    return floor >= excluded ? floor + 1 : floor;
+  }
+
+  @Override
+  public String toString() {
+    String name = pattern.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    return name + "@" + passengersPerHour + "/h";
+  }
+}
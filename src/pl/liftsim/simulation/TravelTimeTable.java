@@ -0,0 +1,96 @@
+package pl.liftsim.simulation;
+
+import pl.liftsim.model.BuildingConfig;
+
+/**
+ * Run times between every pair of floors, built once per building so that
+ * the engine and the dispatchers look travel times up instead of
+ * recomputing them. A run is the cruise time of the floors it crosses - the
+ * express zone is crossed at its own speed - plus the time lost accelerating
+ * and braking. A run long enough to reach full speed loses
+ * {@link BuildingConfig#getAccelerationTime()}; a shorter one follows a
+ * triangular speed profile.
+ *
+ * <p>The table is a single {@code int[]} of floors × floors milliseconds,
+ * about 90 KB for 150 floors.
+ */
+public final class TravelTimeTable {
+  private final int floors;
+  private final int floorTime;
+  private final int stopTime;
+  private final long[] cruiseFromBottom; // Cruise time from floor 1 to each floor
+  private final int[] times;
+
+  public TravelTimeTable(BuildingConfig config) {
+    this.floors = config.getFloors();
+    this.floorTime = config.getFloorToFloorTime();
+    this.stopTime =
+        2 * config.getDoorOperationTime()
+            + config.getPassengerExitTime()
+            + config.getPassengerEntryTime();
+
+    cruiseFromBottom = new long[floors + 1];
+    for (int floor = 2; floor <= floors; floor++) {
+      boolean express = floor - 1 >= config.getExpressFrom() && floor <= config.getExpressTo();
+      cruiseFromBottom[floor] =
+          cruiseFromBottom[floor - 1]
+              + (express ? config.getExpressFloorToFloorTime() : floorTime);
+    }
+
+    int acceleration = config.getAccelerationTime();
+    times = new int[floors * floors];
+    for (int from = 1; from <= floors; from++) {
+      for (int to = 1; to <= floors; to++) {
+        long cruise = Math.abs(cruiseFromBottom[to] - cruiseFromBottom[from]);
+        times[(from - 1) * floors + to - 1] =
+            (int) Math.min(Integer.MAX_VALUE, cruise + speedChangeLoss(cruise, acceleration));
+      }
+    }
+  }
+
+  /** Extra time over cruising the whole way at full speed */
+  private static long speedChangeLoss(long cruise, int acceleration) {
+    if (cruise == 0 || acceleration == 0) {
+      return 0;
+    }
+    if (cruise >= acceleration) {
+      return acceleration;
+    }
+    // Never reaches full speed: accelerate for half the distance, brake for the rest
+    return Math.round(2 * Math.sqrt((double) cruise * acceleration)) - cruise;
+  }
+
+  /** Run time from one floor to another, in milliseconds */
+  public int time(int from, int to) {
+    return times[(from - 1) * floors + to - 1];
+  }
+
+  /**
+   * Time after leaving {@code start} at which a car running to
+   * {@code target} passes {@code floor}. Acceleration losses are spread
+   * evenly over the run, which keeps intermediate floors monotonic and lands
+   * exactly on {@link #time(int, int)} at the target.
+   */
+  public long passingTime(int start, int target, int floor) {
+    long total = time(start, target);
+    long cruise = Math.abs(cruiseFromBottom[target] - cruiseFromBottom[start]);
+    if (floor == target || cruise == 0) {
+      return total;
+    }
+    return total * Math.abs(cruiseFromBottom[floor] - cruiseFromBottom[start]) / cruise;
+  }
+
+  public int getFloors() {
+    return floors;
+  }
+
+  /** Nominal time per floor outside the express zone */
+  public int getFloorTime() {
+    return floorTime;
+  }
+
+  /** Nominal time a stop costs: doors open and close, one exit and one entry */
+  public int getStopTime() {
+    return stopTime;
+  }
+}
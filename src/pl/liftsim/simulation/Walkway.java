@@ -0,0 +1,86 @@
+package pl.liftsim.simulation;
+
+/**
+ * A one-way pedestrian link between two buildings of a campus. Buildings are
+ * numbered from 0 and floors from 1; the walk time is in milliseconds.
+ */
+public final class Walkway {
+  private final int fromBuilding;
+  private final int fromFloor;
+  private final int toBuilding;
+  private final int toFloor;
+  private final long walkTime;
+
+  public Walkway(int fromBuilding, int fromFloor, int toBuilding, int toFloor, long walkTime) {
+    if (walkTime <= 0) {
+      throw new IllegalArgumentException("walk time must be positive, got " + walkTime);
+    }
+    if (fromBuilding == toBuilding) {
+      throw new IllegalArgumentException("walkway must join two buildings: " + fromBuilding);
+    }
+    this.fromBuilding = fromBuilding;
+    this.fromFloor = fromFloor;
+    this.toBuilding = toBuilding;
+    this.toFloor = toFloor;
+    this.walkTime = walkTime;
+  }
+
+  /**
+   * Parses {@code fromBuilding,fromFloor,toBuilding,toFloor[,walkSeconds]}
+   * with buildings numbered from 1, as written in campus options.
+   */
+  public static Walkway parse(String value, long defaultWalkTime) {
+    String[] parts = value.split(",");
+    if (parts.length != 4 && parts.length != 5) {
+      throw new IllegalArgumentException("Invalid walkway: " + value);
+    }
+    try {
+      long walkTime =
+          parts.length == 5
+              ? (long) (Double.parseDouble(parts[4].trim()) * 1000)
+              : defaultWalkTime;
+      return new Walkway(
+          Integer.parseInt(parts[0].trim()) - 1,
+          Integer.parseInt(parts[1].trim()),
+          Integer.parseInt(parts[2].trim()) - 1,
+          Integer.parseInt(parts[3].trim()),
+          walkTime);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid walkway: " + value, e);
+    }
+  }
+
+  public int getFromBuilding() {
+    return fromBuilding;
+  }
+
+  public int getFromFloor() {
+    return fromFloor;
+  }
+
+  public int getToBuilding() {
+    return toBuilding;
+  }
+
+  public int getToFloor() {
+    return toFloor;
+  }
+
+  public long getWalkTime() {
+    return walkTime;
+  }
+
+  @Override
+  public String toString() {
+    return (fromBuilding + 1)
+        + ":"
+        + fromFloor
+        + " -> "
+        + (toBuilding + 1)
+        + ":"
+        + toFloor
+        + " ("
+        + walkTime / 1000
+        + "s)";
+  }
+}
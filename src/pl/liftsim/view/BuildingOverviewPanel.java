@@ -0,0 +1,209 @@
+package pl.liftsim.view;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+
+import pl.liftsim.model.ElevatorModel;
+
+/**
+ * Compact overview strip of the whole building. Every floor is a single pixel
+ * row of a cached image: the left part is a queue-length heatmap, the right
+ * part holds one marker lane per car. Only rows whose values changed are
+ * redrawn. Clicking a row scrolls the building view to that floor;
+ * right-clicking it asks for the floor's history.
+ */
+public class BuildingOverviewPanel extends JPanel {
+  private static final int HEAT_WIDTH = 16;
+  private static final int LANE_WIDTH = 6;
+  private static final int MIN_STRIP_WIDTH = 48; // Images of a few cars are stretched to this
+  private static final int HEAT_LEVELS = 64;
+  private static final int EMPTY_RGB = new Color(235, 235, 235).getRGB();
+  private static final int LANE_RGB = new Color(200, 200, 200).getRGB();
+  private static final int CAR_RGB = ViewResources.ACCENT_COLOR.getRGB();
+  private static final int[] HEAT_SCALE = createHeatScale();
+
+  private final int numFloors;
+  private final int saturationLength;
+  private final FloorViewPanel floorViewPanel;
+  private final BufferedImage image;
+  private final int stripWidth;
+  private final int[] queueLengths;
+  private final int[] carFloors;
+  private final int[] rowBuffer;
+  private IntConsumer historyListener;
+
+  public BuildingOverviewPanel(ElevatorModel elevatorModel, FloorViewPanel floorViewPanel) {
+    this.numFloors = elevatorModel.getFloors().size();
+    // A queue of two full car loads is rendered at full heat
+    this.saturationLength = Math.max(1, elevatorModel.getMaxElevatorCapacity() * 2);
+    this.floorViewPanel = floorViewPanel;
+    this.queueLengths = new int[numFloors];
+    this.carFloors = new int[elevatorModel.getElevators().size()];
+    for (int car = 0; car < carFloors.length; car++) {
+      // Zoned cars start at their zone's lowest floor, not necessarily floor 1
+      carFloors[car] = elevatorModel.getElevators().get(car).getCurrentFloor();
+    }
+    this.image = new BufferedImage(
+        HEAT_WIDTH + carFloors.length * LANE_WIDTH, numFloors, BufferedImage.TYPE_INT_RGB);
+    this.rowBuffer = new int[image.getWidth()];
+    this.stripWidth = Math.max(MIN_STRIP_WIDTH, image.getWidth());
+
+    setupLayout();
+    for (int floor = 1; floor <= numFloors; floor++) {
+      redrawRow(floor);
+    }
+    addMouseListener(
+        new MouseAdapter() {
+          @Override
+          public void mousePressed(MouseEvent e) {
+            int floor = floorAt(e.getY());
+            if (floor == -1) {
+              return;
+            }
+            if (SwingUtilities.isRightMouseButton(e) && historyListener != null) {
+              historyListener.accept(floor);
+            } else {
+              floorViewPanel.scrollToFloor(floor);
+            }
+          }
+        });
+  }
+
+  private void setupLayout() {
+    setBackground(Color.WHITE);
+    setBorder(ViewResources.OVERVIEW_BORDER);
+    setPreferredSize(new Dimension(stripWidth + 20, 0));
+    setToolTipText("Queue heatmap - click a floor to jump to it, right-click for its history");
+  }
+
+  private static int[] createHeatScale() {
+    // Green (empty) through yellow to red (saturated)
+    int[] scale = new int[HEAT_LEVELS];
+    for (int i = 0; i < HEAT_LEVELS; i++) {
+      float t = i / (float) (HEAT_LEVELS - 1);
+      float hue = (1f - t) * (1f / 3f);
+      scale[i] = Color.HSBtoRGB(hue, 0.85f, 0.95f);
+    }
+    return scale;
+  }
+
+  /** Called with the floor number when a row is right-clicked */
+  public void setHistoryListener(IntConsumer historyListener) {
+    this.historyListener = historyListener;
+  }
+
+  /** Updates the queue length shown for a floor; does nothing if it did not change. */
+  public void setQueueLength(int floorNumber, int length) {
+    if (floorNumber < 1 || floorNumber > numFloors) {
+      return;
+    }
+    if (queueLengths[floorNumber - 1] == length) {
+      return;
+    }
+    queueLengths[floorNumber - 1] = length;
+    redrawRow(floorNumber);
+    repaintRow(floorNumber);
+  }
+
+  /** Moves the marker of the given car; only the old and new rows are redrawn. */
+  public void setCarPosition(int carIndex, int floorNumber) {
+    if (carIndex < 0 || carIndex >= carFloors.length) {
+      return;
+    }
+    int oldFloor = carFloors[carIndex];
+    if (oldFloor == floorNumber) {
+      return;
+    }
+    carFloors[carIndex] = floorNumber;
+    redrawRow(oldFloor);
+    redrawRow(floorNumber);
+    repaintRow(oldFloor);
+    repaintRow(floorNumber);
+  }
+
+  private void redrawRow(int floorNumber) {
+    if (floorNumber < 1 || floorNumber > numFloors) {
+      return;
+    }
+    int length = queueLengths[floorNumber - 1];
+    int heat = EMPTY_RGB;
+    if (length > 0) {
+      int level = Math.min(HEAT_LEVELS - 1, length * (HEAT_LEVELS - 1) / saturationLength);
+      heat = HEAT_SCALE[level];
+    }
+    Arrays.fill(rowBuffer, 0, HEAT_WIDTH, heat);
+
+    for (int car = 0; car < carFloors.length; car++) {
+      int from = HEAT_WIDTH + car * LANE_WIDTH;
+      int rgb = carFloors[car] == floorNumber ? CAR_RGB : LANE_RGB;
+      Arrays.fill(rowBuffer, from, from + LANE_WIDTH - 1, rgb);
+      rowBuffer[from + LANE_WIDTH - 1] = Color.WHITE.getRGB();
+    }
+
+    image.setRGB(0, rowOf(floorNumber), image.getWidth(), 1, rowBuffer, 0, image.getWidth());
+  }
+
+  private void repaintRow(int floorNumber) {
+    if (floorNumber < 1 || floorNumber > numFloors) {
+      return;
+    }
+    int row = rowOf(floorNumber);
+    int top = getInsets().top;
+    int height = getStripHeight();
+    int y0 = top + row * height / numFloors;
+    int y1 = top + (row + 1) * height / numFloors;
+    repaint(0, y0 - 1, getWidth(), y1 - y0 + 2);
+  }
+
+  /** Floors are drawn top to bottom, highest floor in row 0 */
+  private int rowOf(int floorNumber) {
+    return numFloors - floorNumber;
+  }
+
+  private int getStripHeight() {
+    return Math.max(1, getHeight() - getInsets().top - getInsets().bottom);
+  }
+
+  private int floorAt(int y) {
+    int offset = y - getInsets().top;
+    int height = getStripHeight();
+    if (offset < 0 || offset >= height) {
+      return -1;
+    }
+    int row = offset * numFloors / height;
+    return numFloors - row;
+  }
+
+  @Override
+  public String getToolTipText(MouseEvent e) {
+    int floor = floorAt(e.getY());
+    if (floor == -1) {
+      return super.getToolTipText(e);
+    }
+    return "Floor " + floor + ": " + queueLengths[floor - 1] + " waiting";
+  }
+
+  @Override
+  protected void paintComponent(Graphics g) {
+    super.paintComponent(g);
+
+    Graphics2D g2d = (Graphics2D) g.create();
+    g2d.setRenderingHint(
+        RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+    int innerWidth = getWidth() - getInsets().left - getInsets().right;
+    int x = getInsets().left + Math.max(0, (innerWidth - stripWidth) / 2);
+    g2d.drawImage(image, x, getInsets().top, stripWidth, getStripHeight(), null);
+    g2d.dispose();
+  }
+}
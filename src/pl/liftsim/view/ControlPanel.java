@@ -3,14 +3,25 @@ package pl.liftsim.view;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
-import java.awt.Font;
 
-import javax.swing.BorderFactory;
 import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JSlider;
+import javax.swing.JToggleButton;
 
 public class ControlPanel extends JPanel {
+  /** Speed multipliers offered in the speed box; infinity means as fast as possible */
+  public static final double[] SPEEDS = {0.25, 0.5, 1, 2, 4, 10, 60, Double.POSITIVE_INFINITY};
+
   private JButton startButton;
+  private JButton playPauseButton;
+  private JButton stepButton;
+  private JComboBox<String> speedBox;
+  private JSlider timelineSlider;
+  private JLabel timeLabel;
+  private JToggleButton statsButton;
 
   public ControlPanel() {
     setupLayout();
@@ -21,27 +32,93 @@ public class ControlPanel extends JPanel {
   private void setupLayout() {
     setLayout(new FlowLayout(FlowLayout.CENTER, 10, 10));
     setBackground(Color.LIGHT_GRAY);
-    setBorder(BorderFactory.createTitledBorder("Control Panel"));
+    setBorder(ViewResources.CONTROL_PANEL_BORDER);
   }
 
   private void createComponents() {
     startButton = new JButton("START");
 
     startButton.setPreferredSize(new Dimension(100, 50));
-    startButton.setFont(new Font("Arial", Font.BOLD, 14));
+    startButton.setFont(ViewResources.LARGE_BOLD_FONT);
     startButton.setBackground(Color.GREEN);
     startButton.setForeground(Color.BLACK);
     startButton.setFocusPainted(false);
+
+    playPauseButton = createSmallButton("PAUSE");
+    stepButton = createSmallButton("STEP");
+
+    String[] speedLabels = new String[SPEEDS.length];
+    for (int i = 0; i < SPEEDS.length; i++) {
+      speedLabels[i] = formatSpeed(SPEEDS[i]);
+    }
+    speedBox = new JComboBox<>(speedLabels);
+    speedBox.setSelectedIndex(2);
+    speedBox.setFont(ViewResources.LABEL_FONT);
+    speedBox.setToolTipText("Simulation speed");
+
+    timelineSlider = new JSlider(0, 0, 0);
+    timelineSlider.setPreferredSize(new Dimension(300, 40));
+    timelineSlider.setBackground(Color.LIGHT_GRAY);
+    timelineSlider.setToolTipText("Drag to scrub through the recorded run");
+
+    timeLabel = new JLabel(formatTime(0, 0));
+    timeLabel.setFont(ViewResources.LABEL_FONT);
+
+    statsButton = new JToggleButton("STATS");
+    statsButton.setPreferredSize(new Dimension(80, 30));
+    statsButton.setFont(ViewResources.BOLD_FONT);
+    statsButton.setFocusPainted(false);
+    statsButton.setToolTipText("Show how well the GUI keeps up (F3)");
+
+    setPlaybackEnabled(false);
+  }
+
+  private JButton createSmallButton(String text) {
+    JButton button = new JButton(text);
+    button.setPreferredSize(new Dimension(80, 30));
+    button.setFont(ViewResources.BOLD_FONT);
+    button.setFocusPainted(false);
+    return button;
   }
 
   private void addComponents() {
     add(startButton);
+    add(playPauseButton);
+    add(stepButton);
+    add(speedBox);
+    add(timelineSlider);
+    add(timeLabel);
+    add(statsButton);
   }
 
   public JButton getStartButton() {
     return startButton;
   }
 
+  public JButton getPlayPauseButton() {
+    return playPauseButton;
+  }
+
+  public JButton getStepButton() {
+    return stepButton;
+  }
+
+  public JComboBox<String> getSpeedBox() {
+    return speedBox;
+  }
+
+  public JSlider getTimelineSlider() {
+    return timelineSlider;
+  }
+
+  public JToggleButton getStatsButton() {
+    return statsButton;
+  }
+
+  public double getSelectedSpeed() {
+    return SPEEDS[Math.max(0, speedBox.getSelectedIndex())];
+  }
+
   public void setStartButton(boolean enabled) {
     startButton.setEnabled(enabled);
 
@@ -53,4 +130,39 @@ public class ControlPanel extends JPanel {
       startButton.setText("RUNNING...");
     }
   }
+
+  public void setPlaybackEnabled(boolean enabled) {
+    playPauseButton.setEnabled(enabled);
+    stepButton.setEnabled(enabled);
+    speedBox.setEnabled(enabled);
+  }
+
+  public void setPlaying(boolean playing) {
+    playPauseButton.setText(playing ? "PAUSE" : "PLAY");
+    stepButton.setEnabled(!playing && playPauseButton.isEnabled());
+  }
+
+  /** Updates the timeline; times are simulation milliseconds. */
+  public void setTimeline(long start, long current, long end) {
+    timelineSlider.setMinimum((int) (start / 1000));
+    timelineSlider.setMaximum((int) (end / 1000));
+    timelineSlider.setValue((int) (current / 1000));
+    timeLabel.setText(formatTime(current - start, end - start));
+  }
+
+  private static String formatSpeed(double speed) {
+    if (Double.isInfinite(speed)) {
+      return "MAX";
+    }
+    return (speed == Math.rint(speed) ? String.valueOf((long) speed) : String.valueOf(speed)) + "x";
+  }
+
+  private static String formatTime(long current, long end) {
+    return clock(current) + " / " + clock(end);
+  }
+
+  private static String clock(long millis) {
+    long seconds = millis / 1000;
+    return String.format("%d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+  }
 }
@@ -2,14 +2,12 @@ package pl.liftsim.view;
 
 import java.awt.Color;
 import java.awt.Dimension;
-import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.util.List;
 
-import javax.swing.BorderFactory;
 import javax.swing.JPanel;
 
 import pl.liftsim.model.Passenger;
@@ -18,27 +16,31 @@ import pl.liftsim.model.Passenger;
 public class ElevatorCarView extends JPanel {
   private static final int CAR_WIDTH = 50;
   private static final int CAR_HEIGHT = 40;
-  private static final Color CAR_COLOR = new Color(100, 150, 200);
-  private static final Color CAR_BORDER_COLOR = Color.DARK_GRAY;
 
-  private List<Passenger> passengers;
+  private int passengerCount;
   private boolean doorOpen = false;
 
   public ElevatorCarView() {
     setPreferredSize(new Dimension(CAR_WIDTH, CAR_HEIGHT));
-    setBackground(CAR_COLOR);
-    setBorder(BorderFactory.createLineBorder(CAR_BORDER_COLOR, 2));
+    setBackground(ViewResources.ACCENT_COLOR);
+    setBorder(ViewResources.CAR_BORDER);
     setOpaque(true);
   }
 
+  /** Shows how many passengers are on board; repaints only if the number changed */
   public void setPassengers(List<Passenger> passengers) {
-    this.passengers = passengers;
-    repaint();
+    int count = passengers == null ? 0 : passengers.size();
+    if (count != passengerCount) {
+      passengerCount = count;
+      repaint();
+    }
   }
 
   public void setDoorOpen(boolean doorOpen) {
-    this.doorOpen = doorOpen;
-    repaint();
+    if (doorOpen != this.doorOpen) {
+      this.doorOpen = doorOpen;
+      repaint();
+    }
   }
 
   @Override
@@ -49,7 +51,7 @@ public class ElevatorCarView extends JPanel {
     g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
     // Draw elevator car
-    g2d.setColor(CAR_COLOR);
+    g2d.setColor(ViewResources.ACCENT_COLOR);
     g2d.fillRect(0, 0, getWidth(), getHeight());
 
     // Draw door indicator
@@ -59,10 +61,10 @@ public class ElevatorCarView extends JPanel {
     }
 
     // Draw passenger count
-    if (passengers != null && !passengers.isEmpty()) {
+    if (passengerCount > 0) {
       g2d.setColor(Color.WHITE);
-      g2d.setFont(new Font("Arial", Font.BOLD, 10));
-      String passengerText = passengers.size() + "👤";
+      g2d.setFont(ViewResources.CAR_FONT);
+      String passengerText = passengerCount + "👤";
       FontMetrics fm = g2d.getFontMetrics();
       int x = (getWidth() - fm.stringWidth(passengerText)) / 2;
       int y = getHeight() / 2 + 3;
@@ -4,19 +4,39 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
 
+import javax.swing.AbstractAction;
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
+import javax.swing.JDialog;
 import javax.swing.JFrame;
+import javax.swing.JComponent;
 import javax.swing.JPanel;
+import javax.swing.KeyStroke;
 
 import pl.liftsim.model.ElevatorModel;
 
+/**
+ * Main window. Building it is cheap whatever the building's size: the floor
+ * view only creates the floors in sight and the destination panel paints its
+ * buttons. Call {@link #prepareResources()} as early as possible to load
+ * fonts off the EDT while the model is being built.
+ */
 public class ElevatorSimulatorView extends JFrame {
+
   private ControlPanel controlPanel;
   private FloorControlPanel floorControlPanel;
   private FloorViewPanel floorViewPanel;
+  private BuildingOverviewPanel buildingOverviewPanel;
+  private JDialog historyDialog;
+  private HistoryChartPanel historyChartPanel;
+  private PerformanceOverlay performanceOverlay;
 
   public ElevatorSimulatorView(ElevatorModel elevatorModel) {
     setupMainWindow();
@@ -24,6 +44,30 @@ public class ElevatorSimulatorView extends JFrame {
     createLayout();
   }
 
+  /**
+   * Starts a background thread that renders text in every font the view uses
+   * into an off-screen image. The first use of a font loads its file and
+   * builds glyph caches; this way that happens in parallel with building
+   * the model, rather than on the EDT during the first paint.
+   */
+  public static void prepareResources() {
+    Thread warmup =
+        new Thread(
+            () -> {
+              BufferedImage image = new BufferedImage(64, 32, BufferedImage.TYPE_INT_ARGB);
+              Graphics2D g2d = image.createGraphics();
+              for (Font font : ViewResources.FONTS) {
+                g2d.setFont(font);
+                g2d.drawString("0123456789 Floor passengers P→", 0, 16);
+                g2d.getFontMetrics().stringWidth("0123456789");
+              }
+              g2d.dispose();
+            },
+            "view-warmup");
+    warmup.setDaemon(true);
+    warmup.start();
+  }
+
   private void setupMainWindow() {
     setTitle("Elevator Simulator");
     setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -36,6 +80,9 @@ public class ElevatorSimulatorView extends JFrame {
     controlPanel = new ControlPanel();
     floorControlPanel = new FloorControlPanel(elevatorModel);
     floorViewPanel = new FloorViewPanel(elevatorModel);
+    buildingOverviewPanel = new BuildingOverviewPanel(elevatorModel, floorViewPanel);
+    performanceOverlay = new PerformanceOverlay();
+    setGlassPane(performanceOverlay);
   }
 
   private void createLayout() {
@@ -43,10 +90,7 @@ public class ElevatorSimulatorView extends JFrame {
 
     JPanel westWrapper = new JPanel();
     westWrapper.setLayout(new BoxLayout(westWrapper, BoxLayout.Y_AXIS));
-    westWrapper.setBorder(
-        BorderFactory.createCompoundBorder(
-            BorderFactory.createTitledBorder("Elevator Control Panel"),
-            BorderFactory.createEmptyBorder(10, 10, 10, 10)));
+    westWrapper.setBorder(ViewResources.CONTROL_WRAPPER_BORDER);
     westWrapper.setBackground(Color.LIGHT_GRAY);
 
     // Add vertical glue to center the panel vertically
@@ -61,6 +105,7 @@ public class ElevatorSimulatorView extends JFrame {
     add(westWrapper, BorderLayout.WEST);
 
     add(floorViewPanel, BorderLayout.CENTER);
+    add(buildingOverviewPanel, BorderLayout.EAST);
 
     // add(createPlaceholderPanel("CENTER - Elevator Shaft", Color.WHITE),
     // BorderLayout.CENTER);
@@ -68,6 +113,43 @@ public class ElevatorSimulatorView extends JFrame {
     // BorderLayout.EAST);
 
     add(controlPanel, BorderLayout.SOUTH);
+
+    // F3 works like the STATS button, wherever the focus is
+    getRootPane()
+        .getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+        .put(KeyStroke.getKeyStroke(KeyEvent.VK_F3, 0), "toggleStats");
+    getRootPane()
+        .getActionMap()
+        .put(
+            "toggleStats",
+            new AbstractAction() {
+              @Override
+              public void actionPerformed(ActionEvent e) {
+                controlPanel.getStatsButton().doClick();
+              }
+            });
+  }
+
+  /** Shows the history window under {@code title}, creating it on first use */
+  public HistoryChartPanel showHistoryChart(String title) {
+    if (historyDialog == null) {
+      historyChartPanel = new HistoryChartPanel();
+      historyDialog = new JDialog(this, false);
+      historyDialog.add(historyChartPanel);
+      historyDialog.pack();
+      historyDialog.setLocationRelativeTo(this);
+    }
+    historyDialog.setTitle(title);
+    historyDialog.setVisible(true);
+    return historyChartPanel;
+  }
+
+  public boolean isHistoryChartVisible() {
+    return historyDialog != null && historyDialog.isVisible();
+  }
+
+  public PerformanceOverlay getPerformanceOverlay() {
+    return performanceOverlay;
   }
 
   public ControlPanel getControlPanel() {
@@ -89,4 +171,8 @@ public class ElevatorSimulatorView extends JFrame {
   public FloorViewPanel getFloorViewPanel() {
     return floorViewPanel;
   }
+
+  public BuildingOverviewPanel getBuildingOverviewPanel() {
+    return buildingOverviewPanel;
+  }
 }
@@ -3,49 +3,71 @@ package pl.liftsim.view;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Dimension;
-import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntConsumer;
 
-import javax.swing.BorderFactory;
-import javax.swing.JButton;
 import javax.swing.JPanel;
 
 import pl.liftsim.model.ElevatorModel;
 
+/**
+ * Grid of round destination buttons, one per floor, lowest floor at the
+ * bottom. The panel paints every button itself and maps clicks to floors,
+ * so it is a single component however many floors the building has.
+ */
 public class FloorControlPanel extends JPanel {
-  private final List<JButton> floorButtons;
   private final int numFloors;
+  private final List<IntConsumer> floorListeners = new ArrayList<>();
+  private int pressedFloor = -1;
   private static final int BUTTON_SIZE = 30;
   private static final int BUTTON_SPACING = 10;
+  private static final int PADDING = 10;
+  private static final BasicStroke BUTTON_STROKE = new BasicStroke(2);
 
   public FloorControlPanel(ElevatorModel elevatorModel) {
     this.numFloors = elevatorModel.getFloors().size();
-    this.floorButtons = new ArrayList<>();
     setupLayout();
-    createComponents();
-    addComponents();
 
     setPreferredSize(calculatePanelSize());
     setMinimumSize(calculatePanelSize());
     setMaximumSize(calculatePanelSize());
+    addMouseListener(
+        new MouseAdapter() {
+          @Override
+          public void mousePressed(MouseEvent e) {
+            setPressedFloor(floorAt(e.getX(), e.getY()));
+          }
+
+          @Override
+          public void mouseReleased(MouseEvent e) {
+            int floor = pressedFloor;
+            setPressedFloor(-1);
+            if (floor != -1 && floor == floorAt(e.getX(), e.getY())) {
+              for (IntConsumer listener : floorListeners) {
+                listener.accept(floor);
+              }
+            }
+          }
+        });
   }
 
   private void setupLayout() {
     setLayout(null);
     setBackground(Color.LIGHT_GRAY);
-    setBorder(
-        BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(Color.BLACK, 2),
-            BorderFactory.createEmptyBorder(10, 10, 10, 10)));
+    setBorder(ViewResources.FLOOR_CONTROL_BORDER);
   }
 
   private Dimension calculatePanelSize() {
-    int rows = (int) Math.ceil((double) numFloors / 3);
+    int rows = getRows();
     int cols = Math.min(3, numFloors);
 
     int width = cols * BUTTON_SIZE + (cols - 1) * BUTTON_SPACING + 20 + 4; // 20 for padding, 4 for border
@@ -54,99 +76,84 @@ public class FloorControlPanel extends JPanel {
     return new Dimension(width, height);
   }
 
-  private void createComponents() {
-    for (int i = 0; i < numFloors; i++) {
-      JButton floorButton = createRoundButton(String.valueOf(i + 1));
-      floorButtons.add(floorButton);
-    }
+  private int getRows() {
+    return (int) Math.ceil((double) numFloors / 3);
   }
 
-  private JButton createRoundButton(String text) {
-    JButton button = new JButton(text) {
-      @Override
-      protected void paintComponent(Graphics g) {
-        Graphics2D g2d = (Graphics2D) g.create();
-        g2d.setRenderingHint(
-            RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-        if (getModel().isPressed()) {
-          g2d.setColor(Color.LIGHT_GRAY);
-        } else {
-          g2d.setColor(Color.WHITE);
-        }
-        g2d.fillOval(0, 0, getWidth(), getHeight());
-
-        g2d.setColor(Color.BLACK);
-        g2d.setStroke(new BasicStroke(2));
-        g2d.drawOval(1, 1, getWidth() - 2, getHeight() - 2);
-
-        g2d.setColor(Color.BLACK);
-        g2d.setFont(getFont());
-        FontMetrics fm = g2d.getFontMetrics();
-
-        int textWidth = fm.stringWidth(text);
-        int textHeight = fm.getAscent();
-        int x = (getWidth() - textWidth) / 2;
-        int y = (getHeight() + textHeight) / 2 - 2; // Adjust for vertical centering
-
-        g2d.drawString(text, x, y);
-        g2d.dispose();
-      }
-
-      @Override
-      protected void paintBorder(Graphics g) {
-        // No border painting needed, handled in paintComponent
-      }
-
-      @Override
-      public boolean contains(int x, int y) {
-        int centerX = getWidth() / 2;
-        int centerY = getHeight() / 2;
-        int radius = Math.min(getWidth(), getHeight()) / 2;
-        int distance = (int) Math.sqrt((x - centerX) * (x - centerX) + (y - centerY) * (y - centerY));
-        return distance <= radius;
-      }
-    };
-
-    button.setSize(BUTTON_SIZE, BUTTON_SIZE);
-    button.setPreferredSize(new Dimension(BUTTON_SIZE, BUTTON_SIZE));
-    button.setMinimumSize(new Dimension(BUTTON_SIZE, BUTTON_SIZE));
-    button.setMaximumSize(new Dimension(BUTTON_SIZE, BUTTON_SIZE));
-
-    button.setFont(new Font("Arial", Font.BOLD, 12));
-    button.setFocusPainted(false);
-    button.setContentAreaFilled(false);
-    button.setBorderPainted(false);
-
-    return button;
+  /** Called with the floor number when a floor button is clicked */
+  public void addFloorListener(IntConsumer listener) {
+    floorListeners.add(listener);
   }
 
-  private void addComponents() {
-    int rows = (int) Math.ceil((double) numFloors / 3);
+  private void setPressedFloor(int floor) {
+    if (pressedFloor != floor) {
+      repaintButton(pressedFloor);
+      pressedFloor = floor;
+      repaintButton(floor);
+    }
+  }
 
-    for (int floorNum = 1; floorNum <= numFloors; floorNum++) {
-      int positionFromBottom = floorNum - 1;
-      int row = positionFromBottom / 3;
-      int col = positionFromBottom % 3;
+  private void repaintButton(int floor) {
+    if (floor != -1) {
+      Point origin = buttonOrigin(floor);
+      repaint(origin.x, origin.y, BUTTON_SIZE, BUTTON_SIZE);
+    }
+  }
 
-      // Calculate actual pixel position
-      int x = 10 + col * (BUTTON_SIZE + BUTTON_SPACING); // 10 = border padding
-      int y = 10 + (rows - 1 - row) * (BUTTON_SIZE + BUTTON_SPACING); // 10 = border padding, flip row
+  /** Top left corner of a floor's button; floors fill rows of three from the bottom */
+  private Point buttonOrigin(int floorNumber) {
+    int positionFromBottom = floorNumber - 1;
+    int row = positionFromBottom / 3;
+    int col = positionFromBottom % 3;
+    int x = PADDING + col * (BUTTON_SIZE + BUTTON_SPACING);
+    int y = PADDING + (getRows() - 1 - row) * (BUTTON_SIZE + BUTTON_SPACING); // Flip rows
+    return new Point(x, y);
+  }
 
-      JButton button = floorButtons.get(floorNum - 1);
-      button.setBounds(x, y, BUTTON_SIZE, BUTTON_SIZE);
-      add(button);
+  /** The floor whose round button contains the point, or -1 */
+  private int floorAt(int x, int y) {
+    int col = (x - PADDING) / (BUTTON_SIZE + BUTTON_SPACING);
+    int row = getRows() - 1 - (y - PADDING) / (BUTTON_SIZE + BUTTON_SPACING);
+    if (x < PADDING || y < PADDING || col > 2 || row < 0) {
+      return -1;
     }
+    int floor = row * 3 + col + 1;
+    if (floor > numFloors) {
+      return -1;
+    }
+    Point origin = buttonOrigin(floor);
+    int dx = x - origin.x - BUTTON_SIZE / 2;
+    int dy = y - origin.y - BUTTON_SIZE / 2;
+    int radius = BUTTON_SIZE / 2;
+    return dx * dx + dy * dy <= radius * radius ? floor : -1;
   }
 
-  public List<JButton> getFloorButtons() {
-    return floorButtons;
-  }
+  @Override
+  protected void paintComponent(Graphics g) {
+    super.paintComponent(g);
+    Rectangle clip = g.getClipBounds();
+    Graphics2D g2d = (Graphics2D) g.create();
+    g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    g2d.setFont(ViewResources.BOLD_FONT);
+    g2d.setStroke(BUTTON_STROKE);
+    FontMetrics fm = g2d.getFontMetrics();
+
+    for (int floor = 1; floor <= numFloors; floor++) {
+      Point origin = buttonOrigin(floor);
+      if (clip != null && !clip.intersects(origin.x, origin.y, BUTTON_SIZE, BUTTON_SIZE)) {
+        continue;
+      }
+      g2d.setColor(floor == pressedFloor ? Color.LIGHT_GRAY : Color.WHITE);
+      g2d.fillOval(origin.x, origin.y, BUTTON_SIZE, BUTTON_SIZE);
+
+      g2d.setColor(Color.BLACK);
+      g2d.drawOval(origin.x + 1, origin.y + 1, BUTTON_SIZE - 2, BUTTON_SIZE - 2);
 
-  public JButton getFloorButton(int floorIndex) {
-    if (floorIndex >= 0 && floorIndex < floorButtons.size()) {
-      return floorButtons.get(floorIndex);
+      String text = String.valueOf(floor);
+      int x = origin.x + (BUTTON_SIZE - fm.stringWidth(text)) / 2;
+      int y = origin.y + (BUTTON_SIZE + fm.getAscent()) / 2 - 2; // Adjust for vertical centering
+      g2d.drawString(text, x, y);
     }
-    return null;
+    g2d.dispose();
   }
 }
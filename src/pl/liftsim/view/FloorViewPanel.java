@@ -5,62 +5,83 @@ import java.awt.Color;
 import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
-import java.awt.Font;
+import java.awt.GridLayout;
 import java.awt.Graphics;
 import java.awt.Rectangle;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntConsumer;
 
-import javax.swing.BorderFactory;
-import javax.swing.BoxLayout;
 import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JScrollBar;
 import javax.swing.JScrollPane;
+import javax.swing.Scrollable;
 import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
 
 import pl.liftsim.model.ElevatorModel;
 
 /**
- * Central panel showing all floors in a scrollable view Each floor has elevator
- * shaft, call button,
- * and passenger area
+ * Central panel showing all floors in a scrollable view. Each floor has one
+ * shaft per car, a call button and a passenger area.
+ *
+ * <p>Only the floors in or next to the visible part of the building exist as
+ * components. Scrolling creates the rows that come into view and drops the
+ * ones that leave it, so construction and layout cost the same for ten
+ * floors or ten thousand; the floors in between are painted as a plain
+ * skeleton until their row exists. Callers are told through {@link
+ * #setFloorShownListener(IntConsumer)} when a row appears so they can fill it.
+ *
+ * <p>Each car is a single {@link ElevatorCarView} that moves between the
+ * shafts of its column. Moving a car touches only the shaft it left and the
+ * one it entered, so a frame costs in proportion to the cars that moved.
  */
 public class FloorViewPanel extends JPanel {
   private final int numFloors;
-  private final List<JPanel> floorPanels;
-  private final List<JPanel> elevatorShafts;
-  private final List<JButton> callButtons; // Single call button per floor
-  private final List<JPanel> passengerAreas;
+  private final JPanel[] floorPanels; // Index floor - 1, null while the floor is not shown
+  private final JPanel[][] elevatorShafts; // [floor - 1][car]
+  private final JPanel[] passengerAreas;
+  private final List<IntConsumer> callListeners = new ArrayList<>();
+  private IntConsumer floorShownListener = floor -> {};
+  private final FloorsContainer floorsContainer;
   private JScrollPane scrollPane;
-
-  private ElevatorCarView elevatorCar;
+  private int firstShown = 1;
+  private int lastShown = 0;
+  private final ElevatorCarView[] cars;
+  private final int[] carFloors;
+  private final int rowWidth;
 
   private static final int FLOOR_HEIGHT = 160;
   private static final int SEPARATOR_HEIGHT = 5;
+  /** Height of one floor's row, including the separator below it */
+  public static final int ROW_HEIGHT = FLOOR_HEIGHT + SEPARATOR_HEIGHT;
+  private static final int ROW_WIDTH = 520; // With a single shaft
+  private static final int SHOWN_MARGIN = 2; // Rows kept beyond each edge of the viewport
   private static final int ELEVATOR_SHAFT_WIDTH = 60;
   private static final int CALL_BUTTON_WIDTH = 50;
   private static final int CALL_BUTTON_HEIGHT = 20;
-  private static final int SHAFT_WALL_WIDTH = 3;
-  private static final Color FLOOR_COLOR = new Color(245, 245, 245);
   private static final Color SEPARATOR_COLOR = Color.BLACK;
-  private static final Color SHAFT_COLOR = new Color(220, 220, 220);
-  private static final Color SHAFT_BORDER_COLOR = Color.DARK_GRAY;
   private static final Color CALL_BUTTON_COLOR = Color.BLACK;
-  private static final Color PASSENGER_AREA_COLOR = new Color(255, 255, 240);
 
   public FloorViewPanel(ElevatorModel elevatorModel) {
     this.numFloors = elevatorModel.getFloors().size();
-    this.floorPanels = new ArrayList<>();
-    this.elevatorShafts = new ArrayList<>();
-    this.callButtons = new ArrayList<>();
-    this.passengerAreas = new ArrayList<>();
-    this.elevatorCar = new ElevatorCarView();
+    this.floorPanels = new JPanel[numFloors];
+    this.elevatorShafts = new JPanel[numFloors][];
+    this.passengerAreas = new JPanel[numFloors];
+    int carCount = elevatorModel.getElevators().size();
+    this.cars = new ElevatorCarView[carCount];
+    this.carFloors = new int[carCount];
+    for (int car = 0; car < carCount; car++) {
+      cars[car] = new ElevatorCarView();
+      // Zoned cars start at their zone's lowest floor, not necessarily floor 1
+      carFloors[car] = elevatorModel.getElevators().get(car).getCurrentFloor();
+    }
+    this.rowWidth = ROW_WIDTH + (carCount - 1) * ELEVATOR_SHAFT_WIDTH;
+    this.floorsContainer = new FloorsContainer();
 
     setupLayout();
-    createFloorPanels();
     setupScrollPane();
     scrollToBottom();
   }
@@ -68,56 +89,83 @@ public class FloorViewPanel extends JPanel {
   private void setupLayout() {
     setLayout(new BorderLayout());
     setBackground(Color.WHITE);
-    setBorder(BorderFactory.createTitledBorder("Building View"));
+    setBorder(ViewResources.BUILDING_VIEW_BORDER);
   }
 
-  private void createFloorPanels() {
-    JPanel floorsContainer = new JPanel();
-    floorsContainer.setLayout(new BoxLayout(floorsContainer, BoxLayout.Y_AXIS));
-    floorsContainer.setBackground(Color.WHITE);
-
-    // Initialize call button list with nulls first
-    for (int i = 0; i < numFloors; i++) {
-      callButtons.add(null);
-    }
-
-    // Create floors from top to bottom (highest floor number first)
-    for (int floor = numFloors; floor >= 1; floor--) {
-      JPanel floorPanel = createSingleFloor(floor);
-      floorPanels.add(0, floorPanel);
+  /** Called with the floor number whenever a floor's row is created */
+  public void setFloorShownListener(IntConsumer floorShownListener) {
+    this.floorShownListener = floorShownListener;
+  }
 
-      floorsContainer.add(floorPanel);
+  /** Called with the floor number when a call button is pressed */
+  public void addCallListener(IntConsumer listener) {
+    callListeners.add(listener);
+  }
 
-      if (floor > 1) {
-        JPanel separator = createSeparator();
-        floorsContainer.add(separator);
+  /** Creates the rows that came into view and drops the ones far out of it */
+  private void updateShownFloors() {
+    Rectangle view = scrollPane.getViewport().getViewRect();
+    int first = Math.max(1, floorAt(view.y + view.height - 1) - SHOWN_MARGIN);
+    int last = Math.min(numFloors, floorAt(view.y) + SHOWN_MARGIN);
+    if (first == firstShown && last == lastShown) {
+      return;
+    }
+    for (int floor = firstShown; floor <= lastShown; floor++) {
+      if (floor < first || floor > last) {
+        floorsContainer.remove(floorPanels[floor - 1]);
+        floorPanels[floor - 1] = null;
+        elevatorShafts[floor - 1] = null;
+        passengerAreas[floor - 1] = null;
       }
     }
+    int previousFirst = firstShown;
+    int previousLast = lastShown;
+    firstShown = first;
+    lastShown = last;
+    for (int floor = first; floor <= last; floor++) {
+      if (floor < previousFirst || floor > previousLast) {
+        JPanel floorPanel = createSingleFloor(floor);
+        floorPanels[floor - 1] = floorPanel;
+        floorsContainer.add(floorPanel);
+        floorPanel.setBounds(0, yOf(floor), floorsContainer.getWidth(), FLOOR_HEIGHT);
+        for (int car = 0; car < cars.length; car++) {
+          if (carFloors[car] == floor) {
+            elevatorShafts[floor - 1][car].add(cars[car], BorderLayout.CENTER);
+          }
+        }
+        floorShownListener.accept(floor);
+      }
+    }
+    floorsContainer.validate();
+    floorsContainer.repaint();
+  }
 
-    scrollPane = new JScrollPane(floorsContainer);
-    add(scrollPane, BorderLayout.CENTER);
+  /** Top of a floor's row; the highest floor is at the top */
+  private int yOf(int floorNumber) {
+    return (numFloors - floorNumber) * ROW_HEIGHT;
+  }
+
+  private int floorAt(int y) {
+    return Math.max(1, Math.min(numFloors, numFloors - y / ROW_HEIGHT));
   }
 
   private JPanel createSingleFloor(int floorNumber) {
     JPanel floor = new JPanel(new BorderLayout());
     floor.setPreferredSize(new Dimension(0, FLOOR_HEIGHT));
     floor.setMinimumSize(new Dimension(300, FLOOR_HEIGHT));
-    floor.setBackground(FLOOR_COLOR);
-    floor.setBorder(BorderFactory.createEmptyBorder(15, 20, 15, 20));
+    floor.setBackground(ViewResources.FLOOR_COLOR);
+    floor.setBorder(ViewResources.FLOOR_BORDER);
 
     // Floor number label
     JLabel floorLabel = new JLabel(String.valueOf(floorNumber), SwingConstants.CENTER);
-    floorLabel.setFont(new Font("Arial", Font.BOLD, 12));
+    floorLabel.setFont(ViewResources.BOLD_FONT);
     floorLabel.setPreferredSize(new Dimension(35, 25));
-    floorLabel.setBorder(
-        BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(Color.GRAY, 1),
-            BorderFactory.createEmptyBorder(3, 6, 3, 6)));
+    floorLabel.setBorder(ViewResources.FLOOR_LABEL_BORDER);
     floorLabel.setOpaque(true);
     floorLabel.setBackground(Color.WHITE);
 
     JPanel labelWrapper = new JPanel(new FlowLayout(FlowLayout.CENTER, 15, 0));
-    labelWrapper.setBackground(FLOOR_COLOR);
+    labelWrapper.setBackground(ViewResources.FLOOR_COLOR);
     labelWrapper.add(floorLabel);
 
     floor.add(labelWrapper, BorderLayout.WEST);
@@ -131,13 +179,19 @@ public class FloorViewPanel extends JPanel {
 
   private JPanel createFloorContentArea(int floorNumber) {
     JPanel contentArea = new JPanel(new BorderLayout());
-    contentArea.setBackground(FLOOR_COLOR);
-    contentArea.setBorder(BorderFactory.createEmptyBorder(10, 15, 10, 15));
-
-    // Elevator shaft on the left
-    JPanel elevatorShaft = createElevatorShaft(floorNumber);
-    elevatorShafts.add(elevatorShaft);
-    contentArea.add(elevatorShaft, BorderLayout.WEST);
+    contentArea.setBackground(ViewResources.FLOOR_COLOR);
+    contentArea.setBorder(ViewResources.FLOOR_CONTENT_BORDER);
+
+    // One elevator shaft per car on the left
+    JPanel shaftRow = new JPanel(new GridLayout(1, cars.length));
+    shaftRow.setBackground(ViewResources.FLOOR_COLOR);
+    JPanel[] shafts = new JPanel[cars.length];
+    for (int car = 0; car < cars.length; car++) {
+      shafts[car] = createElevatorShaft();
+      shaftRow.add(shafts[car]);
+    }
+    elevatorShafts[floorNumber - 1] = shafts;
+    contentArea.add(shaftRow, BorderLayout.WEST);
 
     // Call button and passenger area on the right
     JPanel rightPanel = createRightPanel(floorNumber);
@@ -146,31 +200,23 @@ public class FloorViewPanel extends JPanel {
     return contentArea;
   }
 
-  private JPanel createElevatorShaft(int floorNumber) {
+  private JPanel createElevatorShaft() {
     JPanel shaft = new JPanel(new BorderLayout());
     shaft.setPreferredSize(new Dimension(ELEVATOR_SHAFT_WIDTH, FLOOR_HEIGHT - 30));
     shaft.setMinimumSize(new Dimension(ELEVATOR_SHAFT_WIDTH, FLOOR_HEIGHT - 30));
     shaft.setMaximumSize(new Dimension(ELEVATOR_SHAFT_WIDTH, FLOOR_HEIGHT - 30));
-    shaft.setBackground(SHAFT_COLOR);
+    shaft.setBackground(ViewResources.SHAFT_COLOR);
 
     // Add borders for continuous shaft walls
-    shaft.setBorder(
-        BorderFactory.createCompoundBorder(
-            BorderFactory.createMatteBorder(
-                0, SHAFT_WALL_WIDTH, 0, SHAFT_WALL_WIDTH, SHAFT_BORDER_COLOR),
-            BorderFactory.createEmptyBorder(10, 5, 10, 5)));
-
-    // Placeholder for elevator car (will be added later)
-    JLabel shaftLabel = new JLabel("", SwingConstants.CENTER);
-    shaft.add(shaftLabel, BorderLayout.CENTER);
+    shaft.setBorder(ViewResources.SHAFT_BORDER);
 
     return shaft;
   }
 
   private JPanel createRightPanel(int floorNumber) {
     JPanel rightPanel = new JPanel(new BorderLayout());
-    rightPanel.setBackground(FLOOR_COLOR);
-    rightPanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 0, 0));
+    rightPanel.setBackground(ViewResources.FLOOR_COLOR);
+    rightPanel.setBorder(ViewResources.CALL_PANEL_BORDER);
 
     // Call button panel on the left side of right panel
     JPanel callButtonPanel = createCallButtonPanel(floorNumber);
@@ -178,7 +224,7 @@ public class FloorViewPanel extends JPanel {
 
     // Passenger area on the right side
     JPanel passengerArea = createPassengerArea(floorNumber);
-    passengerAreas.add(passengerArea);
+    passengerAreas[floorNumber - 1] = passengerArea;
     rightPanel.add(passengerArea, BorderLayout.CENTER);
 
     return rightPanel;
@@ -186,17 +232,16 @@ public class FloorViewPanel extends JPanel {
 
   private JPanel createCallButtonPanel(int floorNumber) {
     JPanel buttonPanel = new JPanel(new BorderLayout());
-    buttonPanel.setBackground(FLOOR_COLOR);
+    buttonPanel.setBackground(ViewResources.FLOOR_COLOR);
     buttonPanel.setPreferredSize(new Dimension(80, FLOOR_HEIGHT - 30));
-    buttonPanel.setBorder(BorderFactory.createEmptyBorder(10, 8, 10, 8));
+    buttonPanel.setBorder(ViewResources.CALL_BUTTON_PANEL_BORDER);
 
     // Single call button for every floor
     JButton callButton = createCallButton(floorNumber);
-    callButtons.set(floorNumber - 1, callButton);
 
     // Center the button vertically in the panel
     JPanel centerWrapper = new JPanel(new FlowLayout(FlowLayout.CENTER, 0, 20));
-    centerWrapper.setBackground(FLOOR_COLOR);
+    centerWrapper.setBackground(ViewResources.FLOOR_COLOR);
     centerWrapper.add(callButton);
 
     buttonPanel.add(centerWrapper, BorderLayout.SOUTH);
@@ -211,79 +256,70 @@ public class FloorViewPanel extends JPanel {
     button.setMaximumSize(new Dimension(CALL_BUTTON_WIDTH, CALL_BUTTON_HEIGHT));
     button.setBackground(CALL_BUTTON_COLOR);
     button.setFocusPainted(false);
-    button.setBorder(BorderFactory.createRaisedBevelBorder());
+    button.setBorder(ViewResources.CALL_BUTTON_BORDER);
     button.setOpaque(true);
 
-    // Store floor info for later use by controller
-    button.putClientProperty("floor", floorNumber);
+    button.addActionListener(
+        e -> {
+          for (IntConsumer listener : callListeners) {
+            listener.accept(floorNumber);
+          }
+        });
 
     return button;
   }
 
   private JPanel createPassengerArea(int floorNumber) {
     JPanel passengerArea = new JPanel(new FlowLayout(FlowLayout.LEFT, 3, 3));
-    passengerArea.setBackground(PASSENGER_AREA_COLOR);
-    passengerArea.setBorder(
-        BorderFactory.createCompoundBorder(
-            BorderFactory.createTitledBorder("Passengers"),
-            BorderFactory.createEmptyBorder(8, 8, 8, 8)));
+    passengerArea.setBackground(ViewResources.PASSENGER_AREA_COLOR);
+    passengerArea.setBorder(ViewResources.PASSENGER_AREA_BORDER);
     passengerArea.setPreferredSize(new Dimension(250, FLOOR_HEIGHT - 30));
 
     // Initially empty - passengers will be added by controller
     JLabel emptyLabel = new JLabel("No passengers", SwingConstants.CENTER);
-    emptyLabel.setFont(new Font("Arial", Font.ITALIC, 11));
+    emptyLabel.setFont(ViewResources.HINT_FONT);
     emptyLabel.setForeground(Color.GRAY);
     passengerArea.add(emptyLabel);
 
     return passengerArea;
   }
 
-  public void updateElevatorPosition(int currentFloor) {
-    // Remove elevator from all shafts first
-    for (JPanel shaft : elevatorShafts) {
-      shaft.removeAll();
+  /** Moves a car (0-based) to a floor; does nothing if it is already there */
+  public void updateElevatorPosition(int car, int currentFloor) {
+    if (currentFloor == carFloors[car] || currentFloor < 1 || currentFloor > numFloors) {
+      return;
     }
-
-    // Add elevator to current floor shaft (floors are 1-indexed, list is 0-indexed)
-    if (currentFloor >= 1 && currentFloor <= numFloors) {
-      JPanel currentShaft = elevatorShafts.get(numFloors - currentFloor); // Reverse order
-      currentShaft.setLayout(new BorderLayout());
-      currentShaft.add(elevatorCar, BorderLayout.CENTER);
+    // Only the two shafts involved change, and only if their floors are shown
+    JPanel[] oldShafts = elevatorShafts[carFloors[car] - 1];
+    if (oldShafts != null) {
+      oldShafts[car].remove(cars[car]);
+      oldShafts[car].revalidate();
+      oldShafts[car].repaint();
     }
-
-    // Refresh all shafts
-    for (JPanel shaft : elevatorShafts) {
-      shaft.revalidate();
-      shaft.repaint();
+    carFloors[car] = currentFloor;
+    JPanel[] newShafts = elevatorShafts[currentFloor - 1];
+    if (newShafts != null) {
+      newShafts[car].add(cars[car], BorderLayout.CENTER);
+      newShafts[car].revalidate();
+      newShafts[car].repaint();
     }
   }
 
-  public ElevatorCarView getElevatorCar() {
-    return elevatorCar;
+  public ElevatorCarView getElevatorCar(int car) {
+    return cars[car];
   }
 
-  private JPanel createSeparator() {
-    JPanel separator = new JPanel() {
-      @Override
-      protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        g.setColor(SEPARATOR_COLOR);
-        g.fillRect(0, 0, getWidth(), getHeight());
-      }
-    };
-
-    separator.setPreferredSize(new Dimension(0, SEPARATOR_HEIGHT));
-    separator.setMinimumSize(new Dimension(0, SEPARATOR_HEIGHT));
-    separator.setMaximumSize(new Dimension(Integer.MAX_VALUE, SEPARATOR_HEIGHT));
-    separator.setOpaque(true);
-
-    return separator;
+  public int getCarCount() {
+    return cars.length;
   }
 
   private void setupScrollPane() {
+    scrollPane = new JScrollPane(floorsContainer);
     scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
     scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
     scrollPane.getVerticalScrollBar().setUnitIncrement(16);
+    scrollPane.getViewport().addChangeListener(e -> updateShownFloors());
+    add(scrollPane, BorderLayout.CENTER);
   }
 
   private void scrollToBottom() {
@@ -294,43 +330,21 @@ public class FloorViewPanel extends JPanel {
         });
   }
 
-  // Getter methods for controller access
-  public List<JPanel> getFloorPanels() {
-    return floorPanels;
-  }
-
-  public List<JPanel> getElevatorShafts() {
-    return elevatorShafts;
-  }
-
-  public List<JButton> getCallButtons() {
-    return callButtons;
-  }
-
-  public List<JPanel> getPassengerAreas() {
-    return passengerAreas;
-  }
-
-  public JButton getCallButton(int floorNumber) {
+  /** The floor's passenger area, or null while the floor is not shown */
+  public JPanel getPassengerArea(int floorNumber) {
     if (floorNumber >= 1 && floorNumber <= numFloors) {
-      return callButtons.get(floorNumber - 1);
+      return passengerAreas[floorNumber - 1];
     }
     return null;
   }
 
-  public JPanel getPassengerArea(int floorNumber) {
-    if (floorNumber >= 1 && floorNumber <= numFloors) {
-      return passengerAreas.get(floorNumber - 1);
-    }
-    return null;
+  public boolean isFloorShown(int floorNumber) {
+    return floorNumber >= firstShown && floorNumber <= lastShown;
   }
 
   public void scrollToFloor(int floorNumber) {
     if (floorNumber >= 1 && floorNumber <= numFloors) {
-      JPanel targetFloor = floorPanels.get(floorNumber - 1);
-      if (targetFloor != null) {
-        targetFloor.scrollRectToVisible(new Rectangle(0, 0, 1, 1));
-      }
+      floorsContainer.scrollRectToVisible(new Rectangle(0, yOf(floorNumber), 1, FLOOR_HEIGHT));
     }
   }
 
@@ -350,7 +364,7 @@ public class FloorViewPanel extends JPanel {
       // Add passenger representation
       JLabel passengerLabel = new JLabel("👤");
       passengerLabel.setToolTipText(passengerInfo);
-      passengerLabel.setFont(new Font("Arial", Font.PLAIN, 16));
+      passengerLabel.setFont(ViewResources.PASSENGER_FONT);
       passengerArea.add(passengerLabel);
 
       passengerArea.revalidate();
@@ -358,22 +372,76 @@ public class FloorViewPanel extends JPanel {
     }
   }
 
-  // Method to remove passenger from floor
-  public void removePassengerFromFloor(int floorNumber, int passengerIndex) {
-    JPanel passengerArea = getPassengerArea(floorNumber);
-    if (passengerArea != null && passengerIndex < passengerArea.getComponentCount()) {
-      passengerArea.remove(passengerIndex);
-
-      // Add "No passengers" label back if area is empty
-      if (passengerArea.getComponentCount() == 0) {
-        JLabel emptyLabel = new JLabel("No passengers", SwingConstants.CENTER);
-        emptyLabel.setFont(new Font("Arial", Font.ITALIC, 11));
-        emptyLabel.setForeground(Color.GRAY);
-        passengerArea.add(emptyLabel);
+  /**
+   * Holds the shown rows at fixed positions and paints separators, plus a
+   * skeleton for floors whose row has not been created yet.
+   */
+  private final class FloorsContainer extends JPanel implements Scrollable {
+    FloorsContainer() {
+      super(null);
+      setBackground(Color.WHITE);
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+      return new Dimension(rowWidth, numFloors * ROW_HEIGHT - SEPARATOR_HEIGHT);
+    }
+
+    @Override
+    public void doLayout() {
+      for (int floor = firstShown; floor <= lastShown; floor++) {
+        if (floorPanels[floor - 1] != null) {
+          floorPanels[floor - 1].setBounds(0, yOf(floor), getWidth(), FLOOR_HEIGHT);
+        }
+      }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+      super.paintComponent(g);
+      Rectangle clip = g.getClipBounds();
+      if (clip == null) {
+        clip = new Rectangle(0, 0, getWidth(), getHeight());
+      }
+      g.setFont(ViewResources.BOLD_FONT);
+      for (int floor = floorAt(clip.y + clip.height - 1); floor <= floorAt(clip.y); floor++) {
+        int y = yOf(floor);
+        if (floor > 1) {
+          g.setColor(SEPARATOR_COLOR);
+          g.fillRect(0, y + FLOOR_HEIGHT, getWidth(), SEPARATOR_HEIGHT);
+        }
+        if (!isFloorShown(floor)) {
+          g.setColor(ViewResources.FLOOR_COLOR);
+          g.fillRect(0, y, getWidth(), FLOOR_HEIGHT);
+          g.setColor(Color.GRAY);
+          g.drawString(String.valueOf(floor), 32, y + FLOOR_HEIGHT / 2);
+        }
       }
+    }
 
-      passengerArea.revalidate();
-      passengerArea.repaint();
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+      return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+      return 16;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+      return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+      return getParent() != null && getParent().getWidth() >= rowWidth;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+      return false;
     }
   }
 }
@@ -0,0 +1,152 @@
+package pl.liftsim.view;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.util.Arrays;
+
+import javax.swing.JPanel;
+
+/**
+ * Line chart of one evenly sampled series, e.g. a floor's queue length over
+ * the whole run. However many samples there are, every pixel column draws
+ * one bar from the smallest to the largest sample it covers, so short peaks
+ * stay visible and painting costs the same for an hour or a day.
+ */
+public class HistoryChartPanel extends JPanel {
+  private static final int MARGIN_LEFT = 40;
+  private static final int MARGIN_RIGHT = 12;
+  private static final int MARGIN_TOP = 12;
+  private static final int MARGIN_BOTTOM = 24;
+  private static final Color LINE_COLOR = ViewResources.ACCENT_COLOR;
+  private static final Color FILL_COLOR = new Color(100, 150, 200, 60);
+  private static final Color CURSOR_COLOR = new Color(200, 60, 60);
+
+  private long startTime;
+  private long interval = 1;
+  private int[] values = new int[0];
+  private int size;
+  private int maxValue;
+  private long cursorTime = -1;
+
+  public HistoryChartPanel() {
+    setBackground(Color.WHITE);
+    setBorder(ViewResources.CHART_BORDER);
+    setPreferredSize(new Dimension(600, 240));
+    setFont(ViewResources.SMALL_FONT);
+  }
+
+  /** Replaces the series; {@code values[i]} was sampled at {@code startTime + i * interval}. */
+  public void setHistory(long startTime, long interval, int[] values) {
+    this.startTime = startTime;
+    this.interval = interval;
+    this.values = values;
+    this.size = values.length;
+    this.maxValue = 0;
+    updateMax(0);
+    repaint();
+  }
+
+  /** Adds the samples taken after the last one, so a live chart decodes only what is new */
+  public void appendHistory(int[] more) {
+    if (more.length == 0) {
+      return;
+    }
+    if (size + more.length > values.length) {
+      values = Arrays.copyOf(values, Math.max(size + more.length, values.length * 2));
+    }
+    System.arraycopy(more, 0, values, size, more.length);
+    int from = size;
+    size += more.length;
+    updateMax(from);
+    repaint();
+  }
+
+  private void updateMax(int from) {
+    for (int i = from; i < size; i++) {
+      maxValue = Math.max(maxValue, values[i]);
+    }
+  }
+
+  /** Marks the simulated time currently shown by the building view, or -1 for none */
+  public void setCursorTime(long cursorTime) {
+    if (this.cursorTime != cursorTime) {
+      this.cursorTime = cursorTime;
+      repaint();
+    }
+  }
+
+  @Override
+  protected void paintComponent(Graphics g) {
+    super.paintComponent(g);
+    Graphics2D g2d = (Graphics2D) g.create();
+    int left = getInsets().left + MARGIN_LEFT;
+    int top = getInsets().top + MARGIN_TOP;
+    int width = getWidth() - left - getInsets().right - MARGIN_RIGHT;
+    int height = getHeight() - top - getInsets().bottom - MARGIN_BOTTOM;
+    if (width <= 0 || height <= 0) {
+      g2d.dispose();
+      return;
+    }
+
+    FontMetrics metrics = g2d.getFontMetrics();
+    int scale = Math.max(1, maxValue);
+    g2d.setColor(Color.GRAY);
+    g2d.drawLine(left, top, left, top + height);
+    g2d.drawLine(left, top + height, left + width, top + height);
+    String maxLabel = String.valueOf(scale);
+    g2d.drawString(
+        maxLabel, left - 4 - metrics.stringWidth(maxLabel), top + metrics.getAscent() / 2);
+    g2d.drawString("0", left - 4 - metrics.stringWidth("0"), top + height);
+
+    if (size == 0) {
+      g2d.drawString("No samples yet", left + 8, top + height / 2);
+      g2d.dispose();
+      return;
+    }
+    long endTime = startTime + (size - 1) * interval;
+    int labelY = top + height + metrics.getAscent() + 4;
+    g2d.drawString(formatTime(startTime), left, labelY);
+    String endLabel = formatTime(endTime);
+    g2d.drawString(endLabel, left + width - metrics.stringWidth(endLabel), labelY);
+
+    int previousY = -1;
+    for (int x = 0; x < width; x++) {
+      int from = (int) ((long) x * size / width);
+      int to = Math.max(from + 1, (int) ((long) (x + 1) * size / width));
+      int min = Integer.MAX_VALUE;
+      int max = Integer.MIN_VALUE;
+      for (int i = from; i < Math.min(to, size); i++) {
+        min = Math.min(min, values[i]);
+        max = Math.max(max, values[i]);
+      }
+      if (max == Integer.MIN_VALUE) {
+        continue;
+      }
+      int yMin = top + height - min * height / scale;
+      int yMax = top + height - max * height / scale;
+      g2d.setColor(FILL_COLOR);
+      g2d.drawLine(left + x, yMax, left + x, top + height);
+      g2d.setColor(LINE_COLOR);
+      // Join the previous column so a sparse series still reads as a line
+      int joinFrom = previousY < 0 ? yMax : Math.min(previousY, yMax);
+      int joinTo = previousY < 0 ? yMin : Math.max(previousY, yMin);
+      g2d.drawLine(left + x, joinFrom, left + x, joinTo);
+      previousY = top + height - values[Math.min(to, size) - 1] * height / scale;
+    }
+
+    if (cursorTime >= startTime && cursorTime <= endTime && endTime > startTime) {
+      int x = left + (int) ((cursorTime - startTime) * (width - 1) / (endTime - startTime));
+      g2d.setColor(CURSOR_COLOR);
+      g2d.drawLine(x, top, x, top + height);
+    }
+    g2d.dispose();
+  }
+
+  private static String formatTime(long millis) {
+    long seconds = millis / 1000;
+    return String.format("%d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+  }
+}
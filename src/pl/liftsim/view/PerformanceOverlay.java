@@ -0,0 +1,74 @@
+package pl.liftsim.view;
+
+import java.awt.Color;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.util.Arrays;
+
+import javax.swing.JComponent;
+
+/**
+ * Transparent glass pane that draws a few lines of performance figures in a
+ * box in the top right corner of the window. It has no mouse listeners, so
+ * clicks go through to the components underneath, and only the box is
+ * repainted when the figures change.
+ */
+public class PerformanceOverlay extends JComponent {
+  private static final int MARGIN = 8;
+  private static final int PADDING = 6;
+  private static final Color BOX_COLOR = new Color(0, 0, 0, 170);
+
+  private String[] lines = new String[0];
+  private int boxWidth;
+  private int boxHeight;
+
+  public PerformanceOverlay() {
+    setOpaque(false);
+    setVisible(false);
+  }
+
+  /** Replaces the figures shown; does nothing if they did not change */
+  public void setLines(String[] lines) {
+    if (Arrays.equals(this.lines, lines)) {
+      return;
+    }
+    repaintBox();
+    this.lines = lines;
+    FontMetrics metrics = getFontMetrics(ViewResources.MONOSPACED_FONT);
+    int width = 0;
+    for (String line : lines) {
+      width = Math.max(width, metrics.stringWidth(line));
+    }
+    boxWidth = width + 2 * PADDING;
+    boxHeight = lines.length * metrics.getHeight() + 2 * PADDING;
+    repaintBox();
+  }
+
+  private void repaintBox() {
+    repaint(getWidth() - MARGIN - boxWidth, MARGIN, boxWidth, boxHeight);
+  }
+
+  @Override
+  protected void paintComponent(Graphics g) {
+    if (lines.length == 0) {
+      return;
+    }
+    Graphics2D g2d = (Graphics2D) g.create();
+    g2d.setRenderingHint(
+        RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+    int x = getWidth() - MARGIN - boxWidth;
+    g2d.setColor(BOX_COLOR);
+    g2d.fillRoundRect(x, MARGIN, boxWidth, boxHeight, 8, 8);
+    g2d.setFont(ViewResources.MONOSPACED_FONT);
+    g2d.setColor(Color.WHITE);
+    FontMetrics metrics = g2d.getFontMetrics();
+    int y = MARGIN + PADDING + metrics.getAscent();
+    for (String line : lines) {
+      g2d.drawString(line, x + PADDING, y);
+      y += metrics.getHeight();
+    }
+    g2d.dispose();
+  }
+}
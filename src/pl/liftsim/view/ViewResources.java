@@ -0,0 +1,82 @@
+package pl.liftsim.view;
+
+import java.awt.Color;
+import java.awt.Font;
+
+import javax.swing.BorderFactory;
+import javax.swing.border.Border;
+
+/**
+ * Fonts, colours and borders shared by the view classes. Fonts and colours
+ * are immutable and borders are never changed after construction, so one
+ * instance can serve every component that uses it. Creating them per
+ * component, per floor or per refresh instead costs allocation on the EDT
+ * and, in a tall building, a lot of retained heap. Components must not call
+ * setters on a shared border.
+ */
+public final class ViewResources {
+  private ViewResources() {}
+
+  public static final Font SMALL_FONT = new Font("Arial", Font.PLAIN, 11);
+  public static final Font HINT_FONT = new Font("Arial", Font.ITALIC, 11);
+  public static final Font LABEL_FONT = new Font("Arial", Font.PLAIN, 12);
+  public static final Font BOLD_FONT = new Font("Arial", Font.BOLD, 12);
+  public static final Font LARGE_BOLD_FONT = new Font("Arial", Font.BOLD, 14);
+  public static final Font CAR_FONT = new Font("Arial", Font.BOLD, 10);
+  public static final Font PASSENGER_FONT = new Font("Arial", Font.PLAIN, 16);
+  public static final Font MONOSPACED_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+
+  /** Every font above, e.g. for loading them ahead of the first paint */
+  static final Font[] FONTS = {
+    SMALL_FONT,
+    HINT_FONT,
+    LABEL_FONT,
+    BOLD_FONT,
+    LARGE_BOLD_FONT,
+    CAR_FONT,
+    PASSENGER_FONT,
+    MONOSPACED_FONT
+  };
+
+  /** Cars, car markers and chart lines */
+  public static final Color ACCENT_COLOR = new Color(100, 150, 200);
+  public static final Color FLOOR_COLOR = new Color(245, 245, 245);
+  public static final Color SHAFT_COLOR = new Color(220, 220, 220);
+  public static final Color PASSENGER_AREA_COLOR = new Color(255, 255, 240);
+
+  public static final Border FLOOR_BORDER = BorderFactory.createEmptyBorder(15, 20, 15, 20);
+  public static final Border FLOOR_LABEL_BORDER =
+      BorderFactory.createCompoundBorder(
+          BorderFactory.createLineBorder(Color.GRAY, 1),
+          BorderFactory.createEmptyBorder(3, 6, 3, 6));
+  public static final Border FLOOR_CONTENT_BORDER =
+      BorderFactory.createEmptyBorder(10, 15, 10, 15);
+  public static final Border SHAFT_BORDER =
+      BorderFactory.createCompoundBorder(
+          BorderFactory.createMatteBorder(0, 3, 0, 3, Color.DARK_GRAY),
+          BorderFactory.createEmptyBorder(10, 5, 10, 5));
+  public static final Border CALL_PANEL_BORDER = BorderFactory.createEmptyBorder(0, 10, 0, 0);
+  public static final Border CALL_BUTTON_PANEL_BORDER =
+      BorderFactory.createEmptyBorder(10, 8, 10, 8);
+  public static final Border PASSENGER_AREA_BORDER =
+      BorderFactory.createCompoundBorder(
+          BorderFactory.createTitledBorder("Passengers"),
+          BorderFactory.createEmptyBorder(8, 8, 8, 8));
+  public static final Border CAR_BORDER = BorderFactory.createLineBorder(Color.DARK_GRAY, 2);
+  public static final Border CALL_BUTTON_BORDER = BorderFactory.createRaisedBevelBorder();
+
+  public static final Border CONTROL_WRAPPER_BORDER =
+      BorderFactory.createCompoundBorder(
+          BorderFactory.createTitledBorder("Elevator Control Panel"),
+          BorderFactory.createEmptyBorder(10, 10, 10, 10));
+  public static final Border BUILDING_VIEW_BORDER =
+      BorderFactory.createTitledBorder("Building View");
+  public static final Border FLOOR_CONTROL_BORDER =
+      BorderFactory.createCompoundBorder(
+          BorderFactory.createLineBorder(Color.BLACK, 2),
+          BorderFactory.createEmptyBorder(10, 10, 10, 10));
+  public static final Border CONTROL_PANEL_BORDER =
+      BorderFactory.createTitledBorder("Control Panel");
+  public static final Border OVERVIEW_BORDER = BorderFactory.createTitledBorder("Overview");
+  public static final Border CHART_BORDER = BorderFactory.createEmptyBorder(4, 4, 4, 4);
+}